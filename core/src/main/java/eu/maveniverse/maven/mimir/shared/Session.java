@@ -11,9 +11,11 @@ import eu.maveniverse.maven.mimir.shared.mirror.MirroredRemoteRepository;
 import java.io.Closeable;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.repository.RemoteRepository;
 
@@ -48,6 +50,37 @@ public interface Session extends Closeable {
      */
     Optional<Entry> locate(RemoteRepository remoteRepository, Artifact artifact) throws IOException;
 
+    /**
+     * Locates cache entry by key and if found, transfers it to given file in one go. This is the common "cache hit"
+     * path: returned entry (if present) is already transferred.
+     *
+     * @see Entry#transferTo(Path)
+     */
+    Optional<Entry> locate(RemoteRepository remoteRepository, Artifact artifact, Path file) throws IOException;
+
+    /**
+     * Locates cache entry of given artifact stored from any repository, with content proven same by given trusted
+     * checksums (checksums not originating from Mimir, like those published by remote repository). Entry is returned
+     * only if it has at least one of given checksums, and all of those match. Returns empty if
+     * {@link SessionConfig#crossRepositoryHits()} is disabled, or local node cannot locate entries by checksums.
+     */
+    Optional<Entry> locateByChecksums(
+            RemoteRepository remoteRepository, Artifact artifact, Map<String, String> trustedChecksums)
+            throws IOException;
+
+    /**
+     * Locates cache entries of given artifacts in one go. Returned map contains located entries only.
+     */
+    Map<Artifact, Entry> locate(RemoteRepository remoteRepository, Collection<Artifact> artifacts) throws IOException;
+
+    /**
+     * Transfers entries (located using this session) to given files in one go. Returns failures by file, hence empty
+     * map means all transfers succeeded.
+     *
+     * @see Entry#transferTo(Path)
+     */
+    Map<Path, IOException> transferAll(Map<Path, Entry> transfers);
+
     /**
      * Stores entry under given cache key.
      */
@@ -59,6 +92,19 @@ public interface Session extends Closeable {
             Map<String, String> checksums)
             throws IOException;
 
+    /**
+     * Stores entry under given cache key asynchronously: the returned future completes when entry is stored. Callers
+     * may fire several stores and wait for them at once, overlapping work done by local node.
+     *
+     * @see #store(RemoteRepository, Artifact, Path, Map, Map)
+     */
+    CompletableFuture<Void> storeAsync(
+            RemoteRepository remoteRepository,
+            Artifact artifact,
+            Path file,
+            Map<String, String> metadata,
+            Map<String, String> checksums);
+
     /**
      * May stores entry under given cache key, if it did not originate from cache. Returns {@code true} if stored.
      */
@@ -152,6 +152,17 @@ public interface SessionConfig {
      */
     Set<String> mirrors();
 
+    /**
+     * Whether a miss of an artifact in a repository may be satisfied by an entry of another repository, if content
+     * is proven same by trusted checksums. Requires local node able to locate entries by checksums.
+     * <p>
+     * Configuration key {@code mimir.session.crossRepositoryHits}, by default {@code false}.
+     *
+     * @see Session#locateByChecksums(org.eclipse.aether.repository.RemoteRepository,
+     *     org.eclipse.aether.artifact.Artifact, Map)
+     */
+    boolean crossRepositoryHits();
+
     // components on/off
 
     boolean resolverConnectorEnabled();
@@ -364,6 +375,7 @@ public interface SessionConfig {
             private final LocalNode localNodeInstance;
             private final Set<String> repositories;
             private final Set<String> mirrors;
+            private final boolean crossRepositoryHits;
 
             private Impl(
                     Boolean enabled,
@@ -426,6 +438,7 @@ public interface SessionConfig {
                 String localNode = localNodeInstance != null ? localNodeInstance.name() : "daemon";
                 Set<String> repositories = RemoteRepositories.DEFAULT;
                 Set<String> mirrors = Set.of();
+                boolean crossRepositoryHits = false;
 
                 if (effectiveProperties.containsKey("mimir.session.overlayNodes")) {
                     overlayNodes = Set.copyOf(Arrays.asList(effectiveProperties
@@ -443,11 +456,16 @@ public interface SessionConfig {
                     String value = effectiveProperties.get("mimir.session.mirrors");
                     mirrors = Set.copyOf(Arrays.asList(value.split(",")));
                 }
+                if (effectiveProperties.containsKey("mimir.session.crossRepositoryHits")) {
+                    crossRepositoryHits =
+                            Boolean.parseBoolean(effectiveProperties.get("mimir.session.crossRepositoryHits"));
+                }
 
                 this.overlayNodes = overlayNodes;
                 this.localNode = localNode;
                 this.repositories = repositories;
                 this.mirrors = mirrors;
+                this.crossRepositoryHits = crossRepositoryHits;
             }
 
             @Override
@@ -531,6 +549,11 @@ public interface SessionConfig {
                 return mirrors;
             }
 
+            @Override
+            public boolean crossRepositoryHits() {
+                return crossRepositoryHits;
+            }
+
             @Override
             public boolean resolverConnectorEnabled() {
                 return resolverConnectorEnabled;
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import java.util.Locale;
+
+/**
+ * Configuration of executors created by {@link Executors}.
+ */
+public final class ExecutorConfig {
+    /**
+     * The executor mode.
+     */
+    public enum Mode {
+        /**
+         * Virtual threads on Java 21+, bounded thread pool otherwise.
+         */
+        AUTO,
+        /**
+         * Virtual threads; on Java versions not supporting them, falls back to bounded thread pool.
+         */
+        VIRTUAL,
+        /**
+         * Bounded thread pool, regardless of Java version.
+         */
+        BOUNDED
+    }
+
+    public static ExecutorConfig defaults() {
+        return new ExecutorConfig(Mode.AUTO, defaultThreads());
+    }
+
+    public static ExecutorConfig with(SessionConfig sessionConfig) {
+        requireNonNull(sessionConfig, "config");
+
+        Mode mode = Mode.AUTO;
+        int threads = defaultThreads();
+
+        if (sessionConfig.effectiveProperties().containsKey("mimir.executor.mode")) {
+            mode = Mode.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.executor.mode")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.executor.threads")) {
+            threads = Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.executor.threads"));
+            if (threads < 1) {
+                throw new IllegalArgumentException("Invalid mimir.executor.threads: " + threads);
+            }
+        }
+        return new ExecutorConfig(mode, threads);
+    }
+
+    private static int defaultThreads() {
+        // no need for more than 12; but recommended is to use Mimir in Java 21+
+        return Math.max(1, Math.min(12, Runtime.getRuntime().availableProcessors() - 1));
+    }
+
+    private final Mode mode;
+    private final int threads;
+
+    private ExecutorConfig(Mode mode, int threads) {
+        this.mode = requireNonNull(mode);
+        this.threads = threads;
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * The count of threads in bounded thread pool.
+     */
+    public int threads() {
+        return threads;
+    }
+
+    @Override
+    public String toString() {
+        return mode + "(threads=" + threads + ")";
+    }
+}
@@ -7,19 +7,35 @@
  */
 package eu.maveniverse.maven.mimir.shared.impl;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.LoggerFactory;
 
 /**
- * In pre-21 we use plain old thread pool.
+ * In pre-21 we use plain old thread pool; virtual threads are not available, hence {@link ExecutorConfig.Mode#VIRTUAL}
+ * falls back to bounded pool as well.
  */
 public final class Executors {
     private Executors() {}
 
     private static final AtomicBoolean executorWarned = new AtomicBoolean(false);
 
+    private static final AtomicBoolean virtualWarned = new AtomicBoolean(false);
+
     public static ExecutorService executorService() {
+        return executorService(ExecutorConfig.defaults());
+    }
+
+    public static ExecutorService executorService(ExecutorConfig executorConfig) {
+        requireNonNull(executorConfig, "executorConfig");
+        if (executorConfig.mode() == ExecutorConfig.Mode.VIRTUAL && virtualWarned.compareAndSet(false, true)) {
+            LoggerFactory.getLogger(Executors.class)
+                    .warn(
+                            "Virtual threads require Java 21+; using bounded pool of {} threads",
+                            executorConfig.threads());
+        }
         // Mimir targets dev Workstations; they are usually multicore; on low-end systems see below for configuration
         if (Runtime.getRuntime().availableProcessors() < 3) {
             if (executorWarned.compareAndSet(false, true)) {
@@ -27,8 +43,16 @@ public final class Executors {
                         .warn("Low-end hardware/VM; use `mimir.session.localNode=file` in session.properties instead");
             }
         }
-        // no need for more than 12; but recommended is to use Mimir in Java 21+
-        return java.util.concurrent.Executors.newFixedThreadPool(
-                Math.max(1, Math.min(12, Runtime.getRuntime().availableProcessors() - 1)));
+        return java.util.concurrent.Executors.newFixedThreadPool(executorConfig.threads());
+    }
+
+    /**
+     * Creates (not started) daemon thread for long-running tasks, like serving a connection.
+     */
+    public static Thread thread(ExecutorConfig executorConfig, String name, Runnable runnable) {
+        requireNonNull(executorConfig, "executorConfig");
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
     }
 }
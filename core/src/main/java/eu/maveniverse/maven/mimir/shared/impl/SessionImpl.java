@@ -12,6 +12,7 @@ import static java.util.Objects.requireNonNull;
 import eu.maveniverse.maven.mimir.shared.Entry;
 import eu.maveniverse.maven.mimir.shared.Session;
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumEngine;
 import eu.maveniverse.maven.mimir.shared.mirror.MirroredRemoteRepository;
 import eu.maveniverse.maven.mimir.shared.naming.UriEncoders;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
@@ -20,16 +21,21 @@ import eu.maveniverse.maven.shared.core.component.CloseableConfigSupport;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactory;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactorySelector;
-import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmHelper;
 import org.eclipse.aether.util.artifact.ArtifactIdUtils;
 
 public final class SessionImpl extends CloseableConfigSupport<SessionConfig> implements Session {
@@ -113,39 +119,138 @@ public final class SessionImpl extends CloseableConfigSupport<SessionConfig> imp
         requireNonNull(artifact, "artifact");
         if (repositoryPredicate.test(remoteRepository) && artifactPredicate.test(artifact)) {
             URI key = UriEncoders.artifactKeyBuilder(remoteRepository, artifact);
-            Optional<? extends eu.maveniverse.maven.mimir.shared.node.Entry> result = localNode.locate(key);
+            Optional<? extends LocalEntry> result = localNode.locate(key);
             if (result.isPresent()) {
-                LocalEntry entry = (LocalEntry) result.orElseThrow();
-                return stats.doLocate(Optional.of(new Entry() {
-                    @Override
-                    public void transferTo(Path file) throws IOException {
-                        try {
-                            entry.transferTo(file);
-                            stats.doTransfer(true);
-                            retrievedFromCache
-                                    .computeIfAbsent(remoteRepository, k -> ConcurrentHashMap.newKeySet())
-                                    .add(ArtifactIdUtils.toId(artifact));
-                        } catch (IOException e) {
-                            stats.doTransfer(false);
-                            throw e;
-                        }
-                    }
+                return stats.doLocate(Optional.of(new SessionEntry(remoteRepository, artifact, result.orElseThrow())));
+            }
+        }
+        return stats.doLocate(Optional.empty());
+    }
 
-                    @Override
-                    public Map<String, String> metadata() {
-                        return entry.metadata();
-                    }
+    @Override
+    public Optional<Entry> locate(RemoteRepository remoteRepository, Artifact artifact, Path file) throws IOException {
+        checkClosed();
+        requireNonNull(remoteRepository, "remoteRepository");
+        requireNonNull(artifact, "artifact");
+        requireNonNull(file, "file");
+        if (repositoryPredicate.test(remoteRepository) && artifactPredicate.test(artifact)) {
+            URI key = UriEncoders.artifactKeyBuilder(remoteRepository, artifact);
+            Optional<? extends LocalEntry> result;
+            try {
+                result = localNode.locateAndTransfer(key, file);
+            } catch (IOException e) {
+                // located but transfer failed
+                stats.doTransfer(false);
+                throw e;
+            }
+            if (result.isPresent()) {
+                SessionEntry entry = new SessionEntry(remoteRepository, artifact, result.orElseThrow());
+                entry.transferred(true);
+                return stats.doLocate(Optional.of(entry));
+            }
+        }
+        return stats.doLocate(Optional.empty());
+    }
 
-                    @Override
-                    public Map<String, String> checksums() {
-                        return entry.checksums();
-                    }
-                }));
+    @Override
+    public Optional<Entry> locateByChecksums(
+            RemoteRepository remoteRepository, Artifact artifact, Map<String, String> trustedChecksums)
+            throws IOException {
+        checkClosed();
+        requireNonNull(remoteRepository, "remoteRepository");
+        requireNonNull(artifact, "artifact");
+        requireNonNull(trustedChecksums, "trustedChecksums");
+        if (config.crossRepositoryHits()
+                && !trustedChecksums.isEmpty()
+                && repositoryPredicate.test(remoteRepository)
+                && artifactPredicate.test(artifact)) {
+            Optional<URI> key = localNode.locateKey(trustedChecksums);
+            if (key.isPresent()) {
+                Optional<? extends LocalEntry> result = localNode.locate(key.orElseThrow());
+                if (result.isPresent() && sameContent(result.orElseThrow().checksums(), trustedChecksums)) {
+                    logger.debug("Located {} of {} by checksums as {}", artifact, remoteRepository.getId(), key);
+                    return stats.doLocate(
+                            Optional.of(new SessionEntry(remoteRepository, artifact, result.orElseThrow())));
+                }
             }
         }
         return stats.doLocate(Optional.empty());
     }
 
+    /**
+     * Content is same if there is at least one common checksum, and all common checksums are equal.
+     */
+    private static boolean sameContent(Map<String, String> checksums, Map<String, String> trustedChecksums) {
+        int common = 0;
+        for (Map.Entry<String, String> trusted : trustedChecksums.entrySet()) {
+            String checksum = checksums.get(trusted.getKey());
+            if (checksum != null) {
+                if (!checksum.equalsIgnoreCase(trusted.getValue())) {
+                    return false;
+                }
+                common++;
+            }
+        }
+        return common > 0;
+    }
+
+    @Override
+    public Map<Artifact, Entry> locate(RemoteRepository remoteRepository, Collection<Artifact> artifacts)
+            throws IOException {
+        checkClosed();
+        requireNonNull(remoteRepository, "remoteRepository");
+        requireNonNull(artifacts, "artifacts");
+        HashMap<Artifact, Entry> result = new HashMap<>();
+        if (repositoryPredicate.test(remoteRepository)) {
+            LinkedHashMap<URI, Artifact> keys = new LinkedHashMap<>();
+            for (Artifact artifact : artifacts) {
+                if (artifactPredicate.test(artifact)) {
+                    keys.put(UriEncoders.artifactKeyBuilder(remoteRepository, artifact), artifact);
+                }
+            }
+            if (!keys.isEmpty()) {
+                Map<URI, ? extends LocalEntry> located = localNode.locateAll(keys.keySet());
+                for (Map.Entry<URI, Artifact> key : keys.entrySet()) {
+                    LocalEntry entry = located.get(key.getKey());
+                    if (entry != null) {
+                        result.put(key.getValue(), new SessionEntry(remoteRepository, key.getValue(), entry));
+                        stats.doLocate(Optional.of(entry));
+                    } else {
+                        stats.doLocate(Optional.empty());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Path, IOException> transferAll(Map<Path, Entry> transfers) {
+        checkClosed();
+        requireNonNull(transfers, "transfers");
+        HashMap<Path, LocalEntry> localTransfers = new HashMap<>();
+        HashMap<Path, IOException> failures = new HashMap<>();
+        for (Map.Entry<Path, Entry> transfer : transfers.entrySet()) {
+            if (transfer.getValue() instanceof SessionEntry sessionEntry && sessionEntry.session() == this) {
+                localTransfers.put(transfer.getKey(), sessionEntry.entry);
+            } else {
+                try {
+                    transfer.getValue().transferTo(transfer.getKey());
+                } catch (IOException e) {
+                    failures.put(transfer.getKey(), e);
+                }
+            }
+        }
+        if (!localTransfers.isEmpty()) {
+            failures.putAll(localNode.transferAll(localTransfers));
+            for (Path file : localTransfers.keySet()) {
+                SessionEntry sessionEntry = (SessionEntry) transfers.get(file);
+                sessionEntry.transferred(!failures.containsKey(file));
+            }
+        }
+        return failures;
+    }
+
     @Override
     public void store(
             RemoteRepository remoteRepository,
@@ -171,6 +276,33 @@ public final class SessionImpl extends CloseableConfigSupport<SessionConfig> imp
         }
     }
 
+    @Override
+    public CompletableFuture<Void> storeAsync(
+            RemoteRepository remoteRepository,
+            Artifact artifact,
+            Path file,
+            Map<String, String> metadata,
+            Map<String, String> checksums) {
+        checkClosed();
+        requireNonNull(remoteRepository, "remoteRepository");
+        requireNonNull(artifact, "artifact");
+        requireNonNull(file, "file");
+        requireNonNull(metadata, "metadata");
+        requireNonNull(checksums, "checksums");
+        if (repositoryPredicate.test(remoteRepository) && artifactPredicate.test(artifact)) {
+            URI key = UriEncoders.artifactKeyBuilder(remoteRepository, artifact);
+            return localNode.storeAsync(key, file, metadata, checksums).thenAccept(entry -> {
+                stats.doStore(Optional.of(entry));
+                storedToCache
+                        .computeIfAbsent(remoteRepository, k -> ConcurrentHashMap.newKeySet())
+                        .add(ArtifactIdUtils.toId(artifact));
+            });
+        } else {
+            stats.doStore(Optional.empty());
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
     @Override
     public boolean mayStore(
             RemoteRepository remoteRepository, Artifact artifact, Path file, Map<String, String> metadata)
@@ -192,13 +324,20 @@ public final class SessionImpl extends CloseableConfigSupport<SessionConfig> imp
                     artifact,
                     file,
                     metadata,
-                    ChecksumAlgorithmHelper.calculate(
-                            artifact.getFile(), checksumAlgorithmFactorySelector.selectList(checksumAlgorithms())));
+                    ChecksumEngine.calculate(artifact.getFile().toPath(), algorithms(checksumAlgorithms())));
             return true;
         }
         return false;
     }
 
+    private Map<String, ChecksumAlgorithm> algorithms(List<String> names) {
+        LinkedHashMap<String, ChecksumAlgorithm> result = new LinkedHashMap<>();
+        for (ChecksumAlgorithmFactory factory : checksumAlgorithmFactorySelector.selectList(names)) {
+            result.put(factory.getName(), factory.getAlgorithm());
+        }
+        return result;
+    }
+
     @Override
     public boolean retrievedFromCache(RemoteRepository remoteRepository, Artifact artifact) {
         requireNonNull(remoteRepository, "remoteRepository");
@@ -217,6 +356,55 @@ public final class SessionImpl extends CloseableConfigSupport<SessionConfig> imp
                 .contains(ArtifactIdUtils.toId(artifact));
     }
 
+    /**
+     * Entry located by this session: wraps node entry, and keeps track of transfers.
+     */
+    private final class SessionEntry implements Entry {
+        private final RemoteRepository remoteRepository;
+        private final Artifact artifact;
+        private final LocalEntry entry;
+
+        private SessionEntry(RemoteRepository remoteRepository, Artifact artifact, LocalEntry entry) {
+            this.remoteRepository = remoteRepository;
+            this.artifact = artifact;
+            this.entry = entry;
+        }
+
+        private SessionImpl session() {
+            return SessionImpl.this;
+        }
+
+        private void transferred(boolean success) {
+            stats.doTransfer(success);
+            if (success) {
+                retrievedFromCache
+                        .computeIfAbsent(remoteRepository, k -> ConcurrentHashMap.newKeySet())
+                        .add(ArtifactIdUtils.toId(artifact));
+            }
+        }
+
+        @Override
+        public void transferTo(Path file) throws IOException {
+            try {
+                entry.transferTo(file);
+                transferred(true);
+            } catch (IOException e) {
+                transferred(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public Map<String, String> metadata() {
+            return entry.metadata();
+        }
+
+        @Override
+        public Map<String, String> checksums() {
+            return entry.checksums();
+        }
+    }
+
     @Override
     protected void doClose() throws IOException {
         if (config.localNodeInstance().isEmpty()) {
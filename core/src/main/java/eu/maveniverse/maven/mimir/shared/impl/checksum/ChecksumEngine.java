@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.checksum;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
+
+/**
+ * Calculates several checksums of one content at once. Content is copied into pooled chunk buffers; small content is
+ * digested on the calling thread, but once content exceeds the parallel threshold, each checksum algorithm is fed on
+ * its own worker thread, so digests run in parallel with each other and with the caller (that usually writes the
+ * content somewhere). The count of chunks in flight is bounded: when workers fall behind, caller blocks.
+ * <p>
+ * Instances are not thread safe, and must be closed, to release workers, even if checksums were not asked for.
+ */
+public final class ChecksumEngine implements Closeable {
+    /**
+     * Size of chunk buffers.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Count of chunks in flight per engine: this bounds memory used, and is the back-pressure towards caller.
+     */
+    static final int CHUNKS = 8;
+
+    /**
+     * Content size after which digests are calculated on workers. On single processor there is nothing to gain from
+     * workers, digests are always calculated on calling thread.
+     */
+    static final long PARALLEL_THRESHOLD =
+            Runtime.getRuntime().availableProcessors() > 1 ? 1024 * 1024 : Long.MAX_VALUE;
+
+    /**
+     * Size of windows of memory mapped files, see {@link #calculateMapped(Path, Map)}.
+     */
+    static final long MAPPED_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Max count of chunk buffers kept for reuse, shared by all engines.
+     */
+    private static final int POOL_SIZE = 64;
+
+    private static final ConcurrentLinkedQueue<byte[]> POOL = new ConcurrentLinkedQueue<>();
+
+    private static final AtomicInteger POOLED = new AtomicInteger();
+
+    /**
+     * Workers block waiting for chunks, hence unbounded pool is used (with idle threads discarded), as bounded one
+     * could starve engines and deadlock them. Threads are daemons, as they may be in use when JVM exits.
+     */
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(new ThreadFactory());
+
+    /**
+     * Calculates checksums of given file, using channel reads directly into chunk buffers.
+     */
+    public static Map<String, String> calculate(Path file, Map<String, ChecksumAlgorithm> checksumAlgorithms)
+            throws IOException {
+        requireNonNull(file, "file");
+        try (ChecksumEngine engine = new ChecksumEngine(checksumAlgorithms);
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (true) {
+                ByteBuffer free = engine.current.free();
+                int read = channel.read(free);
+                if (read < 0) {
+                    break;
+                }
+                engine.current.length = free.position();
+                engine.written(read);
+            }
+            return engine.checksums();
+        }
+    }
+
+    /**
+     * Calculates checksums of given file in single pass over memory mapped file (in windows of
+     * {@link #MAPPED_WINDOW_SIZE} bytes): content is not copied into chunk buffers at all, digests read it right from
+     * the page cache. Meant for content recently written (hence cached), where copying dominates the cost. Digests are
+     * calculated on calling thread.
+     */
+    public static Map<String, String> calculateMapped(Path file, Map<String, ChecksumAlgorithm> checksumAlgorithms)
+            throws IOException {
+        requireNonNull(file, "file");
+        requireNonNull(checksumAlgorithms, "checksumAlgorithms");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(MAPPED_WINDOW_SIZE, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (ChecksumAlgorithm algorithm : checksumAlgorithms.values()) {
+                    algorithm.update(window.duplicate());
+                }
+                position += length;
+            }
+        }
+        HashMap<String, String> result = new HashMap<>();
+        checksumAlgorithms.forEach((name, algorithm) -> result.put(name, algorithm.checksum()));
+        return result;
+    }
+
+    /**
+     * A chunk of content, shared by all workers; it is returned to free chunks once all workers digested it.
+     */
+    private static final class Chunk {
+        private final byte[] bytes;
+        private final ByteBuffer[] views;
+        private final AtomicInteger pending;
+        private int length;
+
+        private Chunk(byte[] bytes, int views) {
+            this.bytes = bytes;
+            this.views = new ByteBuffer[views];
+            for (int i = 0; i < views; i++) {
+                this.views[i] = ByteBuffer.wrap(bytes);
+            }
+            this.pending = new AtomicInteger();
+        }
+
+        private ByteBuffer view(int index) {
+            ByteBuffer view = views[index];
+            view.clear();
+            view.limit(length);
+            return view;
+        }
+
+        private ByteBuffer free() {
+            return ByteBuffer.wrap(bytes, length, bytes.length - length);
+        }
+    }
+
+    private static final Chunk END = new Chunk(new byte[0], 0);
+
+    private final List<String> names;
+    private final List<ChecksumAlgorithm> algorithms;
+    private final long parallelThreshold;
+    private final ArrayList<Chunk> chunks;
+    private final ArrayBlockingQueue<Chunk> freeChunks;
+    private final ArrayList<ArrayBlockingQueue<Chunk>> queues;
+    private final ArrayList<CompletableFuture<String>> results;
+    private Chunk current;
+    private long total;
+    private Map<String, String> checksums;
+    private boolean closed;
+    private volatile boolean aborted;
+
+    public ChecksumEngine(Map<String, ChecksumAlgorithm> checksumAlgorithms) {
+        this(checksumAlgorithms, PARALLEL_THRESHOLD);
+    }
+
+    ChecksumEngine(Map<String, ChecksumAlgorithm> checksumAlgorithms, long parallelThreshold) {
+        requireNonNull(checksumAlgorithms, "checksumAlgorithms");
+        this.names = new ArrayList<>(checksumAlgorithms.keySet());
+        this.algorithms = new ArrayList<>(checksumAlgorithms.values());
+        this.parallelThreshold = parallelThreshold;
+        this.chunks = new ArrayList<>(CHUNKS);
+        this.freeChunks = new ArrayBlockingQueue<>(CHUNKS);
+        this.queues = new ArrayList<>(algorithms.size());
+        this.results = new ArrayList<>(algorithms.size());
+        this.current = newChunk();
+    }
+
+    /**
+     * Updates checksums with one byte.
+     */
+    public void update(int b) {
+        current.bytes[current.length++] = (byte) b;
+        written(1);
+    }
+
+    /**
+     * Updates checksums with given range of bytes. Array may be reused by caller once this method returns.
+     */
+    public void update(byte[] bytes, int off, int len) {
+        while (len > 0) {
+            int count = Math.min(len, current.bytes.length - current.length);
+            System.arraycopy(bytes, off, current.bytes, current.length, count);
+            current.length += count;
+            off += count;
+            len -= count;
+            written(count);
+        }
+    }
+
+    /**
+     * Updates checksums with remaining bytes of buffer. Buffer position is left unchanged.
+     */
+    public void update(ByteBuffer buffer) {
+        int position = buffer.position();
+        int len = buffer.remaining();
+        while (len > 0) {
+            int count = Math.min(len, current.bytes.length - current.length);
+            buffer.get(position, current.bytes, current.length, count);
+            current.length += count;
+            position += count;
+            len -= count;
+            written(count);
+        }
+    }
+
+    /**
+     * Finishes the calculation (if not yet finished) and returns the checksums, keyed by algorithm names.
+     */
+    public Map<String, String> checksums() throws IOException {
+        if (checksums == null) {
+            if (closed) {
+                throw new IllegalStateException("Engine closed");
+            }
+            HashMap<String, String> result = new HashMap<>();
+            if (queues.isEmpty()) {
+                digest(current);
+                for (int i = 0; i < names.size(); i++) {
+                    result.put(names.get(i), algorithms.get(i).checksum());
+                }
+            } else {
+                if (current.length > 0) {
+                    dispatch(current);
+                } else {
+                    freeChunks.add(current);
+                }
+                current = null;
+                queues.forEach(q -> put(q, END));
+                for (int i = 0; i < names.size(); i++) {
+                    result.put(names.get(i), await(results.get(i)));
+                }
+            }
+            checksums = result;
+        }
+        return checksums;
+    }
+
+    /**
+     * Releases workers and chunk buffers.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (checksums == null && !queues.isEmpty()) {
+            aborted = true;
+            queues.forEach(q -> put(q, END));
+        }
+        // chunks are reusable only once no worker may touch them anymore: workers complete results when exiting
+        for (CompletableFuture<String> result : results) {
+            try {
+                result.join();
+            } catch (RuntimeException e) {
+                // ignore: aborted or failed
+            }
+        }
+        for (Chunk chunk : chunks) {
+            if (POOLED.incrementAndGet() <= POOL_SIZE) {
+                POOL.offer(chunk.bytes);
+            } else {
+                POOLED.decrementAndGet();
+            }
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Called after bytes were written into current chunk: dispatches it if full, and switches to parallel mode once
+     * content passes the threshold.
+     */
+    private void written(int count) {
+        total += count;
+        if (current.length == current.bytes.length) {
+            if (queues.isEmpty() && total >= parallelThreshold && !algorithms.isEmpty()) {
+                startWorkers();
+            }
+            if (queues.isEmpty()) {
+                digest(current);
+                current.length = 0;
+            } else {
+                dispatch(current);
+                current = nextChunk();
+            }
+        }
+    }
+
+    private void digest(Chunk chunk) {
+        for (int i = 0; i < algorithms.size(); i++) {
+            algorithms.get(i).update(chunk.view(i));
+        }
+    }
+
+    private void startWorkers() {
+        for (int i = 0; i < algorithms.size(); i++) {
+            ArrayBlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(CHUNKS + 1);
+            CompletableFuture<String> result = new CompletableFuture<>();
+            int index = i;
+            ChecksumAlgorithm algorithm = algorithms.get(i);
+            queues.add(queue);
+            results.add(result);
+            WORKERS.execute(() -> work(index, algorithm, queue, result));
+        }
+    }
+
+    private void work(
+            int index, ChecksumAlgorithm algorithm, ArrayBlockingQueue<Chunk> queue, CompletableFuture<String> result) {
+        try {
+            boolean failed = false;
+            while (true) {
+                Chunk chunk = queue.take();
+                if (chunk == END) {
+                    break;
+                }
+                try {
+                    if (!failed && !aborted) {
+                        algorithm.update(chunk.view(index));
+                    }
+                } catch (RuntimeException e) {
+                    failed = true;
+                    result.completeExceptionally(e);
+                } finally {
+                    if (chunk.pending.decrementAndGet() == 0) {
+                        chunk.length = 0;
+                        freeChunks.add(chunk);
+                    }
+                }
+            }
+            if (aborted) {
+                result.cancel(false);
+            } else if (!failed) {
+                result.complete(algorithm.checksum());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void dispatch(Chunk chunk) {
+        chunk.pending.set(queues.size());
+        queues.forEach(q -> put(q, chunk));
+    }
+
+    private Chunk nextChunk() {
+        Chunk chunk = freeChunks.poll();
+        if (chunk == null) {
+            if (chunks.size() < CHUNKS) {
+                return newChunk();
+            }
+            try {
+                chunk = freeChunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        }
+        return chunk;
+    }
+
+    private Chunk newChunk() {
+        byte[] bytes = POOL.poll();
+        if (bytes != null) {
+            POOLED.decrementAndGet();
+        } else {
+            bytes = new byte[CHUNK_SIZE];
+        }
+        Chunk chunk = new Chunk(bytes, algorithms.size());
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    private static void put(ArrayBlockingQueue<Chunk> queue, Chunk chunk) {
+        try {
+            queue.put(chunk);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+    }
+
+    private static String await(CompletableFuture<String> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException u) {
+                throw u.getCause();
+            }
+            throw new IOException("Checksum calculation failed", e.getCause());
+        }
+    }
+
+    private static final class ThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "mimir-checksum-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
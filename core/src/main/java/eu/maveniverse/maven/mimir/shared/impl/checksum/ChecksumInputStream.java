@@ -13,22 +13,25 @@ import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.ByteBuffer;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Consumer;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
 
+/**
+ * Input stream calculating checksums of content read through it, using {@link ChecksumEngine}. Once stream is
+ * closed, checksums are passed to callback.
+ */
 public final class ChecksumInputStream extends FilterInputStream {
-    private final Map<String, ChecksumAlgorithm> checksumAlgorithms;
+    private final ChecksumEngine checksumEngine;
     private final Consumer<Map<String, String>> checksumsCallback;
+    private boolean closed;
 
     public ChecksumInputStream(
             InputStream inputStream,
             Map<String, ChecksumAlgorithm> checksumAlgorithms,
             Consumer<Map<String, String>> checksumsCallback) {
         super(requireNonNull(inputStream, "inputStream"));
-        this.checksumAlgorithms = new HashMap<>(requireNonNull(checksumAlgorithms, "checksumAlgorithms"));
+        this.checksumEngine = new ChecksumEngine(requireNonNull(checksumAlgorithms, "checksumAlgorithms"));
         this.checksumsCallback = checksumsCallback;
     }
 
@@ -36,12 +39,7 @@ public final class ChecksumInputStream extends FilterInputStream {
     public int read() throws IOException {
         int b = super.read();
         if (b != -1) {
-            ByteBuffer buffer = ByteBuffer.allocate(1);
-            buffer.put((byte) b);
-            for (ChecksumAlgorithm checksumAlgorithm : checksumAlgorithms.values()) {
-                buffer.rewind();
-                checksumAlgorithm.update(buffer);
-            }
+            checksumEngine.update(b);
         }
         return b;
     }
@@ -49,16 +47,29 @@ public final class ChecksumInputStream extends FilterInputStream {
     @Override
     public int read(byte[] b, int off, int len) throws IOException {
         int res = super.read(b, off, len);
-        if (res != -1) {
-            ByteBuffer buffer = ByteBuffer.wrap(b, off, res);
-            for (ChecksumAlgorithm checksumAlgorithm : checksumAlgorithms.values()) {
-                buffer.rewind();
-                checksumAlgorithm.update(buffer);
-            }
+        if (res > 0) {
+            checksumEngine.update(b, off, res);
         }
         return res;
     }
 
+    /**
+     * Skipped bytes are read, as they must be part of checksums.
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(8192, Math.max(n, 0))];
+        long skipped = 0;
+        while (skipped < n) {
+            int res = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+            if (res < 0) {
+                break;
+            }
+            skipped += res;
+        }
+        return skipped;
+    }
+
     @Override
     public void mark(int readLimit) {}
 
@@ -74,13 +85,14 @@ public final class ChecksumInputStream extends FilterInputStream {
 
     @Override
     public void close() throws IOException {
-        super.close();
-        try {
-            HashMap<String, String> result = new HashMap<>();
-            for (Map.Entry<String, ChecksumAlgorithm> entry : checksumAlgorithms.entrySet()) {
-                result.put(entry.getKey(), entry.getValue().checksum());
-            }
-            checksumsCallback.accept(result);
+        if (closed) {
+            super.close();
+            return;
+        }
+        closed = true;
+        try (ChecksumEngine engine = checksumEngine) {
+            super.close();
+            checksumsCallback.accept(engine.checksums());
         } catch (UncheckedIOException e) {
             throw e.getCause();
         }
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size bounded, thread safe cache, with eviction policy either LRU, or Window TinyLFU: new entries enter a small LRU
+ * window, and are admitted into main (segmented LRU) area only if they were asked for more frequently than the entry
+ * they would evict, as estimated by a count-min sketch.
+ */
+abstract class BoundedCache<K, V> {
+    static <K, V> BoundedCache<K, V> of(MetadataCacheConfig.Policy policy, int maxSize) {
+        requireNonNull(policy, "policy");
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Invalid cache size: " + maxSize);
+        }
+        return switch (policy) {
+            case LRU -> new Lru<>(maxSize);
+            case WTINYLFU -> new WTinyLfu<>(maxSize);
+        };
+    }
+
+    protected final int maxSize;
+    protected final ReentrantLock lock;
+
+    private BoundedCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.lock = new ReentrantLock();
+    }
+
+    /**
+     * Returns cached value or {@code null}.
+     */
+    abstract V get(K key);
+
+    /**
+     * Caches the value, evicting some other value if cache is full.
+     */
+    abstract void put(K key, V value);
+
+    /**
+     * Removes the value, if cached.
+     */
+    abstract void invalidate(K key);
+
+    /**
+     * Count of cached values.
+     */
+    abstract int size();
+
+    private static final class Lru<K, V> extends BoundedCache<K, V> {
+        private final LinkedHashMap<K, V> entries;
+
+        private Lru(int maxSize) {
+            super(maxSize);
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        @Override
+        V get(K key) {
+            lock.lock();
+            try {
+                return entries.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void put(K key, V value) {
+            lock.lock();
+            try {
+                entries.put(key, value);
+                if (entries.size() > maxSize) {
+                    Iterator<K> eldest = entries.keySet().iterator();
+                    eldest.next();
+                    eldest.remove();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void invalidate(K key) {
+            lock.lock();
+            try {
+                entries.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class WTinyLfu<K, V> extends BoundedCache<K, V> {
+        private final int windowMax;
+        private final int protectedMax;
+        private final int mainMax;
+        // all segments are kept in LRU order: first is least recently used
+        private final LinkedHashMap<K, V> window;
+        private final LinkedHashMap<K, V> probation;
+        private final LinkedHashMap<K, V> protectedSegment;
+        private final FrequencySketch sketch;
+
+        private WTinyLfu(int maxSize) {
+            super(maxSize);
+            this.windowMax = Math.max(1, maxSize / 100);
+            this.mainMax = Math.max(0, maxSize - windowMax);
+            this.protectedMax = mainMax * 8 / 10;
+            this.window = new LinkedHashMap<>();
+            this.probation = new LinkedHashMap<>();
+            this.protectedSegment = new LinkedHashMap<>();
+            this.sketch = new FrequencySketch(maxSize);
+        }
+
+        @Override
+        V get(K key) {
+            lock.lock();
+            try {
+                sketch.increment(key);
+                V value = window.remove(key);
+                if (value != null) {
+                    window.put(key, value);
+                    return value;
+                }
+                value = protectedSegment.remove(key);
+                if (value != null) {
+                    protectedSegment.put(key, value);
+                    return value;
+                }
+                value = probation.remove(key);
+                if (value != null) {
+                    promote(key, value);
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        void put(K key, V value) {
+            lock.lock();
+            try {
+                sketch.increment(key);
+                if (window.containsKey(key)) {
+                    window.remove(key);
+                    window.put(key, value);
+                } else if (protectedSegment.containsKey(key)) {
+                    protectedSegment.remove(key);
+                    protectedSegment.put(key, value);
+                } else if (probation.remove(key) != null) {
+                    promote(key, value);
+                } else {
+                    window.put(key, value);
+                    if (window.size() > windowMax) {
+                        Map.Entry<K, V> candidate = removeEldest(window);
+                        admit(candidate.getKey(), candidate.getValue());
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Moves probation entry to protected segment, demoting eldest protected entry if it overflows.
+         */
+        private void promote(K key, V value) {
+            protectedSegment.put(key, value);
+            if (protectedSegment.size() > protectedMax) {
+                Map.Entry<K, V> demoted = removeEldest(protectedSegment);
+                probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+
+        /**
+         * Candidate evicted from window enters main area if there is room, or if it is more frequently used than the
+         * main area victim.
+         */
+        private void admit(K key, V value) {
+            if (mainMax == 0) {
+                return;
+            }
+            if (probation.size() + protectedSegment.size() < mainMax) {
+                probation.put(key, value);
+                return;
+            }
+            LinkedHashMap<K, V> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+            K victim = victimSegment.keySet().iterator().next();
+            if (sketch.frequency(key) > sketch.frequency(victim)) {
+                victimSegment.remove(victim);
+                probation.put(key, value);
+            }
+        }
+
+        @Override
+        void invalidate(K key) {
+            lock.lock();
+            try {
+                if (window.remove(key) == null && probation.remove(key) == null) {
+                    protectedSegment.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        int size() {
+            lock.lock();
+            try {
+                return window.size() + probation.size() + protectedSegment.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static <K, V> Map.Entry<K, V> removeEldest(LinkedHashMap<K, V> segment) {
+            Iterator<Map.Entry<K, V>> iterator = segment.entrySet().iterator();
+            Map.Entry<K, V> eldest = iterator.next();
+            Map.Entry<K, V> result = Map.entry(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            return result;
+        }
+    }
+
+    /**
+     * Count-min sketch of 4 bit saturating counters, with 4 rows. Counters are halved once count of increments
+     * reaches ten times the cache size, so old popularity fades away.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x97cb3127, 0x5e2d58d8, 0x3c6ef372, 0x7f4a7c15};
+
+        private final byte[][] table;
+        private final int mask;
+        private final int resetAt;
+        private int increments;
+
+        private FrequencySketch(int maxSize) {
+            int width = Integer.highestOneBit(Math.max(16, maxSize - 1) << 1);
+            this.table = new byte[SEEDS.length][width];
+            this.mask = width - 1;
+            this.resetAt = 10 * maxSize;
+        }
+
+        private int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = Integer.MAX_VALUE;
+            for (int i = 0; i < SEEDS.length; i++) {
+                frequency = Math.min(frequency, table[i][index(hash, i)]);
+            }
+            return frequency;
+        }
+
+        private void increment(Object key) {
+            int hash = spread(key.hashCode());
+            for (int i = 0; i < SEEDS.length; i++) {
+                int index = index(hash, i);
+                if (table[i][index] < 15) {
+                    table[i][index]++;
+                }
+            }
+            if (++increments >= resetAt) {
+                for (byte[] row : table) {
+                    for (int j = 0; j < row.length; j++) {
+                        row[j] = (byte) (row[j] >>> 1);
+                    }
+                }
+                increments /= 2;
+            }
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            int h = hash * 0x85ebca6b;
+            return h ^ (h >>> 13);
+        }
+    }
+}
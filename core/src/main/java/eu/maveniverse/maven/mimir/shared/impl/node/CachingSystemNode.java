@@ -14,25 +14,121 @@ import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
 import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
 import eu.maveniverse.maven.mimir.shared.node.RemoteNode;
 import eu.maveniverse.maven.mimir.shared.node.SystemNode;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 /**
  * A wrapper system node that performs caching from remote nodes into given system node, if system node
- * does not have content for asked key.
+ * does not have content for asked key. Concurrent misses of same key are coalesced: only first caller goes to remote
+ * nodes (and stores the remote entry), while all the other concurrent callers wait for it and reuse its result.
+ * Keys missing from remote nodes are recorded in a {@link NegativeCache}, to not ask remote nodes for them again
+ * and again; system node is always asked, as it may have received the content meanwhile. Remote nodes are queried
+ * as configured by {@link CachingSystemNodeConfig#fanOut()}: sequentially (in order), or in parallel or hedged, where
+ * each remote node has own timeout budget, and queries still running when result is decided upon are cancelled.
+ * Unless disabled, the order of remote nodes is not static, but decided by {@link RemoteNodeRanking}.
  */
 public class CachingSystemNode extends NodeSupport implements SystemNode {
     private final SystemNode systemNode;
     private final List<RemoteNode> remoteNodes;
+    private final CachingSystemNodeConfig config;
+    private final NegativeCache negativeCache;
+    private final ExecutorService executor;
+    private final RemoteNodeRanking ranking;
+    private final ConcurrentHashMap<URI, CompletableFuture<Optional<LocalEntry>>> inFlight;
+    private final LongAdder locates;
+    private final LongAdder localHits;
+    private final LongAdder fetches;
+    private final LongAdder remoteHits;
+    private final LongAdder coalesced;
+    private final LongAdder negativeHits;
+    private final LongAdder negativeMisses;
+    private final LongAdder remoteFailures;
+    private final LongAdder remoteTimeouts;
+    private final LongAdder hedges;
+    private final LongAdder cancelled;
+    private final LongAdder batches;
 
     public CachingSystemNode(SystemNode systemNode, List<RemoteNode> remoteNodes) {
+        this(systemNode, remoteNodes, CachingSystemNodeConfig.defaults());
+    }
+
+    public CachingSystemNode(SystemNode systemNode, List<RemoteNode> remoteNodes, CachingSystemNodeConfig config) {
+        this(systemNode, remoteNodes, config, null);
+    }
+
+    /**
+     * Creates caching node. Executor is used to query remote nodes, and is required if fan-out mode is not
+     * {@link CachingSystemNodeConfig.FanOut#SEQUENTIAL}. It should be dedicated to this purpose, as tasks submitted
+     * to it only perform remote node locate calls, while callers of this node wait for them.
+     */
+    public CachingSystemNode(
+            SystemNode systemNode,
+            List<RemoteNode> remoteNodes,
+            CachingSystemNodeConfig config,
+            ExecutorService executor) {
         super("caching");
         this.systemNode = requireNonNull(systemNode);
         this.remoteNodes = requireNonNull(remoteNodes);
+        this.config = requireNonNull(config);
+        if (config.fanOut() != CachingSystemNodeConfig.FanOut.SEQUENTIAL && executor == null) {
+            throw new IllegalArgumentException("Fan-out mode " + config.fanOut() + " requires executor");
+        }
+        this.executor = executor;
+        this.ranking = config.ranking()
+                ? new RemoteNodeRanking(
+                        remoteNodes, config.rankingAlpha(), config.breakerFailures(), config.breakerCooldown())
+                : null;
+        this.negativeCache = newNegativeCache();
+        this.inFlight = new ConcurrentHashMap<>();
+        this.locates = new LongAdder();
+        this.localHits = new LongAdder();
+        this.fetches = new LongAdder();
+        this.remoteHits = new LongAdder();
+        this.coalesced = new LongAdder();
+        this.negativeHits = new LongAdder();
+        this.negativeMisses = new LongAdder();
+        this.remoteFailures = new LongAdder();
+        this.remoteTimeouts = new LongAdder();
+        this.hedges = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.batches = new LongAdder();
+    }
+
+    /**
+     * Returns the negative cache of this node, used by {@link #locate(URI)}.
+     */
+    public NegativeCache negativeCache() {
+        return negativeCache;
+    }
+
+    /**
+     * Creates new negative cache, configured as the one of this node. To be used with
+     * {@link #locate(URI, NegativeCache)}, when callers should not share negative cache.
+     */
+    public NegativeCache newNegativeCache() {
+        return new NegativeCache(config.negativeCacheSize(), config.negativeCacheTtl());
     }
 
     @Override
@@ -42,28 +138,470 @@ public class CachingSystemNode extends NodeSupport implements SystemNode {
 
     @Override
     public Optional<? extends LocalEntry> locate(URI key) throws IOException {
+        return locate(key, negativeCache);
+    }
+
+    /**
+     * Locates using given negative cache.
+     */
+    public Optional<? extends LocalEntry> locate(URI key, NegativeCache negativeCache) throws IOException {
+        requireNonNull(negativeCache, "negativeCache");
+        locates.increment();
         Optional<? extends LocalEntry> entry = systemNode.locate(key);
         if (entry.isPresent()) {
+            localHits.increment();
             return entry;
-        } else {
-            for (RemoteNode node : remoteNodes) {
-                Optional<? extends RemoteEntry> remoteEntry = node.locate(key);
-                if (remoteEntry.isPresent()) {
-                    return Optional.of(systemNode.store(key, remoteEntry.orElseThrow()));
+        }
+        if (negativeCache.isMissing(key)) {
+            negativeHits.increment();
+            return Optional.empty();
+        }
+        negativeMisses.increment();
+        CompletableFuture<Optional<LocalEntry>> fetch = new CompletableFuture<>();
+        CompletableFuture<Optional<LocalEntry>> existing = inFlight.putIfAbsent(key, fetch);
+        if (existing != null) {
+            coalesced.increment();
+            return await(key, existing);
+        }
+        try {
+            Optional<LocalEntry> result = fetch(key, negativeCache);
+            fetch.complete(result);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, fetch);
+        }
+    }
+
+    /**
+     * Locates entries of given keys using given negative cache, returning the located ones. Keys missed by system
+     * node are asked from remote nodes in one batch per remote node (see {@link RemoteNode#locate(Collection)}), in
+     * order of remote nodes, regardless of fan-out mode, while concurrent misses of same key are coalesced as with
+     * single key locate. Located remote entries are stored into system node concurrently, using given executor: as
+     * caller runs stores not yet started, it may be bounded and shared with caller. A key whose store failed is
+     * logged and not returned.
+     */
+    public Map<URI, LocalEntry> locate(Collection<URI> keys, NegativeCache negativeCache, Executor storeExecutor)
+            throws IOException {
+        requireNonNull(keys, "keys");
+        requireNonNull(negativeCache, "negativeCache");
+        requireNonNull(storeExecutor, "storeExecutor");
+        batches.increment();
+        LinkedHashMap<URI, LocalEntry> result = new LinkedHashMap<>();
+        LinkedHashMap<URI, CompletableFuture<Optional<LocalEntry>>> owned = new LinkedHashMap<>();
+        LinkedHashMap<URI, CompletableFuture<Optional<LocalEntry>>> awaited = new LinkedHashMap<>();
+        try {
+            for (URI key : new LinkedHashSet<>(keys)) {
+                locates.increment();
+                Optional<? extends LocalEntry> entry = systemNode.locate(key);
+                if (entry.isPresent()) {
+                    localHits.increment();
+                    result.put(key, entry.orElseThrow());
+                } else if (negativeCache.isMissing(key)) {
+                    negativeHits.increment();
+                } else {
+                    negativeMisses.increment();
+                    CompletableFuture<Optional<LocalEntry>> fetch = new CompletableFuture<>();
+                    CompletableFuture<Optional<LocalEntry>> existing = inFlight.putIfAbsent(key, fetch);
+                    if (existing != null) {
+                        coalesced.increment();
+                        awaited.put(key, existing);
+                    } else {
+                        owned.put(key, fetch);
+                    }
+                }
+            }
+            if (!owned.isEmpty()) {
+                fetch(owned, negativeCache, storeExecutor);
+            }
+        } catch (IOException | RuntimeException e) {
+            owned.values().forEach(f -> f.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.forEach(inFlight::remove);
+        }
+        owned.putAll(awaited);
+        for (Map.Entry<URI, CompletableFuture<Optional<LocalEntry>>> fetch : owned.entrySet()) {
+            try {
+                await(fetch.getKey(), fetch.getValue()).ifPresent(e -> result.put(fetch.getKey(), e));
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to fetch {}", fetch.getKey(), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Fetches the entries of given keys from remote nodes, one batch per remote node, stores them into system node
+     * and completes their futures. Misses are recorded in given negative cache only if every node answered (none
+     * failed nor was left out by ranking).
+     * Invoked by one caller per key at a time.
+     */
+    private void fetch(
+            Map<URI, CompletableFuture<Optional<LocalEntry>>> keys, NegativeCache negativeCache, Executor storeExecutor)
+            throws IOException {
+        LinkedHashSet<URI> remaining = new LinkedHashSet<>();
+        for (Map.Entry<URI, CompletableFuture<Optional<LocalEntry>>> key : keys.entrySet()) {
+            // recheck: a fetch of this key may have just completed between our local lookup and becoming the fetcher
+            Optional<? extends LocalEntry> entry = systemNode.locate(key.getKey());
+            if (entry.isPresent()) {
+                key.getValue().complete(Optional.of(entry.orElseThrow()));
+            } else {
+                remaining.add(key.getKey());
+            }
+        }
+        fetches.add(remaining.size());
+        ArrayList<FutureTask<Void>> stores = new ArrayList<>();
+        RemoteNodeRanking.Ranked ranked = rank();
+        // nodes left out by ranking did not answer
+        boolean complete = ranked.skipped().isEmpty();
+        for (RemoteNode node : ranked.nodes()) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            long start = System.nanoTime();
+            Map<URI, ? extends RemoteEntry> located;
+            try {
+                located = node.locate(List.copyOf(remaining));
+            } catch (IOException | RuntimeException e) {
+                // all keys remaining from now on were not answered by this node
+                complete = false;
+                remoteFailures.increment();
+                if (ranking != null) {
+                    ranking.failure(node);
+                }
+                logger.warn("Remote node {} failed to locate {} keys", node, remaining.size(), e);
+                continue;
+            }
+            if (ranking != null) {
+                ranking.locateSuccess(node, System.nanoTime() - start);
+            }
+            for (Map.Entry<URI, ? extends RemoteEntry> hit : located.entrySet()) {
+                URI key = hit.getKey();
+                if (remaining.remove(key)) {
+                    remoteHits.increment();
+                    CompletableFuture<Optional<LocalEntry>> fetch = keys.get(key);
+                    stores.add(new FutureTask<>(
+                            () -> {
+                                try {
+                                    long storeStart = System.nanoTime();
+                                    LocalEntry entry = systemNode.store(key, hit.getValue());
+                                    if (ranking != null) {
+                                        ranking.content(node, contentLength(entry), System.nanoTime() - storeStart);
+                                    }
+                                    fetch.complete(Optional.of(entry));
+                                } catch (Exception e) {
+                                    fetch.completeExceptionally(e);
+                                }
+                            },
+                            null));
                 }
             }
         }
+        for (URI key : remaining) {
+            if (complete) {
+                negativeCache.put(key);
+            }
+            keys.get(key).complete(Optional.empty());
+        }
+        for (int i = 1; i < stores.size(); i++) {
+            storeExecutor.execute(stores.get(i));
+        }
+        for (FutureTask<Void> store : stores) {
+            store.run(); // no-op if store already ran or is running
+        }
+        // keys are in flight until stored: wait for stores still running on executor
+        for (FutureTask<Void> store : stores) {
+            try {
+                store.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for stores of fetched entries");
+            } catch (ExecutionException e) {
+                // not thrown: store task completes its fetch exceptionally instead
+            }
+        }
+    }
+
+    /**
+     * Fetches the entry from remote nodes and stores it into system node. A miss is recorded in given negative cache
+     * only if every node answered (none failed nor was left out by ranking). Invoked by one caller per key at a time.
+     */
+    private Optional<LocalEntry> fetch(URI key, NegativeCache negativeCache) throws IOException {
+        // recheck: a fetch of this key may have just completed between our local lookup and becoming the fetcher
+        Optional<? extends LocalEntry> entry = systemNode.locate(key);
+        if (entry.isPresent()) {
+            return Optional.of(entry.orElseThrow());
+        }
+        fetches.increment();
+        RemoteNodeRanking.Ranked ranked = rank();
+        Lookup lookup =
+                switch (config.fanOut()) {
+                    case SEQUENTIAL -> locateSequentially(key, ranked.nodes());
+                    case PARALLEL, HEDGED -> locateFanOut(key, ranked.nodes());
+                };
+        Optional<Hit> hit = lookup.hit();
+        if (hit.isPresent()) {
+            remoteHits.increment();
+            long start = System.nanoTime();
+            LocalEntry result = systemNode.store(key, hit.orElseThrow().entry());
+            if (ranking != null) {
+                ranking.content(hit.orElseThrow().node(), contentLength(result), System.nanoTime() - start);
+            }
+            return Optional.of(result);
+        }
+        // nodes left out by ranking did not answer
+        if (lookup.complete() && ranked.skipped().isEmpty()) {
+            negativeCache.put(key);
+        }
         return Optional.empty();
     }
 
+    /**
+     * Returns remote nodes to ask, as ranked if ranking is enabled.
+     */
+    private RemoteNodeRanking.Ranked rank() {
+        return ranking != null ? ranking.rank() : new RemoteNodeRanking.Ranked(remoteNodes, List.of());
+    }
+
+    /**
+     * The remote entry located on remote node.
+     */
+    private record Hit(RemoteNode node, RemoteEntry entry) {}
+
+    /**
+     * The result of asking remote nodes for a key: the hit, if any, and whether every node asked answered (a miss is
+     * conclusive only if so).
+     */
+    private record Lookup(Optional<Hit> hit, boolean complete) {}
+
+    private Lookup locateSequentially(URI key, List<RemoteNode> nodes) throws IOException {
+        for (RemoteNode node : nodes) {
+            long start = System.nanoTime();
+            Optional<? extends RemoteEntry> remoteEntry;
+            try {
+                remoteEntry = node.locate(key);
+            } catch (IOException | RuntimeException e) {
+                if (ranking != null) {
+                    ranking.failure(node);
+                }
+                throw e;
+            }
+            if (ranking != null) {
+                ranking.locateSuccess(node, System.nanoTime() - start);
+            }
+            if (remoteEntry.isPresent()) {
+                return new Lookup(Optional.of(new Hit(node, remoteEntry.orElseThrow())), true);
+            }
+        }
+        return new Lookup(Optional.empty(), true);
+    }
+
+    /**
+     * Queries nodes in parallel or hedged. Nodes that fail or time out are considered as not having the content, but
+     * then the miss is not conclusive.
+     */
+    private Lookup locateFanOut(URI key, List<RemoteNode> nodes) throws IOException {
+        int count = nodes.size();
+        if (count == 0) {
+            return new Lookup(Optional.empty(), true);
+        }
+        boolean hedged = config.fanOut() == CachingSystemNodeConfig.FanOut.HEDGED;
+        long timeout = config.remoteTimeout().toNanos();
+        long hedgeDelay = config.hedgeDelay().toNanos();
+        LinkedBlockingQueue<Integer> answered = new LinkedBlockingQueue<>();
+        AtomicReferenceArray<Object> results = new AtomicReferenceArray<>(count);
+        ArrayList<Future<?>> futures = new ArrayList<>(count);
+        long[] deadlines = new long[count];
+        boolean[] finished = new boolean[count];
+        boolean complete = true;
+        long lastLaunch = 0;
+        try {
+            do {
+                lastLaunch = launch(key, nodes, futures, results, answered);
+                deadlines[futures.size() - 1] = lastLaunch + timeout;
+            } while (!hedged && futures.size() < count);
+
+            int finishedCount = 0;
+            while (finishedCount < count) {
+                long now = System.nanoTime();
+                long wakeAt = Long.MAX_VALUE;
+                for (int i = 0; i < futures.size(); i++) {
+                    if (!finished[i]) {
+                        wakeAt = Math.min(wakeAt, deadlines[i]);
+                    }
+                }
+                if (hedged && futures.size() < count) {
+                    wakeAt = Math.min(wakeAt, lastLaunch + hedgeDelay);
+                }
+                Integer index = answered.poll(Math.max(0, wakeAt - now), TimeUnit.NANOSECONDS);
+                now = System.nanoTime();
+                // late answers of nodes already timed out are ignored
+                if (index != null && !finished[index]) {
+                    finished[index] = true;
+                    finishedCount++;
+                    if (results.get(index) instanceof Exception e) {
+                        complete = false;
+                        remoteFailures.increment();
+                        if (ranking != null) {
+                            ranking.failure(nodes.get(index));
+                        }
+                        logger.warn("Remote node {} failed to locate {}", nodes.get(index), key, e);
+                    } else {
+                        if (ranking != null) {
+                            ranking.locateSuccess(nodes.get(index), now - (deadlines[index] - timeout));
+                        }
+                        if (hedged && results.get(index) instanceof Optional<?> result && result.isPresent()) {
+                            return new Lookup(hit(nodes.get(index), results.get(index)), true);
+                        }
+                    }
+                }
+                for (int i = 0; i < futures.size(); i++) {
+                    if (!finished[i] && deadlines[i] - now <= 0) {
+                        futures.get(i).cancel(true);
+                        finished[i] = true;
+                        finishedCount++;
+                        complete = false;
+                        remoteTimeouts.increment();
+                        if (ranking != null) {
+                            ranking.failure(nodes.get(i));
+                        }
+                        logger.debug("Remote node {} timed out locating {}", nodes.get(i), key);
+                    }
+                }
+                if (!hedged) {
+                    // positive answer wins, once all preceding nodes are done
+                    for (int i = 0; i < count && finished[i]; i++) {
+                        if (results.get(i) instanceof Optional<?> result && result.isPresent()) {
+                            return new Lookup(hit(nodes.get(i), results.get(i)), true);
+                        }
+                    }
+                } else if (futures.size() < count
+                        && (now - lastLaunch >= hedgeDelay || finishedCount == futures.size())) {
+                    hedges.increment();
+                    lastLaunch = launch(key, nodes, futures, results, answered);
+                    deadlines[futures.size() - 1] = lastLaunch + timeout;
+                }
+            }
+            return new Lookup(Optional.empty(), complete);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while locating " + key);
+        } finally {
+            for (int i = 0; i < futures.size(); i++) {
+                if (!finished[i] && futures.get(i).cancel(true)) {
+                    cancelled.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Launches locate on next node, returns launch time.
+     */
+    private long launch(
+            URI key,
+            List<RemoteNode> nodes,
+            List<Future<?>> futures,
+            AtomicReferenceArray<Object> results,
+            LinkedBlockingQueue<Integer> answered) {
+        int index = futures.size();
+        RemoteNode node = nodes.get(index);
+        long now = System.nanoTime();
+        futures.add(executor.submit(() -> {
+            try {
+                results.set(index, node.locate(key));
+            } catch (Exception e) {
+                results.set(index, e);
+            } finally {
+                answered.add(index);
+            }
+        }));
+        return now;
+    }
+
+    private static Optional<Hit> hit(RemoteNode node, Object result) {
+        return Optional.of(new Hit(node, (RemoteEntry) ((Optional<?>) result).orElseThrow()));
+    }
+
+    /**
+     * Returns content length of entry, or 0 if entry does not carry it.
+     */
+    private static long contentLength(Entry entry) {
+        String contentLength = entry.metadata().get(Entry.CONTENT_LENGTH);
+        return contentLength != null ? Long.parseLong(contentLength) : 0;
+    }
+
+    private Optional<LocalEntry> await(URI key, CompletableFuture<Optional<LocalEntry>> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for fetch of " + key);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw new IOException(ioException.getMessage(), ioException);
+            } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Returns the statistics of this node: count of locate calls, hits from system node, fetches from remote nodes
+     * (misses of system node), hits from remote nodes and count of locate calls that were coalesced with an ongoing
+     * fetch of same key, and hits and misses of negative cache(s), failures and timeouts of remote nodes, and
+     * batch locate calls, and the current ranking of remote nodes, if enabled.
+     */
+    @Override
+    public Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("caching.locate", locates.sum());
+        stats.put("caching.localHit", localHits.sum());
+        stats.put("caching.fetch", fetches.sum());
+        stats.put("caching.remoteHit", remoteHits.sum());
+        stats.put("caching.coalesced", coalesced.sum());
+        stats.put("caching.negativeHit", negativeHits.sum());
+        stats.put("caching.negativeMiss", negativeMisses.sum());
+        stats.put("caching.negativeSize", (long) negativeCache.size());
+        stats.put("caching.remoteFailure", remoteFailures.sum());
+        stats.put("caching.remoteTimeout", remoteTimeouts.sum());
+        stats.put("caching.hedge", hedges.sum());
+        stats.put("caching.cancelled", cancelled.sum());
+        stats.put("caching.batch", batches.sum());
+        if (ranking != null) {
+            stats.putAll(ranking.stats());
+        }
+        return stats;
+    }
+
+    @Override
+    public Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        checkClosed();
+        return systemNode.locateKey(checksums);
+    }
+
+    @Override
+    public Optional<Closeable> watchKeys(Consumer<URI> consumer) throws IOException {
+        checkClosed();
+        return systemNode.watchKeys(consumer);
+    }
+
     @Override
     public LocalEntry store(URI key, Path file, Map<String, String> metadata, Map<String, String> checksums)
             throws IOException {
+        negativeCache.invalidate(key);
         return systemNode.store(key, file, metadata, checksums);
     }
 
     @Override
     public LocalEntry store(URI key, Entry entry) throws IOException {
+        negativeCache.invalidate(key);
         return systemNode.store(key, entry);
     }
 
@@ -0,0 +1,266 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import java.time.Duration;
+import java.util.Locale;
+
+public class CachingSystemNodeConfig {
+    /**
+     * How remote nodes are queried on miss.
+     */
+    public enum FanOut {
+        /**
+         * Remote nodes are queried one by one, in order, first positive answer wins.
+         */
+        SEQUENTIAL,
+        /**
+         * Remote nodes are queried in parallel; positive answer of a node wins, once all nodes preceding it answered
+         * negatively (or failed or timed out).
+         */
+        PARALLEL,
+        /**
+         * First remote node is queried, and if it does not answer within hedge delay, next node is queried as well
+         * (and so on); first positive answer wins.
+         */
+        HEDGED
+    }
+
+    public static CachingSystemNodeConfig defaults() {
+        return new CachingSystemNodeConfig(
+                10_000,
+                Duration.ofMinutes(1),
+                true,
+                FanOut.SEQUENTIAL,
+                Duration.ofMillis(50),
+                Duration.ofSeconds(30),
+                true,
+                0.2,
+                5,
+                Duration.ofSeconds(30));
+    }
+
+    public static CachingSystemNodeConfig with(SessionConfig sessionConfig) {
+        requireNonNull(sessionConfig, "config");
+
+        CachingSystemNodeConfig defaults = defaults();
+        int negativeCacheSize = defaults.negativeCacheSize();
+        Duration negativeCacheTtl = defaults.negativeCacheTtl();
+        boolean negativeCacheShared = defaults.negativeCacheShared();
+        FanOut fanOut = defaults.fanOut();
+        Duration hedgeDelay = defaults.hedgeDelay();
+        Duration remoteTimeout = defaults.remoteTimeout();
+        boolean ranking = defaults.ranking();
+        double rankingAlpha = defaults.rankingAlpha();
+        int breakerFailures = defaults.breakerFailures();
+        Duration breakerCooldown = defaults.breakerCooldown();
+
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.negativeCacheSize")) {
+            negativeCacheSize =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.caching.negativeCacheSize"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.negativeCacheTtl")) {
+            negativeCacheTtl =
+                    Duration.parse(sessionConfig.effectiveProperties().get("mimir.caching.negativeCacheTtl"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.negativeCacheShared")) {
+            negativeCacheShared =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.caching.negativeCacheShared"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.fanOut")) {
+            fanOut = FanOut.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.caching.fanOut")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.hedgeDelay")) {
+            hedgeDelay = Duration.parse(sessionConfig.effectiveProperties().get("mimir.caching.hedgeDelay"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.remoteTimeout")) {
+            remoteTimeout = Duration.parse(sessionConfig.effectiveProperties().get("mimir.caching.remoteTimeout"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.ranking")) {
+            ranking = Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.caching.ranking"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.rankingAlpha")) {
+            rankingAlpha =
+                    Double.parseDouble(sessionConfig.effectiveProperties().get("mimir.caching.rankingAlpha"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.breakerFailures")) {
+            breakerFailures =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.caching.breakerFailures"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.caching.breakerCooldown")) {
+            breakerCooldown = Duration.parse(sessionConfig.effectiveProperties().get("mimir.caching.breakerCooldown"));
+        }
+        return new CachingSystemNodeConfig(
+                negativeCacheSize,
+                negativeCacheTtl,
+                negativeCacheShared,
+                fanOut,
+                hedgeDelay,
+                remoteTimeout,
+                ranking,
+                rankingAlpha,
+                breakerFailures,
+                breakerCooldown);
+    }
+
+    private final int negativeCacheSize;
+    private final Duration negativeCacheTtl;
+    private final boolean negativeCacheShared;
+    private final FanOut fanOut;
+    private final Duration hedgeDelay;
+    private final Duration remoteTimeout;
+    private final boolean ranking;
+    private final double rankingAlpha;
+    private final int breakerFailures;
+    private final Duration breakerCooldown;
+
+    private CachingSystemNodeConfig(
+            int negativeCacheSize,
+            Duration negativeCacheTtl,
+            boolean negativeCacheShared,
+            FanOut fanOut,
+            Duration hedgeDelay,
+            Duration remoteTimeout,
+            boolean ranking,
+            double rankingAlpha,
+            int breakerFailures,
+            Duration breakerCooldown) {
+        if (negativeCacheSize < 0) {
+            throw new IllegalArgumentException("Invalid mimir.caching.negativeCacheSize: " + negativeCacheSize);
+        }
+        if (rankingAlpha <= 0 || rankingAlpha > 1) {
+            throw new IllegalArgumentException("Invalid mimir.caching.rankingAlpha: " + rankingAlpha);
+        }
+        if (breakerFailures < 1) {
+            throw new IllegalArgumentException("Invalid mimir.caching.breakerFailures: " + breakerFailures);
+        }
+        this.negativeCacheSize = negativeCacheSize;
+        this.negativeCacheTtl = requireNonNull(negativeCacheTtl);
+        this.negativeCacheShared = negativeCacheShared;
+        this.fanOut = requireNonNull(fanOut);
+        this.hedgeDelay = requireNonNull(hedgeDelay);
+        this.remoteTimeout = requireNonNull(remoteTimeout);
+        this.ranking = ranking;
+        this.rankingAlpha = rankingAlpha;
+        this.breakerFailures = breakerFailures;
+        this.breakerCooldown = requireNonNull(breakerCooldown);
+    }
+
+    /**
+     * Max count of keys known to be missing from remote nodes; 0 disables negative cache.
+     */
+    public int negativeCacheSize() {
+        return negativeCacheSize;
+    }
+
+    /**
+     * How long a key is considered missing from remote nodes.
+     */
+    public Duration negativeCacheTtl() {
+        return negativeCacheTtl;
+    }
+
+    /**
+     * Whether negative cache is shared by all clients (of daemon), or each client has its own.
+     */
+    public boolean negativeCacheShared() {
+        return negativeCacheShared;
+    }
+
+    /**
+     * How remote nodes are queried on miss.
+     */
+    public FanOut fanOut() {
+        return fanOut;
+    }
+
+    /**
+     * The delay after which next remote node is queried, in {@link FanOut#HEDGED} mode.
+     */
+    public Duration hedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * The time budget of each remote node locate, in {@link FanOut#PARALLEL} and {@link FanOut#HEDGED} modes.
+     * Remote node not answering within it is considered as not having the content, and is cancelled.
+     */
+    public Duration remoteTimeout() {
+        return remoteTimeout;
+    }
+
+    /**
+     * Whether remote nodes are dynamically ranked by observed latency and success rate (see
+     * {@link RemoteNodeRanking}); if not, they are queried in order of their distance.
+     */
+    public boolean ranking() {
+        return ranking;
+    }
+
+    /**
+     * The weight of new sample in moving averages of ranking, between 0 (exclusive) and 1 (inclusive).
+     */
+    public double rankingAlpha() {
+        return rankingAlpha;
+    }
+
+    /**
+     * The count of failures in a row after which circuit breaker of remote node opens.
+     */
+    public int breakerFailures() {
+        return breakerFailures;
+    }
+
+    /**
+     * How long remote node with open circuit breaker is not queried, before it is probed again.
+     */
+    public Duration breakerCooldown() {
+        return breakerCooldown;
+    }
+
+    /**
+     * Returns copy of this configuration with given fan-out settings.
+     */
+    public CachingSystemNodeConfig withFanOut(FanOut fanOut, Duration hedgeDelay, Duration remoteTimeout) {
+        return new CachingSystemNodeConfig(
+                negativeCacheSize,
+                negativeCacheTtl,
+                negativeCacheShared,
+                fanOut,
+                hedgeDelay,
+                remoteTimeout,
+                ranking,
+                rankingAlpha,
+                breakerFailures,
+                breakerCooldown);
+    }
+
+    /**
+     * Returns copy of this configuration with given ranking settings.
+     */
+    public CachingSystemNodeConfig withRanking(
+            boolean ranking, double rankingAlpha, int breakerFailures, Duration breakerCooldown) {
+        return new CachingSystemNodeConfig(
+                negativeCacheSize,
+                negativeCacheTtl,
+                negativeCacheShared,
+                fanOut,
+                hedgeDelay,
+                remoteTimeout,
+                ranking,
+                rankingAlpha,
+                breakerFailures,
+                breakerCooldown);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import eu.maveniverse.maven.shared.core.fs.FileUtils;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Transfers entry content from local node storage to a target file, using the cheapest strategy available, and
+ * falling back to next one if it fails: hard link (if allowed), then clone (copy-on-write reflink, where the
+ * platform supports it), then channel to channel transfer, that lets kernel move the bytes without copying them
+ * through the Java heap. Transferred file size is verified against expected content length. Counts of transfers
+ * served by each strategy are kept as statistics.
+ * <p>
+ * Note: Java does not expose reflink directly, the clone strategy relies on {@link Files#copy(Path, Path,
+ * java.nio.file.CopyOption...)} of default file system, that (as of Java 20) clones files on file systems supporting
+ * it (Btrfs, XFS, APFS, ...), and uses in-kernel copy otherwise.
+ */
+public final class ContentTransfer extends ComponentSupport {
+    /**
+     * The transfer mode, selecting the strategies to try.
+     */
+    public enum Mode {
+        /**
+         * Tries hard link (if allowed), clone and channel transfer, in this order.
+         */
+        AUTO,
+        /**
+         * Tries clone and channel transfer, in this order.
+         */
+        CLONE,
+        /**
+         * Uses channel transfer only.
+         */
+        CHANNEL,
+        /**
+         * Copies content via streams, through the Java heap. This is the slowest, but most compatible, mode.
+         */
+        STREAM
+    }
+
+    /**
+     * The strategy that served a transfer.
+     */
+    public enum Strategy {
+        HARDLINK,
+        CLONE,
+        CHANNEL,
+        STREAM
+    }
+
+    private final String name;
+    private final Mode mode;
+    private final boolean mayLink;
+    private final EnumMap<Strategy, LongAdder> transfers;
+    private final LongAdder fallbacks;
+
+    public ContentTransfer(String name, Mode mode, boolean mayLink) {
+        this.name = requireNonNull(name, "name");
+        this.mode = requireNonNull(mode, "mode");
+        this.mayLink = mayLink;
+        this.transfers = new EnumMap<>(Strategy.class);
+        for (Strategy strategy : Strategy.values()) {
+            transfers.put(strategy, new LongAdder());
+        }
+        this.fallbacks = new LongAdder();
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Transfers source file to non-existent target file, and verifies that target has expected size. Last modified
+     * timestamp of source is preserved. On failure, target file may be left behind, caller should clean it up.
+     *
+     * @return the strategy that served the transfer.
+     */
+    public Strategy transfer(Path source, Path target, long expectedSize) throws IOException {
+        requireNonNull(source, "source");
+        requireNonNull(target, "target");
+        Strategy served = null;
+        Iterator<Strategy> strategies = strategies(source, target).iterator();
+        while (served == null) {
+            Strategy strategy = strategies.next();
+            try {
+                apply(strategy, source, target);
+                served = strategy;
+            } catch (IOException | UnsupportedOperationException e) {
+                if (!strategies.hasNext()) {
+                    throw e instanceof IOException io ? io : new IOException("Unable to transfer " + source, e);
+                }
+                logger.debug("Transfer of {} using {} failed, falling back", source, strategy, e);
+                fallbacks.increment();
+                Files.deleteIfExists(target);
+            }
+        }
+        long size = Files.size(target);
+        if (size != expectedSize) {
+            throw new IOException("Transfer of " + source + " using " + served + " resulted in " + size
+                    + " bytes, expected " + expectedSize + " bytes");
+        }
+        transfers.get(served).increment();
+        return served;
+    }
+
+    private List<Strategy> strategies(Path source, Path target) throws IOException {
+        boolean defaultFs = source.getFileSystem() == FileSystems.getDefault();
+        ArrayList<Strategy> result = new ArrayList<>(3);
+        switch (mode) {
+            case AUTO -> {
+                if (defaultFs && mayLink && FileUtils.mayLink(source, target)) {
+                    result.add(Strategy.HARDLINK);
+                }
+                if (defaultFs) {
+                    result.add(Strategy.CLONE);
+                }
+                result.add(Strategy.CHANNEL);
+            }
+            case CLONE -> {
+                if (defaultFs) {
+                    result.add(Strategy.CLONE);
+                }
+                result.add(Strategy.CHANNEL);
+            }
+            case CHANNEL -> result.add(Strategy.CHANNEL);
+            case STREAM -> result.add(Strategy.STREAM);
+            default -> throw new IllegalStateException("Unsupported transfer mode: " + mode);
+        }
+        return result;
+    }
+
+    private static void apply(Strategy strategy, Path source, Path target) throws IOException {
+        switch (strategy) {
+            case HARDLINK -> FileUtils.link(source, target);
+            case CLONE -> {
+                Files.copy(source, target);
+                Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+            }
+            case CHANNEL -> {
+                channel(source, target);
+                Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+            }
+            case STREAM -> {
+                try (InputStream inputStream = Files.newInputStream(source)) {
+                    Files.copy(inputStream, target);
+                }
+                Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+            }
+            default -> throw new IllegalStateException("Unsupported transfer strategy: " + strategy);
+        }
+    }
+
+    /**
+     * Sources on default file system are transferred using {@link FileChannel#transferTo(long, long,
+     * java.nio.channels.WritableByteChannel)} (sendfile or copy_file_range on Linux), others (like ZIP file system
+     * of bundles) are read into target with {@link FileChannel#transferFrom(ReadableByteChannel, long, long)}.
+     */
+    private static void channel(Path source, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            if (source.getFileSystem() == FileSystems.getDefault()) {
+                try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                    long size = in.size();
+                    long position = 0;
+                    while (position < size) {
+                        long transferred = in.transferTo(position, size - position, out);
+                        if (transferred <= 0) {
+                            break; // source shrunk; size verification will fail
+                        }
+                        position += transferred;
+                    }
+                }
+            } else {
+                try (ReadableByteChannel in = Files.newByteChannel(source, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long transferred;
+                    while ((transferred = out.transferFrom(in, position, Long.MAX_VALUE - position)) > 0) {
+                        position += transferred;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics: count of transfers served by each strategy, and count of fallbacks.
+     */
+    public Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        for (Map.Entry<Strategy, LongAdder> entry : transfers.entrySet()) {
+            stats.put(
+                    name + ".transfer." + entry.getKey().name().toLowerCase(Locale.ENGLISH),
+                    entry.getValue().sum());
+        }
+        stats.put(name + ".transfer.fallback", fallbacks.sum());
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + name + ", mode=" + mode + ", mayLink=" + mayLink + ")";
+    }
+}
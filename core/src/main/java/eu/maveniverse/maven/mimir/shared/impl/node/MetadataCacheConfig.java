@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import java.util.Locale;
+
+/**
+ * Configuration of {@link MetadataCachingSystemNode}.
+ */
+public final class MetadataCacheConfig {
+    /**
+     * The eviction policy.
+     */
+    public enum Policy {
+        /**
+         * Least recently used entry is evicted.
+         */
+        LRU,
+        /**
+         * Window TinyLFU: recency and frequency based, resists scans.
+         */
+        WTINYLFU
+    }
+
+    public static MetadataCacheConfig defaults() {
+        return new MetadataCacheConfig(10_000, Policy.WTINYLFU);
+    }
+
+    public static MetadataCacheConfig with(SessionConfig sessionConfig) {
+        requireNonNull(sessionConfig, "config");
+
+        MetadataCacheConfig defaults = defaults();
+        int size = defaults.size();
+        Policy policy = defaults.policy();
+
+        if (sessionConfig.effectiveProperties().containsKey("mimir.metadataCache.size")) {
+            size = Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.metadataCache.size"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.metadataCache.policy")) {
+            policy = Policy.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.metadataCache.policy")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        return new MetadataCacheConfig(size, policy);
+    }
+
+    public static MetadataCacheConfig of(int size, Policy policy) {
+        return new MetadataCacheConfig(size, policy);
+    }
+
+    private final int size;
+    private final Policy policy;
+
+    private MetadataCacheConfig(int size, Policy policy) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Invalid mimir.metadataCache.size: " + size);
+        }
+        this.size = size;
+        this.policy = requireNonNull(policy);
+    }
+
+    /**
+     * Max count of cached entries; 0 disables cache.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The eviction policy.
+     */
+    public Policy policy() {
+        return policy;
+    }
+
+    @Override
+    public String toString() {
+        return size == 0 ? "disabled" : policy + "(size=" + size + ")";
+    }
+}
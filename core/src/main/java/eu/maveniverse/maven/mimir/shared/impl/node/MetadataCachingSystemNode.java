@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.node.Entry;
+import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
+import eu.maveniverse.maven.mimir.shared.node.SystemNode;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A wrapper system node that keeps located entries (their metadata and checksums) in a size bounded in-memory cache,
+ * to spare the wrapped node from reading them again for frequently located keys. Cached entries are validated with
+ * {@link LocalEntry#isCurrent()} before being returned, and are invalidated on store. Closing this node does not
+ * close the wrapped node.
+ */
+public final class MetadataCachingSystemNode extends NodeSupport implements SystemNode {
+    private final SystemNode systemNode;
+    private final MetadataCacheConfig config;
+    private final BoundedCache<URI, LocalEntry> cache;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder stale;
+
+    public MetadataCachingSystemNode(SystemNode systemNode, MetadataCacheConfig config) {
+        super(requireNonNull(systemNode, "systemNode").name());
+        this.systemNode = systemNode;
+        this.config = requireNonNull(config, "config");
+        this.cache = config.size() > 0 ? BoundedCache.of(config.policy(), config.size()) : null;
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.stale = new LongAdder();
+    }
+
+    @Override
+    public List<String> checksumAlgorithms() throws IOException {
+        return systemNode.checksumAlgorithms();
+    }
+
+    @Override
+    public Optional<? extends LocalEntry> locate(URI key) throws IOException {
+        checkClosed();
+        if (cache == null) {
+            return systemNode.locate(key);
+        }
+        LocalEntry cached = cache.get(key);
+        if (cached != null) {
+            if (cached.isCurrent()) {
+                hits.increment();
+                return Optional.of(cached);
+            }
+            stale.increment();
+            cache.invalidate(key);
+        }
+        misses.increment();
+        Optional<? extends LocalEntry> entry = systemNode.locate(key);
+        if (entry.isPresent()) {
+            cache.put(key, entry.orElseThrow());
+        }
+        return entry;
+    }
+
+    @Override
+    public Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        checkClosed();
+        return systemNode.locateKey(checksums);
+    }
+
+    @Override
+    public Optional<Closeable> watchKeys(Consumer<URI> consumer) throws IOException {
+        checkClosed();
+        return systemNode.watchKeys(consumer);
+    }
+
+    @Override
+    public LocalEntry store(URI key, Path file, Map<String, String> metadata, Map<String, String> checksums)
+            throws IOException {
+        checkClosed();
+        invalidate(key);
+        return cached(key, systemNode.store(key, file, metadata, checksums));
+    }
+
+    @Override
+    public LocalEntry store(URI key, Entry entry) throws IOException {
+        checkClosed();
+        invalidate(key);
+        return cached(key, systemNode.store(key, entry));
+    }
+
+    private void invalidate(URI key) {
+        if (cache != null) {
+            cache.invalidate(key);
+        }
+    }
+
+    private LocalEntry cached(URI key, LocalEntry entry) {
+        if (cache != null) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the statistics of the cache: hits, misses (including stale), stale hits (entries found cached but
+     * not current anymore), size and hit ratio in percents.
+     */
+    @Override
+    public Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        long hit = hits.sum();
+        long miss = misses.sum();
+        stats.put("metadataCache.hit", hit);
+        stats.put("metadataCache.miss", miss);
+        stats.put("metadataCache.stale", stale.sum());
+        stats.put("metadataCache.size", cache != null ? (long) cache.size() : 0L);
+        stats.put("metadataCache.hitRatio", hit + miss > 0 ? hit * 100 / (hit + miss) : 0L);
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + systemNode + ", " + config + ")";
+    }
+}
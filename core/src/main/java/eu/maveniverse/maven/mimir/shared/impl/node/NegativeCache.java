@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of keys known to be missing, with entries expiring after given TTL. When full, oldest entries are
+ * evicted first. Cache with size 0 is disabled: it never records misses.
+ */
+public final class NegativeCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock;
+    private final LinkedHashMap<URI, Long> entries;
+
+    public NegativeCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    NegativeCache(int maxSize, Duration ttl, LongSupplier nanoTime) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("Invalid negative cache size: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = requireNonNull(ttl, "ttl").toNanos();
+        this.nanoTime = requireNonNull(nanoTime, "nanoTime");
+        this.lock = new ReentrantLock();
+        this.entries = new LinkedHashMap<>();
+    }
+
+    /**
+     * Returns {@code true} if key is known to be missing (is recorded and not expired).
+     */
+    public boolean isMissing(URI key) {
+        if (maxSize == 0) {
+            return false;
+        }
+        lock.lock();
+        try {
+            Long expires = entries.get(key);
+            if (expires == null) {
+                return false;
+            }
+            if (expires - nanoTime.getAsLong() > 0) {
+                return true;
+            }
+            entries.remove(key);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the key as missing.
+     */
+    public void put(URI key) {
+        if (maxSize == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = nanoTime.getAsLong();
+            // re-insert to maintain order by expiry
+            entries.remove(key);
+            entries.put(key, now + ttlNanos);
+            if (entries.size() > maxSize) {
+                Iterator<Map.Entry<URI, Long>> iterator = entries.entrySet().iterator();
+                while (entries.size() > maxSize && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the key, if recorded.
+     */
+    public void invalidate(URI key) {
+        if (maxSize == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -14,9 +14,13 @@ import eu.maveniverse.maven.mimir.shared.node.LocalNode;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A wrapper local node that is able to "overlay" given local nodes in front of current local node.
@@ -47,12 +51,62 @@ public class OverlayingLocalNode extends NodeSupport implements LocalNode {
         return localNode.locate(key);
     }
 
+    @Override
+    public Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        for (LocalNode overlay : overlays) {
+            Optional<URI> key = overlay.locateKey(checksums);
+            if (key.isPresent()) {
+                return key;
+            }
+        }
+        return localNode.locateKey(checksums);
+    }
+
+    @Override
+    public Optional<? extends LocalEntry> locateAndTransfer(URI key, Path file) throws IOException {
+        for (LocalNode overlay : overlays) {
+            Optional<? extends LocalEntry> localEntry = overlay.locateAndTransfer(key, file);
+            if (localEntry.isPresent()) {
+                return localEntry;
+            }
+        }
+        return localNode.locateAndTransfer(key, file);
+    }
+
+    @Override
+    public Map<URI, ? extends LocalEntry> locateAll(Collection<URI> keys) throws IOException {
+        HashMap<URI, LocalEntry> result = new HashMap<>();
+        ArrayList<URI> remaining = new ArrayList<>(keys);
+        for (LocalNode overlay : overlays) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            result.putAll(overlay.locateAll(remaining));
+            remaining.removeAll(result.keySet());
+        }
+        if (!remaining.isEmpty()) {
+            result.putAll(localNode.locateAll(remaining));
+        }
+        return result;
+    }
+
+    @Override
+    public Map<Path, IOException> transferAll(Map<Path, ? extends LocalEntry> transfers) {
+        return localNode.transferAll(transfers);
+    }
+
     @Override
     public LocalEntry store(URI key, Path file, Map<String, String> metadata, Map<String, String> checksums)
             throws IOException {
         return localNode.store(key, file, metadata, checksums);
     }
 
+    @Override
+    public CompletableFuture<? extends LocalEntry> storeAsync(
+            URI key, Path file, Map<String, String> metadata, Map<String, String> checksums) {
+        return localNode.storeAsync(key, file, metadata, checksums);
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "(" + overlays + ", " + localNode + ")";
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.node.RemoteNode;
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Ranks remote nodes by observed performance: exponentially weighted moving average (EWMA) of locate latency plus
+ * expected content time, divided by EWMA of success rate (failures and timeouts are not successes; misses are).
+ * Content is rated per byte, so expected content time is node EWMA of nanoseconds per byte times EWMA of content
+ * size seen across all nodes; this way a node is not penalized for serving big entries. Until a node has samples,
+ * its {@link RemoteNode#distance()} is used as prior latency in milliseconds. A node failing given count
+ * of times in a row has its circuit breaker opened: it is left out of ranking for cooldown period, after which one
+ * probe is let through (half-open); probe succeeding closes the breaker, failing reopens it.
+ */
+public final class RemoteNodeRanking extends ComponentSupport {
+    /**
+     * Remote nodes to query, best first, and nodes left out due to open circuit breaker. A miss is conclusive only if
+     * no node was left out.
+     */
+    public record Ranked(List<RemoteNode> nodes, List<RemoteNode> skipped) {}
+
+    private static final class Score {
+        private double locateNanos;
+        private double contentNanosPerByte;
+        private double successRate = 1.0;
+        private int consecutiveFailures;
+        private long openUntil;
+        private boolean open;
+        private long probeUntil;
+        private boolean probing;
+
+        private Score(double priorNanos) {
+            this.locateNanos = priorNanos;
+        }
+
+        private double score(double contentBytes) {
+            return (locateNanos + contentNanosPerByte * contentBytes) / Math.max(successRate, 0.01);
+        }
+    }
+
+    private final double alpha;
+    private final int breakerFailures;
+    private final long breakerCooldownNanos;
+    private final LongSupplier nanoTime;
+    private final ReentrantLock lock;
+    private final LinkedHashMap<RemoteNode, Score> scores;
+    private double contentBytes;
+    private List<RemoteNode> lastRanking;
+
+    public RemoteNodeRanking(
+            List<RemoteNode> remoteNodes, double alpha, int breakerFailures, Duration breakerCooldown) {
+        this(remoteNodes, alpha, breakerFailures, breakerCooldown, System::nanoTime);
+    }
+
+    RemoteNodeRanking(
+            List<RemoteNode> remoteNodes,
+            double alpha,
+            int breakerFailures,
+            Duration breakerCooldown,
+            LongSupplier nanoTime) {
+        requireNonNull(remoteNodes, "remoteNodes");
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("Invalid ranking alpha: " + alpha);
+        }
+        if (breakerFailures < 1) {
+            throw new IllegalArgumentException("Invalid breaker failures: " + breakerFailures);
+        }
+        this.alpha = alpha;
+        this.breakerFailures = breakerFailures;
+        this.breakerCooldownNanos =
+                requireNonNull(breakerCooldown, "breakerCooldown").toNanos();
+        this.nanoTime = requireNonNull(nanoTime, "nanoTime");
+        this.lock = new ReentrantLock();
+        this.scores = new LinkedHashMap<>();
+        for (RemoteNode node : remoteNodes) {
+            scores.put(node, new Score(TimeUnit.MILLISECONDS.toNanos(node.distance())));
+        }
+        this.lastRanking = List.copyOf(remoteNodes);
+    }
+
+    /**
+     * Returns remote nodes to query, best first. Nodes with open circuit breaker are left out, unless their cooldown
+     * passed, in which case they are included once as probe.
+     */
+    public List<RemoteNode> ranked() {
+        return rank().nodes();
+    }
+
+    /**
+     * Returns remote nodes to query, best first, as {@link #ranked()} does, and nodes left out.
+     */
+    public Ranked rank() {
+        lock.lock();
+        try {
+            long now = nanoTime.getAsLong();
+            ArrayList<RemoteNode> ranked = new ArrayList<>(scores.size());
+            ArrayList<RemoteNode> skipped = new ArrayList<>();
+            for (Map.Entry<RemoteNode, Score> entry : scores.entrySet()) {
+                Score score = entry.getValue();
+                if (score.open) {
+                    if (score.openUntil - now > 0 || (score.probing && score.probeUntil - now > 0)) {
+                        skipped.add(entry.getKey());
+                        continue;
+                    }
+                    // half-open: let one probe through; if its outcome is never recorded, probe again after cooldown
+                    score.probing = true;
+                    score.probeUntil = now + breakerCooldownNanos;
+                }
+                ranked.add(entry.getKey());
+            }
+            // stable sort: equally scored nodes keep distance order
+            ranked.sort(Comparator.comparingDouble(n -> scores.get(n).score(contentBytes)));
+            if (!ranked.equals(lastRanking)) {
+                logger.debug("Remote node ranking changed: {}", describe(ranked));
+                lastRanking = List.copyOf(ranked);
+            }
+            return new Ranked(ranked, skipped);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records node answering locate (either hit or miss) in given time.
+     */
+    public void locateSuccess(RemoteNode node, long nanos) {
+        lock.lock();
+        try {
+            Score score = score(node);
+            score.locateNanos = ewma(score.locateNanos, nanos);
+            score.successRate = ewma(score.successRate, 1.0);
+            score.consecutiveFailures = 0;
+            if (score.open) {
+                logger.info("Remote node {} recovered, closing circuit breaker", node);
+                score.open = false;
+                score.probing = false;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records node failing or timing out.
+     */
+    public void failure(RemoteNode node) {
+        lock.lock();
+        try {
+            Score score = score(node);
+            score.successRate = ewma(score.successRate, 0.0);
+            score.consecutiveFailures++;
+            if (score.open || score.consecutiveFailures >= breakerFailures) {
+                if (!score.open) {
+                    logger.warn(
+                            "Remote node {} failed {} times in a row, opening circuit breaker",
+                            node,
+                            score.consecutiveFailures);
+                }
+                score.open = true;
+                score.probing = false;
+                score.openUntil = nanoTime.getAsLong() + breakerCooldownNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records node transferring content of hit, having given count of bytes, in given time. Empty content carries
+     * no rate, and is ignored.
+     */
+    public void content(RemoteNode node, long bytes, long nanos) {
+        if (bytes <= 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            Score score = score(node);
+            double nanosPerByte = (double) nanos / bytes;
+            score.contentNanosPerByte =
+                    score.contentNanosPerByte == 0 ? nanosPerByte : ewma(score.contentNanosPerByte, nanosPerByte);
+            contentBytes = contentBytes == 0 ? bytes : ewma(contentBytes, bytes);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the ranking as statistics: for each node its rank (0 based, -1 when breaker is open), EWMA of locate
+     * latency in microseconds, of content rate in bytes per second (0 until sampled) and success rate in percents.
+     */
+    public Map<String, Long> stats() {
+        lock.lock();
+        try {
+            LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+            ArrayList<RemoteNode> nodes = new ArrayList<>(scores.keySet());
+            nodes.sort(Comparator.comparingDouble(n -> scores.get(n).score(contentBytes)));
+            int rank = 0;
+            for (RemoteNode node : nodes) {
+                Score score = scores.get(node);
+                String prefix = "ranking." + node.name() + ".";
+                stats.put(prefix + "rank", score.open ? -1L : rank++);
+                stats.put(prefix + "locateMicros", TimeUnit.NANOSECONDS.toMicros((long) score.locateNanos));
+                stats.put(
+                        prefix + "contentBytesPerSecond",
+                        score.contentNanosPerByte == 0 ? 0L : Math.round(1_000_000_000 / score.contentNanosPerByte));
+                stats.put(prefix + "successPercent", Math.round(score.successRate * 100));
+            }
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Score score(RemoteNode node) {
+        Score score = scores.get(node);
+        if (score == null) {
+            throw new IllegalArgumentException("Unknown remote node: " + node);
+        }
+        return score;
+    }
+
+    private double ewma(double average, double sample) {
+        return average + alpha * (sample - average);
+    }
+
+    private String describe(List<RemoteNode> ranked) {
+        ArrayList<String> result = new ArrayList<>(ranked.size());
+        for (RemoteNode node : ranked) {
+            Score score = scores.get(node);
+            result.add(String.format(
+                    "%s(%.1fms, %.0f%%)", node.name(), score.score(contentBytes) / 1_000_000, score.successRate * 100));
+        }
+        return result.toString();
+    }
+}
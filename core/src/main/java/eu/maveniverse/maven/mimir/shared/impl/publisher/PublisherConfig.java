@@ -10,6 +10,7 @@ package eu.maveniverse.maven.mimir.shared.impl.publisher;
 import static java.util.Objects.requireNonNull;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.ExecutorConfig;
 import eu.maveniverse.maven.mimir.shared.impl.NetUtils;
 import java.io.IOException;
 
@@ -27,15 +28,17 @@ public class PublisherConfig {
         if (sessionConfig.effectiveProperties().containsKey("mimir.publisher.hostPort")) {
             hostPort = Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.publisher.hostPort"));
         }
-        return new PublisherConfig(hostAddress, hostPort);
+        return new PublisherConfig(hostAddress, hostPort, ExecutorConfig.with(sessionConfig));
     }
 
     private final String hostAddress;
     private final int hostPort;
+    private final ExecutorConfig executorConfig;
 
-    private PublisherConfig(String hostAddress, int hostPort) {
+    private PublisherConfig(String hostAddress, int hostPort, ExecutorConfig executorConfig) {
         this.hostAddress = requireNonNull(hostAddress);
         this.hostPort = hostPort;
+        this.executorConfig = requireNonNull(executorConfig);
     }
 
     public String hostAddress() {
@@ -45,4 +48,8 @@ public class PublisherConfig {
     public int hostPort() {
         return hostPort;
     }
+
+    public ExecutorConfig executorConfig() {
+        return executorConfig;
+    }
 }
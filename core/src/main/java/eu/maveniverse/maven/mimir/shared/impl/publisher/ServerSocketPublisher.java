@@ -30,7 +30,7 @@ public class ServerSocketPublisher extends PublisherSupport {
 
         InetSocketAddress inetSocketAddress = new InetSocketAddress(publisherConfig.hostPort());
         this.serverSocket = new ServerSocket(inetSocketAddress.getPort(), 50, inetSocketAddress.getAddress());
-        this.executor = Executors.executorService();
+        this.executor = Executors.executorService(publisherConfig.executorConfig());
 
         Thread serverThread = new Thread(() -> {
             try {
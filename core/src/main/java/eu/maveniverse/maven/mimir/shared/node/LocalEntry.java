@@ -20,4 +20,13 @@ public interface LocalEntry extends Entry {
      * overwrite it).
      */
     void transferTo(Path file) throws IOException;
+
+    /**
+     * Tells whether this entry still describes the content it was created for, for example that the backing file was
+     * not modified or removed since. Used to validate entries that are kept around (cached) for reuse. Entries not
+     * backed by anything that may change are always current.
+     */
+    default boolean isCurrent() throws IOException {
+        return true;
+    }
 }
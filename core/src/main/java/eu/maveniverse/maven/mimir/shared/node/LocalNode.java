@@ -10,9 +10,12 @@ package eu.maveniverse.maven.mimir.shared.node;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Local node uses some "local" (local to the system) backing storage and hence, has access to filesystem.
@@ -25,6 +28,59 @@ public interface LocalNode extends Node {
     @Override
     Optional<? extends LocalEntry> locate(URI uri) throws IOException;
 
+    /**
+     * Locates local entry by key on this node and if found, transfers it to given file. This is the common "cache hit"
+     * path, and nodes may override this method, if they can perform it more efficiently than locate followed by
+     * transfer.
+     *
+     * @see LocalEntry#transferTo(Path)
+     */
+    default Optional<? extends LocalEntry> locateAndTransfer(URI key, Path file) throws IOException {
+        Optional<? extends LocalEntry> entry = locate(key);
+        if (entry.isPresent()) {
+            entry.orElseThrow().transferTo(file);
+        }
+        return entry;
+    }
+
+    /**
+     * Locates local entries by keys on this node. Returned map contains located entries only. Nodes may override this
+     * method, if they can perform batch more efficiently than one-by-one.
+     */
+    default Map<URI, ? extends LocalEntry> locateAll(Collection<URI> keys) throws IOException {
+        HashMap<URI, LocalEntry> result = new HashMap<>();
+        for (URI key : keys) {
+            locate(key).ifPresent(e -> result.put(key, e));
+        }
+        return result;
+    }
+
+    /**
+     * Transfers local entries (originating from this node) to given files. Returns failures by file, hence empty map
+     * means all transfers succeeded. Nodes may override this method, if they can perform batch more efficiently
+     * than one-by-one.
+     */
+    default Map<Path, IOException> transferAll(Map<Path, ? extends LocalEntry> transfers) {
+        HashMap<Path, IOException> failures = new HashMap<>();
+        for (Map.Entry<Path, ? extends LocalEntry> transfer : transfers.entrySet()) {
+            try {
+                transfer.getValue().transferTo(transfer.getKey());
+            } catch (IOException e) {
+                failures.put(transfer.getKey(), e);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Locates the key of a local entry on this node whose content has one of given checksums, regardless of the
+     * container of entry. Nodes maintaining a checksum index should override this method, while by default nothing
+     * is located. Caller must verify the checksums of entry located by returned key.
+     */
+    default Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        return Optional.empty();
+    }
+
     /**
      * Provides list of checksum algorithm names configured to be used by this node.
      */
@@ -35,4 +91,18 @@ public interface LocalNode extends Node {
      */
     LocalEntry store(URI key, Path file, Map<String, String> metadata, Map<String, String> checksums)
             throws IOException;
+
+    /**
+     * Asynchronous variant of {@link #store(URI, Path, Map, Map)}. Nodes able to overlap work (like nodes talking to
+     * remote processes) should override this method, while by default store happens synchronously, and completed
+     * future is returned.
+     */
+    default CompletableFuture<? extends LocalEntry> storeAsync(
+            URI key, Path file, Map<String, String> metadata, Map<String, String> checksums) {
+        try {
+            return CompletableFuture.completedFuture(store(key, file, metadata, checksums));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
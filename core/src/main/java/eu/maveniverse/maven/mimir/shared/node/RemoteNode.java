@@ -9,6 +9,9 @@ package eu.maveniverse.maven.mimir.shared.node;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -25,4 +28,26 @@ public interface RemoteNode extends Node {
      */
     @Override
     Optional<? extends RemoteEntry> locate(URI uri) throws IOException;
+
+    /**
+     * Locates remote entries by keys on this node, returning the located ones. By default, keys are located one by
+     * one; nodes able to locate many keys in one go should override this method.
+     */
+    default Map<URI, ? extends RemoteEntry> locate(Collection<URI> keys) throws IOException {
+        HashMap<URI, RemoteEntry> result = new HashMap<>();
+        for (URI key : keys) {
+            Optional<? extends RemoteEntry> entry = locate(key);
+            if (entry.isPresent()) {
+                result.put(key, entry.orElseThrow());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns node specific statistics, empty by default.
+     */
+    default Map<String, Long> stats() {
+        return Map.of();
+    }
 }
@@ -7,8 +7,12 @@
  */
 package eu.maveniverse.maven.mimir.shared.node;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * System node is a special local node that can also cache various {@link Entry} items, and returns local entry,
@@ -21,4 +25,20 @@ public interface SystemNode extends LocalNode {
      * checksums are not matching (not "same file").
      */
     LocalEntry store(URI key, Entry entry) throws IOException;
+
+    /**
+     * Passes keys (as file keys) of all entries of this node to given consumer, and keeps passing keys of entries
+     * stored afterward (from any thread), until returned watch is closed. Nodes unable to enumerate their entries
+     * return empty, this is the default.
+     */
+    default Optional<Closeable> watchKeys(Consumer<URI> consumer) throws IOException {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns node specific statistics, empty by default. Nodes wrapping another system node return only their own.
+     */
+    default Map<String, Long> stats() {
+        return Map.of();
+    }
 }
@@ -7,15 +7,38 @@
  */
 package eu.maveniverse.maven.mimir.shared.impl;
 
+import static java.util.Objects.requireNonNull;
+
 import java.util.concurrent.ExecutorService;
 
 /**
- * In Java 21 we use virtual threads, as those are ideal for these pure IO workloads.
+ * In Java 21 we use virtual threads, as those are ideal for these pure IO workloads, unless
+ * {@link ExecutorConfig.Mode#BOUNDED} is configured. Note: Mimir code avoids {@code synchronized} (uses
+ * {@link java.util.concurrent.locks.ReentrantLock} instead) to not pin carrier threads during blocking IO.
  */
 public final class Executors {
     private Executors() {}
 
     public static ExecutorService executorService() {
+        return executorService(ExecutorConfig.defaults());
+    }
+
+    public static ExecutorService executorService(ExecutorConfig executorConfig) {
+        requireNonNull(executorConfig, "executorConfig");
+        if (executorConfig.mode() == ExecutorConfig.Mode.BOUNDED) {
+            return java.util.concurrent.Executors.newFixedThreadPool(executorConfig.threads());
+        }
         return java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor();
     }
+
+    /**
+     * Creates (not started) daemon thread for long-running tasks, like serving a connection.
+     */
+    public static Thread thread(ExecutorConfig executorConfig, String name, Runnable runnable) {
+        requireNonNull(executorConfig, "executorConfig");
+        if (executorConfig.mode() == ExecutorConfig.Mode.BOUNDED) {
+            return Thread.ofPlatform().name(name).daemon(true).unstarted(runnable);
+        }
+        return Thread.ofVirtual().name(name).unstarted(runnable);
+    }
 }
@@ -0,0 +1,187 @@
+package eu.maveniverse.maven.mimir.shared.impl.checksum;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import org.eclipse.aether.internal.impl.checksum.Md5ChecksumAlgorithmFactory;
+import org.eclipse.aether.internal.impl.checksum.Sha1ChecksumAlgorithmFactory;
+import org.eclipse.aether.internal.impl.checksum.Sha512ChecksumAlgorithmFactory;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactory;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChecksumEngineTest {
+    private static final List<ChecksumAlgorithmFactory> FACTORIES = List.of(
+            new Md5ChecksumAlgorithmFactory(),
+            new Sha1ChecksumAlgorithmFactory(),
+            new Sha512ChecksumAlgorithmFactory());
+
+    private static Map<String, ChecksumAlgorithm> algorithms() {
+        HashMap<String, ChecksumAlgorithm> result = new HashMap<>();
+        for (ChecksumAlgorithmFactory factory : FACTORIES) {
+            result.put(factory.getName(), factory.getAlgorithm());
+        }
+        return result;
+    }
+
+    private static byte[] data(int size) {
+        byte[] data = new byte[size];
+        new Random(size).nextBytes(data);
+        return data;
+    }
+
+    @Test
+    void sequentialAndParallel(@TempDir Path dir) throws IOException {
+        for (int size : new int[] {
+            0, 1, ChecksumEngine.CHUNK_SIZE - 1, ChecksumEngine.CHUNK_SIZE, 3 * ChecksumEngine.CHUNK_SIZE + 7, 3_000_007
+        }) {
+            byte[] data = data(size);
+            Map<String, String> expected = ChecksumAlgorithmHelper.calculate(data, FACTORIES);
+            for (long threshold : new long[] {0, Long.MAX_VALUE}) {
+                // odd sized array updates
+                try (ChecksumEngine engine = new ChecksumEngine(algorithms(), threshold)) {
+                    for (int off = 0; off < size; off += 1000) {
+                        engine.update(data, off, Math.min(1000, size - off));
+                    }
+                    assertEquals(expected, engine.checksums(), "size=" + size + " threshold=" + threshold);
+                }
+                // byte buffer updates, position left intact
+                try (ChecksumEngine engine = new ChecksumEngine(algorithms(), threshold)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(data);
+                    engine.update(buffer);
+                    assertEquals(0, buffer.position());
+                    assertEquals(expected, engine.checksums(), "size=" + size + " threshold=" + threshold);
+                }
+            }
+            // single bytes
+            try (ChecksumEngine engine = new ChecksumEngine(algorithms(), 0)) {
+                for (byte b : data) {
+                    engine.update(b);
+                }
+                assertEquals(expected, engine.checksums(), "size=" + size);
+            }
+            // file
+            Path file = dir.resolve("file-" + size);
+            Files.write(file, data);
+            assertEquals(expected, ChecksumEngine.calculate(file, algorithms()), "size=" + size);
+            assertEquals(expected, ChecksumEngine.calculateMapped(file, algorithms()), "size=" + size);
+        }
+    }
+
+    @Test
+    void inputStreamOffsetsAndSkip() throws IOException {
+        byte[] data = data(200_000);
+        Map<String, String> expected = ChecksumAlgorithmHelper.calculate(data, FACTORIES);
+        AtomicReference<Map<String, String>> checksums = new AtomicReference<>();
+        try (InputStream stream =
+                new ChecksumInputStream(new ByteArrayInputStream(data), algorithms(), checksums::set)) {
+            byte[] buffer = new byte[4096];
+            assertEquals(data[0] & 0xff, stream.read());
+            // read into non-zero offset of buffer
+            assertEquals(100, stream.read(buffer, 17, 100));
+            assertEquals(1000, stream.skip(1000));
+            stream.transferTo(OutputStream.nullOutputStream());
+        }
+        assertEquals(expected, checksums.get());
+    }
+
+    @Test
+    void enforcerFailurePropagates() {
+        byte[] data = data(2_000_000);
+        ChecksumEnforcer enforcer = new ChecksumEnforcer(Map.of(Sha1ChecksumAlgorithmFactory.NAME, "wrong"));
+        assertThrows(ChecksumEnforcer.ChecksumEnforcerException.class, () -> {
+            try (InputStream stream = new ChecksumInputStream(new ByteArrayInputStream(data), algorithms(), enforcer)) {
+                stream.transferTo(OutputStream.nullOutputStream());
+            }
+        });
+    }
+
+    @Test
+    void abandonedEngineReleasesWorkers() {
+        byte[] data = data(ChecksumEngine.CHUNK_SIZE);
+        for (int i = 0; i < 100; i++) {
+            try (ChecksumEngine engine = new ChecksumEngine(algorithms(), 0)) {
+                for (int j = 0; j < 3 * ChecksumEngine.CHUNKS; j++) {
+                    engine.update(data, 0, data.length);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares the sequential (all digests on calling thread, as before), parallel (workers used from 1 MiB on,
+     * regardless of processor count) and default paths, copying content of various sizes to a file while calculating
+     * SHA-1 and SHA-512. Run with {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void benchmark(@TempDir Path dir) throws IOException {
+        List<ChecksumAlgorithmFactory> factories =
+                List.of(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory());
+        for (int size : new int[] {4 * 1024, 64 * 1024, 1024 * 1024, 16 * 1024 * 1024, 200 * 1024 * 1024}) {
+            Path source = dir.resolve("source");
+            Files.write(source, data(size));
+            int rounds = (int) Math.max(3, Math.min(1000, 256L * 1024 * 1024 / size));
+            long sequential = 0;
+            long parallel = 0;
+            long defaults = 0;
+            for (int round = -1; round < rounds; round++) {
+                long s = copy(source, dir.resolve("target"), factories, Long.MAX_VALUE);
+                long p = copy(source, dir.resolve("target"), factories, 1024 * 1024);
+                long d = copy(source, dir.resolve("target"), factories, ChecksumEngine.PARALLEL_THRESHOLD);
+                if (round >= 0) {
+                    sequential += s;
+                    parallel += p;
+                    defaults += d;
+                }
+            }
+            System.out.printf(
+                    "%,12d bytes: sequential %,10d us, parallel %,10d us, default %,10d us (%d processors)%n",
+                    size,
+                    sequential / rounds / 1000,
+                    parallel / rounds / 1000,
+                    defaults / rounds / 1000,
+                    Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    private static long copy(Path source, Path target, List<ChecksumAlgorithmFactory> factories, long threshold)
+            throws IOException {
+        HashMap<String, ChecksumAlgorithm> algorithms = new HashMap<>();
+        for (ChecksumAlgorithmFactory factory : factories) {
+            algorithms.put(factory.getName(), factory.getAlgorithm());
+        }
+        Files.deleteIfExists(target);
+        long start = System.nanoTime();
+        try (ChecksumEngine engine = new ChecksumEngine(algorithms, threshold);
+                InputStream inputStream = Files.newInputStream(source);
+                OutputStream outputStream = Files.newOutputStream(target)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                engine.update(buffer, 0, read);
+                outputStream.write(buffer, 0, read);
+            }
+            if (engine.checksums().size() != factories.size()) {
+                throw new UncheckedIOException(new IOException("missing checksums"));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
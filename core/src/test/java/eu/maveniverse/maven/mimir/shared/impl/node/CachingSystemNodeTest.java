@@ -0,0 +1,556 @@
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.mimir.shared.node.Entry;
+import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import eu.maveniverse.maven.mimir.shared.node.RemoteNode;
+import eu.maveniverse.maven.mimir.shared.node.SystemNode;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class CachingSystemNodeTest {
+    private final URI key = URI.create("mimir:artifact:central:junit:junit:jar:4.13.2");
+
+    @Test
+    void concurrentMissesAreCoalesced() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode remoteNode = new SlowRemoteNode(Map.of(key, "content"));
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(remoteNode))) {
+            CyclicBarrier barrier = new CyclicBarrier(callers);
+            List<Future<Optional<? extends LocalEntry>>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    return node.locate(key);
+                }));
+            }
+            LocalEntry first = futures.get(0).get().orElseThrow();
+            for (Future<Optional<? extends LocalEntry>> future : futures) {
+                assertSame(first, future.get().orElseThrow());
+            }
+            assertEquals(1, remoteNode.locates.get());
+            assertEquals(1, systemNode.stores.get());
+            Map<String, Long> stats = node.stats();
+            assertEquals(callers, stats.get("caching.locate"));
+            assertEquals(1, stats.get("caching.remoteHit"));
+            assertTrue(stats.get("caching.coalesced") > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void missIsNotStoredAndIsNegativelyCached() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode remoteNode = new SlowRemoteNode(Map.of());
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(remoteNode))) {
+            assertTrue(node.locate(key).isEmpty());
+            assertTrue(node.locate(key).isEmpty());
+            assertEquals(1, remoteNode.locates.get());
+            assertEquals(0, systemNode.stores.get());
+            assertEquals(1, node.stats().get("caching.negativeHit"));
+            assertEquals(1, node.stats().get("caching.negativeMiss"));
+
+            // store invalidates
+            Path file = Files.createTempFile("mimir", ".tmp");
+            try {
+                Files.writeString(file, "content");
+                node.store(key, file, Map.of(), Map.of());
+                assertFalse(node.negativeCache().isMissing(key));
+                assertTrue(node.locate(key).isPresent());
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void unsharedNegativeCache() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode remoteNode = new SlowRemoteNode(Map.of());
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(remoteNode))) {
+            NegativeCache one = node.newNegativeCache();
+            NegativeCache two = node.newNegativeCache();
+            assertTrue(node.locate(key, one).isEmpty());
+            assertTrue(node.locate(key, one).isEmpty());
+            assertTrue(node.locate(key, two).isEmpty());
+            assertEquals(2, remoteNode.locates.get());
+        }
+    }
+
+    @Test
+    void negativeCacheExpiresAndIsBounded() {
+        AtomicLong now = new AtomicLong(0);
+        NegativeCache cache = new NegativeCache(2, Duration.ofSeconds(10), now::get);
+        URI one = URI.create("mimir:one");
+        URI two = URI.create("mimir:two");
+        URI three = URI.create("mimir:three");
+        cache.put(one);
+        assertTrue(cache.isMissing(one));
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertFalse(cache.isMissing(one));
+        assertEquals(0, cache.size());
+
+        cache.put(one);
+        cache.put(two);
+        cache.put(three);
+        assertEquals(2, cache.size());
+        assertFalse(cache.isMissing(one));
+        assertTrue(cache.isMissing(two));
+        assertTrue(cache.isMissing(three));
+        cache.invalidate(two);
+        assertFalse(cache.isMissing(two));
+
+        NegativeCache disabled = new NegativeCache(0, Duration.ofSeconds(10));
+        disabled.put(one);
+        assertFalse(disabled.isMissing(one));
+    }
+
+    @Test
+    void parallelFanOutKeepsOrder() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode first = new SlowRemoteNode(Map.of(), 300);
+        SlowRemoteNode second = new SlowRemoteNode(Map.of(key, "second"), 50);
+        SlowRemoteNode third = new SlowRemoteNode(Map.of(key, "third"), 10);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CachingSystemNodeConfig config = CachingSystemNodeConfig.defaults()
+                .withFanOut(CachingSystemNodeConfig.FanOut.PARALLEL, Duration.ofMillis(50), Duration.ofSeconds(10));
+        try (CachingSystemNode node =
+                new CachingSystemNode(systemNode, List.of(first, second, third), config, executor)) {
+            long start = System.nanoTime();
+            LocalEntry entry = node.locate(key).orElseThrow();
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            assertEquals("second", content(entry));
+            // all were queried at once: took as long as the slowest, not the sum of them
+            assertTrue(elapsed < 300 + 50 + 10, "elapsed " + elapsed);
+            assertEquals(1, first.locates.get());
+            assertEquals(1, second.locates.get());
+            assertEquals(1, third.locates.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void hedgedFanOutTakesFirstHit() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode slow = new SlowRemoteNode(Map.of(key, "slow"), 5000);
+        SlowRemoteNode fast = new SlowRemoteNode(Map.of(key, "fast"), 10);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CachingSystemNodeConfig config = CachingSystemNodeConfig.defaults()
+                .withFanOut(CachingSystemNodeConfig.FanOut.HEDGED, Duration.ofMillis(50), Duration.ofSeconds(10));
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(slow, fast), config, executor)) {
+            long start = System.nanoTime();
+            LocalEntry entry = node.locate(key).orElseThrow();
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            assertEquals("fast", content(entry));
+            assertTrue(elapsed < 2000, "elapsed " + elapsed);
+            Map<String, Long> stats = node.stats();
+            assertEquals(1, stats.get("caching.hedge"));
+            assertEquals(1, stats.get("caching.cancelled"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fanOutTimesOutSlowNodes() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode slow = new SlowRemoteNode(Map.of(key, "slow"), 5000);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CachingSystemNodeConfig config = CachingSystemNodeConfig.defaults()
+                .withFanOut(CachingSystemNodeConfig.FanOut.PARALLEL, Duration.ofMillis(50), Duration.ofMillis(100));
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(slow), config, executor)) {
+            long start = System.nanoTime();
+            assertTrue(node.locate(key).isEmpty());
+            long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+            assertTrue(elapsed < 2000, "elapsed " + elapsed);
+            assertEquals(1, node.stats().get("caching.remoteTimeout"));
+            assertEquals(0, systemNode.stores.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void fanOutMissIsNotNegativelyCachedIfNodeFailed() throws Exception {
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode failing = new SlowRemoteNode("failing", 100, Map.of(), 10);
+        failing.failing = true;
+        SlowRemoteNode slow = new SlowRemoteNode("slow", 200, Map.of(), 5000);
+        SlowRemoteNode answering = new SlowRemoteNode("answering", 300, Map.of(), 10);
+        ExecutorService executor = Executors.newCachedThreadPool();
+        CachingSystemNodeConfig config = CachingSystemNodeConfig.defaults()
+                .withFanOut(CachingSystemNodeConfig.FanOut.PARALLEL, Duration.ofMillis(50), Duration.ofMillis(100));
+        try (CachingSystemNode node =
+                new CachingSystemNode(systemNode, List.of(failing, answering), config, executor)) {
+            assertTrue(node.locate(key).isEmpty());
+            assertFalse(node.negativeCache().isMissing(key));
+            failing.failing = false;
+            assertTrue(node.locate(key).isEmpty());
+            assertTrue(node.negativeCache().isMissing(key));
+        }
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(slow, answering), config, executor)) {
+            assertTrue(node.locate(key).isEmpty());
+            assertFalse(node.negativeCache().isMissing(key));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchLocateAsksRemoteNodesOnce() throws Exception {
+        URI local = URI.create("mimir:artifact:central:junit:junit:jar:4.13.0");
+        URI first = URI.create("mimir:artifact:central:junit:junit:jar:4.13.1");
+        URI second = key;
+        URI missing = URI.create("mimir:artifact:central:junit:junit:jar:4.13.3");
+        MemorySystemNode systemNode = new MemorySystemNode();
+        systemNode.entries.put(local, new MemoryEntry(Map.of(), Map.of(), new byte[0]));
+        SlowRemoteNode near = new SlowRemoteNode("near", 100, Map.of(first, "first"), 10);
+        SlowRemoteNode far = new SlowRemoteNode("far", 200, Map.of(first, "far", second, "second"), 10);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(near, far))) {
+            Map<URI, LocalEntry> entries =
+                    node.locate(List.of(local, first, second, missing), node.negativeCache(), executor);
+            assertEquals(List.of(local, first, second), new ArrayList<>(entries.keySet()));
+            assertEquals("first", content(entries.get(first)));
+            assertEquals("second", content(entries.get(second)));
+            assertEquals(List.of(List.of(first, second, missing)), near.batches);
+            assertEquals(List.of(List.of(second, missing)), far.batches);
+            assertEquals(2, systemNode.stores.get());
+            assertTrue(node.negativeCache().isMissing(missing));
+            assertEquals(1, node.stats().get("caching.batch"));
+            assertEquals(3, node.stats().get("caching.fetch"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchKeysStayInFlightUntilStored() throws Exception {
+        URI first = URI.create("mimir:artifact:central:junit:junit:jar:4.13.1");
+        URI second = key;
+        MemorySystemNode systemNode = new MemorySystemNode();
+        systemNode.gatedKey = second;
+        SlowRemoteNode remoteNode = new SlowRemoteNode(Map.of(first, "first", second, "second"), 0);
+        // store of second runs on its own thread, and is running once execute returns
+        Executor storeExecutor = r -> {
+            new Thread(r).start();
+            try {
+                systemNode.gateEntered.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(remoteNode))) {
+            Future<Map<URI, LocalEntry>> batch =
+                    callers.submit(() -> node.locate(List.of(first, second), node.negativeCache(), storeExecutor));
+            assertTrue(systemNode.gateEntered.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            Future<Optional<? extends LocalEntry>> single = callers.submit(() -> node.locate(second));
+            Thread.sleep(100);
+            systemNode.gate.countDown();
+            assertEquals("second", content(single.get().orElseThrow()));
+            assertEquals(Set.of(first, second), batch.get().keySet());
+            assertEquals(0, remoteNode.locates.get());
+            assertEquals(2, systemNode.stores.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchMissIsNotNegativelyCachedIfNodeFailed() throws Exception {
+        URI first = URI.create("mimir:artifact:central:junit:junit:jar:4.13.1");
+        URI missing = URI.create("mimir:artifact:central:junit:junit:jar:4.13.3");
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode near = new SlowRemoteNode("near", 100, Map.of(first, "first"), 10);
+        SlowRemoteNode far = new SlowRemoteNode("far", 200, Map.of(), 10);
+        far.failing = true;
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(near, far))) {
+            Map<URI, LocalEntry> entries = node.locate(List.of(first, missing), node.negativeCache(), executor);
+            assertEquals(Set.of(first), entries.keySet());
+            assertFalse(node.negativeCache().isMissing(missing));
+            far.failing = false;
+            assertTrue(node.locate(List.of(missing), node.negativeCache(), executor)
+                    .isEmpty());
+            assertTrue(node.negativeCache().isMissing(missing));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void missIsNotNegativelyCachedIfNodeSkipped() throws Exception {
+        URI first = URI.create("mimir:artifact:central:junit:junit:jar:4.13.1");
+        URI second = URI.create("mimir:artifact:central:junit:junit:jar:4.13.3");
+        MemorySystemNode systemNode = new MemorySystemNode();
+        SlowRemoteNode near = new SlowRemoteNode("near", 100, Map.of(), 0);
+        SlowRemoteNode far = new SlowRemoteNode("far", 200, Map.of(), 0);
+        far.failing = true;
+        CachingSystemNodeConfig config =
+                CachingSystemNodeConfig.defaults().withRanking(true, 0.5, 1, Duration.ofHours(1));
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        try (CachingSystemNode node = new CachingSystemNode(systemNode, List.of(near, far), config)) {
+            // far fails once: its breaker opens
+            assertTrue(
+                    node.locate(List.of(first), node.negativeCache(), executor).isEmpty());
+            assertEquals(-1, node.stats().get("ranking.far.rank"));
+            // far is left out, hence misses are not conclusive
+            assertTrue(
+                    node.locate(List.of(second), node.negativeCache(), executor).isEmpty());
+            assertFalse(node.negativeCache().isMissing(second));
+            assertTrue(node.locate(key).isEmpty());
+            assertFalse(node.negativeCache().isMissing(key));
+            assertEquals(1, far.batches.size());
+            assertEquals(0, far.locates.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void rankingFollowsLatencyAndBreaksCircuit() {
+        AtomicLong now = new AtomicLong(0);
+        SlowRemoteNode near = new SlowRemoteNode("near", 100, Map.of(), 0);
+        SlowRemoteNode far = new SlowRemoteNode("far", 500, Map.of(), 0);
+        RemoteNodeRanking ranking = new RemoteNodeRanking(List.of(near, far), 0.5, 3, Duration.ofSeconds(10), now::get);
+        assertEquals(List.of(near, far), ranking.ranked());
+
+        // near turns out to be slow, far to be fast
+        for (int i = 0; i < 5; i++) {
+            ranking.locateSuccess(near, Duration.ofMillis(900).toNanos());
+            ranking.locateSuccess(far, Duration.ofMillis(10).toNanos());
+        }
+        assertEquals(List.of(far, near), ranking.ranked());
+
+        // far starts failing: breaker opens
+        ranking.failure(far);
+        ranking.failure(far);
+        assertTrue(ranking.ranked().contains(far));
+        ranking.failure(far);
+        assertEquals(List.of(near), ranking.ranked());
+        assertEquals(-1, ranking.stats().get("ranking.far.rank"));
+
+        // after cooldown, one probe goes through
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertTrue(ranking.ranked().contains(far));
+        assertEquals(List.of(near), ranking.ranked());
+        // probe succeeds: breaker closes
+        ranking.locateSuccess(far, Duration.ofMillis(10).toNanos());
+        assertTrue(ranking.ranked().contains(far));
+        assertTrue(ranking.stats().get("ranking.far.rank") >= 0);
+    }
+
+    @Test
+    void rankingRatesContentPerByte() {
+        SlowRemoteNode near = new SlowRemoteNode("near", 100, Map.of(), 0);
+        SlowRemoteNode far = new SlowRemoteNode("far", 100, Map.of(), 0);
+        RemoteNodeRanking ranking = new RemoteNodeRanking(List.of(near, far), 0.5, 3, Duration.ofSeconds(10), () -> 0L);
+        assertEquals(List.of(near, far), ranking.ranked());
+
+        // near serves big entries taking longer, far small ones at a tenth of near rate
+        for (int i = 0; i < 5; i++) {
+            ranking.content(near, 100_000_000, Duration.ofSeconds(1).toNanos());
+            ranking.content(far, 1_000_000, Duration.ofMillis(100).toNanos());
+        }
+        assertEquals(List.of(near, far), ranking.ranked());
+        assertEquals(100_000_000L, ranking.stats().get("ranking.near.contentBytesPerSecond"));
+        assertEquals(10_000_000L, ranking.stats().get("ranking.far.contentBytesPerSecond"));
+
+        // empty content carries no rate
+        ranking.content(far, 0, Duration.ofSeconds(1).toNanos());
+        assertEquals(10_000_000L, ranking.stats().get("ranking.far.contentBytesPerSecond"));
+    }
+
+    private static String content(LocalEntry entry) throws IOException {
+        String[] content = new String[1];
+        entry.handleContent(stream -> content[0] = new String(stream.readAllBytes(), StandardCharsets.UTF_8));
+        return content[0];
+    }
+
+    static final class MemorySystemNode extends NodeSupport implements SystemNode {
+        final ConcurrentHashMap<URI, MemoryEntry> entries = new ConcurrentHashMap<>();
+        final AtomicInteger stores = new AtomicInteger();
+        final AtomicInteger locates = new AtomicInteger();
+        volatile URI gatedKey;
+        final CountDownLatch gateEntered = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+
+        MemorySystemNode() {
+            super("memory");
+        }
+
+        @Override
+        public Optional<MemoryEntry> locate(URI key) {
+            locates.incrementAndGet();
+            return Optional.ofNullable(entries.get(key));
+        }
+
+        @Override
+        public List<String> checksumAlgorithms() {
+            return List.of();
+        }
+
+        @Override
+        public LocalEntry store(URI key, Path file, Map<String, String> metadata, Map<String, String> checksums)
+                throws IOException {
+            return store(key, new MemoryEntry(metadata, checksums, Files.readAllBytes(file)));
+        }
+
+        @Override
+        public LocalEntry store(URI key, Entry entry) throws IOException {
+            stores.incrementAndGet();
+            if (key.equals(gatedKey)) {
+                gateEntered.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+            }
+            byte[][] content = new byte[1][];
+            entry.handleContent(stream -> content[0] = stream.readAllBytes());
+            MemoryEntry memoryEntry = new MemoryEntry(entry.metadata(), entry.checksums(), content[0]);
+            entries.put(key, memoryEntry);
+            return memoryEntry;
+        }
+
+        @Override
+        public String toString() {
+            return "memory";
+        }
+    }
+
+    static final class MemoryEntry extends EntrySupport implements LocalEntry, RemoteEntry {
+        private final byte[] content;
+        volatile boolean current = true;
+
+        MemoryEntry(Map<String, String> metadata, Map<String, String> checksums, byte[] content) {
+            super(metadata, checksums);
+            this.content = content;
+        }
+
+        @Override
+        public void handleContent(IOConsumer consumer) throws IOException {
+            consumer.accept(new ByteArrayInputStream(content));
+        }
+
+        @Override
+        public void transferTo(Path file) throws IOException {
+            Files.write(file, content);
+        }
+
+        @Override
+        public boolean isCurrent() {
+            return current;
+        }
+    }
+
+    static final class SlowRemoteNode extends NodeSupport implements RemoteNode {
+        final int distance;
+        final Map<URI, String> contents;
+        final long sleepMillis;
+        final AtomicInteger locates = new AtomicInteger();
+        final List<List<URI>> batches = new CopyOnWriteArrayList<>();
+        volatile boolean failing;
+
+        SlowRemoteNode(Map<URI, String> contents) {
+            this(contents, 200);
+        }
+
+        SlowRemoteNode(Map<URI, String> contents, long sleepMillis) {
+            this("slow", 100, contents, sleepMillis);
+        }
+
+        SlowRemoteNode(String name, int distance, Map<URI, String> contents, long sleepMillis) {
+            super(name);
+            this.distance = distance;
+            this.contents = contents;
+            this.sleepMillis = sleepMillis;
+        }
+
+        @Override
+        public int distance() {
+            return distance;
+        }
+
+        @Override
+        public Optional<MemoryEntry> locate(URI key) throws IOException {
+            locates.incrementAndGet();
+            if (failing) {
+                throw new IOException("failing");
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            String content = contents.get(key);
+            if (content == null) {
+                return Optional.empty();
+            }
+            return Optional.of(new MemoryEntry(Map.of(), Map.of(), content.getBytes(StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public Map<URI, MemoryEntry> locate(Collection<URI> keys) throws IOException {
+            batches.add(List.copyOf(keys));
+            if (failing) {
+                throw new IOException("failing");
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            LinkedHashMap<URI, MemoryEntry> result = new LinkedHashMap<>();
+            for (URI key : keys) {
+                String content = contents.get(key);
+                if (content != null) {
+                    result.put(key, new MemoryEntry(Map.of(), Map.of(), content.getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
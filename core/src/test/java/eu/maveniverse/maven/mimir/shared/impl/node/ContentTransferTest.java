@@ -0,0 +1,89 @@
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ContentTransferTest {
+    @Test
+    void modes(@TempDir Path dir) throws IOException {
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        ThreadLocalRandom.current().nextBytes(data);
+        Path source = dir.resolve("source");
+        Files.write(source, data);
+        FileTime lastModified = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(source, lastModified);
+
+        ContentTransfer auto = new ContentTransfer("test", ContentTransfer.Mode.AUTO, true);
+        ContentTransfer.Strategy strategy = auto.transfer(source, dir.resolve("auto"), data.length);
+        assertNotEquals(ContentTransfer.Strategy.CHANNEL, strategy);
+        assertNotEquals(ContentTransfer.Strategy.STREAM, strategy);
+        assertArrayEquals(data, Files.readAllBytes(dir.resolve("auto")));
+
+        ContentTransfer noLink = new ContentTransfer("test", ContentTransfer.Mode.AUTO, false);
+        assertEquals(ContentTransfer.Strategy.CLONE, noLink.transfer(source, dir.resolve("noLink"), data.length));
+
+        for (ContentTransfer.Mode mode : new ContentTransfer.Mode[] {
+            ContentTransfer.Mode.CLONE, ContentTransfer.Mode.CHANNEL, ContentTransfer.Mode.STREAM
+        }) {
+            ContentTransfer transfer = new ContentTransfer("test", mode, true);
+            Path target = dir.resolve(mode.name());
+            ContentTransfer.Strategy served = transfer.transfer(source, target, data.length);
+            assertEquals(mode.name(), served.name());
+            assertArrayEquals(data, Files.readAllBytes(target));
+            assertEquals(lastModified, Files.getLastModifiedTime(target));
+            assertEquals(1L, transfer.stats().get("test.transfer." + mode.name().toLowerCase()));
+            assertEquals(0L, transfer.stats().get("test.transfer.fallback"));
+        }
+    }
+
+    @Test
+    void failures(@TempDir Path dir) throws IOException {
+        Path source = dir.resolve("source");
+        Files.writeString(source, "Hello World!");
+
+        // target exists: sole strategy fails
+        Path existing = dir.resolve("existing");
+        Files.writeString(existing, "existing");
+        ContentTransfer channel = new ContentTransfer("test", ContentTransfer.Mode.CHANNEL, false);
+        assertThrows(FileAlreadyExistsException.class, () -> channel.transfer(source, existing, 12));
+        assertEquals("existing", Files.readString(existing));
+        assertEquals(0L, channel.stats().get("test.transfer.channel"));
+
+        // size mismatch
+        ContentTransfer clone = new ContentTransfer("test", ContentTransfer.Mode.CLONE, false);
+        IOException e = assertThrows(IOException.class, () -> clone.transfer(source, dir.resolve("short"), 13));
+        assertTrue(e.getMessage().contains("expected 13 bytes"));
+        assertEquals(0L, clone.stats().get("test.transfer.clone"));
+    }
+
+    @Test
+    void zipSource(@TempDir Path dir) throws IOException {
+        Path zip = dir.resolve("bundle.zip");
+        try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + zip.toUri()), Map.of("create", "true"))) {
+            Files.writeString(fs.getPath("/entry.txt"), "Hello World!".repeat(1000));
+        }
+        try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + zip.toUri()), Map.of("create", "false"))) {
+            ContentTransfer transfer = new ContentTransfer("test", ContentTransfer.Mode.AUTO, true);
+            Path target = dir.resolve("target");
+            assertEquals(ContentTransfer.Strategy.CHANNEL, transfer.transfer(fs.getPath("/entry.txt"), target, 12000));
+            assertEquals("Hello World!".repeat(1000), Files.readString(target));
+            assertEquals(1L, transfer.stats().get("test.transfer.channel"));
+        }
+    }
+}
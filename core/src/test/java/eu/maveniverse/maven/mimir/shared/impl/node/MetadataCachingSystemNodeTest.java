@@ -0,0 +1,103 @@
+package eu.maveniverse.maven.mimir.shared.impl.node;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class MetadataCachingSystemNodeTest {
+    private final URI key = URI.create("mimir:artifact:central:junit:junit:jar:4.13.2");
+
+    @Test
+    void cachesValidatesAndInvalidates() throws Exception {
+        CachingSystemNodeTest.MemorySystemNode systemNode = new CachingSystemNodeTest.MemorySystemNode();
+        CachingSystemNodeTest.MemoryEntry entry =
+                new CachingSystemNodeTest.MemoryEntry(Map.of(), Map.of(), "content".getBytes(StandardCharsets.UTF_8));
+        systemNode.entries.put(key, entry);
+        try (MetadataCachingSystemNode node =
+                new MetadataCachingSystemNode(systemNode, MetadataCacheConfig.of(10, MetadataCacheConfig.Policy.LRU))) {
+            assertSame(entry, node.locate(key).orElseThrow());
+            assertSame(entry, node.locate(key).orElseThrow());
+            assertEquals(1, systemNode.locates.get());
+
+            // stale entry is not served
+            entry.current = false;
+            assertSame(entry, node.locate(key).orElseThrow());
+            assertEquals(2, systemNode.locates.get());
+
+            // store replaces cached entry
+            LocalEntry stored = node.store(
+                    key,
+                    new CachingSystemNodeTest.MemoryEntry(
+                            Map.of(), Map.of(), "other".getBytes(StandardCharsets.UTF_8)));
+            assertNotSame(entry, stored);
+            assertSame(stored, node.locate(key).orElseThrow());
+            assertEquals(2, systemNode.locates.get());
+
+            Map<String, Long> stats = node.stats();
+            assertEquals(2, stats.get("metadataCache.hit"));
+            assertEquals(2, stats.get("metadataCache.miss"));
+            assertEquals(1, stats.get("metadataCache.stale"));
+            assertEquals(50, stats.get("metadataCache.hitRatio"));
+        }
+    }
+
+    @Test
+    void lruEvictsLeastRecentlyUsed() {
+        BoundedCache<Integer, String> cache = BoundedCache.of(MetadataCacheConfig.Policy.LRU, 2);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        assertEquals("one", cache.get(1));
+        cache.put(3, "three");
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2));
+        assertEquals("one", cache.get(1));
+        assertEquals("three", cache.get(3));
+        cache.invalidate(1);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void wTinyLfuResistsScans() {
+        int hot = 50;
+        BoundedCache<Integer, String> lru = BoundedCache.of(MetadataCacheConfig.Policy.LRU, 100);
+        BoundedCache<Integer, String> tinyLfu = BoundedCache.of(MetadataCacheConfig.Policy.WTINYLFU, 100);
+        for (BoundedCache<Integer, String> cache : List.of(lru, tinyLfu)) {
+            for (int round = 0; round < 5; round++) {
+                for (int i = 0; i < hot; i++) {
+                    if (cache.get(i) == null) {
+                        cache.put(i, "hot");
+                    }
+                }
+            }
+            // one-off scan of many keys
+            for (int i = 1000; i < 2000; i++) {
+                if (cache.get(i) == null) {
+                    cache.put(i, "scan");
+                }
+            }
+            assertTrue(cache.size() <= 100);
+        }
+        assertEquals(0, hits(lru, hot));
+        // frequency is an estimate, and hot entries still in probation segment may lose
+        assertTrue(hits(tinyLfu, hot) >= hot * 9 / 10);
+    }
+
+    private static int hits(BoundedCache<Integer, String> cache, int hot) {
+        int hits = 0;
+        for (int i = 0; i < hot; i++) {
+            if (cache.get(i) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
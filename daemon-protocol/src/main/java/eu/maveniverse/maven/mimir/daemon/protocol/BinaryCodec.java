@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.daemon.protocol;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codec of {@link Handle#PROTOCOL_V2} message bodies. Layout of a message body:
+ * <pre>
+ *   long   id
+ *   string cmd (request) or status (response)
+ *   map    data
+ *   map    session
+ * </pre>
+ * where a map is a varint entry count followed by key and value strings, and a string is a varint tag: tag
+ * {@code 0} is followed by varint length and UTF-8 bytes, tag {@link #INDEXED} is followed by varint item index and a
+ * string (batch item keys, see {@link Message#itemKey(int, String)}), while any other tag denotes a "known" string from
+ * {@link #KNOWN}. The list of known strings is append-only: changing existing tags breaks the protocol.
+ */
+final class BinaryCodec {
+    private BinaryCodec() {}
+
+    /**
+     * Known strings: commands, statuses, data and session keys, and common metadata and checksum keys and values.
+     * Index is the tag; index 0 is reserved for literal strings.
+     */
+    private static final List<String> KNOWN = List.of(
+            "",
+            Request.CMD_HELLO,
+            Request.CMD_BYE,
+            Request.CMD_LOCATE,
+            Request.CMD_TRANSFER,
+            Request.CMD_LS_CHECKSUMS,
+            Request.CMD_STORE_PATH,
+            Request.CMD_PRESEED,
+            Response.STATUS_OK,
+            Response.STATUS_KO,
+            Request.DATA_KEYSTRING,
+            Request.DATA_PATHSTRING,
+            Request.DATA_SHUTDOWN,
+            Request.DATA_GAVS,
+            Request.DATA_GAV_ITSELF,
+            Response.DATA_MESSAGE,
+            Session.DAEMON_PID,
+            Session.DAEMON_VERSION,
+            Session.NODE_PID,
+            Session.NODE_VERSION,
+            Session.SESSION_ID,
+            Session.LRM_PATH,
+            Session.PROTOCOL_VERSIONS,
+            Session.PROTOCOL_VERSION,
+            // entry metadata and checksums, as merged by EntryUtils (prefixes "m." and "c.")
+            "m.content-length",
+            "m.content-modified",
+            "c.SHA-1",
+            "c.SHA-256",
+            "c.SHA-512",
+            "c.MD5",
+            "SHA-1",
+            "SHA-256",
+            "SHA-512",
+            "MD5",
+            Request.CMD_LOCATE_MANY,
+            Request.CMD_TRANSFER_MANY,
+            Request.DATA_COUNT,
+            Response.DATA_STATUS,
+            Request.CMD_LOCATE_TRANSFER,
+            Request.CMD_STATS,
+            Request.CMD_LOCATE_KEY);
+
+    /**
+     * Tag of indexed strings; must be bigger than count of known strings.
+     */
+    private static final int INDEXED = 127;
+
+    private static final Map<String, Integer> TAGS;
+
+    static {
+        HashMap<String, Integer> tags = new HashMap<>();
+        for (int i = 1; i < KNOWN.size(); i++) {
+            tags.put(KNOWN.get(i), i);
+        }
+        TAGS = Map.copyOf(tags);
+    }
+
+    static void encodeRequest(Request request, ByteBuffer buffer) {
+        buffer.putLong(request.id());
+        putString(buffer, request.cmd());
+        putMap(buffer, request.data());
+        putMap(buffer, request.session());
+    }
+
+    static Request decodeRequest(ByteBuffer buffer) throws IOException {
+        try {
+            return ImmutableRequest.builder()
+                    .id(buffer.getLong())
+                    .cmd(getString(buffer))
+                    .data(getMap(buffer))
+                    .session(getMap(buffer))
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed request frame", e);
+        }
+    }
+
+    static void encodeResponse(Response response, ByteBuffer buffer) {
+        buffer.putLong(response.id());
+        putString(buffer, response.status());
+        putMap(buffer, response.data());
+        putMap(buffer, response.session());
+    }
+
+    static Response decodeResponse(ByteBuffer buffer) throws IOException {
+        try {
+            return ImmutableResponse.builder()
+                    .id(buffer.getLong())
+                    .status(getString(buffer))
+                    .data(getMap(buffer))
+                    .session(getMap(buffer))
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Malformed response frame", e);
+        }
+    }
+
+    private static void putMap(ByteBuffer buffer, Map<String, String> map) {
+        putVarInt(buffer, map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            putString(buffer, entry.getKey());
+            putString(buffer, entry.getValue());
+        }
+    }
+
+    private static Map<String, String> getMap(ByteBuffer buffer) throws IOException {
+        int entries = getVarInt(buffer);
+        LinkedHashMap<String, String> map = new LinkedHashMap<>(Math.max(4, entries * 2));
+        for (int i = 0; i < entries; i++) {
+            String key = getString(buffer);
+            String value = getString(buffer);
+            map.put(key, value);
+        }
+        return map;
+    }
+
+    private static void putString(ByteBuffer buffer, String string) {
+        Integer tag = TAGS.get(string);
+        if (tag != null) {
+            putVarInt(buffer, tag);
+            return;
+        }
+        int dot = string.indexOf('.');
+        if (dot > 0 && Message.isIndex(string, dot)) {
+            putVarInt(buffer, INDEXED);
+            putVarInt(buffer, Integer.parseInt(string.substring(0, dot)));
+            putString(buffer, string.substring(dot + 1));
+            return;
+        }
+        putVarInt(buffer, 0);
+        int length = string.length();
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            if (string.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) {
+            // most strings (keys, paths, checksums) are ASCII: write them without intermediate byte array
+            putVarInt(buffer, length);
+            if (buffer.remaining() < length) {
+                throw new BufferOverflowException();
+            }
+            for (int i = 0; i < length; i++) {
+                buffer.put((byte) string.charAt(i));
+            }
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            putVarInt(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) throws IOException {
+        int tag = getVarInt(buffer);
+        if (tag == INDEXED) {
+            int index = getVarInt(buffer);
+            return Message.itemKey(index, getString(buffer));
+        }
+        if (tag != 0) {
+            if (tag >= KNOWN.size()) {
+                throw new IOException("Unknown string tag " + tag);
+            }
+            return KNOWN.get(tag);
+        }
+        int length = getVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new IOException("Malformed string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarInt(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IOException("Malformed varint");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.daemon.protocol;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple pool of fixed size direct buffers used for framing. Requests for buffers bigger than pooled size are served
+ * with (not pooled) heap buffers, as those are expected to be rare.
+ */
+final class BufferPool {
+    static final BufferPool INSTANCE = new BufferPool(16 * 1024, 64);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<ByteBuffer> pool;
+    private final AtomicInteger pooled;
+
+    BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.pool = new ConcurrentLinkedQueue<>();
+        this.pooled = new AtomicInteger(0);
+    }
+
+    int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Returns a cleared buffer with at least given capacity.
+     */
+    ByteBuffer acquire(int capacity) {
+        if (capacity > bufferSize) {
+            return ByteBuffer.allocate(capacity);
+        }
+        ByteBuffer buffer = pool.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            return buffer.clear();
+        }
+        return ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * Returns the buffer to pool; buffers not originating from pool are ignored.
+     */
+    void release(ByteBuffer buffer) {
+        if (buffer.isDirect() && buffer.capacity() == bufferSize && pooled.incrementAndGet() <= maxPooled) {
+            pool.offer(buffer);
+        } else if (buffer.isDirect() && buffer.capacity() == bufferSize) {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -12,22 +12,26 @@ import static java.util.Objects.requireNonNull;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.StandardProtocolFamily;
 import java.net.UnixDomainSocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
-import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class Handle implements Closeable {
     /**
@@ -35,9 +39,70 @@ public class Handle implements Closeable {
      */
     public static final String DEFAULT_SOCKET_PATH = "mimir-socket";
 
+    /**
+     * Legacy wire format: frame is an {@code int} length followed by {@link ObjectOutputStream} written payload.
+     * Message IDs are not transported, hence this format does not support multiplexing.
+     */
+    public static final int PROTOCOL_V1 = 1;
+
+    /**
+     * Binary wire format: frame is a magic {@code int}, an {@code int} length, followed by payload. Payload is
+     * encoded by {@link BinaryCodec}.
+     */
+    public static final int PROTOCOL_V2 = 2;
+
+    /**
+     * The supported protocol versions, as advertised by client in {@link Request#CMD_HELLO}.
+     */
+    public static final String SUPPORTED_PROTOCOL_VERSIONS = PROTOCOL_V1 + "," + PROTOCOL_V2;
+
+    /**
+     * The default time a call over persistent connection waits for its response. Is generous, as daemon may fetch
+     * entries from remote nodes while serving the call.
+     */
+    public static final Duration DEFAULT_RESPONSE_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Frame magic of {@link #PROTOCOL_V2}: "MIM" and version. As legacy frames start with length, this value would
+     * correspond to a legacy frame of more than 1GB, that is never sent.
+     */
+    private static final int MAGIC_V2 = 0x4D494D02;
+
+    /**
+     * The maximum accepted frame payload length (of any protocol version); longer frames are rejected as malformed
+     * instead of allocating buffer for them.
+     */
+    private static final int MAX_FRAME = 64 * 1024 * 1024;
+
+    /**
+     * Negotiates the protocol version: picks the highest version supported by both sides. Legacy clients do not
+     * advertise anything, and they get {@link #PROTOCOL_V1}.
+     *
+     * @param clientVersions the comma separated versions advertised by client, may be {@code null}.
+     */
+    public static int negotiateProtocolVersion(String clientVersions) {
+        int result = PROTOCOL_V1;
+        if (clientVersions != null) {
+            for (String version : clientVersions.split(",")) {
+                try {
+                    int v = Integer.parseInt(version.trim());
+                    if (v <= PROTOCOL_V2 && v > result) {
+                        result = v;
+                    }
+                } catch (NumberFormatException e) {
+                    // ignore unknown
+                }
+            }
+        }
+        return result;
+    }
+
     private final ByteChannel channel;
-    private final DataOutputStream outputStream;
-    private final DataInputStream inputStream;
+    private final boolean followPeer;
+    private final ReentrantLock writeLock;
+    private final ByteBuffer writeHeader;
+    private final ByteBuffer readHeader;
+    private volatile int protocolVersion;
 
     public interface ServerHandle extends Closeable {
         boolean isOpen();
@@ -60,7 +125,8 @@ public class Handle implements Closeable {
 
             @Override
             public Handle accept() throws IOException {
-                return new Handle(serverSocketChannel.accept());
+                // server side: responds using the format client used
+                return new Handle(serverSocketChannel.accept(), PROTOCOL_V1, true);
             }
 
             @Override
@@ -79,11 +145,51 @@ public class Handle implements Closeable {
     public interface ClientHandle extends Closeable {
         boolean isOpen();
 
+        /**
+         * Opens a new dedicated connection. Caller owns the returned handle and must close it.
+         */
         Handle getHandle() throws IOException;
+
+        /**
+         * Performs a request/response round trip. Depending on implementation, this may happen over a new connection
+         * or over a long-lived connection shared by all callers.
+         */
+        default Response execute(Request request) throws IOException {
+            requireNonNull(request, "request");
+            try (Handle handle = getHandle()) {
+                handle.writeRequest(request);
+                return handle.readResponse();
+            }
+        }
+
+        /**
+         * Performs a request/response round trip asynchronously. Implementations multiplexing a long-lived connection
+         * pipeline requests and complete returned futures as responses arrive, while by default the round trip is
+         * performed synchronously by caller thread and completed future is returned.
+         */
+        default CompletableFuture<Response> submit(Request request) {
+            try {
+                return CompletableFuture.completedFuture(execute(request));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
     }
 
+    /**
+     * Client handle that opens new connection for each round trip, using {@link #PROTOCOL_V1}. This is the handle to
+     * be used for {@link Request#CMD_HELLO}, when the protocol version is not yet negotiated.
+     */
     public static ClientHandle clientDomainSocket(Path domainSocketPath) throws IOException {
+        return clientDomainSocket(domainSocketPath, PROTOCOL_V1);
+    }
+
+    /**
+     * Client handle that opens new connection for each round trip, using given protocol version.
+     */
+    public static ClientHandle clientDomainSocket(Path domainSocketPath, int protocolVersion) throws IOException {
         requireNonNull(domainSocketPath, "domainSocketPath");
+        checkProtocolVersion(protocolVersion);
         return new ClientHandle() {
             private final AtomicBoolean closed = new AtomicBoolean(false);
 
@@ -100,7 +206,7 @@ public class Handle implements Closeable {
                 SocketChannel socketChannel = SocketChannel.open(StandardProtocolFamily.UNIX);
                 socketChannel.configureBlocking(true);
                 socketChannel.connect(UnixDomainSocketAddress.of(domainSocketPath));
-                return new Handle(socketChannel);
+                return new Handle(socketChannel, protocolVersion, false);
             }
 
             @Override
@@ -112,64 +218,137 @@ public class Handle implements Closeable {
         };
     }
 
+    /**
+     * Client handle that keeps one long-lived connection and multiplexes all round trips over it, matching responses
+     * to requests by their ID. The connection is established lazily and re-established if lost. The
+     * {@link ClientHandle#getHandle()} method still opens new dedicated connections. As multiplexing needs message IDs
+     * on the wire, this handle always uses {@link #PROTOCOL_V2}. Calls wait for response at most
+     * {@link #DEFAULT_RESPONSE_TIMEOUT}.
+     */
+    public static ClientHandle persistentClientDomainSocket(Path domainSocketPath) throws IOException {
+        return persistentClientDomainSocket(domainSocketPath, DEFAULT_RESPONSE_TIMEOUT);
+    }
+
+    /**
+     * Same as {@link #persistentClientDomainSocket(Path)}, but calls wait for response at most given timeout.
+     */
+    public static ClientHandle persistentClientDomainSocket(Path domainSocketPath, Duration responseTimeout)
+            throws IOException {
+        ClientHandle clientHandle = clientDomainSocket(domainSocketPath, PROTOCOL_V2);
+        return new PersistentClientHandle(clientHandle, responseTimeout);
+    }
+
     /**
      * This method is used in tests.
      */
     public static Handle byteChannel(ByteChannel byteChannel) {
-        return new Handle(byteChannel);
+        return new Handle(byteChannel, PROTOCOL_V1, true);
     }
 
-    private Handle(ByteChannel byteChannel) {
+    /**
+     * This method is used in tests.
+     */
+    public static Handle byteChannel(ByteChannel byteChannel, int protocolVersion) {
+        checkProtocolVersion(protocolVersion);
+        return new Handle(byteChannel, protocolVersion, false);
+    }
+
+    private static void checkProtocolVersion(int protocolVersion) {
+        if (protocolVersion != PROTOCOL_V1 && protocolVersion != PROTOCOL_V2) {
+            throw new IllegalArgumentException("Unsupported protocol version: " + protocolVersion);
+        }
+    }
+
+    /**
+     * Creates handle. If {@code followPeer} is {@code true}, handle writes messages using the format of last read
+     * message (server side), otherwise it always uses given protocol version (client side).
+     */
+    private Handle(ByteChannel byteChannel, int protocolVersion, boolean followPeer) {
         this.channel = requireNonNull(byteChannel, "byteChannel");
-        this.outputStream = new DataOutputStream(Channels.newOutputStream(channel));
-        this.inputStream = new DataInputStream(Channels.newInputStream(channel));
+        this.protocolVersion = protocolVersion;
+        this.followPeer = followPeer;
+        this.writeLock = new ReentrantLock();
+        this.writeHeader = ByteBuffer.allocateDirect(8);
+        this.readHeader = ByteBuffer.allocateDirect(8);
+    }
+
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    public int protocolVersion() {
+        return protocolVersion;
     }
 
     public void writeRequest(Request request) throws IOException {
         requireNonNull(request, "request");
-        ByteArrayOutputStream b = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
-            oos.writeUTF(request.cmd());
-            writeMap(oos, request.data());
-            writeMap(oos, request.session());
+        if (protocolVersion == PROTOCOL_V2) {
+            writeFrame(request, null);
+        } else {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeUTF(request.cmd());
+                writeMap(oos, request.data());
+                writeMap(oos, request.session());
+            }
+            writeLegacyFrame(b);
         }
-        outputStream.writeInt(b.size());
-        outputStream.write(b.toByteArray());
-        outputStream.flush();
     }
 
     public Request readRequest() throws IOException {
-        byte[] bytes = inputStream.readNBytes(inputStream.readInt());
-        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
-            return ImmutableRequest.builder()
-                    .cmd(ois.readUTF())
-                    .data(readMap(ois))
-                    .session(readMap(ois))
-                    .build();
+        Frame frame = readFrame();
+        try {
+            if (frame.version() == PROTOCOL_V2) {
+                return BinaryCodec.decodeRequest(frame.payload());
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(
+                    frame.payload().array(),
+                    frame.payload().arrayOffset(),
+                    frame.payload().remaining()))) {
+                return ImmutableRequest.builder()
+                        .cmd(ois.readUTF())
+                        .data(readMap(ois))
+                        .session(readMap(ois))
+                        .build();
+            }
+        } finally {
+            BufferPool.INSTANCE.release(frame.payload());
         }
     }
 
     public void writeResponse(Response response) throws IOException {
         requireNonNull(response, "response");
-        ByteArrayOutputStream b = new ByteArrayOutputStream();
-        try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
-            oos.writeUTF(response.status());
-            writeMap(oos, response.data());
-            writeMap(oos, response.session());
+        if (protocolVersion == PROTOCOL_V2) {
+            writeFrame(null, response);
+        } else {
+            ByteArrayOutputStream b = new ByteArrayOutputStream();
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeUTF(response.status());
+                writeMap(oos, response.data());
+                writeMap(oos, response.session());
+            }
+            writeLegacyFrame(b);
         }
-        outputStream.writeInt(b.size());
-        outputStream.write(b.toByteArray());
-        outputStream.flush();
     }
 
     public Response readResponse() throws IOException {
-        byte[] bytes = inputStream.readNBytes(inputStream.readInt());
-        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
-            return ImmutableResponse.builder()
-                    .status(ois.readUTF())
-                    .data(readMap(ois))
-                    .session(readMap(ois))
-                    .build();
+        Frame frame = readFrame();
+        try {
+            if (frame.version() == PROTOCOL_V2) {
+                return BinaryCodec.decodeResponse(frame.payload());
+            }
+            try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(
+                    frame.payload().array(),
+                    frame.payload().arrayOffset(),
+                    frame.payload().remaining()))) {
+                return ImmutableResponse.builder()
+                        .status(ois.readUTF())
+                        .data(readMap(ois))
+                        .session(readMap(ois))
+                        .build();
+            }
+        } finally {
+            BufferPool.INSTANCE.release(frame.payload());
         }
     }
 
@@ -178,6 +357,119 @@ public class Handle implements Closeable {
         channel.close();
     }
 
+    /**
+     * Encodes message into pooled buffer (retrying with bigger buffers, if needed) and writes header and body with one
+     * gathering write. Frames may be written by multiple threads sharing this handle, hence writes are serialized.
+     */
+    private void writeFrame(Request request, Response response) throws IOException {
+        int capacity = BufferPool.INSTANCE.bufferSize();
+        ByteBuffer body = BufferPool.INSTANCE.acquire(capacity);
+        try {
+            while (true) {
+                try {
+                    if (request != null) {
+                        BinaryCodec.encodeRequest(request, body);
+                    } else {
+                        BinaryCodec.encodeResponse(response, body);
+                    }
+                    break;
+                } catch (BufferOverflowException e) {
+                    BufferPool.INSTANCE.release(body);
+                    capacity = capacity * 2;
+                    body = BufferPool.INSTANCE.acquire(capacity);
+                }
+            }
+            body.flip();
+            writeLock.lock();
+            try {
+                writeHeader.clear().putInt(MAGIC_V2).putInt(body.remaining()).flip();
+                writeFully(writeHeader, body);
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            BufferPool.INSTANCE.release(body);
+        }
+    }
+
+    private void writeLegacyFrame(ByteArrayOutputStream b) throws IOException {
+        ByteBuffer body = ByteBuffer.wrap(b.toByteArray());
+        writeLock.lock();
+        try {
+            writeHeader.clear().putInt(body.remaining()).flip();
+            writeFully(writeHeader, body);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeFully(ByteBuffer header, ByteBuffer body) throws IOException {
+        if (channel instanceof GatheringByteChannel gatheringByteChannel) {
+            ByteBuffer[] buffers = new ByteBuffer[] {header, body};
+            while (body.hasRemaining()) {
+                gatheringByteChannel.write(buffers);
+            }
+        } else {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * A frame read: the protocol version of payload, and the payload buffer positioned at payload start.
+     */
+    private record Frame(int version, ByteBuffer payload) {}
+
+    /**
+     * Reads a frame. Payload of {@link #PROTOCOL_V2} frames fitting pooled buffer is read into direct pooled buffer,
+     * anything else into heap buffer; frames longer than {@link #MAX_FRAME} are rejected. Caller must release
+     * returned payload to {@link BufferPool}. This method is expected to be invoked by one thread only.
+     */
+    private Frame readFrame() throws IOException {
+        readHeader.clear().limit(4);
+        readFully(readHeader);
+        int first = readHeader.getInt(0);
+        int version;
+        int length;
+        if (first == MAGIC_V2) {
+            readHeader.limit(8);
+            readFully(readHeader);
+            version = PROTOCOL_V2;
+            length = readHeader.getInt(4);
+        } else {
+            version = PROTOCOL_V1;
+            length = first;
+        }
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("Malformed frame length " + length);
+        }
+        ByteBuffer payload;
+        if (version == PROTOCOL_V2) {
+            // pool serves lengths above pooled buffer size with heap buffers
+            payload = BufferPool.INSTANCE.acquire(length);
+        } else {
+            payload = ByteBuffer.allocate(length);
+        }
+        payload.limit(length);
+        if (followPeer) {
+            protocolVersion = version;
+        }
+        readFully(payload);
+        return new Frame(version, payload.flip());
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException();
+            }
+        }
+    }
+
     private void writeMap(ObjectOutputStream oos, Map<String, String> map) throws IOException {
         oos.writeInt(map.size());
         for (Map.Entry<String, String> entry : map.entrySet()) {
@@ -9,11 +9,63 @@ package eu.maveniverse.maven.mimir.daemon.protocol;
 
 import static java.util.Objects.requireNonNull;
 
+import java.util.HashMap;
 import java.util.Map;
+import org.immutables.value.Value;
 
 public abstract class Message {
+    /**
+     * The message ID, used to correlate responses with requests on multiplexed connections. Response always carries
+     * the ID of the request it responds to. Value {@code 0} means "not set".
+     */
+    @Value.Default
+    public long id() {
+        return 0L;
+    }
+
+    /**
+     * Batch commands carry data of multiple items in one data map: item data keys are prefixed with item index.
+     */
+    public static String itemKey(int index, String key) {
+        return index + "." + key;
+    }
+
     public abstract Map<String, String> data();
 
+    /**
+     * Splits data of batch message into items, keyed by item index (items without data are not present).
+     *
+     * @see #itemKey(int, String)
+     */
+    public Map<Integer, Map<String, String>> items() {
+        HashMap<Integer, Map<String, String>> result = new HashMap<>();
+        for (Map.Entry<String, String> entry : data().entrySet()) {
+            String key = entry.getKey();
+            int dot = key.indexOf('.');
+            if (dot > 0 && isIndex(key, dot)) {
+                result.computeIfAbsent(Integer.parseInt(key.substring(0, dot)), k -> new HashMap<>())
+                        .put(key.substring(dot + 1), entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether first {@code end} characters of key are an index: a decimal number without leading zeros.
+     */
+    static boolean isIndex(String key, int end) {
+        if (end > 1 && key.charAt(0) == '0') {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = key.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return end < 10;
+    }
+
     public abstract Map<String, String> session();
 
     public String requireData(String key) {
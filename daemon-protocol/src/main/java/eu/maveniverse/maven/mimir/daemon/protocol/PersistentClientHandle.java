@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.daemon.protocol;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client handle multiplexing all round trips over one long-lived connection. Requests are tagged with unique IDs,
+ * and a single reader thread dispatches responses to waiting callers. If connection is lost, all in-flight calls
+ * fail, and next call reconnects. A call not answered within response timeout fails, so a lost response cannot hang
+ * the caller.
+ */
+final class PersistentClientHandle implements Handle.ClientHandle {
+    private final Handle.ClientHandle connector;
+    private final Duration responseTimeout;
+    private final AtomicBoolean closed;
+    private final AtomicLong ids;
+    private final ReentrantLock connectLock;
+    private volatile Connection connection;
+
+    PersistentClientHandle(Handle.ClientHandle connector, Duration responseTimeout) {
+        this.connector = requireNonNull(connector, "connector");
+        this.responseTimeout = requireNonNull(responseTimeout, "responseTimeout");
+        if (responseTimeout.isNegative() || responseTimeout.isZero()) {
+            throw new IllegalArgumentException("Invalid response timeout: " + responseTimeout);
+        }
+        this.closed = new AtomicBoolean(false);
+        this.ids = new AtomicLong(0L);
+        this.connectLock = new ReentrantLock();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    @Override
+    public Handle getHandle() throws IOException {
+        return connector.getHandle();
+    }
+
+    @Override
+    public Response execute(Request request) throws IOException {
+        CompletableFuture<Response> result = submit(request);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new IOException("No response from daemon within " + responseTimeout + " to " + request.cmd());
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw new IOException(ioException.getMessage(), ioException);
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Sends the request without waiting for response: callers may submit many requests and they are pipelined over
+     * the connection, while returned futures are completed by reader thread, as responses (matched by IDs) arrive.
+     * Note: returned futures are completed on reader thread, hence dependent actions should not block. Futures not
+     * completed within response timeout fail with {@link TimeoutException}.
+     */
+    @Override
+    public CompletableFuture<Response> submit(Request request) {
+        requireNonNull(request, "request");
+        try {
+            Connection conn = connection();
+            long id = ids.incrementAndGet();
+            return conn.send(ImmutableRequest.copyOf(request).withId(id))
+                    .orTimeout(responseTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed.compareAndSet(false, true)) {
+            try (connector) {
+                Connection conn = connection;
+                if (conn != null) {
+                    conn.close(new IOException("ClientHandle has been closed"));
+                }
+            }
+        }
+    }
+
+    private Connection connection() throws IOException {
+        if (closed.get()) {
+            throw new IllegalStateException("ClientHandle has been closed");
+        }
+        Connection conn = connection;
+        if (conn == null || !conn.isAlive()) {
+            connectLock.lock();
+            try {
+                conn = connection;
+                if (conn == null || !conn.isAlive()) {
+                    conn = new Connection(connector.getHandle());
+                    connection = conn;
+                }
+            } finally {
+                connectLock.unlock();
+            }
+        }
+        return conn;
+    }
+
+    private static final class Connection implements Runnable {
+        private final Handle handle;
+        private final ConcurrentHashMap<Long, CompletableFuture<Response>> inFlight;
+        private final AtomicBoolean alive;
+
+        private Connection(Handle handle) {
+            this.handle = handle;
+            this.inFlight = new ConcurrentHashMap<>();
+            this.alive = new AtomicBoolean(true);
+            Thread reader = new Thread(this, "mimir-daemon-client");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private boolean isAlive() {
+            return alive.get();
+        }
+
+        private CompletableFuture<Response> send(Request request) throws IOException {
+            CompletableFuture<Response> result = new CompletableFuture<>();
+            inFlight.put(request.id(), result);
+            // timed out calls are not waited for anymore
+            result.whenComplete((r, t) -> inFlight.remove(request.id(), result));
+            try {
+                handle.writeRequest(request);
+            } catch (IOException e) {
+                inFlight.remove(request.id());
+                close(e);
+                throw e;
+            }
+            // reader may have died between put and write; make sure we do not wait forever
+            if (!alive.get() && inFlight.remove(request.id()) != null) {
+                throw new IOException("Connection to daemon lost");
+            }
+            return result;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (alive.get()) {
+                    Response response = handle.readResponse();
+                    CompletableFuture<Response> result = inFlight.remove(response.id());
+                    if (result != null) {
+                        result.complete(response);
+                    }
+                }
+            } catch (IOException e) {
+                close(new IOException("Connection to daemon lost", e));
+            }
+        }
+
+        private void close(IOException cause) {
+            if (alive.compareAndSet(true, false)) {
+                try {
+                    handle.close();
+                } catch (IOException e) {
+                    cause.addSuppressed(e);
+                }
+            }
+            inFlight.keySet().forEach(id -> {
+                CompletableFuture<Response> result = inFlight.remove(id);
+                if (result != null) {
+                    result.completeExceptionally(cause);
+                }
+            });
+        }
+    }
+}
@@ -10,6 +10,7 @@ package eu.maveniverse.maven.mimir.daemon.protocol;
 import static java.util.Objects.requireNonNull;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.immutables.value.Value;
 
@@ -22,11 +23,17 @@ public abstract class Request extends Message {
     public static final String CMD_LS_CHECKSUMS = "LS_CHECKSUMS";
     public static final String CMD_STORE_PATH = "STORE_PATH";
     public static final String CMD_PRESEED = "PRESEED";
+    public static final String CMD_LOCATE_MANY = "LOCATE_MANY";
+    public static final String CMD_TRANSFER_MANY = "TRANSFER_MANY";
+    public static final String CMD_LOCATE_TRANSFER = "LOCATE_TRANSFER";
+    public static final String CMD_STATS = "STATS";
+    public static final String CMD_LOCATE_KEY = "LOCATE_KEY";
 
     public static final String DATA_KEYSTRING = "keyString";
     public static final String DATA_PATHSTRING = "pathString";
     public static final String DATA_SHUTDOWN = "shutdown";
     public static final String DATA_GAVS = "gavs";
+    public static final String DATA_COUNT = "count";
 
     public static final String DATA_GAV_ITSELF = "itself";
 
@@ -52,11 +59,79 @@ public abstract class Request extends Message {
         return request(session, CMD_LOCATE, Map.of(DATA_KEYSTRING, keyString));
     }
 
+    /**
+     * Fused {@link #locate(Map, String)} and {@link #transfer(Map, String, String)}: if entry is located, it is
+     * transferred to given file, and response carries merged entry. If not located, response carries no data.
+     */
+    public static Request locateTransfer(Map<String, String> session, String keyString, String filePath) {
+        requireNonNull(session, "session");
+        requireNonNull(keyString, "keyString");
+        requireNonNull(filePath, "filePath");
+        HashMap<String, String> requestData = new HashMap<>();
+        requestData.put(DATA_KEYSTRING, keyString);
+        requestData.put(DATA_PATHSTRING, filePath);
+        return request(session, CMD_LOCATE_TRANSFER, requestData);
+    }
+
+    /**
+     * Locates key of an entry by its content: data carries (merged) checksums. Response carries
+     * {@link #DATA_KEYSTRING} of located entry, or no data if not found.
+     */
+    public static Request locateKey(Map<String, String> session, Map<String, String> checksums) {
+        requireNonNull(session, "session");
+        requireNonNull(checksums, "checksums");
+        return request(session, CMD_LOCATE_KEY, checksums);
+    }
+
+    /**
+     * Batch variant of {@link #locate(Map, String)}: item {@code i} carries {@link #DATA_KEYSTRING}. Response carries
+     * merged entry of item {@code i} if it was located, or nothing for item {@code i} if not found.
+     */
+    public static Request locateMany(Map<String, String> session, List<String> keyStrings) {
+        requireNonNull(session, "session");
+        requireNonNull(keyStrings, "keyStrings");
+        HashMap<String, String> requestData = new HashMap<>();
+        requestData.put(DATA_COUNT, Integer.toString(keyStrings.size()));
+        for (int i = 0; i < keyStrings.size(); i++) {
+            requestData.put(itemKey(i, DATA_KEYSTRING), requireNonNull(keyStrings.get(i), "keyString"));
+        }
+        return request(session, CMD_LOCATE_MANY, requestData);
+    }
+
+    /**
+     * Batch variant of {@link #transfer(Map, String, String)}: item {@code i} carries {@link #DATA_KEYSTRING} and
+     * {@link #DATA_PATHSTRING}. Response carries {@link Response#DATA_STATUS} and in case of failure
+     * {@link Response#DATA_MESSAGE} for each item.
+     */
+    public static Request transferMany(Map<String, String> session, List<String> keyStrings, List<String> filePaths) {
+        requireNonNull(session, "session");
+        requireNonNull(keyStrings, "keyStrings");
+        requireNonNull(filePaths, "filePaths");
+        if (keyStrings.size() != filePaths.size()) {
+            throw new IllegalArgumentException("keyStrings and filePaths must be of same size");
+        }
+        HashMap<String, String> requestData = new HashMap<>();
+        requestData.put(DATA_COUNT, Integer.toString(keyStrings.size()));
+        for (int i = 0; i < keyStrings.size(); i++) {
+            requestData.put(itemKey(i, DATA_KEYSTRING), requireNonNull(keyStrings.get(i), "keyString"));
+            requestData.put(itemKey(i, DATA_PATHSTRING), requireNonNull(filePaths.get(i), "filePath"));
+        }
+        return request(session, CMD_TRANSFER_MANY, requestData);
+    }
+
     public static Request lsChecksums(Map<String, String> session) {
         requireNonNull(session, "session");
         return request(session, CMD_LS_CHECKSUMS, Map.of());
     }
 
+    /**
+     * Asks daemon for its statistics (counters), as string key-value pairs.
+     */
+    public static Request stats(Map<String, String> session) {
+        requireNonNull(session, "session");
+        return request(session, CMD_STATS, Map.of());
+    }
+
     public static Request transfer(Map<String, String> session, String keyString, String filePath) {
         requireNonNull(session, "session");
         requireNonNull(keyString, "keyString");
@@ -18,6 +18,7 @@ public abstract class Response extends Message {
     public static final String STATUS_KO = "KO ";
 
     public static final String DATA_MESSAGE = "message";
+    public static final String DATA_STATUS = "status";
 
     public abstract String status();
 
@@ -41,6 +42,7 @@ public abstract class Response extends Message {
 
     private static Response response(Request request, String status, Map<String, String> data) {
         return ImmutableResponse.builder()
+                .id(request.id())
                 .status(status)
                 .data(data)
                 .session(request.session())
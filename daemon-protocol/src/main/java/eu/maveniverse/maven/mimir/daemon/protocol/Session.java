@@ -18,6 +18,10 @@ public final class Session {
     public static final String NODE_PID = "node.pid";
     public static final String NODE_VERSION = "node.version";
 
+    // protocol: client advertises supported versions in HELLO, daemon responds with negotiated one
+    public static final String PROTOCOL_VERSIONS = "protocol.versions";
+    public static final String PROTOCOL_VERSION = "protocol.version";
+
     // session
     public static final String SESSION_ID = "sessionId";
 
@@ -9,14 +9,20 @@
 /**
  * Mimir daemon protocol.
  * <p>
- * A simple request/response like protocol, where each request MUST have response. Currently, communication channel is
- * closed after each round trip (as UDS is used for transport and is "cheap"). This choice currently is due simplicity,
- * as DaemonNode is called from Resolver on multiple threads, and to avoid keeping a pool or alike for now. Later
- * this may change.
+ * A simple request/response like protocol, where each request MUST have response. Messages carry an "id" (see wire
+ * formats below), and the response always carries the "id" of the request it responds to. This allows client to keep one long-lived
+ * channel and multiplex requests from multiple (Resolver) threads over it: server processes requests of one channel
+ * concurrently, and responses may arrive out of order. Clients may still use "one channel per round trip" mode, in
+ * which case the channel is closed after the response is received.
  * <p>
  * Request carries "command", "data" map and "session" map (except for very first HELLO command from client).
  * Response carries "status", "data" map and "session" map (always).
  * <p>
+ * Two wire formats are supported: legacy one using Java serialization streams, and compact binary one, that also
+ * carries message "id" and hence is the only one supporting multiplexing. Client sends HELLO using legacy format,
+ * advertising the formats it supports, and daemon responds with negotiated format, that client uses from then on.
+ * Daemon always responds using the format client used in request, so older clients keep working.
+ * <p>
  * Client receives "session" map with first HELLO command response, and reuses same map for all the communication.
  * Client should not modify the "session" map, but may inspect its contents.
  */
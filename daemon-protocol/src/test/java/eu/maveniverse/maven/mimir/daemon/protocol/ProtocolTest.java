@@ -2,16 +2,35 @@ package eu.maveniverse.maven.mimir.daemon.protocol;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetSocketAddress;
 import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.LockSupport;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 
 public class ProtocolTest {
     @Test
@@ -62,4 +81,394 @@ public class ProtocolTest {
         assertEquals(Response.STATUS_OK, ((Response) second).status());
         assertEquals("hi!", second.requireData(Response.DATA_MESSAGE));
     }
+
+    @Test
+    void binaryFormat() throws Exception {
+        HashMap<String, String> data = new HashMap<>();
+        data.put("gav", "org.example:ärtifact:1.0");
+        data.put("m.content-length", "1234");
+        data.put("c.SHA-1", "da39a3ee5e6b4b0d3255bfef95601890afd80709");
+        data.put("some.unknown.key", "value ✓");
+        data.put("big", "x".repeat(40 * 1024)); // bigger than pooled buffer
+        try (ServerSocketChannel serverSocket =
+                        ServerSocketChannel.open(StandardProtocolFamily.INET).bind(new InetSocketAddress(0));
+                SocketChannel clientSck = SocketChannel.open(serverSocket.getLocalAddress());
+                SocketChannel serverSck = serverSocket.accept();
+                Handle client = Handle.byteChannel(clientSck, Handle.PROTOCOL_V2);
+                Handle server = Handle.byteChannel(serverSck)) {
+            Thread writer = new Thread(() -> {
+                try {
+                    client.writeRequest(ImmutableRequest.copyOf(Request.locate(Map.of("sessionId", "s1"), "k"))
+                            .withId(42L));
+                    client.writeRequest(ImmutableRequest.copyOf(Request.storePath(Map.of(), "k", "/tmp/file", data))
+                            .withId(43L));
+                    client.writeRequest(ImmutableRequest.copyOf(Request.locateKey(
+                                    Map.of(), Map.of("c.SHA-1", "da39a3ee5e6b4b0d3255bfef95601890afd80709")))
+                            .withId(44L));
+                } catch (IOException e) {
+                    fail(e);
+                }
+            });
+            writer.start();
+            Request locate = server.readRequest();
+            Request store = server.readRequest();
+            Request locateKey = server.readRequest();
+            writer.join();
+
+            assertEquals(Handle.PROTOCOL_V2, server.protocolVersion());
+            assertEquals(42L, locate.id());
+            assertEquals(Request.CMD_LOCATE, locate.cmd());
+            assertEquals("s1", locate.requireSession(Session.SESSION_ID));
+            assertEquals(43L, store.id());
+            assertEquals(Request.CMD_STORE_PATH, store.cmd());
+            for (Map.Entry<String, String> entry : data.entrySet()) {
+                assertEquals(entry.getValue(), store.requireData(entry.getKey()));
+            }
+            assertEquals(44L, locateKey.id());
+            assertEquals(Request.CMD_LOCATE_KEY, locateKey.cmd());
+            assertEquals("da39a3ee5e6b4b0d3255bfef95601890afd80709", locateKey.requireData("c.SHA-1"));
+
+            server.writeResponse(Response.okData(store, data));
+            Response response = client.readResponse();
+            assertEquals(43L, response.id());
+            assertEquals(Response.STATUS_OK, response.status());
+            assertEquals(data, response.data());
+        }
+    }
+
+    @Test
+    void batchItems() throws Exception {
+        Request request = Request.transferMany(Map.of(), List.of("k0", "k1", "k2"), List.of("/p0", "/p1", "/p2"));
+        try (ServerSocketChannel serverSocket =
+                        ServerSocketChannel.open(StandardProtocolFamily.INET).bind(new InetSocketAddress(0));
+                SocketChannel clientSck = SocketChannel.open(serverSocket.getLocalAddress());
+                SocketChannel serverSck = serverSocket.accept();
+                Handle client = Handle.byteChannel(clientSck, Handle.PROTOCOL_V2);
+                Handle server = Handle.byteChannel(serverSck)) {
+            client.writeRequest(request);
+            Request received = server.readRequest();
+            assertEquals(request.data(), received.data());
+            Map<Integer, Map<String, String>> items = received.items();
+            assertEquals(3, items.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals("k" + i, items.get(i).get(Request.DATA_KEYSTRING));
+                assertEquals("/p" + i, items.get(i).get(Request.DATA_PATHSTRING));
+            }
+
+            // values looking like indexed keys must survive as well
+            Map<String, String> data = Map.of(Message.itemKey(1, "m.content-length"), "1.0", "01.x", "007.y");
+            server.writeResponse(Response.okData(received, data));
+            Response response = client.readResponse();
+            assertEquals(data, response.data());
+            assertEquals(Map.of(1, Map.of("m.content-length", "1.0")), response.items());
+        }
+    }
+
+    @Test
+    void oversizedFrameRejected() throws Exception {
+        try (ServerSocketChannel serverSocket =
+                        ServerSocketChannel.open(StandardProtocolFamily.INET).bind(new InetSocketAddress(0));
+                SocketChannel clientSck = SocketChannel.open(serverSocket.getLocalAddress());
+                SocketChannel serverSck = serverSocket.accept();
+                Handle server = Handle.byteChannel(serverSck)) {
+            // V2 frame header (magic and length) announcing 1GB payload
+            clientSck.write(ByteBuffer.allocate(8)
+                    .putInt(0x4D494D02)
+                    .putInt(1024 * 1024 * 1024)
+                    .flip());
+            IOException e = assertThrows(IOException.class, server::readRequest);
+            assertTrue(e.getMessage().startsWith("Malformed frame length"), e.getMessage());
+        }
+    }
+
+    @Test
+    void negotiation() {
+        assertEquals(Handle.PROTOCOL_V1, Handle.negotiateProtocolVersion(null));
+        assertEquals(Handle.PROTOCOL_V1, Handle.negotiateProtocolVersion("1"));
+        assertEquals(Handle.PROTOCOL_V2, Handle.negotiateProtocolVersion(Handle.SUPPORTED_PROTOCOL_VERSIONS));
+        assertEquals(Handle.PROTOCOL_V2, Handle.negotiateProtocolVersion("1,2,3"));
+    }
+
+    /**
+     * Measures encode/decode throughput and allocation of protocol versions. Run with {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void throughputAndAllocation() throws Exception {
+        HashMap<String, String> data = new HashMap<>();
+        data.put("m.content-length", "1234567");
+        data.put("m.content-modified", "1718000000000");
+        data.put("c.SHA-1", "da39a3ee5e6b4b0d3255bfef95601890afd80709");
+        data.put(
+                "c.SHA-512",
+                "cf83e1357eefb8bdf1542850d66d8007d620e4050b5715dc83f4a921d36ce9ce47d0d13c5d85f2b0ff8318d2877eec2f63b931bd47417a81a538327af927da3e");
+        Request request = Request.locate(Map.of(Session.SESSION_ID, "a4e2cf2a-0c7f-4c4e-a3a1-5a1f3b0e6a3d"), "key");
+        long[] v1 = measure(Handle.PROTOCOL_V1, request, data);
+        long[] v2 = measure(Handle.PROTOCOL_V2, request, data);
+        System.out.printf(
+                "Protocol V1: %d round trips/s, %d bytes allocated per round trip%n"
+                        + "Protocol V2: %d round trips/s, %d bytes allocated per round trip%n",
+                v1[0], v1[1], v2[0], v2[1]);
+        assertTrue(v2[1] < v1[1], "binary format should allocate less");
+    }
+
+    /**
+     * Performs round trips within one thread (as socket buffers are big enough) and returns round trips per second
+     * and bytes allocated per round trip.
+     */
+    private static long[] measure(int protocolVersion, Request request, Map<String, String> data) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try (ServerSocketChannel serverSocket =
+                        ServerSocketChannel.open(StandardProtocolFamily.INET).bind(new InetSocketAddress(0));
+                SocketChannel clientSck = SocketChannel.open(serverSocket.getLocalAddress());
+                SocketChannel serverSck = serverSocket.accept();
+                Handle client = Handle.byteChannel(clientSck, protocolVersion);
+                Handle server = Handle.byteChannel(serverSck)) {
+            int rounds = 20000;
+            for (int i = 0; i < rounds; i++) {
+                roundTrip(client, server, request, data);
+            }
+            long allocated = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            for (int i = 0; i < rounds; i++) {
+                roundTrip(client, server, request, data);
+            }
+            long elapsed = System.nanoTime() - start;
+            allocated = threadMXBean.getCurrentThreadAllocatedBytes() - allocated;
+            return new long[] {rounds * 1_000_000_000L / elapsed, allocated / rounds};
+        }
+    }
+
+    private static void roundTrip(Handle client, Handle server, Request request, Map<String, String> data)
+            throws IOException {
+        client.writeRequest(request);
+        server.writeResponse(Response.okData(server.readRequest(), data));
+        client.readResponse();
+    }
+
+    @Test
+    void persistentMultiplexing() throws Exception {
+        Path socket = Files.createTempDirectory("mimir").resolve(Handle.DEFAULT_SOCKET_PATH);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try (EchoServer server = new EchoServer(socket);
+                Handle.ClientHandle client = Handle.persistentClientDomainSocket(socket)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                futures.add(callers.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        String key = "key-" + thread + "-" + i;
+                        Response response = client.execute(Request.locate(Map.of(), key));
+                        assertEquals(Response.STATUS_OK, response.status());
+                        assertEquals(key, response.requireData(Request.DATA_KEYSTRING));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void persistentResponseTimeout() throws Exception {
+        Path socket = Files.createTempDirectory("mimir").resolve(Handle.DEFAULT_SOCKET_PATH);
+        try (EchoServer server = new EchoServer(socket);
+                Handle.ClientHandle client = Handle.persistentClientDomainSocket(socket, Duration.ofMillis(200))) {
+            try {
+                client.execute(Request.locate(Map.of(), EchoServer.DROP));
+                fail("lost response should time out");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("No response from daemon"), e.getMessage());
+            }
+            // connection is still usable
+            assertEquals("key", client.execute(Request.locate(Map.of(), "key")).requireData(Request.DATA_KEYSTRING));
+        }
+    }
+
+    /**
+     * Compares round trip latency of connect-per-call and persistent clients. Run with
+     * {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void persistentVersusConnectPerCall() throws Exception {
+        Path socket = Files.createTempDirectory("mimir").resolve(Handle.DEFAULT_SOCKET_PATH);
+        try (EchoServer server = new EchoServer(socket);
+                Handle.ClientHandle perCall = Handle.clientDomainSocket(socket);
+                Handle.ClientHandle persistent = Handle.persistentClientDomainSocket(socket)) {
+            int rounds = 2000;
+            // warmup
+            roundTrips(perCall, rounds);
+            roundTrips(persistent, rounds);
+
+            long perCallNanos = roundTrips(perCall, rounds);
+            long persistentNanos = roundTrips(persistent, rounds);
+            System.out.printf(
+                    "Round trip latency: connect-per-call %.1f us, persistent %.1f us (%d round trips)%n",
+                    perCallNanos / 1000.0 / rounds, persistentNanos / 1000.0 / rounds, rounds);
+        }
+    }
+
+    private static long roundTrips(Handle.ClientHandle clientHandle, int rounds) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            Response response = clientHandle.execute(Request.locate(Map.of(), "key-" + i));
+            assertEquals("key-" + i, response.requireData(Request.DATA_KEYSTRING));
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Compares sequential and pipelined locate requests on persistent client. Run with
+     * {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void asyncVersusSync() throws Exception {
+        Path socket = Files.createTempDirectory("mimir").resolve(Handle.DEFAULT_SOCKET_PATH);
+        // simulated daemon work per request (ie. file stat and read of metadata)
+        try (EchoServer server = new EchoServer(socket, 100_000L);
+                Handle.ClientHandle client = Handle.persistentClientDomainSocket(socket)) {
+            int batch = 32;
+            for (int callers : new int[] {1, 8, 64}) {
+                // warmup
+                batches(client, callers, 5, batch, false);
+                batches(client, callers, 5, batch, true);
+
+                long[] sync = batches(client, callers, 20, batch, false);
+                long[] async = batches(client, callers, 20, batch, true);
+                System.out.printf(
+                        "%2d callers, batch of %d locates: sync p50 %.1f us p99 %.1f us, async p50 %.1f us p99 %.1f us%n",
+                        callers, batch, sync[0] / 1000.0, sync[1] / 1000.0, async[0] / 1000.0, async[1] / 1000.0);
+            }
+        }
+    }
+
+    /**
+     * Each caller performs given count of batches of locates, either one-by-one waiting for each response (sync),
+     * or by submitting whole batch and then waiting for all responses (async). Returns p50 and p99 of batch latency
+     * in nanoseconds.
+     */
+    private static long[] batches(Handle.ClientHandle client, int callers, int count, int batch, boolean async)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < callers; t++) {
+                int caller = t;
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[count];
+                    for (int b = 0; b < count; b++) {
+                        long start = System.nanoTime();
+                        if (async) {
+                            List<CompletableFuture<Response>> responses = new ArrayList<>(batch);
+                            for (int i = 0; i < batch; i++) {
+                                responses.add(client.submit(Request.locate(Map.of(), "key-" + caller + "-" + i)));
+                            }
+                            for (int i = 0; i < batch; i++) {
+                                assertEquals(
+                                        "key-" + caller + "-" + i,
+                                        responses.get(i).join().requireData(Request.DATA_KEYSTRING));
+                            }
+                        } else {
+                            for (int i = 0; i < batch; i++) {
+                                assertEquals(
+                                        "key-" + caller + "-" + i,
+                                        client.execute(Request.locate(Map.of(), "key-" + caller + "-" + i))
+                                                .requireData(Request.DATA_KEYSTRING));
+                            }
+                        }
+                        latencies[b] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[callers * count];
+            int idx = 0;
+            for (Future<long[]> future : futures) {
+                for (long latency : future.get()) {
+                    all[idx++] = latency;
+                }
+            }
+            Arrays.sort(all);
+            return new long[] {all[all.length / 2], all[(int) Math.ceil(all.length * 0.99) - 1]};
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Server that responds to every request with its data; serves each connection until client closes it, and
+     * processes requests of one connection concurrently, like daemon does. Requests for key {@link #DROP} are not
+     * answered.
+     */
+    private static final class EchoServer implements AutoCloseable {
+        private static final String DROP = "drop";
+
+        private final Handle.ServerHandle serverHandle;
+        private final ExecutorService executor;
+
+        private final long serviceNanos;
+
+        private EchoServer(Path socket) throws IOException {
+            this(socket, 0L);
+        }
+
+        private EchoServer(Path socket, long serviceNanos) throws IOException {
+            this.serverHandle = Handle.serverDomainSocket(socket);
+            this.executor = Executors.newCachedThreadPool();
+            this.serviceNanos = serviceNanos;
+            executor.execute(this::accept);
+        }
+
+        private void accept() {
+            try {
+                while (serverHandle.isOpen()) {
+                    Handle handle = serverHandle.accept();
+                    executor.execute(() -> serve(handle));
+                }
+            } catch (IOException e) {
+                // closed
+            }
+        }
+
+        private void serve(Handle handle) {
+            try (handle) {
+                while (handle.isOpen()) {
+                    Request request;
+                    try {
+                        request = handle.readRequest();
+                    } catch (EOFException | ClosedChannelException e) {
+                        break;
+                    }
+                    if (DROP.equals(request.data().get(Request.DATA_KEYSTRING))) {
+                        continue;
+                    }
+                    executor.execute(() -> {
+                        if (serviceNanos > 0) {
+                            LockSupport.parkNanos(serviceNanos);
+                        }
+                        try {
+                            handle.writeResponse(Response.okData(request, request.data()));
+                        } catch (IOException e) {
+                            // client gone
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                // client gone
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverHandle.close();
+            executor.shutdownNow();
+        }
+    }
 }
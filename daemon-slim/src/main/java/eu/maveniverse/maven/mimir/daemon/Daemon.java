@@ -25,9 +25,13 @@ import eu.maveniverse.maven.mimir.daemon.protocol.Session;
 import eu.maveniverse.maven.mimir.shared.MimirUtils;
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
 import eu.maveniverse.maven.mimir.shared.SessionFactory;
+import eu.maveniverse.maven.mimir.shared.impl.ExecutorConfig;
 import eu.maveniverse.maven.mimir.shared.impl.Executors;
 import eu.maveniverse.maven.mimir.shared.impl.ParseUtils;
 import eu.maveniverse.maven.mimir.shared.impl.node.CachingSystemNode;
+import eu.maveniverse.maven.mimir.shared.impl.node.CachingSystemNodeConfig;
+import eu.maveniverse.maven.mimir.shared.impl.node.MetadataCacheConfig;
+import eu.maveniverse.maven.mimir.shared.impl.node.MetadataCachingSystemNode;
 import eu.maveniverse.maven.mimir.shared.node.RemoteNode;
 import eu.maveniverse.maven.mimir.shared.node.RemoteNodeFactory;
 import eu.maveniverse.maven.mimir.shared.node.SystemNode;
@@ -44,10 +48,13 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.function.BiFunction;
 import java.util.function.Predicate;
@@ -142,10 +149,16 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
     }
 
     private final SessionConfig sessionConfig;
+    private final ExecutorConfig executorConfig;
     private final ExecutorService executor;
+    private final ExecutorService fanOutExecutor;
     private final SessionFactory sessionFactory;
     private final SystemNode systemNode;
+    private final MetadataCachingSystemNode metadataCachingSystemNode;
     private final List<RemoteNode> remoteNodes;
+    private final CachingSystemNodeConfig cachingSystemNodeConfig;
+    private final CachingSystemNode cachingSystemNode;
+    private final Set<DaemonServer> servers;
     private final Handle.ServerHandle serverHandle;
 
     @Inject
@@ -172,7 +185,17 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
         }
         nds.sort(Comparator.comparing(RemoteNode::distance));
         this.remoteNodes = List.copyOf(nds);
-        this.executor = Executors.executorService();
+        // shared by all clients, so concurrent misses of same key from several builds are coalesced
+        this.executorConfig = ExecutorConfig.with(config.config());
+        this.executor = Executors.executorService(executorConfig);
+        // remote fan-out is served by own executor, as request executor threads block waiting for it
+        this.fanOutExecutor = Executors.executorService(executorConfig);
+        this.metadataCachingSystemNode =
+                new MetadataCachingSystemNode(systemNode, MetadataCacheConfig.with(config.config()));
+        this.cachingSystemNodeConfig = CachingSystemNodeConfig.with(config.config());
+        this.cachingSystemNode =
+                new CachingSystemNode(metadataCachingSystemNode, remoteNodes, cachingSystemNodeConfig, fanOutExecutor);
+        this.servers = ConcurrentHashMap.newKeySet();
 
         logger.info("Mimir Daemon {} started", config.config().mimirVersion());
         logger.info("  PID: {}", ProcessHandle.current().pid());
@@ -182,7 +205,19 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
         logger.info("  Supported Remote Nodes: {}", remoteNodeFactories.keySet());
         logger.info("  Supported checksums: {}", checksumAlgorithmFactories.keySet());
         logger.info("  Socket: {}", daemonConfig.socketPath());
-        logger.info("  System Node: {}", systemNode);
+        logger.info("  System Node: {}", metadataCachingSystemNode);
+        logger.info("  Executor: {}", executorConfig);
+        logger.info(
+                "  Remote fan-out: {} (hedge delay {}, remote timeout {})",
+                cachingSystemNodeConfig.fanOut(),
+                cachingSystemNodeConfig.hedgeDelay(),
+                cachingSystemNodeConfig.remoteTimeout());
+        logger.info(
+                "  Remote ranking: {}",
+                cachingSystemNodeConfig.ranking()
+                        ? "dynamic (breaker after " + cachingSystemNodeConfig.breakerFailures() + " failures, cooldown "
+                                + cachingSystemNodeConfig.breakerCooldown() + ")"
+                        : "static");
         logger.info("  Using checksums: {}", systemNode.checksumAlgorithms());
         if (remoteNodes.isEmpty()) {
             logger.info("  No remote node(s) configured");
@@ -216,14 +251,29 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
         try (this.serverHandle) {
             while (serverHandle.isOpen()) {
                 Handle handle = serverHandle.accept();
-                executor.submit(new DaemonServer(
+                DaemonServer server = new DaemonServer(
                         handle,
+                        executor,
                         daemonData,
-                        new CachingSystemNode(systemNode, remoteNodes),
+                        cachingSystemNode,
+                        cachingSystemNodeConfig.negativeCacheShared()
+                                ? cachingSystemNode.negativeCache()
+                                : cachingSystemNode.newNegativeCache(),
                         clientPredicate,
                         this::preseedItself,
                         this::preseedGAVS,
-                        this::shutdown));
+                        this::shutdown,
+                        this::stats);
+                servers.add(server);
+                // connections are long-lived; they get own thread and do not occupy executor
+                Executors.thread(executorConfig, "DVT-connection", () -> {
+                            try {
+                                server.run();
+                            } finally {
+                                servers.remove(server);
+                            }
+                        })
+                        .start();
             }
         } catch (AsynchronousCloseException ignored) {
             // we are done
@@ -239,6 +289,20 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
         }
     }
 
+    /**
+     * Returns daemon statistics.
+     */
+    public Map<String, String> stats() {
+        LinkedHashMap<String, String> stats = new LinkedHashMap<>();
+        cachingSystemNode.stats().forEach((k, v) -> stats.put(k, Long.toString(v)));
+        metadataCachingSystemNode.stats().forEach((k, v) -> stats.put(k, Long.toString(v)));
+        systemNode.stats().forEach((k, v) -> stats.put(k, Long.toString(v)));
+        for (RemoteNode remoteNode : remoteNodes) {
+            remoteNode.stats().forEach((k, v) -> stats.put(k, Long.toString(v)));
+        }
+        return stats;
+    }
+
     public void shutdown() {
         try {
             close();
@@ -249,13 +313,16 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
 
     @Override
     protected void doClose() {
+        logger.info("Daemon stats: {}", stats());
         try {
             serverHandle.close();
         } catch (Exception e) {
             logger.warn("Error closing server socket channel", e);
         }
+        servers.forEach(DaemonServer::close);
         try {
             executor.shutdown();
+            fanOutExecutor.shutdownNow();
         } catch (Exception e) {
             logger.warn("Error closing executor", e);
         }
@@ -392,7 +459,7 @@ public class Daemon extends CloseableConfigSupport<DaemonConfig> implements Clos
                 userProperties.put("mimir.session.localNode", systemNode.name());
                 SessionConfig sc = sessionConfig.toBuilder()
                         .userProperties(userProperties)
-                        .localNodeInstance(systemNode)
+                        .localNodeInstance(metadataCachingSystemNode)
                         .repositorySystemSession(session)
                         .resolverResolverPostProcessorEnabled(false)
                         .resolverTrustedChecksumsSourceEnabled(false)
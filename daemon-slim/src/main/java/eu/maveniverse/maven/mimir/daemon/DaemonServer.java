@@ -10,10 +10,15 @@ package eu.maveniverse.maven.mimir.daemon;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_BYE;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_HELLO;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_LOCATE;
+import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_LOCATE_KEY;
+import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_LOCATE_MANY;
+import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_LOCATE_TRANSFER;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_LS_CHECKSUMS;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_PRESEED;
+import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_STATS;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_STORE_PATH;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_TRANSFER;
+import static eu.maveniverse.maven.mimir.daemon.protocol.Request.CMD_TRANSFER_MANY;
 import static eu.maveniverse.maven.mimir.daemon.protocol.Request.DATA_GAV_ITSELF;
 import static eu.maveniverse.maven.mimir.shared.impl.EntryUtils.mergeEntry;
 import static eu.maveniverse.maven.mimir.shared.impl.EntryUtils.splitChecksums;
@@ -21,58 +26,155 @@ import static eu.maveniverse.maven.mimir.shared.impl.EntryUtils.splitMetadata;
 
 import eu.maveniverse.maven.mimir.daemon.protocol.Handle;
 import eu.maveniverse.maven.mimir.daemon.protocol.ImmutableResponse;
+import eu.maveniverse.maven.mimir.daemon.protocol.Message;
 import eu.maveniverse.maven.mimir.daemon.protocol.Request;
 import eu.maveniverse.maven.mimir.daemon.protocol.Response;
 import eu.maveniverse.maven.mimir.daemon.protocol.Session;
 import eu.maveniverse.maven.mimir.shared.impl.node.CachingSystemNode;
+import eu.maveniverse.maven.mimir.shared.impl.node.NegativeCache;
 import eu.maveniverse.maven.mimir.shared.node.Entry;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
 import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import java.io.EOFException;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.channels.ClosedChannelException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
+/**
+ * Serves one client connection: reads requests in a loop (until client closes the connection) and dispatches them to
+ * executor, hence requests of one connection are processed concurrently, and responses may be written out of order.
+ */
 final class DaemonServer extends ComponentSupport implements Runnable {
     private final Handle handle;
+    private final Executor executor;
     private final Map<String, String> daemonData;
     private final CachingSystemNode cachingSystemNode;
+    private final NegativeCache negativeCache;
     private final Predicate<Request> clientPredicate;
     private final Function<Path, Boolean> preseedItself;
     private final BiFunction<Path, String, Boolean> preseedGAVS;
     private final Runnable shutdownHook;
+    private final Supplier<Map<String, String>> stats;
     private final Map<String, Map<String, String>> sessions;
 
     DaemonServer(
             Handle handle,
+            Executor executor,
             Map<String, String> daemonData,
             CachingSystemNode cachingSystemNode,
+            NegativeCache negativeCache,
             Predicate<Request> clientPredicate,
             Function<Path, Boolean> preseedItself,
             BiFunction<Path, String, Boolean> preseedGAVS,
-            Runnable shutdownHook) {
+            Runnable shutdownHook,
+            Supplier<Map<String, String>> stats) {
         this.handle = handle;
+        this.executor = executor;
         this.daemonData = daemonData;
         this.cachingSystemNode = cachingSystemNode;
+        this.negativeCache = negativeCache;
         this.clientPredicate = clientPredicate;
         this.preseedItself = preseedItself;
         this.preseedGAVS = preseedGAVS;
         this.shutdownHook = shutdownHook;
-        this.sessions = new HashMap<>();
+        this.stats = stats;
+        this.sessions = new ConcurrentHashMap<>();
     }
 
     @Override
     public void run() {
         try (handle) {
+            while (handle.isOpen()) {
+                Request request;
+                try {
+                    request = handle.readRequest();
+                } catch (EOFException | ClosedChannelException e) {
+                    // client went away or daemon is shutting down
+                    break;
+                }
+                executor.execute(() -> serve(request));
+            }
+        } catch (Exception e) {
+            logger.warn("Server error", e);
+        }
+    }
+
+    private Optional<? extends LocalEntry> locate(URI key) throws IOException {
+        return cachingSystemNode.locate(key, negativeCache);
+    }
+
+    /**
+     * Closes the connection; used on daemon shutdown.
+     */
+    void close() {
+        try {
+            handle.close();
+        } catch (IOException e) {
+            logger.debug("Error closing connection", e);
+        }
+    }
+
+    private interface Item<T> {
+        T process(int index) throws IOException;
+    }
+
+    /**
+     * Processes batch items concurrently, using executor. To not exhaust (possibly bounded) executor by batches waiting
+     * for their items, calling thread "helps": runs itself all the items that executor did not start yet. Item
+     * failures are logged, and are reported as result of passed in failure function.
+     */
+    private List<Map<String, String>> processConcurrently(
+            int count, Item<Map<String, String>> item, Function<Exception, Map<String, String>> failure) {
+        ArrayList<FutureTask<Map<String, String>>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            FutureTask<Map<String, String>> task = new FutureTask<>(() -> {
+                try {
+                    return item.process(index);
+                } catch (Exception e) {
+                    logger.warn("Batch item {} failed", index, e);
+                    return failure.apply(e);
+                }
+            });
+            tasks.add(task);
+            if (i > 0) {
+                executor.execute(task);
+            }
+        }
+        ArrayList<Map<String, String>> results = new ArrayList<>(count);
+        for (FutureTask<Map<String, String>> task : tasks) {
+            task.run(); // no-op if task already ran or is running
+            try {
+                results.add(task.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private void serve(Request request) {
+        try {
             Thread.currentThread().setName("DVT");
-            Request request = handle.readRequest();
             try {
                 switch (request.cmd()) {
                     case CMD_HELLO -> {
@@ -80,10 +182,16 @@ final class DaemonServer extends ComponentSupport implements Runnable {
                             String sessionId = UUID.randomUUID().toString();
                             Map<String, String> session = new HashMap<>();
                             session.put(Session.SESSION_ID, sessionId);
+                            Map<String, String> data = new HashMap<>(daemonData);
+                            data.put(
+                                    Session.PROTOCOL_VERSION,
+                                    Integer.toString(Handle.negotiateProtocolVersion(
+                                            request.data().get(Session.PROTOCOL_VERSIONS))));
                             handle.writeResponse(ImmutableResponse.builder()
+                                    .id(request.id())
                                     .status(Response.STATUS_OK)
                                     .session(session)
-                                    .data(daemonData)
+                                    .data(data)
                                     .build());
                             sessions.put(sessionId, request.data());
                             logger.debug("{} {} > {}", request.cmd(), request.data(), sessionId);
@@ -106,7 +214,7 @@ final class DaemonServer extends ComponentSupport implements Runnable {
                     case CMD_LOCATE -> {
                         String keyString = request.requireData(Request.DATA_KEYSTRING);
                         URI key = URI.create(keyString);
-                        Optional<? extends Entry> entry = cachingSystemNode.locate(key);
+                        Optional<? extends Entry> entry = locate(key);
                         logger.debug("{} {} {}", request.cmd(), entry.isPresent() ? "HIT" : "MISS", keyString);
                         if (entry.isPresent()) {
                             Entry entryValue = entry.orElseThrow();
@@ -115,12 +223,25 @@ final class DaemonServer extends ComponentSupport implements Runnable {
                             handle.writeResponse(Response.okData(request, Map.of()));
                         }
                     }
+                    case CMD_LOCATE_KEY -> {
+                        Optional<URI> key = cachingSystemNode.locateKey(splitChecksums(request.data()));
+                        logger.debug("{} {} {}", request.cmd(), key.isPresent() ? "HIT" : "MISS", request.data());
+                        if (key.isPresent()) {
+                            handle.writeResponse(Response.okData(
+                                    request,
+                                    Map.of(
+                                            Request.DATA_KEYSTRING,
+                                            key.orElseThrow().toASCIIString())));
+                        } else {
+                            handle.writeResponse(Response.okData(request, Map.of()));
+                        }
+                    }
                     case CMD_TRANSFER -> {
                         String keyString = request.requireData(Request.DATA_KEYSTRING);
                         String pathString = request.requireData(Request.DATA_PATHSTRING);
                         URI key = URI.create(keyString);
                         Path path = Path.of(pathString);
-                        Optional<? extends LocalEntry> entry = cachingSystemNode.locate(key);
+                        Optional<? extends LocalEntry> entry = locate(key);
                         logger.debug(
                                 "{} {} {} -> {}",
                                 request.cmd(),
@@ -134,18 +255,100 @@ final class DaemonServer extends ComponentSupport implements Runnable {
                             handle.writeResponse(Response.koMessage(request, "Not found"));
                         }
                     }
+                    case CMD_LOCATE_TRANSFER -> {
+                        String keyString = request.requireData(Request.DATA_KEYSTRING);
+                        String pathString = request.requireData(Request.DATA_PATHSTRING);
+                        Optional<? extends LocalEntry> entry = locate(URI.create(keyString));
+                        logger.debug(
+                                "{} {} {} -> {}",
+                                request.cmd(),
+                                entry.isPresent() ? "HIT" : "MISS",
+                                keyString,
+                                pathString);
+                        if (entry.isPresent()) {
+                            LocalEntry entryValue = entry.orElseThrow();
+                            entryValue.transferTo(Path.of(pathString));
+                            handle.writeResponse(Response.okData(request, mergeEntry(entryValue)));
+                        } else {
+                            handle.writeResponse(Response.okData(request, Map.of()));
+                        }
+                    }
+                    case CMD_LOCATE_MANY -> {
+                        int count = Integer.parseInt(request.requireData(Request.DATA_COUNT));
+                        ArrayList<URI> keys = new ArrayList<>(count);
+                        for (int i = 0; i < count; i++) {
+                            keys.add(URI.create(request.requireData(Message.itemKey(i, Request.DATA_KEYSTRING))));
+                        }
+                        // one batch: remote nodes are asked for all missing keys at once
+                        Map<URI, LocalEntry> entries = cachingSystemNode.locate(keys, negativeCache, executor);
+                        HashMap<String, String> data = new HashMap<>();
+                        for (int i = 0; i < count; i++) {
+                            int index = i;
+                            LocalEntry entry = entries.get(keys.get(i));
+                            logger.debug("{} {} {}", request.cmd(), entry != null ? "HIT" : "MISS", keys.get(i));
+                            if (entry != null) {
+                                mergeEntry(entry).forEach((k, v) -> data.put(Message.itemKey(index, k), v));
+                            }
+                        }
+                        handle.writeResponse(Response.okData(request, data));
+                    }
+                    case CMD_TRANSFER_MANY -> {
+                        int count = Integer.parseInt(request.requireData(Request.DATA_COUNT));
+                        List<Map<String, String>> results = processConcurrently(
+                                count,
+                                i -> {
+                                    String keyString = request.requireData(Message.itemKey(i, Request.DATA_KEYSTRING));
+                                    String pathString =
+                                            request.requireData(Message.itemKey(i, Request.DATA_PATHSTRING));
+                                    Optional<? extends LocalEntry> entry = locate(URI.create(keyString));
+                                    logger.debug(
+                                            "{} {} {} -> {}",
+                                            request.cmd(),
+                                            entry.isPresent() ? "HIT" : "MISS",
+                                            keyString,
+                                            pathString);
+                                    if (entry.isPresent()) {
+                                        entry.orElseThrow().transferTo(Path.of(pathString));
+                                        return Map.of(Response.DATA_STATUS, Response.STATUS_OK);
+                                    } else {
+                                        return Map.of(
+                                                Response.DATA_STATUS,
+                                                Response.STATUS_KO,
+                                                Response.DATA_MESSAGE,
+                                                "Not found");
+                                    }
+                                },
+                                e -> Map.of(
+                                        Response.DATA_STATUS,
+                                        Response.STATUS_KO,
+                                        Response.DATA_MESSAGE,
+                                        String.valueOf(e.getMessage())));
+                        HashMap<String, String> data = new HashMap<>();
+                        for (int i = 0; i < count; i++) {
+                            int index = i;
+                            results.get(i).forEach((k, v) -> data.put(Message.itemKey(index, k), v));
+                        }
+                        handle.writeResponse(Response.okData(request, data));
+                    }
                     case CMD_LS_CHECKSUMS -> {
                         logger.debug("{} -> {}", request.cmd(), cachingSystemNode.checksumAlgorithms());
                         LinkedHashMap<String, String> data = new LinkedHashMap<>();
                         cachingSystemNode.checksumAlgorithms().forEach(c -> data.put(c, c));
                         handle.writeResponse(Response.okData(request, data));
                     }
+                    case CMD_STATS -> {
+                        Map<String, String> data = stats.get();
+                        logger.debug("{} -> {}", request.cmd(), data);
+                        handle.writeResponse(Response.okData(request, data));
+                    }
                     case CMD_STORE_PATH -> {
                         String keyString = request.requireData(Request.DATA_KEYSTRING);
                         String pathString = request.requireData(Request.DATA_PATHSTRING);
                         Map<String, String> data = request.data();
                         logger.debug("{} {} <- {}", request.cmd(), keyString, pathString);
                         URI key = URI.create(keyString);
+                        // caching node invalidates shared negative cache only
+                        negativeCache.invalidate(key);
                         handle.writeResponse(Response.okData(
                                 request,
                                 mergeEntry(cachingSystemNode.store(
@@ -184,9 +387,14 @@ final class DaemonServer extends ComponentSupport implements Runnable {
                     }
                     default -> handle.writeResponse(Response.koMessage(request, "Bad command"));
                 }
-            } catch (IOException e) {
+            } catch (Exception e) {
+                // connection is multiplexed: every request must be answered, or its caller waits in vain
                 try {
-                    handle.writeResponse(Response.koMessage(request, e.getMessage()));
+                    handle.writeResponse(Response.koMessage(
+                            request,
+                            e.getMessage() != null
+                                    ? e.getMessage()
+                                    : e.getClass().getName()));
                 } catch (Exception ignored) {
                     // fall thru
                 }
@@ -9,32 +9,34 @@ package eu.maveniverse.maven.mimir.extension3;
 
 import static java.util.Objects.requireNonNull;
 
-import java.nio.Buffer;
+import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumEngine;
+import java.io.Closeable;
+import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.HashMap;
 import java.util.Map;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
 
-public class ChecksumCalculator {
-    private final Map<String, ChecksumAlgorithm> checksumAlgorithms;
+/**
+ * Calculates checksums of content being transferred, as reported by transfer listener. Must be closed once not
+ * needed anymore.
+ */
+public class ChecksumCalculator implements Closeable {
+    private final ChecksumEngine checksumEngine;
 
     public ChecksumCalculator(Map<String, ChecksumAlgorithm> checksumAlgorithms) {
-        this.checksumAlgorithms = requireNonNull(checksumAlgorithms, "checksumAlgorithms");
+        this.checksumEngine = new ChecksumEngine(requireNonNull(checksumAlgorithms, "checksumAlgorithms"));
     }
 
     public void update(ByteBuffer buffer) {
-        for (ChecksumAlgorithm checksum : checksumAlgorithms.values()) {
-            ((Buffer) buffer).mark();
-            checksum.update(buffer);
-            ((Buffer) buffer).reset();
-        }
+        checksumEngine.update(buffer);
+    }
+
+    public Map<String, String> getChecksums() throws IOException {
+        return checksumEngine.checksums();
     }
 
-    public Map<String, String> getChecksums() {
-        HashMap<String, String> result = new HashMap<>();
-        for (Map.Entry<String, ChecksumAlgorithm> entry : checksumAlgorithms.entrySet()) {
-            result.put(entry.getKey(), entry.getValue().checksum());
-        }
-        return result;
+    @Override
+    public void close() {
+        checksumEngine.close();
     }
 }
@@ -23,9 +23,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
+import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.spi.checksums.TrustedChecksumsSource;
 import org.eclipse.aether.spi.connector.ArtifactDownload;
 import org.eclipse.aether.spi.connector.ArtifactUpload;
 import org.eclipse.aether.spi.connector.MetadataDownload;
@@ -35,25 +40,32 @@ import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactory;
 import org.eclipse.aether.transfer.ArtifactTransferException;
 import org.eclipse.aether.util.FileUtils;
+import org.eclipse.aether.util.artifact.SubArtifact;
 import org.eclipse.aether.util.listener.ChainedTransferListener;
 
 /**
  * Mimir connector wraps another connector that does real job.
  */
 public class MimirRepositoryConnector extends ComponentSupport implements RepositoryConnector {
+    private final RepositorySystemSession session;
     private final Session mimirSession;
+    private final List<TrustedChecksumsSource> trustedChecksumsSources;
     private final RemoteRepository remoteRepository;
     private final RepositoryConnector delegate;
     private final List<ChecksumAlgorithmFactory> resolverChecksumAlgorithmFactories;
     private final Map<String, ChecksumAlgorithmFactory> allChecksumAlgorithmFactoryMap;
 
     public MimirRepositoryConnector(
+            RepositorySystemSession session,
             Session mimirSession,
+            List<TrustedChecksumsSource> trustedChecksumsSources,
             RemoteRepository remoteRepository,
             RepositoryConnector delegate,
             List<ChecksumAlgorithmFactory> resolverChecksumAlgorithmFactories,
             Map<String, ChecksumAlgorithmFactory> allChecksumAlgorithmFactoryMap) {
+        this.session = requireNonNull(session, "session");
         this.mimirSession = requireNonNull(mimirSession, "mimirSession");
+        this.trustedChecksumsSources = requireNonNull(trustedChecksumsSources, "trustedChecksumsSources");
         this.remoteRepository = requireNonNull(remoteRepository, "remoteRepository");
         this.delegate = requireNonNull(delegate, "delegate");
         this.resolverChecksumAlgorithmFactories =
@@ -66,66 +78,74 @@ public class MimirRepositoryConnector extends ComponentSupport implements Reposi
     public void get(
             Collection<? extends ArtifactDownload> artifactDownloads,
             Collection<? extends MetadataDownload> metadataDownloads) {
-        // 1st round: provide whatever we have cached
+        // 1st round: provide whatever we have cached; locate and transfer all in one go
         List<ArtifactDownload> ads = new ArrayList<>();
         HashMap<Artifact, PotentiallyCached> keys = new HashMap<>();
         if (artifactDownloads != null && !artifactDownloads.isEmpty()) {
+            List<ArtifactDownload> candidates = new ArrayList<>();
             for (ArtifactDownload artifactDownload : artifactDownloads) {
                 if (artifactDownload.isExistenceCheck()
                         || !mimirSession.artifactSupported(artifactDownload.getArtifact())) {
                     ads.add(artifactDownload);
                 } else {
-                    try {
-                        Optional<Entry> entry = mimirSession.locate(remoteRepository, artifactDownload.getArtifact());
-                        if (entry.isPresent()) {
-                            Entry ce = entry.orElseThrow(() -> new IllegalStateException("Value not present"));
-                            logger.debug("Fetched {} from Mimir cache", artifactDownload.getArtifact());
+                    candidates.add(artifactDownload);
+                }
+            }
+            if (candidates.size() == 1) {
+                // common case: single artifact; locate and transfer in single round trip
+                ArtifactDownload artifactDownload = candidates.get(0);
+                try {
+                    Optional<Entry> entry = mimirSession.locate(
+                            remoteRepository,
+                            artifactDownload.getArtifact(),
+                            artifactDownload.getFile().toPath());
+                    if (entry.isPresent()) {
+                        logger.debug("Fetched {} from Mimir cache", artifactDownload.getArtifact());
+                        writeChecksum(artifactDownload, entry.orElseThrow());
+                    } else if (!fetchedByChecksums(artifactDownload)) {
+                        ads.add(potentiallyCached(artifactDownload, keys));
+                    }
+                } catch (IOException e) {
+                    artifactDownload.setException(
+                            new ArtifactTransferException(artifactDownload.getArtifact(), remoteRepository, e));
+                }
+            } else if (!candidates.isEmpty()) {
+                try {
+                    Map<Artifact, Entry> entries = mimirSession.locate(
+                            remoteRepository,
+                            candidates.stream()
+                                    .map(ArtifactDownload::getArtifact)
+                                    .toList());
+                    HashMap<Path, Entry> transfers = new HashMap<>();
+                    for (ArtifactDownload artifactDownload : candidates) {
+                        Entry entry = entries.get(artifactDownload.getArtifact());
+                        if (entry != null) {
+                            transfers.put(artifactDownload.getFile().toPath(), entry);
+                        }
+                    }
+                    Map<Path, IOException> failures =
+                            transfers.isEmpty() ? Map.of() : mimirSession.transferAll(transfers);
+                    for (ArtifactDownload artifactDownload : candidates) {
+                        try {
                             Path artifactFile = artifactDownload.getFile().toPath();
-                            ce.transferTo(artifactFile);
-                            String checksum = null;
-                            for (ChecksumAlgorithmFactory checksumAlgorithmFactory :
-                                    resolverChecksumAlgorithmFactories) {
-                                checksum = ce.checksums().get(checksumAlgorithmFactory.getName());
-                                if (checksum != null) {
-                                    final String chk = checksum;
-                                    FileUtils.writeFile(
-                                            artifactFile
-                                                    .getParent()
-                                                    .resolve(artifactFile.getFileName() + "."
-                                                            + checksumAlgorithmFactory.getFileExtension()),
-                                            p -> Files.write(p, chk.getBytes(StandardCharsets.UTF_8)));
-                                    break;
+                            Entry entry = transfers.get(artifactFile);
+                            if (entry != null) {
+                                IOException failure = failures.get(artifactFile);
+                                if (failure != null) {
+                                    throw failure;
                                 }
+                                logger.debug("Fetched {} from Mimir cache", artifactDownload.getArtifact());
+                                writeChecksum(artifactDownload, entry);
+                            } else if (!fetchedByChecksums(artifactDownload)) {
+                                ads.add(potentiallyCached(artifactDownload, keys));
                             }
-                            if (checksum == null) {
-                                logger.warn(
-                                        "No checksum written for {}; resolver={} vs entry={}",
-                                        artifactDownload.getArtifact(),
-                                        resolverChecksumAlgorithmFactories.stream()
-                                                .map(ChecksumAlgorithmFactory::getName)
-                                                .collect(Collectors.joining(",")),
-                                        String.join(",", ce.checksums().keySet()));
-                            }
-                        } else {
-                            HashMap<String, ChecksumAlgorithm> checksumAlgorithms = new HashMap<>();
-                            for (String algorithm : mimirSession.checksumAlgorithms()) {
-                                ChecksumAlgorithmFactory factory = allChecksumAlgorithmFactoryMap.get(algorithm);
-                                if (factory == null) {
-                                    throw new IllegalStateException(
-                                            "Required checksum algorithm unavailable: " + algorithm);
-                                }
-                                checksumAlgorithms.put(factory.getName(), factory.getAlgorithm());
-                            }
-                            ChecksumCalculator checksumCalculator = new ChecksumCalculator(checksumAlgorithms);
-                            MimirTransferListener transferListener = new MimirTransferListener(checksumCalculator);
-                            PotentiallyCached potentiallyCached = new PotentiallyCached(
-                                    artifactDownload.getArtifact(), checksumCalculator, transferListener);
-                            artifactDownload = artifactDownload.setListener(ChainedTransferListener.newInstance(
-                                    artifactDownload.getListener(), transferListener));
-                            keys.put(artifactDownload.getArtifact(), potentiallyCached);
-                            ads.add(artifactDownload);
+                        } catch (IOException e) {
+                            artifactDownload.setException(
+                                    new ArtifactTransferException(artifactDownload.getArtifact(), remoteRepository, e));
                         }
-                    } catch (IOException e) {
+                    }
+                } catch (IOException e) {
+                    for (ArtifactDownload artifactDownload : candidates) {
                         artifactDownload.setException(
                                 new ArtifactTransferException(artifactDownload.getArtifact(), remoteRepository, e));
                     }
@@ -133,31 +153,185 @@ public class MimirRepositoryConnector extends ComponentSupport implements Reposi
             }
         }
 
-        // unmatched ones are to be fetched by delegate
-        delegate.get(ads, metadataDownloads);
+        try {
+            // unmatched ones are to be fetched by delegate
+            delegate.get(ads, metadataDownloads);
 
-        // 2nd round: those fetched (and healthy) should be cached
-        if (!ads.isEmpty()) {
-            for (ArtifactDownload artifactDownload : ads) {
-                PotentiallyCached potentiallyCached = keys.get(artifactDownload.getArtifact());
-                if (potentiallyCached != null
-                        && potentiallyCached.transferListener.isValid()
-                        && artifactDownload.getException() == null) {
-                    try {
+            // 2nd round: those fetched (and healthy) should be cached; fire all stores, then wait for them
+            if (!ads.isEmpty()) {
+                HashMap<ArtifactDownload, CompletableFuture<Void>> stores = new HashMap<>();
+                for (ArtifactDownload artifactDownload : ads) {
+                    PotentiallyCached potentiallyCached = keys.get(artifactDownload.getArtifact());
+                    if (potentiallyCached != null
+                            && potentiallyCached.transferListener.isValid()
+                            && artifactDownload.getException() == null) {
                         logger.debug("Storing {} to Mimir 'local' cache", artifactDownload.getArtifact());
-                        mimirSession.store(
-                                remoteRepository,
-                                potentiallyCached.artifact,
-                                artifactDownload.getFile().toPath(),
-                                Collections.emptyMap(),
-                                potentiallyCached.checksumCalculator.getChecksums());
-                    } catch (IOException e) {
-                        artifactDownload.setException(
-                                new ArtifactTransferException(artifactDownload.getArtifact(), remoteRepository, e));
+                        try {
+                            stores.put(
+                                    artifactDownload,
+                                    mimirSession.storeAsync(
+                                            remoteRepository,
+                                            potentiallyCached.artifact,
+                                            artifactDownload.getFile().toPath(),
+                                            Collections.emptyMap(),
+                                            potentiallyCached.checksumCalculator.getChecksums()));
+                        } catch (IOException e) {
+                            artifactDownload.setException(
+                                    new ArtifactTransferException(artifactDownload.getArtifact(), remoteRepository, e));
+                        }
                     }
                 }
+                for (Map.Entry<ArtifactDownload, CompletableFuture<Void>> store : stores.entrySet()) {
+                    try {
+                        store.getValue().join();
+                    } catch (CompletionException e) {
+                        ArtifactDownload artifactDownload = store.getKey();
+                        artifactDownload.setException(new ArtifactTransferException(
+                                artifactDownload.getArtifact(), remoteRepository, e.getCause()));
+                    }
+                }
+            }
+        } finally {
+            keys.values().forEach(k -> k.checksumCalculator.close());
+        }
+    }
+
+    /**
+     * On a miss, tries to satisfy artifact download from an entry cached from another repository, if enabled and
+     * content is proven same by trusted checksums: those provided by Resolver trusted checksum sources, or lacking
+     * those, the checksum published by remote repository (costs one small request instead of artifact download).
+     * Entry found is stored under the key of artifact as well, so next time it is a plain hit. Returns {@code true}
+     * if artifact download was satisfied; failures are logged and the artifact is left to the delegate.
+     */
+    private boolean fetchedByChecksums(ArtifactDownload artifactDownload) {
+        if (!mimirSession.config().crossRepositoryHits()) {
+            return false;
+        }
+        Path artifactFile = artifactDownload.getFile().toPath();
+        Entry entry;
+        try {
+            Map<String, String> trustedChecksums = trustedChecksums(artifactDownload.getArtifact());
+            if (trustedChecksums.isEmpty()) {
+                return false;
+            }
+            Optional<Entry> located =
+                    mimirSession.locateByChecksums(remoteRepository, artifactDownload.getArtifact(), trustedChecksums);
+            if (located.isEmpty()) {
+                return false;
+            }
+            entry = located.orElseThrow();
+            entry.transferTo(artifactFile);
+            writeChecksum(artifactDownload, entry);
+        } catch (IOException e) {
+            logger.debug("Failed to fetch {} from Mimir cache by checksums", artifactDownload.getArtifact(), e);
+            return false;
+        }
+        logger.debug("Fetched {} from Mimir cache by checksums", artifactDownload.getArtifact());
+        try {
+            mimirSession.store(
+                    remoteRepository,
+                    artifactDownload.getArtifact(),
+                    artifactFile,
+                    Collections.emptyMap(),
+                    entry.checksums());
+        } catch (IOException e) {
+            logger.debug("Failed to store {} to Mimir 'local' cache", artifactDownload.getArtifact(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Gathers trusted checksums of artifact: from trusted checksum sources first, then from remote repository.
+     */
+    private Map<String, String> trustedChecksums(Artifact artifact) throws IOException {
+        HashMap<String, String> result = new HashMap<>();
+        for (TrustedChecksumsSource trustedChecksumsSource : trustedChecksumsSources) {
+            Map<String, String> checksums = trustedChecksumsSource.getTrustedArtifactChecksums(
+                    session, artifact, remoteRepository, resolverChecksumAlgorithmFactories);
+            if (checksums != null) {
+                checksums.forEach(result::putIfAbsent);
+            }
+        }
+        if (result.isEmpty() && !resolverChecksumAlgorithmFactories.isEmpty()) {
+            ChecksumAlgorithmFactory factory = resolverChecksumAlgorithmFactories.get(0);
+            Path checksumFile = Files.createTempFile("mimir-", "." + factory.getFileExtension());
+            try {
+                ArtifactDownload checksumDownload = new ArtifactDownload(
+                        new SubArtifact(artifact, "*", "*." + factory.getFileExtension()),
+                        null,
+                        checksumFile.toFile(),
+                        RepositoryPolicy.CHECKSUM_POLICY_IGNORE);
+                delegate.get(List.of(checksumDownload), null);
+                if (checksumDownload.getException() == null) {
+                    String content = Files.readString(checksumFile, StandardCharsets.UTF_8)
+                            .trim();
+                    int space = content.indexOf(' ');
+                    String checksum = space > 0 ? content.substring(0, space) : content;
+                    if (!checksum.isEmpty()) {
+                        result.put(factory.getName(), checksum);
+                    }
+                } else {
+                    logger.debug("No remote checksum for {}", artifact, checksumDownload.getException());
+                }
+            } finally {
+                Files.deleteIfExists(checksumFile);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the checksum file (of first checksum algorithm Resolver wants and entry has) next to artifact file.
+     */
+    private void writeChecksum(ArtifactDownload artifactDownload, Entry entry) throws IOException {
+        Path artifactFile = artifactDownload.getFile().toPath();
+        String checksum = null;
+        for (ChecksumAlgorithmFactory checksumAlgorithmFactory : resolverChecksumAlgorithmFactories) {
+            checksum = entry.checksums().get(checksumAlgorithmFactory.getName());
+            if (checksum != null) {
+                final String chk = checksum;
+                FileUtils.writeFile(
+                        artifactFile
+                                .getParent()
+                                .resolve(
+                                        artifactFile.getFileName() + "." + checksumAlgorithmFactory.getFileExtension()),
+                        p -> Files.write(p, chk.getBytes(StandardCharsets.UTF_8)));
+                break;
+            }
+        }
+        if (checksum == null) {
+            logger.warn(
+                    "No checksum written for {}; resolver={} vs entry={}",
+                    artifactDownload.getArtifact(),
+                    resolverChecksumAlgorithmFactories.stream()
+                            .map(ChecksumAlgorithmFactory::getName)
+                            .collect(Collectors.joining(",")),
+                    String.join(",", entry.checksums().keySet()));
+        }
+    }
+
+    /**
+     * Sets up checksum calculation for artifact download that is to be fetched by delegate, and registers it for
+     * 2nd round (storing it to cache).
+     */
+    private ArtifactDownload potentiallyCached(ArtifactDownload artifactDownload, Map<Artifact, PotentiallyCached> keys)
+            throws IOException {
+        HashMap<String, ChecksumAlgorithm> checksumAlgorithms = new HashMap<>();
+        for (String algorithm : mimirSession.checksumAlgorithms()) {
+            ChecksumAlgorithmFactory factory = allChecksumAlgorithmFactoryMap.get(algorithm);
+            if (factory == null) {
+                throw new IllegalStateException("Required checksum algorithm unavailable: " + algorithm);
             }
+            checksumAlgorithms.put(factory.getName(), factory.getAlgorithm());
         }
+        ChecksumCalculator checksumCalculator = new ChecksumCalculator(checksumAlgorithms);
+        MimirTransferListener transferListener = new MimirTransferListener(checksumCalculator);
+        PotentiallyCached potentiallyCached =
+                new PotentiallyCached(artifactDownload.getArtifact(), checksumCalculator, transferListener);
+        artifactDownload = artifactDownload.setListener(
+                ChainedTransferListener.newInstance(artifactDownload.getListener(), transferListener));
+        keys.put(artifactDownload.getArtifact(), potentiallyCached);
+        return artifactDownload;
     }
 
     @Override
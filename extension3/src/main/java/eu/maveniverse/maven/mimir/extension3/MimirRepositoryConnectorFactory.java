@@ -20,6 +20,7 @@ import javax.inject.Named;
 import javax.inject.Provider;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.checksums.TrustedChecksumsSource;
 import org.eclipse.aether.spi.connector.RepositoryConnector;
 import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactory;
@@ -37,17 +38,23 @@ public class MimirRepositoryConnectorFactory extends ComponentSupport implements
     private final RepositoryConnectorFactory basicRepositoryConnectorFactory;
     private final RepositoryConnectorFactory mirrorRepositoryConnectorFactory;
     private final ChecksumAlgorithmFactorySelector checksumAlgorithmFactorySelector;
+    private final List<TrustedChecksumsSource> trustedChecksumsSources;
 
     @Inject
     public MimirRepositoryConnectorFactory(
             Map<String, Provider<RepositoryConnectorFactory>> repositoryConnectorFactories,
-            ChecksumAlgorithmFactorySelector checksumAlgorithmFactorySelector) {
+            ChecksumAlgorithmFactorySelector checksumAlgorithmFactorySelector,
+            Map<String, TrustedChecksumsSource> trustedChecksumsSources) {
         this.basicRepositoryConnectorFactory = requireNonNull(
                 repositoryConnectorFactories.get("basic").get(), "No basic repository connector factory found");
         this.mirrorRepositoryConnectorFactory = requireNonNull(
                 repositoryConnectorFactories.get("mirror").get(), "No mirror repository connector factory found");
         this.checksumAlgorithmFactorySelector =
                 requireNonNull(checksumAlgorithmFactorySelector, "checksumAlgorithmFactorySelector");
+        // our own source is backed by cache itself, so it would prove nothing
+        this.trustedChecksumsSources = trustedChecksumsSources.values().stream()
+                .filter(s -> !(s instanceof MimirTrustedChecksumsSource))
+                .toList();
     }
 
     @Override
@@ -68,7 +75,9 @@ public class MimirRepositoryConnectorFactory extends ComponentSupport implements
                                 "aether.layout.maven2.checksumAlgorithms" + repository.getId(),
                                 "aether.layout.maven2.checksumAlgorithms")));
                 return new MimirRepositoryConnector(
+                        session,
                         ms,
+                        trustedChecksumsSources,
                         repository,
                         repositoryConnector,
                         checksumsAlgorithms,
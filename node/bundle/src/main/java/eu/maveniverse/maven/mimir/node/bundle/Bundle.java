@@ -9,6 +9,7 @@ package eu.maveniverse.maven.mimir.node.bundle;
 
 import static java.util.Objects.requireNonNull;
 
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.naming.Keys;
 import eu.maveniverse.maven.mimir.shared.naming.UriDecoders;
 import eu.maveniverse.maven.mimir.shared.node.Entry;
@@ -31,12 +32,14 @@ public final class Bundle implements Closeable {
     private final String name;
     private final FileSystem fileSystem;
     private final Path root;
+    private final ContentTransfer contentTransfer;
 
-    public Bundle(String container, String name, FileSystem fileSystem) {
+    public Bundle(String container, String name, FileSystem fileSystem, ContentTransfer contentTransfer) {
         this.container = requireNonNull(container);
         this.name = requireNonNull(name);
         this.fileSystem = requireNonNull(fileSystem);
         this.root = fileSystem.getPath("/");
+        this.contentTransfer = requireNonNull(contentTransfer);
     }
 
     public Optional<BundleEntry> locate(URI uri) throws IOException {
@@ -48,7 +51,7 @@ public final class Bundle implements Closeable {
                 if (Files.isRegularFile(path)) {
                     Map<String, String> metadata = loadMetadata(path);
                     Map<String, String> checksums = loadChecksums(path);
-                    return Optional.of(new BundleEntry(metadata, checksums, path));
+                    return Optional.of(new BundleEntry(metadata, checksums, path, contentTransfer));
                 }
             }
         }
@@ -9,6 +9,7 @@ package eu.maveniverse.maven.mimir.node.bundle;
 
 import static java.util.Objects.requireNonNull;
 
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.impl.node.EntrySupport;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
 import eu.maveniverse.maven.shared.core.fs.FileUtils;
@@ -20,10 +21,16 @@ import java.util.Map;
 
 public final class BundleEntry extends EntrySupport implements LocalEntry {
     private final Path bundleFsPath;
+    private final ContentTransfer contentTransfer;
 
-    public BundleEntry(Map<String, String> metadata, Map<String, String> checksums, Path bundleFsPath) {
+    public BundleEntry(
+            Map<String, String> metadata,
+            Map<String, String> checksums,
+            Path bundleFsPath,
+            ContentTransfer contentTransfer) {
         super(metadata, checksums);
         this.bundleFsPath = requireNonNull(bundleFsPath, "bundleFsPath");
+        this.contentTransfer = requireNonNull(contentTransfer, "contentTransfer");
     }
 
     @Override
@@ -38,7 +45,7 @@ public final class BundleEntry extends EntrySupport implements LocalEntry {
     public void transferTo(Path file) throws IOException {
         Files.deleteIfExists(file);
         try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(file)) {
-            FileUtils.copy(bundleFsPath, f.getPath());
+            contentTransfer.transfer(bundleFsPath, f.getPath(), getContentLength());
             f.move();
         }
     }
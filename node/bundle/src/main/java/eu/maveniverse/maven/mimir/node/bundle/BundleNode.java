@@ -9,6 +9,7 @@ package eu.maveniverse.maven.mimir.node.bundle;
 
 import static java.util.Objects.requireNonNull;
 
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.impl.node.NodeSupport;
 import eu.maveniverse.maven.mimir.shared.node.LocalNode;
 import java.io.IOException;
@@ -21,11 +22,13 @@ import java.util.Optional;
 
 public class BundleNode extends NodeSupport implements LocalNode {
     private final List<Bundle> bundles;
+    private final ContentTransfer contentTransfer;
     private final List<String> checksumAlgorithms;
 
-    public BundleNode(List<Bundle> bundles) {
+    public BundleNode(List<Bundle> bundles, ContentTransfer contentTransfer) {
         super(BundleNodeConfig.NAME);
         this.bundles = requireNonNull(bundles);
+        this.contentTransfer = requireNonNull(contentTransfer);
         this.checksumAlgorithms = List.of("SHA-1");
     }
 
@@ -53,8 +56,16 @@ public class BundleNode extends NodeSupport implements LocalNode {
         throw new IllegalStateException("bundle node cannot store");
     }
 
+    /**
+     * Returns the content transfer statistics of entries of this node.
+     */
+    public Map<String, Long> transferStats() {
+        return contentTransfer.stats();
+    }
+
     @Override
     protected void doClose() throws IOException {
+        logger.debug("Bundle node transfers: {}", contentTransfer.stats());
         ArrayList<IOException> exceptions = new ArrayList<>();
         for (Bundle bundle : bundles) {
             try {
@@ -72,6 +83,6 @@ public class BundleNode extends NodeSupport implements LocalNode {
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "(" + bundles + ")";
+        return getClass().getSimpleName() + "(" + bundles + ", " + contentTransfer + ")";
     }
 }
@@ -12,8 +12,10 @@ import static java.util.Objects.requireNonNull;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
 import eu.maveniverse.maven.mimir.shared.impl.ParseUtils;
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import java.io.IOException;
 import java.util.List;
+import java.util.Locale;
 
 public class BundleNodeConfig {
     public static BundleNodeConfig with(SessionConfig sessionConfig) throws IOException {
@@ -24,18 +26,35 @@ public class BundleNodeConfig {
             artifactSources = parseBundleSources(
                     sessionConfig, sessionConfig.effectiveProperties().get("mimir.bundle.sources"), true);
         }
-        return new BundleNodeConfig(artifactSources);
+        ContentTransfer.Mode transferMode = ContentTransfer.Mode.AUTO;
+        if (sessionConfig.effectiveProperties().containsKey("mimir.bundle.transferMode")) {
+            transferMode = ContentTransfer.Mode.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.bundle.transferMode")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        return new BundleNodeConfig(artifactSources, transferMode);
     }
 
     public static final String NAME = "bundle";
 
     private final List<ParseUtils.ArtifactSource> artifactSources;
+    private final ContentTransfer.Mode transferMode;
 
-    private BundleNodeConfig(List<ParseUtils.ArtifactSource> artifactSources) {
+    private BundleNodeConfig(List<ParseUtils.ArtifactSource> artifactSources, ContentTransfer.Mode transferMode) {
         this.artifactSources = artifactSources;
+        this.transferMode = transferMode;
     }
 
     public List<ParseUtils.ArtifactSource> bundleSources() {
         return artifactSources;
     }
+
+    /**
+     * The mode of transferring bundle entry content to target files. As bundle entries are ZIP entries, they cannot
+     * be linked or cloned, and {@link ContentTransfer.Mode#AUTO} ends up with channel transfer.
+     */
+    public ContentTransfer.Mode transferMode() {
+        return transferMode;
+    }
 }
@@ -11,6 +11,7 @@ import static java.util.Objects.requireNonNull;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
 import eu.maveniverse.maven.mimir.shared.impl.ParseUtils;
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.naming.UriEncoders;
 import eu.maveniverse.maven.mimir.shared.node.LocalNodeFactory;
 import eu.maveniverse.maven.shared.core.component.ComponentSupport;
@@ -50,6 +51,8 @@ public class BundleNodeFactory extends ComponentSupport implements LocalNodeFact
         if (repositorySystem != null
                 && sessionConfig.repositorySystemSession().isPresent()
                 && !bundleNodeConfig.bundleSources().isEmpty()) {
+            ContentTransfer contentTransfer =
+                    new ContentTransfer(BundleNodeConfig.NAME, bundleNodeConfig.transferMode(), false);
             ArrayList<Bundle> bundles = new ArrayList<>();
             for (ParseUtils.ArtifactSource artifactSource : bundleNodeConfig.bundleSources()) {
                 RemoteRepository remoteRepository = artifactSource.remoteRepository();
@@ -73,10 +76,11 @@ public class BundleNodeFactory extends ComponentSupport implements LocalNodeFact
                         FileSystems.newFileSystem(
                                 URI.create("jar:" + artifact.getFile().toPath().toUri()),
                                 Map.of("create", "false"),
-                                null)));
+                                null),
+                        contentTransfer));
             }
             if (!bundles.isEmpty()) {
-                return Optional.of(new BundleNode(bundles));
+                return Optional.of(new BundleNode(bundles, contentTransfer));
             }
         }
         return Optional.empty();
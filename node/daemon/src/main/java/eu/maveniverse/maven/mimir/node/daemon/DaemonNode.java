@@ -26,9 +26,12 @@ import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This node is delegating all the work to daemon via Unix Domain Sockets.
@@ -63,28 +66,120 @@ public class DaemonNode extends NodeSupport implements LocalNode {
         return daemonData;
     }
 
+    /**
+     * Returns the statistics of the daemon.
+     */
+    public Map<String, String> getDaemonStats() throws IOException {
+        return clientHandle.execute(Request.stats(session)).data();
+    }
+
     @Override
     public List<String> checksumAlgorithms() throws IOException {
-        try (Handle handle = clientHandle.getHandle()) {
-            handle.writeRequest(Request.lsChecksums(session));
-            return new ArrayList<>(handle.readResponse().data().keySet());
-        }
+        return new ArrayList<>(
+                clientHandle.execute(Request.lsChecksums(session)).data().keySet());
     }
 
     @Override
     public Optional<DaemonEntry> locate(URI key) throws IOException {
         String keyString = key.toASCIIString();
         logger.debug("LOCATE '{}'", keyString);
-        try (Handle handle = clientHandle.getHandle()) {
-            handle.writeRequest(Request.locate(session, keyString));
-            Response locateResponse = handle.readResponse();
-            if (!locateResponse.data().isEmpty()) {
-                return Optional.of(new DaemonEntry(
-                        splitMetadata(locateResponse.data()), splitChecksums(locateResponse.data()), keyString));
+        return located(keyString, clientHandle.execute(Request.locate(session, keyString)));
+    }
+
+    private Optional<DaemonEntry> located(String keyString, Response locateResponse) throws IOException {
+        checkStatus(locateResponse, "locate", keyString);
+        if (!locateResponse.data().isEmpty()) {
+            return Optional.of(new DaemonEntry(
+                    splitMetadata(locateResponse.data()), splitChecksums(locateResponse.data()), keyString));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        logger.debug("LOCATE KEY {}", checksums);
+        Response response = clientHandle.execute(Request.locateKey(session, mergeEntry(Map.of(), checksums)));
+        checkStatus(response, "locateKey", checksums.toString());
+        String keyString = response.data().get(Request.DATA_KEYSTRING);
+        return keyString != null ? Optional.of(URI.create(keyString)) : Optional.empty();
+    }
+
+    @Override
+    public Optional<DaemonEntry> locateAndTransfer(URI key, Path file) throws IOException {
+        String keyString = key.toASCIIString();
+        String filePath = FileUtils.canonicalPath(file).toString();
+        logger.debug("LOCATE TRANSFER '{}'->'{}'", keyString, filePath);
+        Response response = clientHandle.execute(Request.locateTransfer(session, keyString, filePath));
+        checkStatus(response, "transfer", keyString);
+        if (!response.data().isEmpty()) {
+            return Optional.of(
+                    new DaemonEntry(splitMetadata(response.data()), splitChecksums(response.data()), keyString));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Map<URI, DaemonEntry> locateAll(Collection<URI> keys) throws IOException {
+        if (keys.isEmpty()) {
+            return Map.of();
+        } else if (keys.size() == 1) {
+            URI key = keys.iterator().next();
+            return locate(key).map(e -> Map.of(key, e)).orElse(Map.of());
+        }
+        ArrayList<URI> keyList = new ArrayList<>(keys);
+        List<String> keyStrings = keyList.stream().map(URI::toASCIIString).toList();
+        logger.debug("LOCATE MANY {}", keyStrings);
+        Response locateResponse = clientHandle.execute(Request.locateMany(session, keyStrings));
+        checkStatus(locateResponse, "locate", keyStrings.size() + " keys");
+        HashMap<URI, DaemonEntry> result = new HashMap<>();
+        locateResponse
+                .items()
+                .forEach((index, data) -> result.put(
+                        keyList.get(index),
+                        new DaemonEntry(splitMetadata(data), splitChecksums(data), keyStrings.get(index))));
+        return result;
+    }
+
+    @Override
+    public Map<Path, IOException> transferAll(Map<Path, ? extends LocalEntry> transfers) {
+        HashMap<Path, LocalEntry> others = new HashMap<>();
+        ArrayList<Path> files = new ArrayList<>();
+        ArrayList<String> keyStrings = new ArrayList<>();
+        ArrayList<String> filePaths = new ArrayList<>();
+        for (Map.Entry<Path, ? extends LocalEntry> transfer : transfers.entrySet()) {
+            if (transfer.getValue() instanceof DaemonEntry daemonEntry && daemonEntry.node() == this) {
+                files.add(transfer.getKey());
+                keyStrings.add(daemonEntry.keyString);
+                filePaths.add(FileUtils.canonicalPath(transfer.getKey()).toString());
             } else {
-                return Optional.empty();
+                others.put(transfer.getKey(), transfer.getValue());
+            }
+        }
+        HashMap<Path, IOException> failures = new HashMap<>(LocalNode.super.transferAll(others));
+        if (files.size() == 1) {
+            failures.putAll(LocalNode.super.transferAll(Map.of(files.get(0), transfers.get(files.get(0)))));
+        } else if (!files.isEmpty()) {
+            logger.debug("TRANSFER MANY {}", keyStrings);
+            try {
+                Map<Integer, Map<String, String>> items = clientHandle
+                        .execute(Request.transferMany(session, keyStrings, filePaths))
+                        .items();
+                for (int i = 0; i < files.size(); i++) {
+                    Map<String, String> item = items.getOrDefault(i, Map.of());
+                    if (!Response.STATUS_OK.equals(item.get(Response.DATA_STATUS))) {
+                        failures.put(
+                                files.get(i),
+                                new IOException("Failed to transfer " + keyStrings.get(i) + ": "
+                                        + item.getOrDefault(Response.DATA_MESSAGE, "unknown error")));
+                    }
+                }
+            } catch (IOException e) {
+                files.forEach(f -> failures.put(f, e));
             }
         }
+        return failures;
     }
 
     @Override
@@ -93,30 +188,58 @@ public class DaemonNode extends NodeSupport implements LocalNode {
         String keyString = key.toASCIIString();
         String filePath = FileUtils.canonicalPath(file).toString();
         logger.debug("STORE PATH '{}' -> '{}'", keyString, filePath);
-        try (Handle handle = clientHandle.getHandle()) {
-            handle.writeRequest(Request.storePath(session, keyString, filePath, mergeEntry(metadata, checksums)));
-            Response storePathResponse = handle.readResponse();
-            if (!storePathResponse.data().isEmpty()) {
-                return new DaemonEntry(
-                        splitMetadata(storePathResponse.data()), splitChecksums(storePathResponse.data()), keyString);
-            } else {
-                // this theoretically can never happen: daemon will either store or fail
-                throw new IOException("Failed to store " + filePath + "; check daemon logs");
-            }
+        return stored(
+                keyString,
+                filePath,
+                clientHandle.execute(Request.storePath(session, keyString, filePath, mergeEntry(metadata, checksums))));
+    }
+
+    /**
+     * Pipelines the store request over daemon connection, does not block the caller.
+     */
+    @Override
+    public CompletableFuture<DaemonEntry> storeAsync(
+            URI key, Path file, Map<String, String> metadata, Map<String, String> checksums) {
+        String keyString = key.toASCIIString();
+        String filePath = FileUtils.canonicalPath(file).toString();
+        logger.debug("STORE PATH ASYNC '{}' -> '{}'", keyString, filePath);
+        return clientHandle
+                .submit(Request.storePath(session, keyString, filePath, mergeEntry(metadata, checksums)))
+                .thenCompose(response -> {
+                    try {
+                        return CompletableFuture.completedFuture(stored(keyString, filePath, response));
+                    } catch (IOException e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+    }
+
+    private DaemonEntry stored(String keyString, String filePath, Response storePathResponse) throws IOException {
+        checkStatus(storePathResponse, "store", keyString);
+        if (!storePathResponse.data().isEmpty()) {
+            return new DaemonEntry(
+                    splitMetadata(storePathResponse.data()), splitChecksums(storePathResponse.data()), keyString);
+        } else {
+            // this theoretically can never happen: daemon will either store or fail
+            throw new IOException("Failed to store " + filePath + "; check daemon logs");
+        }
+    }
+
+    private static void checkStatus(Response response, String what, String keyString) throws IOException {
+        if (!Response.STATUS_OK.equals(response.status())) {
+            throw new IOException("Failed to " + what + " " + keyString + ": "
+                    + response.data().getOrDefault(Response.DATA_MESSAGE, "unknown error"));
         }
     }
 
     @Override
     protected void doClose() throws IOException {
         try (clientHandle) {
-            try (Handle handle = clientHandle.getHandle()) {
-                if (autostop) {
-                    logger.info("Daemon shutdown initiated");
-                }
-                handle.writeRequest(Request.bye(session, autostop));
-                Response byeResponse = handle.readResponse();
-                logger.debug("Bye OK {}", byeResponse.data());
+            if (autostop) {
+                logger.info("Daemon shutdown initiated");
             }
+            Response byeResponse = clientHandle.execute(Request.bye(session, autostop));
+            logger.debug("Bye OK {}", byeResponse.data());
         }
     }
 
@@ -135,6 +258,10 @@ public class DaemonNode extends NodeSupport implements LocalNode {
             this.keyString = keyString;
         }
 
+        private DaemonNode node() {
+            return DaemonNode.this;
+        }
+
         @Override
         public void handleContent(IOConsumer consumer) throws IOException {
             try (FileUtils.TempFile tempFile = FileUtils.newTempFile()) {
@@ -148,10 +275,11 @@ public class DaemonNode extends NodeSupport implements LocalNode {
         @Override
         public void transferTo(Path file) throws IOException {
             logger.debug("TRANSFER '{}'->'{}'", keyString, file);
-            try (Handle handle = clientHandle.getHandle()) {
-                handle.writeRequest(Request.transfer(
-                        session, keyString, FileUtils.canonicalPath(file).toString()));
-                handle.readResponse();
+            Response transferResponse = clientHandle.execute(Request.transfer(
+                    session, keyString, FileUtils.canonicalPath(file).toString()));
+            if (!Response.STATUS_OK.equals(transferResponse.status())) {
+                throw new IOException("Failed to transfer " + keyString + ": "
+                        + transferResponse.data().getOrDefault(Response.DATA_MESSAGE, "unknown error"));
             }
         }
     }
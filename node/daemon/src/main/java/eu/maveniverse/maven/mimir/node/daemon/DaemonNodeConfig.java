@@ -47,6 +47,8 @@ public class DaemonNodeConfig {
         String daemonGav = "eu.maveniverse.maven.mimir:daemon-slim:jar:daemon:" + sessionConfig.mimirVersion();
         boolean passOnBasedir = false;
         boolean debug = false;
+        boolean persistentConnection = true;
+        Duration responseTimeout = Handle.DEFAULT_RESPONSE_TIMEOUT;
 
         Path localRepository = null;
 
@@ -86,6 +88,13 @@ public class DaemonNodeConfig {
         if (sessionConfig.effectiveProperties().containsKey("mimir.daemon.debug")) {
             debug = Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.daemon.debug"));
         }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.daemon.persistentConnection")) {
+            persistentConnection =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.daemon.persistentConnection"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.daemon.responseTimeout")) {
+            responseTimeout = Duration.parse(sessionConfig.effectiveProperties().get("mimir.daemon.responseTimeout"));
+        }
         if (sessionConfig.effectiveProperties().containsKey("mimir.daemon.localRepository")) {
             localRepository = FileUtils.canonicalPath(
                     daemonBasedir.resolve(sessionConfig.effectiveProperties().get("mimir.daemon.localRepository")));
@@ -106,7 +115,9 @@ public class DaemonNodeConfig {
                 daemonGav,
                 passOnBasedir,
                 localRepository,
-                debug);
+                debug,
+                persistentConnection,
+                responseTimeout);
     }
 
     public static final String NAME = "daemon";
@@ -127,6 +138,8 @@ public class DaemonNodeConfig {
     private final boolean passOnBasedir;
     private final Path localRepository;
     private final boolean debug;
+    private final boolean persistentConnection;
+    private final Duration responseTimeout;
 
     private DaemonNodeConfig(
             SessionConfig sessionConfig,
@@ -144,7 +157,9 @@ public class DaemonNodeConfig {
             String daemonGav,
             boolean passOnBasedir,
             Path localRepository,
-            boolean debug) {
+            boolean debug,
+            boolean persistentConnection,
+            Duration responseTimeout) {
         this.sessionConfig = requireNonNull(sessionConfig);
         this.daemonBasedir = requireNonNull(daemonBasedir);
         this.daemonLockDir = requireNonNull(daemonLockDir);
@@ -161,6 +176,8 @@ public class DaemonNodeConfig {
         this.passOnBasedir = passOnBasedir;
         this.localRepository = localRepository;
         this.debug = debug;
+        this.persistentConnection = persistentConnection;
+        this.responseTimeout = requireNonNull(responseTimeout);
     }
 
     public SessionConfig config() {
@@ -226,4 +243,16 @@ public class DaemonNodeConfig {
     public boolean debug() {
         return debug;
     }
+
+    /**
+     * If {@code true}, node keeps one long-lived connection to daemon and multiplexes all requests over it, otherwise
+     * it connects for each request.
+     */
+    public boolean persistentConnection() {
+        return persistentConnection;
+    }
+
+    public Duration responseTimeout() {
+        return responseTimeout;
+    }
 }
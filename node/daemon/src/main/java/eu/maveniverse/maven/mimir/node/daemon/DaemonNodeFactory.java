@@ -116,6 +116,7 @@ public class DaemonNodeFactory extends ComponentSupport implements LocalNodeFact
         HashMap<String, String> clientData = new HashMap<>();
         clientData.put(Session.NODE_PID, Long.toString(ProcessHandle.current().pid()));
         clientData.put(Session.NODE_VERSION, sessionConfig.mimirVersion());
+        clientData.put(Session.PROTOCOL_VERSIONS, Handle.SUPPORTED_PROTOCOL_VERSIONS);
         if (cfg.config().repositorySystemSession().isPresent()) {
             RepositorySystemSession session =
                     cfg.config().repositorySystemSession().orElseThrow();
@@ -126,6 +127,7 @@ public class DaemonNodeFactory extends ComponentSupport implements LocalNodeFact
                             .toString());
         }
         try {
+            // HELLO uses legacy format, as we do not know yet what daemon supports
             Handle.ClientHandle clientHandle = Handle.clientDomainSocket(cfg.socketPath());
             Map<String, String> sessionMap = null;
             Map<String, String> daemonDataMap = null;
@@ -150,6 +152,15 @@ public class DaemonNodeFactory extends ComponentSupport implements LocalNodeFact
                 mayDumpDaemonLog(cfg.daemonLog());
                 throw new IOException("Could not connect to daemon");
             }
+            clientHandle.close();
+            int protocolVersion = Integer.parseInt(
+                    daemonDataMap.getOrDefault(Session.PROTOCOL_VERSION, Integer.toString(Handle.PROTOCOL_V1)));
+            if (cfg.persistentConnection() && protocolVersion >= Handle.PROTOCOL_V2) {
+                clientHandle = Handle.persistentClientDomainSocket(cfg.socketPath(), cfg.responseTimeout());
+            } else {
+                clientHandle = Handle.clientDomainSocket(cfg.socketPath(), protocolVersion);
+            }
+            logger.debug("Using protocol version {} (persistent={})", protocolVersion, cfg.persistentConnection());
             return Optional.of(new DaemonNode(cfg, clientHandle, sessionMap, daemonDataMap, cfg.autostop()));
         } catch (IOException e) {
             mayDumpDaemonLog(cfg.daemonLog());
@@ -9,23 +9,26 @@ package eu.maveniverse.maven.mimir.node.file;
 
 import static java.util.Objects.requireNonNull;
 
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.impl.node.EntrySupport;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
 import eu.maveniverse.maven.shared.core.fs.FileUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.Map;
 
 public final class FileEntry extends EntrySupport implements LocalEntry {
     private final Path path;
-    private final boolean mayLink;
+    private final ContentTransfer contentTransfer;
 
-    public FileEntry(Map<String, String> metadata, Map<String, String> checksums, Path path, boolean mayLink) {
+    public FileEntry(
+            Map<String, String> metadata, Map<String, String> checksums, Path path, ContentTransfer contentTransfer) {
         super(metadata, checksums);
         this.path = requireNonNull(path, "path");
-        this.mayLink = mayLink;
+        this.contentTransfer = requireNonNull(contentTransfer, "contentTransfer");
     }
 
     @Override
@@ -40,8 +43,25 @@ public final class FileEntry extends EntrySupport implements LocalEntry {
     public void transferTo(Path file) throws IOException {
         Files.deleteIfExists(file);
         try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(file)) {
-            FileUtils.copyOrLink(path, f.getPath(), mayLink);
+            contentTransfer.transfer(
+                    path, f.getPath(), metadata().containsKey(CONTENT_LENGTH) ? getContentLength() : Files.size(path));
             f.move();
         }
     }
+
+    /**
+     * Entry is current if backing file still exists with last modified timestamp recorded in entry metadata.
+     */
+    @Override
+    public boolean isCurrent() throws IOException {
+        if (!metadata().containsKey(CONTENT_LAST_MODIFIED)) {
+            return Files.isRegularFile(path);
+        }
+        try {
+            return Files.getLastModifiedTime(path).toMillis()
+                    == getContentLastModified().toEpochMilli();
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
 }
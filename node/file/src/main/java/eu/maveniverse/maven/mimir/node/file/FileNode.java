@@ -13,31 +13,41 @@ import static eu.maveniverse.maven.mimir.shared.impl.EntryUtils.splitMetadata;
 import static java.util.Objects.requireNonNull;
 
 import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumEnforcer;
+import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumEngine;
 import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumInputStream;
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.mimir.shared.impl.node.NodeSupport;
 import eu.maveniverse.maven.mimir.shared.naming.Keys;
 import eu.maveniverse.maven.mimir.shared.naming.UriDecoders;
+import eu.maveniverse.maven.mimir.shared.naming.UriEncoders;
 import eu.maveniverse.maven.mimir.shared.node.Entry;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
 import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
 import eu.maveniverse.maven.mimir.shared.node.SystemNode;
 import eu.maveniverse.maven.shared.core.fs.DirectoryLocker;
 import eu.maveniverse.maven.shared.core.fs.FileUtils;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
+import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
 import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithmFactory;
 
@@ -46,6 +56,7 @@ public final class FileNode extends NodeSupport implements SystemNode {
     private final Path basedir;
     private final Path baseLockDir;
     private final boolean mayLink;
+    private final ContentTransfer contentTransfer;
     private final boolean exclusiveAccess;
     private final FileNodeConfig.CachePurge cachePurge;
     private final List<String> checksumAlgorithms;
@@ -54,13 +65,31 @@ public final class FileNode extends NodeSupport implements SystemNode {
     private final MetadataMarshaller metadataMarshaller;
 
     private final Path shadowBasedir;
+    private final FileNodeIndex index;
+    private final FileNodeCas cas;
+    private final FileNodeChecksumIndex checksumIndex;
+    private final FileNodeCapacity capacity;
+    private final FileNodeConfig.Ingest ingest;
+    private final LongAdder ingestLinked;
+    private final LongAdder ingestCopied;
+    private final LongAdder ingestLinkFailures;
+    private final LongAdder ingestBytesNotWritten;
+    private final LongAdder ingestDeduplicated;
+    private final FileNodeKeyLocks keyLocks;
+    private final CopyOnWriteArrayList<Consumer<URI>> keyWatchers;
 
     public FileNode(
             Path basedir,
             Path baseLockDir,
             boolean mayLink,
+            ContentTransfer.Mode transferMode,
             boolean exclusiveAccess,
             FileNodeConfig.CachePurge cachePurge,
+            boolean index,
+            FileNodeConfig.Layout layout,
+            boolean checksumIndex,
+            FileNodeConfig.Ingest ingest,
+            FileNodeConfig.Capacity capacity,
             List<String> checksumAlgorithms,
             Map<String, ChecksumAlgorithmFactory> checksumFactories,
             DirectoryLocker directoryLocker,
@@ -68,17 +97,38 @@ public final class FileNode extends NodeSupport implements SystemNode {
             throws IOException {
         super(FileNodeConfig.NAME);
         this.mayLink = mayLink;
+        this.contentTransfer = new ContentTransfer(FileNodeConfig.NAME, transferMode, mayLink);
         this.exclusiveAccess = exclusiveAccess;
         this.cachePurge = cachePurge;
         this.checksumAlgorithms = List.copyOf(checksumAlgorithms);
         this.checksumFactories = Map.copyOf(checksumFactories);
         this.directoryLocker = requireNonNull(directoryLocker);
         this.metadataMarshaller = requireNonNull(metadataMarshaller);
+        this.ingest = requireNonNull(ingest, "ingest");
+        this.ingestLinked = new LongAdder();
+        this.ingestCopied = new LongAdder();
+        this.ingestLinkFailures = new LongAdder();
+        this.ingestBytesNotWritten = new LongAdder();
+        this.ingestDeduplicated = new LongAdder();
+        this.keyWatchers = new CopyOnWriteArrayList<>();
 
         if (cachePurge != FileNodeConfig.CachePurge.OFF && !exclusiveAccess) {
             throw new IllegalArgumentException(
                     "Invalid configuration: cachePurge possible only with exclusiveAccess enabled");
         }
+        if (index && (!exclusiveAccess || cachePurge != FileNodeConfig.CachePurge.OFF)) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: index possible only with exclusiveAccess enabled and cachePurge OFF");
+        }
+        if (capacity.bounded() && (index || cachePurge != FileNodeConfig.CachePurge.OFF)) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: maxSize possible only with index disabled and cachePurge OFF");
+        }
+        if (layout == FileNodeConfig.Layout.CAS
+                && (cachePurge != FileNodeConfig.CachePurge.OFF || checksumAlgorithms.isEmpty())) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: CAS layout possible only with cachePurge OFF and checksum algorithms set");
+        }
 
         Files.createDirectories(basedir);
         Files.createDirectories(baseLockDir);
@@ -116,6 +166,36 @@ public final class FileNode extends NodeSupport implements SystemNode {
         } else {
             throw new IllegalArgumentException("Unsupported CachePurge mode: " + cachePurge);
         }
+        this.keyLocks = new FileNodeKeyLocks(this.basedir, baseLockDir, !exclusiveAccess);
+
+        // at this point, if index is enabled we have exclusiveAccess=true and cachePurge=OFF
+        if (index) {
+            Path indexDir = this.basedir.resolve(".index");
+            Optional<FileNodeIndex> existing = FileNodeIndex.open(indexDir);
+            if (existing.isPresent()) {
+                this.index = existing.orElseThrow();
+            } else {
+                this.index = FileNodeIndex.create(indexDir);
+                rebuildIndex();
+            }
+        } else {
+            this.index = null;
+        }
+
+        // at this point, if layout is CAS or capacity is bounded we have cachePurge=OFF
+        this.cas = layout == FileNodeConfig.Layout.CAS
+                ? new FileNodeCas(this.basedir, this.checksumAlgorithms.get(0))
+                : null;
+        this.capacity = capacity.bounded() ? new FileNodeCapacity(this.basedir, capacity, cas, keyLocks) : null;
+
+        if (checksumIndex) {
+            this.checksumIndex = new FileNodeChecksumIndex(this.basedir, this.checksumAlgorithms);
+            if (!this.checksumIndex.exists()) {
+                rebuildChecksumIndex();
+            }
+        } else {
+            this.checksumIndex = null;
+        }
     }
 
     @Override
@@ -129,11 +209,74 @@ public final class FileNode extends NodeSupport implements SystemNode {
         Optional<Path> pathOptional = resolveKey(key, true);
         if (pathOptional.isPresent()) {
             Path path = pathOptional.orElseThrow();
+            if (index != null) {
+                Optional<Map<String, String>> indexed = index.get(indexKey(path));
+                if (indexed.isPresent()) {
+                    Map<String, String> data = indexed.orElseThrow();
+                    accessed(path);
+                    return Optional.of(new FileEntry(splitMetadata(data), splitChecksums(data), path, contentTransfer));
+                }
+            }
             if (Files.isRegularFile(path)) {
                 Map<String, String> data = loadMetadata(path);
-                return Optional.of(createEntry(path, splitMetadata(data), splitChecksums(data)));
+                accessed(path);
+                return Optional.of(indexEntry(path, createEntry(path, splitMetadata(data), splitChecksums(data))));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<URI> locateKey(Map<String, String> checksums) throws IOException {
+        checkClosed();
+        if (checksumIndex != null) {
+            Optional<Path> path = checksumIndex.get(checksums);
+            if (path.isPresent()) {
+                return fileKey(basedir, path.orElseThrow());
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Closeable> watchKeys(Consumer<URI> consumer) throws IOException {
+        checkClosed();
+        requireNonNull(consumer, "consumer");
+        // watch first, so no store is missed while listing
+        keyWatchers.add(consumer);
+        try {
+            listKeys(basedir, consumer);
+            if (shadowBasedir != null) {
+                listKeys(shadowBasedir, consumer);
+            }
+        } catch (IOException | RuntimeException e) {
+            keyWatchers.remove(consumer);
+            throw e;
+        }
+        return Optional.of(() -> keyWatchers.remove(consumer));
+    }
+
+    private void listKeys(Path root, Consumer<URI> consumer) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            Iterator<Path> iterator = files.filter(Files::isRegularFile)
+                    .filter(p -> isContent(root, p))
+                    .iterator();
+            while (iterator.hasNext()) {
+                fileKey(root, iterator.next()).ifPresent(consumer);
             }
         }
+    }
+
+    /**
+     * Maps content path under given root back to file key.
+     */
+    private static Optional<URI> fileKey(Path root, Path path) {
+        Path relative = root.relativize(path);
+        if (relative.getNameCount() > 1) {
+            return Optional.of(UriEncoders.fileKeyBuilder(
+                    relative.getName(0).toString(),
+                    relative.subpath(1, relative.getNameCount()).toString().replace('\\', '/')));
+        }
         return Optional.empty();
     }
 
@@ -142,8 +285,34 @@ public final class FileNode extends NodeSupport implements SystemNode {
             throws IOException {
         checkClosed();
         Path path = resolveKey(key, false).orElseThrow(() -> new IllegalArgumentException("Unsupported URI"));
+        try (FileNodeKeyLocks.Lock lock = keyLocks.lock(path)) {
+            Optional<FileEntry> existing = existing(path, checksums);
+            if (existing.isPresent()) {
+                return existing.orElseThrow();
+            }
+            return storeFile(path, file, md, checksums);
+        }
+    }
+
+    private FileEntry storeFile(Path path, Path file, Map<String, String> md, Map<String, String> checksums)
+            throws IOException {
         HashMap<String, String> metadata = new HashMap<>(md);
         FileTime fileTime = Files.getLastModifiedTime(file);
+        Optional<Path> blob = cas != null ? cas.existingBlob(checksums) : Optional.empty();
+        if (blob.isPresent()) {
+            Entry.setContentLength(metadata, Files.size(file));
+            Entry.setContentLastModified(metadata, fileTime.toInstant());
+            storeMetadata(path, mergeEntry(metadata, checksums));
+            if (cas.link(blob.orElseThrow(), path)) {
+                return stored(path, indexEntry(path, new FileEntry(metadata, checksums, path, contentTransfer)));
+            }
+        }
+        if (ingest == FileNodeConfig.Ingest.LINK) {
+            Optional<FileEntry> linked = link(path, file, metadata, checksums, fileTime);
+            if (linked.isPresent()) {
+                return linked.orElseThrow();
+            }
+        }
         ChecksumEnforcer checksumEnforcer;
         try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(path)) {
             try (InputStream enforced = new ChecksumInputStream(
@@ -161,40 +330,162 @@ public final class FileNode extends NodeSupport implements SystemNode {
             Entry.setContentLength(metadata, Files.size(file));
             Entry.setContentLastModified(metadata, fileTime.toInstant());
             storeMetadata(path, mergeEntry(metadata, checksumEnforcer.getChecksums()));
+            if (cas != null) {
+                cas.adopt(f.getPath(), checksumEnforcer.getChecksums());
+            }
+            f.move();
+        }
+        ingestCopied.increment();
+        return stored(
+                path,
+                indexEntry(path, new FileEntry(metadata, checksumEnforcer.getChecksums(), path, contentTransfer)));
+    }
+
+    /**
+     * Returns the entry stored at given path, if it has the content proven by given checksums: at least one of them,
+     * and all of those match. This is the case when a concurrent writer of the entry held the key lock before us.
+     */
+    private Optional<FileEntry> existing(Path path, Map<String, String> checksums) throws IOException {
+        Path md = metadataPath(path, false);
+        if (checksums.isEmpty() || !Files.isRegularFile(path) || !Files.isRegularFile(md)) {
+            return Optional.empty();
+        }
+        Map<String, String> data = metadataMarshaller.load(md);
+        Map<String, String> existingChecksums = splitChecksums(data);
+        int common = 0;
+        for (Map.Entry<String, String> checksum : checksums.entrySet()) {
+            String existingChecksum = existingChecksums.get(checksum.getKey());
+            if (existingChecksum != null) {
+                if (!existingChecksum.equalsIgnoreCase(checksum.getValue())) {
+                    return Optional.empty();
+                }
+                common++;
+            }
+        }
+        if (common == 0) {
+            return Optional.empty();
+        }
+        ingestDeduplicated.increment();
+        return Optional.of(indexEntry(path, createEntry(path, splitMetadata(data), existingChecksums)));
+    }
+
+    /**
+     * Ingests file by hard linking it into place, enforcing checksums calculated in single pass over mapped content.
+     * Returns empty if file cannot be linked (ie. is on another file store), in which case caller should copy it.
+     */
+    private Optional<FileEntry> link(
+            Path path, Path file, HashMap<String, String> metadata, Map<String, String> checksums, FileTime fileTime)
+            throws IOException {
+        Map<String, String> calculated;
+        try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(path)) {
+            try {
+                Files.createLink(f.getPath(), file);
+            } catch (IOException | UnsupportedOperationException e) {
+                ingestLinkFailures.increment();
+                logger.debug("Unable to link {} to {}; copying", file, path, e);
+                return Optional.empty();
+            }
+            ChecksumEnforcer checksumEnforcer = new ChecksumEnforcer(checksums);
+            try {
+                checksumEnforcer.accept(ChecksumEngine.calculateMapped(f.getPath(), algorithms()));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            calculated = checksumEnforcer.getChecksums();
+            long size = Files.size(f.getPath());
+            Entry.setContentLength(metadata, size);
+            Entry.setContentLastModified(metadata, fileTime.toInstant());
+            storeMetadata(path, mergeEntry(metadata, calculated));
+            if (cas != null) {
+                cas.adopt(f.getPath(), calculated);
+            }
             f.move();
+            ingestLinked.increment();
+            ingestBytesNotWritten.add(size);
         }
-        return new FileEntry(metadata, checksumEnforcer.getChecksums(), path, mayLink);
+        return Optional.of(stored(path, indexEntry(path, new FileEntry(metadata, calculated, path, contentTransfer))));
     }
 
+    /**
+     * Stores entry. Content of remote entry is downloaded (and checksums enforced) into collocated temp file without
+     * holding the key lock, as download may take long, and the lock is shared by unrelated keys of same stripe; the
+     * lock is taken for the existence recheck and moving the downloaded content in place.
+     */
     @Override
     public FileEntry store(URI key, Entry entry) throws IOException {
         checkClosed();
         Path path = resolveKey(key, false).orElseThrow(() -> new IllegalArgumentException("Unsupported URI"));
-        if (entry instanceof RemoteEntry remoteEntry) {
-            try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(path)) {
-                remoteEntry.handleContent(inputStream -> {
-                    ChecksumEnforcer checksumEnforcer;
-                    try (InputStream enforced = new ChecksumInputStream(
-                            inputStream,
-                            checksumAlgorithms().stream()
-                                    .map(a -> new AbstractMap.SimpleEntry<>(
-                                            a, checksumFactories.get(a).getAlgorithm()))
-                                    .collect(Collectors.toMap(
-                                            AbstractMap.SimpleEntry::getKey, AbstractMap.SimpleEntry::getValue)),
-                            checksumEnforcer = new ChecksumEnforcer(entry.checksums()))) {
-                        Files.copy(enforced, f.getPath(), StandardCopyOption.REPLACE_EXISTING);
-                    }
-                    storeMetadata(path, mergeEntry(entry.metadata(), checksumEnforcer.getChecksums()));
-                    f.move();
-                });
+        try (FileNodeKeyLocks.Lock lock = keyLocks.lock(path)) {
+            Optional<FileEntry> existing = existing(path, entry.checksums());
+            if (existing.isPresent()) {
+                return existing.orElseThrow();
+            }
+            Optional<FileEntry> linked = linkBlob(path, entry);
+            if (linked.isPresent()) {
+                return linked.orElseThrow();
             }
-        } else if (entry instanceof LocalEntry localEntry) {
+            if (entry instanceof LocalEntry localEntry) {
+                storeMetadata(path, mergeEntry(entry));
+                localEntry.transferTo(path);
+                if (cas != null) {
+                    cas.adopt(path, entry.checksums());
+                }
+                return stored(path, indexEntry(path, createEntry(path, entry.metadata(), entry.checksums())));
+            } else if (!(entry instanceof RemoteEntry)) {
+                throw new UnsupportedOperationException("Unsupported entry type: " + entry.getClass());
+            }
+        }
+        try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(path)) {
+            Map<String, String> checksums = download((RemoteEntry) entry, f.getPath());
+            try (FileNodeKeyLocks.Lock lock = keyLocks.lock(path)) {
+                Optional<FileEntry> existing = existing(path, checksums);
+                if (existing.isPresent()) {
+                    return existing.orElseThrow();
+                }
+                storeMetadata(path, mergeEntry(entry.metadata(), checksums));
+                if (cas != null) {
+                    cas.adopt(f.getPath(), checksums);
+                }
+                // moved under lock (not on close of temp file, that happens after lock is released)
+                Files.move(f.getPath(), path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return stored(path, indexEntry(path, createEntry(path, entry.metadata(), checksums)));
+            }
+        }
+    }
+
+    /**
+     * Stores entry by linking existing CAS blob having same content, if there is one.
+     */
+    private Optional<FileEntry> linkBlob(Path path, Entry entry) throws IOException {
+        Optional<Path> blob = cas != null ? cas.existingBlob(entry.checksums()) : Optional.empty();
+        if (blob.isPresent()) {
             storeMetadata(path, mergeEntry(entry));
-            localEntry.transferTo(path);
-        } else {
-            throw new UnsupportedOperationException("Unsupported entry type: " + entry.getClass());
+            if (cas.link(blob.orElseThrow(), path)) {
+                return Optional.of(
+                        stored(path, indexEntry(path, createEntry(path, entry.metadata(), entry.checksums()))));
+            }
         }
-        return createEntry(path, entry.metadata(), entry.checksums());
+        return Optional.empty();
+    }
+
+    /**
+     * Downloads content of remote entry to given file, enforcing checksums, and returns calculated checksums.
+     */
+    private Map<String, String> download(RemoteEntry remoteEntry, Path file) throws IOException {
+        ChecksumEnforcer checksumEnforcer = new ChecksumEnforcer(remoteEntry.checksums());
+        remoteEntry.handleContent(inputStream -> {
+            try (InputStream enforced = new ChecksumInputStream(
+                    inputStream,
+                    checksumAlgorithms().stream()
+                            .map(a -> new AbstractMap.SimpleEntry<>(
+                                    a, checksumFactories.get(a).getAlgorithm()))
+                            .collect(Collectors.toMap(
+                                    AbstractMap.SimpleEntry::getKey, AbstractMap.SimpleEntry::getValue)),
+                    checksumEnforcer)) {
+                Files.copy(enforced, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
+        return checksumEnforcer.getChecksums();
     }
 
     private Optional<Path> resolveKey(URI uri, boolean mayHandleCachePurge) {
@@ -259,12 +550,182 @@ public final class FileNode extends NodeSupport implements SystemNode {
         HashMap<String, String> md = new HashMap<>(metadata);
         Entry.setContentLength(md, Files.size(file));
         Entry.setContentLastModified(md, Files.getLastModifiedTime(file).toInstant());
-        return new FileEntry(md, checksums, file, mayLink);
+        return new FileEntry(md, checksums, file, contentTransfer);
+    }
+
+    private void accessed(Path path) {
+        if (capacity != null) {
+            capacity.accessed(path);
+        }
+    }
+
+    private FileEntry stored(Path path, FileEntry entry) throws IOException {
+        if (checksumIndex != null) {
+            checksumIndex.put(path, entry.checksums());
+        }
+        if (capacity != null) {
+            capacity.stored(path, Files.size(path));
+        }
+        if (!keyWatchers.isEmpty()) {
+            Optional<URI> key = fileKey(basedir, path);
+            if (key.isPresent()) {
+                keyWatchers.forEach(w -> w.accept(key.orElseThrow()));
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Records entry in index, if enabled. Failure to update index is not fatal, entry will be located without it.
+     */
+    private FileEntry indexEntry(Path path, FileEntry entry) {
+        if (index != null) {
+            try {
+                index.put(indexKey(path), mergeEntry(entry));
+            } catch (IOException e) {
+                logger.warn("Unable to index '{}'", path, e);
+            }
+        }
+        return entry;
+    }
+
+    private String indexKey(Path path) {
+        return basedir.relativize(path).toString();
+    }
+
+    private void rebuildIndex() throws IOException {
+        logger.info("Rebuilding file node index of {}", basedir);
+        long start = System.nanoTime();
+        try (Stream<Path> files = Files.walk(basedir)) {
+            Iterator<Path> iterator =
+                    files.filter(Files::isRegularFile).filter(this::isContent).iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                Map<String, String> data = loadMetadata(path);
+                indexEntry(path, createEntry(path, splitMetadata(data), splitChecksums(data)));
+            }
+        }
+        logger.info(
+                "Rebuilt file node index of {} entries in {} ms",
+                index.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void rebuildChecksumIndex() throws IOException {
+        logger.info("Building file node checksum index of {}", basedir);
+        long start = System.nanoTime();
+        long count = 0;
+        try (Stream<Path> files = Files.walk(basedir)) {
+            Iterator<Path> iterator =
+                    files.filter(Files::isRegularFile).filter(this::isContent).iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                checksumIndex.put(path, splitChecksums(loadMetadata(path)));
+                count++;
+            }
+        }
+        logger.info(
+                "Built file node checksum index of {} entries in {} ms",
+                count,
+                Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    /**
+     * Content files are those not within hidden directories ({@code .mm}, {@code .index}) and not being hidden
+     * (temporary) files themselves.
+     */
+    private boolean isContent(Path path) {
+        return isContent(basedir, path);
+    }
+
+    private static boolean isContent(Path root, Path path) {
+        for (Path element : root.relativize(path)) {
+            if (element.toString().startsWith(".")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns all statistics of this node: transfer, ingest, lock, and if enabled, CAS and capacity statistics.
+     */
+    @Override
+    public Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>(transferStats());
+        stats.putAll(ingestStats());
+        stats.putAll(lockStats());
+        stats.putAll(casStats());
+        stats.putAll(capacityStats());
+        return stats;
+    }
+
+    /**
+     * Returns the content transfer statistics of entries of this node.
+     */
+    public Map<String, Long> transferStats() {
+        return contentTransfer.stats();
+    }
+
+    /**
+     * Returns the ingest statistics of this node: count of files stored by linking and by copying, bytes that were
+     * not written thanks to linking, and count of stores not performed, as entry with same content was already stored
+     * (usually by a concurrent writer).
+     */
+    public Map<String, Long> ingestStats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("file.ingest.linked", ingestLinked.sum());
+        stats.put("file.ingest.copied", ingestCopied.sum());
+        stats.put("file.ingest.linkFailures", ingestLinkFailures.sum());
+        stats.put("file.ingest.bytesNotWritten", ingestBytesNotWritten.sum());
+        stats.put("file.ingest.deduplicated", ingestDeduplicated.sum());
+        return stats;
+    }
+
+    /**
+     * Returns the entry write lock statistics of this node.
+     */
+    public Map<String, Long> lockStats() {
+        return keyLocks.stats();
+    }
+
+    /**
+     * Returns the CAS layout statistics of this node, empty if layout is not CAS.
+     */
+    public Map<String, Long> casStats() {
+        return cas != null ? cas.stats() : Map.of();
+    }
+
+    /**
+     * Returns the capacity management statistics of this node, empty if storage is not bounded.
+     */
+    public Map<String, Long> capacityStats() {
+        return capacity != null ? capacity.stats() : Map.of();
+    }
+
+    /**
+     * Performs an eviction run right now, if storage is bounded and no other run is in progress. Meant for tests.
+     */
+    boolean evict() throws IOException {
+        return capacity != null && capacity.evict();
     }
 
     @Override
     protected void doClose() throws IOException {
+        logger.debug("File node transfers: {}", contentTransfer.stats());
+        logger.debug("File node ingest: {}", ingestStats());
+        logger.debug("File node locks: {}", keyLocks.stats());
         try {
+            if (cas != null) {
+                logger.debug("File node CAS: {}", cas.stats());
+            }
+            if (capacity != null) {
+                logger.debug("File node capacity: {}", capacity.stats());
+                capacity.close();
+            }
+            if (index != null) {
+                index.close();
+            }
             if (cachePurge == FileNodeConfig.CachePurge.ON_BEGIN) {
                 // just delete shadow; we pulled all we needed
                 logger.info("Purge on begin; cleanup");
@@ -311,27 +772,30 @@ public final class FileNode extends NodeSupport implements SystemNode {
         HashMap<String, String> metadata = new HashMap<>();
         Entry.setContentLength(metadata, Files.size(file));
         Entry.setContentLastModified(metadata, Files.getLastModifiedTime(file).toInstant());
-        Map<String, String> checksums = calculate(
-                file,
-                checksumAlgorithms().stream()
-                        .map(a -> new AbstractMap.SimpleEntry<>(
-                                a, checksumFactories.get(a).getAlgorithm()))
-                        .collect(Collectors.toMap(AbstractMap.SimpleEntry::getKey, AbstractMap.SimpleEntry::getValue)));
+        Map<String, String> checksums = ChecksumEngine.calculate(file, algorithms());
         storeMetadata(file, mergeEntry(metadata, checksums));
     }
 
-    private static Map<String, String> calculate(Path path, Map<String, ChecksumAlgorithm> checksums)
-            throws IOException {
-        AtomicReference<Map<String, String>> checksumsRef = new AtomicReference<>(null);
-        try (InputStream stream = new ChecksumInputStream(Files.newInputStream(path), checksums, checksumsRef::set)) {
-            stream.transferTo(OutputStream.nullOutputStream());
+    /**
+     * Returns fresh instances of checksum algorithms of this node.
+     */
+    private Map<String, ChecksumAlgorithm> algorithms() {
+        HashMap<String, ChecksumAlgorithm> algorithms = new HashMap<>();
+        for (String algorithm : checksumAlgorithms) {
+            algorithms.put(algorithm, checksumFactories.get(algorithm).getAlgorithm());
         }
-        return checksumsRef.get();
+        return algorithms;
     }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + " (basedir=" + basedir + " mayLink=" + mayLink + " exclusiveAccess="
-                + exclusiveAccess + " cachePurge=" + cachePurge + ")";
+        return getClass().getSimpleName() + " (basedir=" + basedir + " mayLink=" + mayLink + " transferMode="
+                + contentTransfer.mode()
+                + " exclusiveAccess="
+                + exclusiveAccess + " cachePurge=" + cachePurge + " index=" + (index != null) + " cas=" + (cas != null)
+                + " checksumIndex=" + (checksumIndex != null)
+                + " ingest=" + ingest
+                + " bounded="
+                + (capacity != null) + ")";
     }
 }
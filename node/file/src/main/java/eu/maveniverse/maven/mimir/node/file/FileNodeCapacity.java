@@ -0,0 +1,470 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.file;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.CloseableSupport;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Keeps file node storage within configured size. Accesses (locate hits and stores) are counted in memory and
+ * periodically appended to a per-process access log in {@code .access} directory, hence many processes may share
+ * the storage. Eviction runs in background periodically, and right away when storage (as estimated by this process)
+ * passes the high watermark: it merges all access logs into access snapshot, scans storage, and if it is above high
+ * watermark, evicts entries with the lowest value until storage drops below low watermark. Eviction runs are
+ * serialized across processes using a lock file, without any exclusive lock on storage; if lock is held by another
+ * process, the run is skipped.
+ * <p>
+ * Value of an entry is the time of its last access, plus a bonus for frequency: {@link #FREQUENCY_WEIGHT} for each
+ * doubling of access count. Access counts are halved after every eviction, so past popularity fades away. Entries
+ * without recorded accesses are valued by time they were stored. Entries matching a pinned pattern are never evicted.
+ * <p>
+ * With CAS layout, content shared by several entries is accounted once, and blobs left orphan by eviction are swept.
+ */
+final class FileNodeCapacity extends CloseableSupport {
+    static final String ACCESS_DIR = ".access";
+
+    private static final Duration FREQUENCY_WEIGHT = Duration.ofHours(6);
+
+    private static final String LOG_SUFFIX = ".log";
+
+    private static final String CONSUMED_SUFFIX = ".consumed";
+
+    private static final String SNAPSHOT = "snapshot";
+
+    private static final String LOCK = "evict.lock";
+
+    private static final class Access {
+        private long lastAccess;
+        private long count;
+
+        private Access(long lastAccess, long count) {
+            this.lastAccess = lastAccess;
+            this.count = count;
+        }
+
+        private void merge(long lastAccess, long count) {
+            this.lastAccess = Math.max(this.lastAccess, lastAccess);
+            this.count += count;
+        }
+    }
+
+    private record Candidate(Path path, String key, long size, long lastModified, double value) {}
+
+    private final Path basedir;
+    private final Path accessDir;
+    private final FileNodeConfig.Capacity capacity;
+    private final FileNodeCas cas;
+    private final FileNodeKeyLocks keyLocks;
+    private final long highBytes;
+    private final long lowBytes;
+    private final List<PathMatcher> pinned;
+    private final Path accessLog;
+    private final ConcurrentHashMap<String, Long> pendingAccesses;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean evictionScheduled;
+    private final AtomicLong usedBytes;
+    private final LongAdder evictionRuns;
+    private final LongAdder evictionSkips;
+    private final LongAdder evictedEntries;
+    private final LongAdder evictedBytes;
+    private final AtomicLong pinnedEntries;
+
+    FileNodeCapacity(Path basedir, FileNodeConfig.Capacity capacity, FileNodeCas cas, FileNodeKeyLocks keyLocks)
+            throws IOException {
+        this.basedir = requireNonNull(basedir, "basedir");
+        this.capacity = requireNonNull(capacity, "capacity");
+        this.cas = cas;
+        this.keyLocks = requireNonNull(keyLocks, "keyLocks");
+        this.accessDir = basedir.resolve(ACCESS_DIR);
+        this.highBytes = capacity.maxSize() * capacity.highWatermark() / 100;
+        this.lowBytes = capacity.maxSize() * capacity.lowWatermark() / 100;
+        this.pinned = new ArrayList<>();
+        for (String pattern : capacity.pinned()) {
+            pinned.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+        this.accessLog = accessDir.resolve(ProcessHandle.current().pid() + "-" + System.nanoTime() + LOG_SUFFIX);
+        this.pendingAccesses = new ConcurrentHashMap<>();
+        this.evictionScheduled = new AtomicBoolean(false);
+        this.usedBytes = new AtomicLong(-1);
+        this.evictionRuns = new LongAdder();
+        this.evictionSkips = new LongAdder();
+        this.evictedEntries = new LongAdder();
+        this.evictedBytes = new LongAdder();
+        this.pinnedEntries = new AtomicLong();
+        Files.createDirectories(accessDir);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mimir-file-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = capacity.evictionInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::evictSafely, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records access of entry backed by given content file.
+     */
+    void accessed(Path path) {
+        pendingAccesses.merge(key(path), 1L, Long::sum);
+    }
+
+    /**
+     * Records store of entry backed by given content file of given size; triggers eviction if storage passed high
+     * watermark.
+     */
+    void stored(Path path, long size) {
+        accessed(path);
+        long used = usedBytes.get();
+        if (used >= 0 && usedBytes.addAndGet(size) > highBytes && evictionScheduled.compareAndSet(false, true)) {
+            try {
+                scheduler.execute(() -> {
+                    evictionScheduled.set(false);
+                    evictSafely();
+                });
+            } catch (RuntimeException e) {
+                // scheduler shut down: we are closing
+                evictionScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * Whether the content file is pinned, hence never evicted.
+     */
+    boolean isPinned(Path path) {
+        Path relative = basedir.relativize(path);
+        for (PathMatcher matcher : pinned) {
+            if (matcher.matches(relative)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns eviction statistics.
+     */
+    Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("file.capacity.maxBytes", capacity.maxSize());
+        stats.put("file.capacity.usedBytes", usedBytes.get());
+        stats.put("file.capacity.evictionRuns", evictionRuns.sum());
+        stats.put("file.capacity.evictionSkips", evictionSkips.sum());
+        stats.put("file.capacity.evictedEntries", evictedEntries.sum());
+        stats.put("file.capacity.evictedBytes", evictedBytes.sum());
+        stats.put("file.capacity.pinnedEntries", pinnedEntries.get());
+        return stats;
+    }
+
+    private void evictSafely() {
+        try {
+            evict();
+        } catch (Exception e) {
+            logger.warn("File node eviction failed", e);
+        }
+    }
+
+    /**
+     * Appends pending accesses to access log of this process.
+     */
+    void flush() throws IOException {
+        if (pendingAccesses.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        StringBuilder lines = new StringBuilder();
+        Iterator<Map.Entry<String, Long>> iterator = pendingAccesses.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            // remove(key, value) so accesses counted concurrently are not lost
+            if (pendingAccesses.remove(entry.getKey(), entry.getValue())) {
+                lines.append(now)
+                        .append('\t')
+                        .append(entry.getValue())
+                        .append('\t')
+                        .append(entry.getKey())
+                        .append('\n');
+            }
+        }
+        Files.writeString(
+                accessLog,
+                lines,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Performs one eviction run, if no other process is performing one. Returns {@code true} if run was performed.
+     */
+    boolean evict() throws IOException {
+        flush();
+        try (FileChannel lockChannel =
+                        FileChannel.open(accessDir.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock = tryLock(lockChannel)) {
+            if (lock == null) {
+                evictionSkips.increment();
+                return false;
+            }
+            evictionRuns.increment();
+            evictLocked();
+            return true;
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another node of this JVM
+            return null;
+        }
+    }
+
+    private void evictLocked() throws IOException {
+        long start = System.nanoTime();
+        HashMap<String, Access> accesses = new HashMap<>();
+        Path snapshot = accessDir.resolve(SNAPSHOT);
+        if (Files.isRegularFile(snapshot)) {
+            read(snapshot, accesses);
+        }
+        List<Path> consumed = consumeLogs(accesses);
+
+        ArrayList<Candidate> candidates = new ArrayList<>();
+        long[] used = new long[1];
+        long[] pinnedCount = new long[1];
+        HashMap<String, Access> present = new HashMap<>();
+        HashSet<Object> seenFiles = new HashSet<>();
+        Files.walkFileTree(basedir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return !dir.equals(basedir) && dir.getFileName().toString().startsWith(".")
+                        ? FileVisitResult.SKIP_SUBTREE
+                        : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!attrs.isRegularFile() || file.getFileName().toString().startsWith(".")) {
+                    return FileVisitResult.CONTINUE;
+                }
+                String key = key(file);
+                Path metadata = metadataPath(file);
+                // hard linked content (shared by entries) is accounted once
+                Object fileKey = attrs.fileKey();
+                long size = fileKey == null || seenFiles.add(fileKey) ? attrs.size() : 0;
+                long stored = attrs.lastModifiedTime().toMillis();
+                try {
+                    BasicFileAttributes mdAttrs = Files.readAttributes(metadata, BasicFileAttributes.class);
+                    size += mdAttrs.size();
+                    stored = mdAttrs.lastModifiedTime().toMillis();
+                } catch (NoSuchFileException e) {
+                    // metadata will be recreated on locate
+                }
+                used[0] += size;
+                Access access = accesses.get(key);
+                if (access != null) {
+                    present.put(key, access);
+                }
+                if (isPinned(file)) {
+                    pinnedCount[0]++;
+                } else {
+                    long lastAccess = access != null ? Math.max(access.lastAccess, stored) : stored;
+                    long count = access != null ? access.count : 0;
+                    double value = lastAccess + Math.log1p(count) / Math.log(2) * FREQUENCY_WEIGHT.toMillis();
+                    candidates.add(new Candidate(
+                            file, key, size, attrs.lastModifiedTime().toMillis(), value));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        pinnedEntries.set(pinnedCount[0]);
+
+        long usedNow = used[0];
+        if (usedNow > highBytes) {
+            long entries = 0;
+            long bytes = 0;
+            candidates.sort(Comparator.comparingDouble(Candidate::value));
+            for (Candidate candidate : candidates) {
+                if (usedNow <= lowBytes) {
+                    break;
+                }
+                if (delete(candidate)) {
+                    present.remove(candidate.key());
+                    usedNow -= candidate.size();
+                    entries++;
+                    bytes += candidate.size();
+                }
+            }
+            evictedEntries.add(entries);
+            evictedBytes.add(bytes);
+            if (cas != null && entries > 0) {
+                cas.sweep();
+            }
+            // frequency fades away
+            present.values().forEach(a -> a.count /= 2);
+            logger.info(
+                    "Evicted {} entries ({} bytes) from {} in {} ms; using {} of {} bytes",
+                    entries,
+                    bytes,
+                    basedir,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis(),
+                    usedNow,
+                    capacity.maxSize());
+            if (usedNow > lowBytes) {
+                logger.warn(
+                        "Unable to evict below low watermark ({} bytes), too many pinned or concurrently stored entries",
+                        lowBytes);
+            }
+        }
+        usedBytes.set(usedNow);
+
+        write(snapshot, present);
+        for (Path path : consumed) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Moves away all access logs (of all processes) and merges them into accesses. Processes appending to logs
+     * recreate them on next flush.
+     */
+    private List<Path> consumeLogs(HashMap<String, Access> accesses) throws IOException {
+        ArrayList<Path> consumed = new ArrayList<>();
+        try (Stream<Path> files = Files.list(accessDir)) {
+            for (Path log : files.toList()) {
+                String name = log.getFileName().toString();
+                Path target = null;
+                if (name.endsWith(LOG_SUFFIX)) {
+                    target = accessDir.resolve(name + "." + System.nanoTime() + CONSUMED_SUFFIX);
+                    try {
+                        Files.move(log, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (NoSuchFileException e) {
+                        continue;
+                    }
+                } else if (name.endsWith(CONSUMED_SUFFIX)) {
+                    // left behind by a failed run
+                    target = log;
+                }
+                if (target != null) {
+                    read(target, accesses);
+                    consumed.add(target);
+                }
+            }
+        }
+        return consumed;
+    }
+
+    /**
+     * Deletes entry under its key lock, so it does not race with stores of it. Content goes first: entry without
+     * content is not located, while content without metadata would get its metadata recreated.
+     */
+    private boolean delete(Candidate candidate) {
+        try (FileNodeKeyLocks.Lock lock = keyLocks.lock(candidate.path())) {
+            // content changed since scan: it was just stored again by someone
+            if (Files.getLastModifiedTime(candidate.path()).toMillis() != candidate.lastModified()) {
+                return false;
+            }
+            boolean deleted = Files.deleteIfExists(candidate.path());
+            Files.deleteIfExists(metadataPath(candidate.path()));
+            return deleted;
+        } catch (IOException e) {
+            logger.debug("Unable to evict {}", candidate.path(), e);
+            return false;
+        }
+    }
+
+    private static void read(Path file, Map<String, Access> accesses) throws IOException {
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t", 3);
+            if (fields.length != 3) {
+                continue; // torn write
+            }
+            try {
+                long lastAccess = Long.parseLong(fields[0]);
+                long count = Long.parseLong(fields[1]);
+                Access access = accesses.get(fields[2]);
+                if (access == null) {
+                    accesses.put(fields[2], new Access(lastAccess, count));
+                } else {
+                    access.merge(lastAccess, count);
+                }
+            } catch (NumberFormatException e) {
+                // torn write
+            }
+        }
+    }
+
+    private void write(Path snapshot, Map<String, Access> accesses) throws IOException {
+        Path temp = accessDir.resolve(SNAPSHOT + "." + System.nanoTime() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Access> entry : accesses.entrySet()) {
+                writer.write(entry.getValue().lastAccess + "\t" + entry.getValue().count + "\t" + entry.getKey());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String key(Path path) {
+        return basedir.relativize(path).toString().replace('\\', '/');
+    }
+
+    private static Path metadataPath(Path file) {
+        return file.getParent().resolve(".mm").resolve(file.getFileName());
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+}
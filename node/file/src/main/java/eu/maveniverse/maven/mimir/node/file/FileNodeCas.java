@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.file;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import eu.maveniverse.maven.shared.core.fs.FileUtils;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content addressable blob store of file node: blobs live in {@code .cas/<algorithm>/<xx>/<yy>/<checksum>} and entry
+ * paths are hard links to them, so same content stored in several containers (or under several paths) occupies disk
+ * once. A blob and the entry paths linked to it share the file; a blob with no other link left (entries were evicted
+ * or overwritten) is an orphan, removed by {@link #sweep()}.
+ * <p>
+ * Blobs are linked into place before the entry path appears (or while it is still a temporary file), so a blob in use
+ * always has more than one link. If linking is not possible (file system without hard link support), entries keep
+ * their private copy of content, as with path layout.
+ */
+final class FileNodeCas extends ComponentSupport {
+    static final String CAS_DIR = ".cas";
+
+    private final Path casDir;
+    private final String algorithm;
+    private final LongAdder hits;
+    private final LongAdder bytesSaved;
+    private final LongAdder blobs;
+    private final LongAdder linkFailures;
+    private final LongAdder sweptBlobs;
+    private final LongAdder sweptBytes;
+
+    FileNodeCas(Path basedir, String algorithm) throws IOException {
+        requireNonNull(basedir, "basedir");
+        this.algorithm = requireNonNull(algorithm, "algorithm");
+        this.casDir = basedir.resolve(CAS_DIR).resolve(algorithm.toLowerCase(Locale.ENGLISH));
+        this.hits = new LongAdder();
+        this.bytesSaved = new LongAdder();
+        this.blobs = new LongAdder();
+        this.linkFailures = new LongAdder();
+        this.sweptBlobs = new LongAdder();
+        this.sweptBytes = new LongAdder();
+        Files.createDirectories(casDir);
+    }
+
+    /**
+     * Returns the blob of content with given checksums, if exists.
+     */
+    Optional<Path> existingBlob(Map<String, String> checksums) {
+        return blob(checksums).filter(Files::isRegularFile);
+    }
+
+    /**
+     * Links given existing blob to given path. Returns {@code false} if blob cannot be linked (or was swept
+     * meanwhile), in which case caller should store content as usual.
+     */
+    boolean link(Path blob, Path path) throws IOException {
+        long size;
+        try (FileUtils.CollocatedTempFile f = FileUtils.newCollocatedTempFile(path)) {
+            Files.createLink(f.getPath(), blob);
+            size = Files.size(f.getPath());
+            f.move();
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | UnsupportedOperationException e) {
+            linkFailures.increment();
+            logger.debug("Unable to link blob {} to {}", blob, path, e);
+            return false;
+        }
+        hits.increment();
+        bytesSaved.add(size);
+        return true;
+    }
+
+    /**
+     * Makes given (just written) content with given checksums a blob, if there is no blob for it yet.
+     */
+    void adopt(Path content, Map<String, String> checksums) throws IOException {
+        Optional<Path> blobOptional = blob(checksums);
+        if (blobOptional.isEmpty()) {
+            return;
+        }
+        Path blob = blobOptional.orElseThrow();
+        Files.createDirectories(blob.getParent());
+        try {
+            Files.createLink(blob, content);
+            blobs.increment();
+        } catch (FileAlreadyExistsException e) {
+            // stored concurrently: this content remains a private copy
+        } catch (IOException | UnsupportedOperationException e) {
+            linkFailures.increment();
+            logger.debug("Unable to link {} as blob {}", content, blob, e);
+        }
+    }
+
+    /**
+     * Deletes orphan blobs, those not linked from any entry anymore. Does nothing on file systems not exposing link
+     * counts.
+     */
+    void sweep() throws IOException {
+        if (!casDir.getFileSystem().supportedFileAttributeViews().contains("unix")) {
+            return;
+        }
+        Files.walkFileTree(casDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                try {
+                    if (((Number) Files.getAttribute(file, "unix:nlink")).intValue() == 1) {
+                        Files.delete(file);
+                        sweptBlobs.increment();
+                        sweptBytes.add(attrs.size());
+                    }
+                } catch (NoSuchFileException e) {
+                    // swept concurrently
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Returns CAS statistics.
+     */
+    Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("file.cas.hits", hits.sum());
+        stats.put("file.cas.bytesSaved", bytesSaved.sum());
+        stats.put("file.cas.blobs", blobs.sum());
+        stats.put("file.cas.linkFailures", linkFailures.sum());
+        stats.put("file.cas.sweptBlobs", sweptBlobs.sum());
+        stats.put("file.cas.sweptBytes", sweptBytes.sum());
+        return stats;
+    }
+
+    private Optional<Path> blob(Map<String, String> checksums) {
+        String checksum = checksums.get(algorithm);
+        if (checksum == null) {
+            return Optional.empty();
+        }
+        checksum = checksum.toLowerCase(Locale.ENGLISH);
+        if (checksum.length() < 8 || !checksum.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return Optional.empty();
+        }
+        return Optional.of(casDir.resolve(checksum.substring(0, 2))
+                .resolve(checksum.substring(2, 4))
+                .resolve(checksum));
+    }
+}
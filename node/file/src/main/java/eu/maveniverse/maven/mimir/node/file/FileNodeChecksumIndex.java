@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.file;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Secondary index of file node entries, keyed by checksums of their content: for each checksum algorithm, a small
+ * pointer file {@code .checksums/<algorithm>/<xx>/<yy>/<checksum>} holds the path of (last stored) entry with that
+ * content, relative to basedir. Pointers are replaced atomically, hence index may be shared by processes. Lookup is a
+ * single file read; pointers to entries gone since (evicted) are dropped on lookup.
+ */
+final class FileNodeChecksumIndex extends ComponentSupport {
+    static final String CHECKSUMS_DIR = ".checksums";
+
+    private final Path basedir;
+    private final Path directory;
+    private final List<String> algorithms;
+
+    FileNodeChecksumIndex(Path basedir, List<String> algorithms) {
+        this.basedir = requireNonNull(basedir, "basedir");
+        this.directory = basedir.resolve(CHECKSUMS_DIR);
+        this.algorithms = List.copyOf(algorithms);
+    }
+
+    /**
+     * Returns {@code true} if index directory exists; if not, index should be populated from existing entries.
+     */
+    boolean exists() {
+        return Files.isDirectory(directory);
+    }
+
+    /**
+     * Records entry content path under all its checksums.
+     */
+    void put(Path path, Map<String, String> checksums) throws IOException {
+        String relative = basedir.relativize(path).toString().replace('\\', '/');
+        for (String algorithm : algorithms) {
+            Optional<Path> pointer = pointer(algorithm, checksums.get(algorithm));
+            if (pointer.isPresent()) {
+                Path target = pointer.orElseThrow();
+                Files.createDirectories(target.getParent());
+                Path temp = target.resolveSibling("." + target.getFileName() + "." + System.nanoTime());
+                Files.writeString(temp, relative, StandardCharsets.UTF_8);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+
+    /**
+     * Returns content path of entry having one of given checksums, if any.
+     */
+    Optional<Path> get(Map<String, String> checksums) throws IOException {
+        for (String algorithm : algorithms) {
+            Optional<Path> pointer = pointer(algorithm, checksums.get(algorithm));
+            if (pointer.isPresent()) {
+                Path source = pointer.orElseThrow();
+                try {
+                    Path path = basedir.resolve(Files.readString(source, StandardCharsets.UTF_8));
+                    if (path.startsWith(basedir) && Files.isRegularFile(path)) {
+                        return Optional.of(path);
+                    }
+                    Files.deleteIfExists(source);
+                } catch (NoSuchFileException e) {
+                    // not indexed
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Optional<Path> pointer(String algorithm, String checksum) {
+        if (checksum == null) {
+            return Optional.empty();
+        }
+        String hex = checksum.toLowerCase(Locale.ENGLISH);
+        if (hex.length() < 8 || !hex.chars().allMatch(c -> Character.digit(c, 16) >= 0)) {
+            return Optional.empty();
+        }
+        return Optional.of(directory
+                .resolve(algorithm.toLowerCase(Locale.ENGLISH))
+                .resolve(hex.substring(0, 2))
+                .resolve(hex.substring(2, 4))
+                .resolve(hex));
+    }
+}
@@ -11,10 +11,13 @@ import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.node.ContentTransfer;
 import eu.maveniverse.maven.shared.core.fs.FileUtils;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 
 public final class FileNodeConfig {
     /**
@@ -58,15 +61,110 @@ public final class FileNodeConfig {
         ON_END
     }
 
+    /**
+     * The format of entry metadata files.
+     */
+    public enum MetadataFormat {
+        /**
+         * Java Properties files, see {@link MetadataMarshaller.PropertiesMetadataMarshaller}.
+         */
+        PROPERTIES,
+        /**
+         * Java serialization, see {@link MetadataMarshaller.ObjectOutputStreamMetadataMarshaller}.
+         */
+        OBJECT_STREAM,
+        /**
+         * Compact binary format, see {@link MetadataMarshaller.BinaryMetadataMarshaller}. Existing metadata files of
+         * other formats are read, and with {@link FileNodeConfig#exclusiveAccess()} migrated on the fly. Note: once
+         * migrated (or written), files cannot be read by other formats.
+         */
+        BINARY
+    }
+
+    /**
+     * The storage layout of entry content.
+     */
+    public enum Layout {
+        /**
+         * Content is stored at entry path ({@code basedir/<container>/<path>}), once per container.
+         */
+        PATH,
+        /**
+         * Content is stored once, as a blob addressed by its checksum (first of {@link #checksumAlgorithms()}), and
+         * entry paths are hard links to blobs, see {@link FileNodeCas}. Storing an entry whose blob already exists
+         * does not copy (or download) content at all.
+         */
+        CAS
+    }
+
+    /**
+     * The way content of files is ingested when stored, see {@link FileNode#store(java.net.URI, Path, Map, Map)}.
+     */
+    public enum Ingest {
+        /**
+         * Content is copied into storage, calculating checksums while copying.
+         */
+        COPY,
+        /**
+         * Content is hard linked into storage when on same file store, and checksums are calculated in single pass
+         * over memory mapped content; no content is written at all. Falls back to {@link #COPY} if linking fails. Note:
+         * stored file and entry content share the file, so stored file must not be modified in place afterward (Maven
+         * never does that, it replaces files). This mirrors hard linking on transfer, see {@link #mayLink()}.
+         */
+        LINK
+    }
+
+    /**
+     * The capacity management: when max size is set, storage is kept below it by evicting least valuable entries,
+     * see {@link FileNodeCapacity}. Watermarks are in percents of max size: eviction starts once storage is above
+     * high watermark, and evicts until storage drops below low watermark. Pinned patterns are globs matched against
+     * entry paths relative to basedir (like {@code central/org/apache/maven/**}), and matching entries are never
+     * evicted.
+     */
+    public record Capacity(
+            long maxSize, int highWatermark, int lowWatermark, Duration evictionInterval, List<String> pinned) {
+        public static final Capacity UNBOUNDED = new Capacity(0, 95, 85, Duration.ofMinutes(5), List.of());
+
+        public Capacity {
+            requireNonNull(evictionInterval, "evictionInterval");
+            pinned = List.copyOf(requireNonNull(pinned, "pinned"));
+            if (maxSize < 0) {
+                throw new IllegalArgumentException("Invalid max size: " + maxSize);
+            }
+            if (lowWatermark < 1 || lowWatermark > highWatermark || highWatermark > 100) {
+                throw new IllegalArgumentException(
+                        "Invalid watermarks: low=" + lowWatermark + " high=" + highWatermark);
+            }
+            if (evictionInterval.isNegative() || evictionInterval.isZero()) {
+                throw new IllegalArgumentException("Invalid eviction interval: " + evictionInterval);
+            }
+        }
+
+        public boolean bounded() {
+            return maxSize > 0;
+        }
+    }
+
     public static FileNodeConfig with(SessionConfig sessionConfig) {
         requireNonNull(sessionConfig, "config");
 
         Path basedir = sessionConfig.basedir().resolve("local");
         Path baseLockDir = sessionConfig.baseLocksDir().resolve(NAME);
         boolean mayLink = true;
+        ContentTransfer.Mode transferMode = ContentTransfer.Mode.AUTO;
         List<String> checksumAlgorithms = Arrays.asList("SHA-1", "SHA-512");
         boolean exclusiveAccess = false;
         CachePurge cachePurge = CachePurge.OFF;
+        boolean index = false;
+        MetadataFormat metadataFormat = MetadataFormat.PROPERTIES;
+        Layout layout = Layout.PATH;
+        boolean checksumIndex = false;
+        Ingest ingest = Ingest.COPY;
+        long maxSize = Capacity.UNBOUNDED.maxSize();
+        int highWatermark = Capacity.UNBOUNDED.highWatermark();
+        int lowWatermark = Capacity.UNBOUNDED.lowWatermark();
+        Duration evictionInterval = Capacity.UNBOUNDED.evictionInterval();
+        List<String> pinned = Capacity.UNBOUNDED.pinned();
 
         if (sessionConfig.effectiveProperties().containsKey("mimir.file.basedir")) {
             basedir = FileUtils.canonicalPath(
@@ -75,6 +173,12 @@ public final class FileNodeConfig {
         if (sessionConfig.effectiveProperties().containsKey("mimir.file.mayLink")) {
             mayLink = Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.file.mayLink"));
         }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.transferMode")) {
+            transferMode = ContentTransfer.Mode.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.file.transferMode")
+                    .toUpperCase(Locale.ENGLISH));
+        }
         if (sessionConfig.effectiveProperties().containsKey("mimir.file.checksumAlgorithms")) {
             checksumAlgorithms = Arrays.stream(sessionConfig
                             .effectiveProperties()
@@ -90,8 +194,90 @@ public final class FileNodeConfig {
         if (sessionConfig.effectiveProperties().containsKey("mimir.file.cachePurge")) {
             cachePurge = CachePurge.valueOf(sessionConfig.effectiveProperties().get("mimir.file.cachePurge"));
         }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.index")) {
+            index = Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.file.index"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.metadataFormat")) {
+            metadataFormat = MetadataFormat.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.file.metadataFormat")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.layout")) {
+            layout = Layout.valueOf(
+                    sessionConfig.effectiveProperties().get("mimir.file.layout").toUpperCase(Locale.ENGLISH));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.checksumIndex")) {
+            checksumIndex =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.file.checksumIndex"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.ingest")) {
+            ingest = Ingest.valueOf(
+                    sessionConfig.effectiveProperties().get("mimir.file.ingest").toUpperCase(Locale.ENGLISH));
+        }
+
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.maxSize")) {
+            maxSize = parseSize(sessionConfig.effectiveProperties().get("mimir.file.maxSize"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.highWatermark")) {
+            highWatermark = Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.file.highWatermark"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.lowWatermark")) {
+            lowWatermark = Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.file.lowWatermark"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.evictionInterval")) {
+            evictionInterval =
+                    Duration.parse(sessionConfig.effectiveProperties().get("mimir.file.evictionInterval"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.file.pinned")) {
+            pinned = Arrays.stream(sessionConfig
+                            .effectiveProperties()
+                            .get("mimir.file.pinned")
+                            .split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(toList());
+        }
+
+        return new FileNodeConfig(
+                basedir,
+                baseLockDir,
+                mayLink,
+                transferMode,
+                checksumAlgorithms,
+                exclusiveAccess,
+                cachePurge,
+                index,
+                metadataFormat,
+                layout,
+                checksumIndex,
+                ingest,
+                new Capacity(maxSize, highWatermark, lowWatermark, evictionInterval, pinned));
+    }
 
-        return new FileNodeConfig(basedir, baseLockDir, mayLink, checksumAlgorithms, exclusiveAccess, cachePurge);
+    /**
+     * Parses size in bytes, optionally suffixed with {@code k}, {@code m}, {@code g} or {@code t} (powers of 1024).
+     */
+    static long parseSize(String value) {
+        String size = value.trim().toLowerCase(Locale.ENGLISH);
+        long multiplier = 1;
+        if (!size.isEmpty()) {
+            switch (size.charAt(size.length() - 1)) {
+                case 'k' -> multiplier = 1024L;
+                case 'm' -> multiplier = 1024L * 1024;
+                case 'g' -> multiplier = 1024L * 1024 * 1024;
+                case 't' -> multiplier = 1024L * 1024 * 1024 * 1024;
+                default -> multiplier = 1;
+            }
+            if (multiplier > 1) {
+                size = size.substring(0, size.length() - 1).trim();
+            }
+        }
+        try {
+            return Math.multiplyExact(Long.parseLong(size), multiplier);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid size: " + value, e);
+        }
     }
 
     public static FileNodeConfig of(
@@ -101,7 +287,31 @@ public final class FileNodeConfig {
             List<String> checksumAlgorithms,
             boolean exclusiveAccess,
             CachePurge cachePurge) {
-        return new FileNodeConfig(basedir, baseLockDir, mayLink, checksumAlgorithms, exclusiveAccess, cachePurge);
+        return of(basedir, baseLockDir, mayLink, checksumAlgorithms, exclusiveAccess, cachePurge, false);
+    }
+
+    public static FileNodeConfig of(
+            Path basedir,
+            Path baseLockDir,
+            boolean mayLink,
+            List<String> checksumAlgorithms,
+            boolean exclusiveAccess,
+            CachePurge cachePurge,
+            boolean index) {
+        return new FileNodeConfig(
+                basedir,
+                baseLockDir,
+                mayLink,
+                ContentTransfer.Mode.AUTO,
+                checksumAlgorithms,
+                exclusiveAccess,
+                cachePurge,
+                index,
+                MetadataFormat.PROPERTIES,
+                Layout.PATH,
+                false,
+                Ingest.COPY,
+                Capacity.UNBOUNDED);
     }
 
     public static final String NAME = "file";
@@ -109,27 +319,60 @@ public final class FileNodeConfig {
     private final Path basedir;
     private final Path baseLockDir;
     private final boolean mayLink;
+    private final ContentTransfer.Mode transferMode;
     private final List<String> checksumAlgorithms;
     private final boolean exclusiveAccess;
     private final CachePurge cachePurge;
+    private final boolean index;
+    private final MetadataFormat metadataFormat;
+    private final Layout layout;
+    private final boolean checksumIndex;
+    private final Ingest ingest;
+    private final Capacity capacity;
 
     private FileNodeConfig(
             Path basedir,
             Path baseLockDir,
             boolean mayLink,
+            ContentTransfer.Mode transferMode,
             List<String> checksumAlgorithms,
             boolean exclusiveAccess,
-            CachePurge cachePurge) {
+            CachePurge cachePurge,
+            boolean index,
+            MetadataFormat metadataFormat,
+            Layout layout,
+            boolean checksumIndex,
+            Ingest ingest,
+            Capacity capacity) {
         this.basedir = basedir;
         this.baseLockDir = baseLockDir;
         this.mayLink = mayLink;
+        this.transferMode = transferMode;
         this.checksumAlgorithms = List.copyOf(checksumAlgorithms);
         this.exclusiveAccess = exclusiveAccess;
         this.cachePurge = cachePurge;
+        this.index = index;
+        this.metadataFormat = metadataFormat;
+        this.layout = requireNonNull(layout, "layout");
+        this.checksumIndex = checksumIndex;
+        this.ingest = requireNonNull(ingest, "ingest");
+        this.capacity = requireNonNull(capacity, "capacity");
         if (!exclusiveAccess && cachePurge != CachePurge.OFF) {
             throw new IllegalArgumentException(
                     "Invalid configuration: cachePurge possible only with exclusiveAccess enabled");
         }
+        if (index && (!exclusiveAccess || cachePurge != CachePurge.OFF)) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: index possible only with exclusiveAccess enabled and cachePurge OFF");
+        }
+        if (capacity.bounded() && (index || cachePurge != CachePurge.OFF)) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: maxSize possible only with index disabled and cachePurge OFF");
+        }
+        if (layout == Layout.CAS && (cachePurge != CachePurge.OFF || checksumAlgorithms.isEmpty())) {
+            throw new IllegalArgumentException(
+                    "Invalid configuration: CAS layout possible only with cachePurge OFF and checksum algorithms set");
+        }
     }
 
     public Path basedir() {
@@ -144,6 +387,14 @@ public final class FileNodeConfig {
         return mayLink;
     }
 
+    /**
+     * The mode of transferring entry content to target files. Hard linking in {@link ContentTransfer.Mode#AUTO} mode
+     * is still subject to {@link #mayLink()}.
+     */
+    public ContentTransfer.Mode transferMode() {
+        return transferMode;
+    }
+
     public List<String> checksumAlgorithms() {
         return checksumAlgorithms;
     }
@@ -155,4 +406,37 @@ public final class FileNodeConfig {
     public CachePurge cachePurge() {
         return cachePurge;
     }
+
+    /**
+     * Whether file node keeps persistent memory-mapped index of its entries, to serve locate calls without touching
+     * the file system. Index is rebuilt from storage if missing or corrupt. Requires exclusive access and no cache
+     * purge.
+     */
+    public boolean index() {
+        return index;
+    }
+
+    public MetadataFormat metadataFormat() {
+        return metadataFormat;
+    }
+
+    public Layout layout() {
+        return layout;
+    }
+
+    /**
+     * Whether file node keeps secondary index of its entries by checksums, to locate entries by content regardless
+     * of their container, see {@link FileNodeChecksumIndex}. Index is built from storage when enabled first time.
+     */
+    public boolean checksumIndex() {
+        return checksumIndex;
+    }
+
+    public Ingest ingest() {
+        return ingest;
+    }
+
+    public Capacity capacity() {
+        return capacity;
+    }
 }
@@ -53,11 +53,21 @@ public final class FileNodeFactory implements LocalNodeFactory<FileNode>, System
                 fileNodeConfig.basedir(),
                 fileNodeConfig.baseLockDir(),
                 fileNodeConfig.mayLink(),
+                fileNodeConfig.transferMode(),
                 fileNodeConfig.exclusiveAccess(),
                 fileNodeConfig.cachePurge(),
+                fileNodeConfig.index(),
+                fileNodeConfig.layout(),
+                fileNodeConfig.checksumIndex(),
+                fileNodeConfig.ingest(),
+                fileNodeConfig.capacity(),
                 fileNodeConfig.checksumAlgorithms(),
                 checksumFactories,
                 DirectoryLocker.INSTANCE,
-                new MetadataMarshaller.PropertiesMetadataMarshaller());
+                switch (fileNodeConfig.metadataFormat()) {
+                    case PROPERTIES -> new MetadataMarshaller.PropertiesMetadataMarshaller();
+                    case OBJECT_STREAM -> new MetadataMarshaller.ObjectOutputStreamMetadataMarshaller();
+                    case BINARY -> new MetadataMarshaller.BinaryMetadataMarshaller(fileNodeConfig.exclusiveAccess());
+                });
     }
 }
@@ -0,0 +1,379 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.file;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.CloseableSupport;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent, memory-mapped index of file node entries, keyed by path of entry relative to file node basedir. It is
+ * made of two files: a slot file, holding header and an open addressing hash table (linear probing) of
+ * {@code (hash, offset)} pairs, and a data file, holding appended records (path and entry data, guarded by CRC32).
+ * <p>
+ * Update writes the record first and the slot last, so readers never see a slot pointing to an unwritten record.
+ * Records failing their CRC, or not matching the looked up path, are treated as misses. A dirty flag is raised in the
+ * header while the index is open, and cleared on close; if the index is found dirty (process crashed), missing or
+ * corrupt on open, the caller is expected to rebuild it.
+ * <p>
+ * The index is usable only when file node has exclusive access to its storage, as it is not shared across processes.
+ */
+final class FileNodeIndex extends CloseableSupport {
+    private static final long MAGIC = 0x4d494d4952494458L; // MIMIRIDX
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int OFFSET_MAGIC = 0;
+    private static final int OFFSET_VERSION = 8;
+    private static final int OFFSET_DIRTY = 12;
+    private static final int OFFSET_SLOTS = 16;
+    private static final int OFFSET_USED = 20;
+    private static final int OFFSET_DATA_END = 24;
+    private static final long DATA_START = 8;
+    static final int INITIAL_SLOTS = 1 << 12;
+    private static final int INITIAL_DATA = 1 << 20;
+
+    /**
+     * Opens the index in given directory. Returns empty if index is missing, dirty or corrupt: in that case index
+     * files are deleted, and caller should {@link #create(Path)} and populate new one.
+     */
+    static Optional<FileNodeIndex> open(Path directory) throws IOException {
+        Path slotsFile = directory.resolve("slots");
+        Path dataFile = directory.resolve("data");
+        if (Files.isRegularFile(slotsFile) && Files.isRegularFile(dataFile)) {
+            FileNodeIndex index = new FileNodeIndex(slotsFile, dataFile);
+            if (index.valid()) {
+                index.markDirty(true);
+                return Optional.of(index);
+            }
+            index.close();
+        }
+        Files.deleteIfExists(slotsFile);
+        Files.deleteIfExists(dataFile);
+        return Optional.empty();
+    }
+
+    /**
+     * Creates new empty index in given directory, replacing existing one, if any.
+     */
+    static FileNodeIndex create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path slotsFile = directory.resolve("slots");
+        Path dataFile = directory.resolve("data");
+        Files.deleteIfExists(slotsFile);
+        Files.deleteIfExists(dataFile);
+        FileNodeIndex index = new FileNodeIndex(slotsFile, dataFile);
+        index.initialize();
+        return index;
+    }
+
+    private final ReentrantReadWriteLock lock;
+    private final FileChannel slotsChannel;
+    private final FileChannel dataChannel;
+    private MappedByteBuffer slots;
+    private MappedByteBuffer data;
+    private int slotCount;
+    private int used;
+    private long dataEnd;
+
+    private FileNodeIndex(Path slotsFile, Path dataFile) throws IOException {
+        this.lock = new ReentrantReadWriteLock();
+        this.slotsChannel = FileChannel.open(
+                slotsFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.dataChannel = FileChannel.open(
+                dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void initialize() throws IOException {
+        slotCount = INITIAL_SLOTS;
+        used = 0;
+        dataEnd = DATA_START;
+        slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slotCount * SLOT_SIZE);
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, INITIAL_DATA);
+        data.putLong(0, MAGIC);
+        slots.putLong(OFFSET_MAGIC, MAGIC);
+        slots.putInt(OFFSET_VERSION, VERSION);
+        slots.putInt(OFFSET_SLOTS, slotCount);
+        writeHeader();
+        markDirty(true);
+    }
+
+    private boolean valid() throws IOException {
+        long slotsSize = slotsChannel.size();
+        long dataSize = dataChannel.size();
+        if (slotsSize < HEADER_SIZE || dataSize < DATA_START || dataSize > Integer.MAX_VALUE) {
+            return false;
+        }
+        MappedByteBuffer header = slotsChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+        if (header.getLong(OFFSET_MAGIC) != MAGIC
+                || header.getInt(OFFSET_VERSION) != VERSION
+                || header.getInt(OFFSET_DIRTY) != 0) {
+            return false;
+        }
+        slotCount = header.getInt(OFFSET_SLOTS);
+        used = header.getInt(OFFSET_USED);
+        dataEnd = header.getLong(OFFSET_DATA_END);
+        if (slotCount <= 0
+                || Integer.bitCount(slotCount) != 1
+                || slotsSize != HEADER_SIZE + (long) slotCount * SLOT_SIZE
+                || used < 0
+                || used > slotCount
+                || dataEnd < DATA_START
+                || dataEnd > dataSize) {
+            return false;
+        }
+        slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, slotsSize);
+        data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, dataSize);
+        return data.getLong(0) == MAGIC;
+    }
+
+    /**
+     * Returns the entry data stored for given relative path, if any.
+     */
+    Optional<Map<String, String>> get(String relativePath) {
+        checkClosed();
+        long hash = hash(relativePath);
+        lock.readLock().lock();
+        try {
+            int mask = slotCount - 1;
+            for (int i = start(hash, mask), probes = 0; probes < slotCount; i = (i + 1) & mask, probes++) {
+                int slot = HEADER_SIZE + i * SLOT_SIZE;
+                long offset = slots.getLong(slot + 8);
+                if (offset == 0) {
+                    return Optional.empty();
+                }
+                if (slots.getLong(slot) == hash) {
+                    Record record = read(offset);
+                    if (record != null && record.path().equals(relativePath)) {
+                        return Optional.of(record.data());
+                    }
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores entry data for given relative path, replacing existing data, if any.
+     */
+    void put(String relativePath, Map<String, String> entryData) throws IOException {
+        checkClosed();
+        byte[] payload = encode(relativePath, entryData);
+        long hash = hash(relativePath);
+        lock.writeLock().lock();
+        try {
+            if ((used + 1) * 2L > slotCount) {
+                rehash(slotCount * 2);
+            }
+            long offset = append(payload);
+            int mask = slotCount - 1;
+            for (int i = start(hash, mask); ; i = (i + 1) & mask) {
+                int slot = HEADER_SIZE + i * SLOT_SIZE;
+                long existing = slots.getLong(slot + 8);
+                if (existing == 0) {
+                    slots.putLong(slot, hash);
+                    slots.putLong(slot + 8, offset);
+                    used++;
+                    break;
+                }
+                if (slots.getLong(slot) == hash) {
+                    Record record = read(existing);
+                    if (record == null || record.path().equals(relativePath)) {
+                        // replace the entry (or reclaim the slot of a corrupt record)
+                        slots.putLong(slot + 8, offset);
+                        break;
+                    }
+                }
+            }
+            writeHeader();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the count of entries in index.
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        long recordSize = 8L + payload.length;
+        if (dataEnd + recordSize > data.capacity()) {
+            long capacity = data.capacity();
+            while (dataEnd + recordSize > capacity) {
+                capacity *= 2;
+            }
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IOException("File node index data is full");
+            }
+            data.force();
+            data = dataChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        long offset = dataEnd;
+        data.putInt((int) offset, payload.length);
+        data.putInt((int) offset + 4, (int) crc.getValue());
+        data.put((int) offset + 8, payload);
+        dataEnd += recordSize;
+        return offset;
+    }
+
+    private Record read(long offset) {
+        if (offset < DATA_START || offset + 8 > dataEnd) {
+            return null;
+        }
+        int length = data.getInt((int) offset);
+        if (length < 0 || offset + 8 + length > dataEnd) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        data.get((int) offset + 8, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != data.getInt((int) offset + 4)) {
+            return null;
+        }
+        try {
+            return decode(payload);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void rehash(int newSlotCount) throws IOException {
+        long[] hashes = new long[used];
+        long[] offsets = new long[used];
+        int count = 0;
+        for (int i = 0; i < slotCount; i++) {
+            int slot = HEADER_SIZE + i * SLOT_SIZE;
+            long offset = slots.getLong(slot + 8);
+            if (offset != 0) {
+                hashes[count] = slots.getLong(slot);
+                offsets[count] = offset;
+                count++;
+            }
+        }
+        slots.force();
+        slots = slotsChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) newSlotCount * SLOT_SIZE);
+        for (int i = 0; i < newSlotCount; i++) {
+            slots.putLong(HEADER_SIZE + i * SLOT_SIZE + 8, 0);
+        }
+        int mask = newSlotCount - 1;
+        for (int j = 0; j < count; j++) {
+            int i = start(hashes[j], mask);
+            while (slots.getLong(HEADER_SIZE + i * SLOT_SIZE + 8) != 0) {
+                i = (i + 1) & mask;
+            }
+            slots.putLong(HEADER_SIZE + i * SLOT_SIZE, hashes[j]);
+            slots.putLong(HEADER_SIZE + i * SLOT_SIZE + 8, offsets[j]);
+        }
+        slotCount = newSlotCount;
+        used = count;
+        slots.putInt(OFFSET_SLOTS, slotCount);
+    }
+
+    private void writeHeader() {
+        slots.putInt(OFFSET_USED, used);
+        slots.putLong(OFFSET_DATA_END, dataEnd);
+    }
+
+    private void markDirty(boolean dirty) {
+        slots.putInt(OFFSET_DIRTY, dirty ? 1 : 0);
+    }
+
+    @Override
+    protected void doClose() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (slots != null && data != null) {
+                data.force();
+                writeHeader();
+                slots.force();
+                markDirty(false);
+                slots.force();
+            }
+            slotsChannel.close();
+            dataChannel.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Record(String path, Map<String, String> data) {}
+
+    private static byte[] encode(String relativePath, Map<String, String> entryData) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(relativePath);
+            out.writeInt(entryData.size());
+            for (Map.Entry<String, String> entry : entryData.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue());
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Record decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String path = in.readUTF();
+            int size = in.readInt();
+            if (size < 0) {
+                throw new IOException("Invalid record");
+            }
+            HashMap<String, String> entryData = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                entryData.put(in.readUTF(), in.readUTF());
+            }
+            return new Record(path, entryData);
+        }
+    }
+
+    private static int start(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * 64-bit FNV-1a of UTF-8 bytes of path.
+     */
+    private static long hash(String relativePath) {
+        requireNonNull(relativePath, "relativePath");
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : relativePath.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.file;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped write locks of file node entries: a writer of an entry holds the lock of its stripe (chosen by entry path)
+ * for the whole store, so concurrent writers of same entry are serialized, and all but the first may find the entry
+ * already stored. Readers never lock, as entries are always moved into place atomically.
+ * <p>
+ * In process, stripes are reentrant locks shared by all nodes using same lock directory. Unless storage is accessed
+ * exclusively, stripes are also locked across processes, using lock files {@code keys/<stripe>.lock} in lock
+ * directory.
+ */
+final class FileNodeKeyLocks extends ComponentSupport {
+    static final String KEYS_DIR = "keys";
+
+    /**
+     * Count of stripes: it bounds count of lock files, while keeping unrelated writers mostly apart.
+     */
+    static final int STRIPES = 64;
+
+    /**
+     * In process stripe locks, keyed by lock file; shared by nodes, as file locks are held per process.
+     */
+    private static final ConcurrentHashMap<Path, ReentrantLock> LOCKS = new ConcurrentHashMap<>();
+
+    /**
+     * A held stripe lock.
+     */
+    interface Lock extends AutoCloseable {
+        @Override
+        void close() throws IOException;
+    }
+
+    private final Path basedir;
+    private final Path lockDir;
+    private final boolean crossProcess;
+    private final LongAdder acquired;
+    private final LongAdder contended;
+
+    FileNodeKeyLocks(Path basedir, Path baseLockDir, boolean crossProcess) throws IOException {
+        this.basedir = requireNonNull(basedir, "basedir");
+        this.lockDir = requireNonNull(baseLockDir, "baseLockDir")
+                .resolve(KEYS_DIR)
+                .toAbsolutePath()
+                .normalize();
+        this.crossProcess = crossProcess;
+        this.acquired = new LongAdder();
+        this.contended = new LongAdder();
+        Files.createDirectories(lockDir);
+    }
+
+    /**
+     * Locks the stripe of given entry path, blocking until it is available.
+     */
+    Lock lock(Path path) throws IOException {
+        int stripe = Math.floorMod(basedir.relativize(path).toString().hashCode(), STRIPES);
+        Path lockFile = lockDir.resolve(stripe + ".lock");
+        ReentrantLock lock = LOCKS.computeIfAbsent(lockFile, k -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+        if (!crossProcess || lock.getHoldCount() > 1) {
+            acquired.increment();
+            return lock::unlock;
+        }
+        FileChannel channel = null;
+        FileLock fileLock;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            fileLock = channel.tryLock();
+            if (fileLock == null) {
+                contended.increment();
+                fileLock = channel.lock();
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw e;
+        }
+        acquired.increment();
+        FileChannel lockChannel = channel;
+        FileLock heldLock = fileLock;
+        return () -> {
+            try (lockChannel) {
+                heldLock.release();
+            } finally {
+                lock.unlock();
+            }
+        };
+    }
+
+    /**
+     * Returns lock statistics.
+     */
+    Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("file.locks.acquired", acquired.sum());
+        stats.put("file.locks.contended", contended.sum());
+        return stats;
+    }
+}
@@ -7,6 +7,7 @@
  */
 package eu.maveniverse.maven.mimir.node.file;
 
+import eu.maveniverse.maven.mimir.shared.node.Entry;
 import eu.maveniverse.maven.shared.core.fs.FileUtils;
 import eu.maveniverse.maven.shared.core.maven.MavenUtils;
 import java.io.BufferedWriter;
@@ -17,6 +18,8 @@ import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -26,6 +29,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.TreeMap;
 
 /**
  * Metadata marshaller is doing the metadata persistence to and from disk.
@@ -115,8 +119,9 @@ public interface MetadataMarshaller {
                 try (ObjectOutputStream oos = new ObjectOutputStream(
                         Files.newOutputStream(p, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))) {
                     oos.writeInt(metadata.size());
-                    for (Map.Entry<String, String> entry :
-                            metadata.entrySet().stream().sorted().toList()) {
+                    for (Map.Entry<String, String> entry : metadata.entrySet().stream()
+                            .sorted(Map.Entry.comparingByKey())
+                            .toList()) {
                         oos.writeUTF(entry.getKey());
                         oos.writeUTF(entry.getValue());
                     }
@@ -124,4 +129,217 @@ public interface MetadataMarshaller {
             });
         }
     }
+
+    /**
+     * Uses compact binary layout to marshal metadata, that is loaded with single read. The layout is:
+     * <ul>
+     *     <li>magic (4 bytes) and version (1 byte)</li>
+     *     <li>flags (1 byte) telling which well-known entries are present</li>
+     *     <li>well-known entries that are present: content length and last modified as 8 byte numbers, SHA-1 and
+     *     SHA-512 checksums as 20 and 64 byte digests</li>
+     *     <li>count of other entries (4 bytes), and for each length prefixed UTF-8 key and value</li>
+     * </ul>
+     * Well-known entries that are not in canonical form (ie. lowercase hex) are stored as other entries. Files in
+     * formats of other marshallers are loaded as well, and if migration is enabled (it should be only when store is
+     * accessed exclusively, as other processes may use other marshallers), they are rewritten in this format.
+     * Produces stable output.
+     */
+    class BinaryMetadataMarshaller implements MetadataMarshaller {
+        private static final int MAGIC = 0x4d4d4442; // MMDB
+        private static final byte VERSION = 1;
+        private static final String CONTENT_LENGTH = "m." + Entry.CONTENT_LENGTH;
+        private static final String CONTENT_LAST_MODIFIED = "m." + Entry.CONTENT_LAST_MODIFIED;
+        private static final String SHA1 = "c.SHA-1";
+        private static final String SHA512 = "c.SHA-512";
+        private static final int FLAG_CONTENT_LENGTH = 1;
+        private static final int FLAG_CONTENT_LAST_MODIFIED = 2;
+        private static final int FLAG_SHA1 = 4;
+        private static final int FLAG_SHA512 = 8;
+
+        private final PropertiesMetadataMarshaller properties = new PropertiesMetadataMarshaller();
+        private final ObjectOutputStreamMetadataMarshaller objectOutputStream =
+                new ObjectOutputStreamMetadataMarshaller();
+        private final boolean migrate;
+
+        /**
+         * Creates marshaller that does not migrate files of other formats.
+         */
+        public BinaryMetadataMarshaller() {
+            this(false);
+        }
+
+        /**
+         * Creates marshaller that migrates files of other formats on load, if asked for.
+         */
+        public BinaryMetadataMarshaller(boolean migrate) {
+            this.migrate = migrate;
+        }
+
+        @Override
+        public Map<String, String> load(Path md) throws IOException {
+            byte[] bytes = Files.readAllBytes(md);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            if (bytes.length < 6 || buffer.getInt() != MAGIC) {
+                return loadOther(md, bytes);
+            }
+            if (buffer.get() != VERSION) {
+                throw new IOException("Unsupported metadata version in " + md);
+            }
+            try {
+                int flags = buffer.get();
+                HashMap<String, String> metadata = new HashMap<>();
+                if ((flags & FLAG_CONTENT_LENGTH) != 0) {
+                    metadata.put(CONTENT_LENGTH, Long.toString(buffer.getLong()));
+                }
+                if ((flags & FLAG_CONTENT_LAST_MODIFIED) != 0) {
+                    metadata.put(CONTENT_LAST_MODIFIED, Long.toString(buffer.getLong()));
+                }
+                if ((flags & FLAG_SHA1) != 0) {
+                    metadata.put(SHA1, toHex(buffer, 20));
+                }
+                if ((flags & FLAG_SHA512) != 0) {
+                    metadata.put(SHA512, toHex(buffer, 64));
+                }
+                int entries = buffer.getInt();
+                for (int i = 0; i < entries; i++) {
+                    String key = readString(buffer, bytes);
+                    metadata.put(key, readString(buffer, bytes));
+                }
+                return metadata;
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                throw new IOException("Corrupt metadata in " + md, e);
+            }
+        }
+
+        @Override
+        public void save(Path md, Map<String, String> metadata) throws IOException {
+            byte[] bytes = encode(metadata);
+            FileUtils.writeFile(md, p -> Files.write(p, bytes));
+        }
+
+        /**
+         * Loads file written by other marshaller, and if migration is enabled, rewrites it in this format. Failure to
+         * rewrite is not fatal.
+         */
+        private Map<String, String> loadOther(Path md, byte[] bytes) throws IOException {
+            Map<String, String> metadata;
+            if (bytes.length > 1 && (bytes[0] & 0xff) == 0xac && (bytes[1] & 0xff) == 0xed) {
+                metadata = objectOutputStream.load(md);
+            } else {
+                metadata = properties.load(md);
+            }
+            if (migrate) {
+                try {
+                    save(md, metadata);
+                } catch (IOException e) {
+                    // keep the file as is; it will be migrated next time
+                }
+            }
+            return metadata;
+        }
+
+        private static byte[] encode(Map<String, String> metadata) {
+            TreeMap<String, String> others = new TreeMap<>(metadata);
+            int flags = 0;
+            long contentLength = 0;
+            long contentLastModified = 0;
+            if (isCanonicalLong(others.get(CONTENT_LENGTH))) {
+                contentLength = Long.parseLong(others.remove(CONTENT_LENGTH));
+                flags |= FLAG_CONTENT_LENGTH;
+            }
+            if (isCanonicalLong(others.get(CONTENT_LAST_MODIFIED))) {
+                contentLastModified = Long.parseLong(others.remove(CONTENT_LAST_MODIFIED));
+                flags |= FLAG_CONTENT_LAST_MODIFIED;
+            }
+            String sha1 = isCanonicalHex(others.get(SHA1), 20) ? others.remove(SHA1) : null;
+            if (sha1 != null) {
+                flags |= FLAG_SHA1;
+            }
+            String sha512 = isCanonicalHex(others.get(SHA512), 64) ? others.remove(SHA512) : null;
+            if (sha512 != null) {
+                flags |= FLAG_SHA512;
+            }
+
+            ArrayList<byte[]> strings = new ArrayList<>(others.size() * 2);
+            int size = 4 + 1 + 1 + 8 + 8 + 20 + 64 + 4;
+            for (Map.Entry<String, String> entry : others.entrySet()) {
+                byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                byte[] value = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                strings.add(key);
+                strings.add(value);
+                size += 8 + key.length + value.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(MAGIC);
+            buffer.put(VERSION);
+            buffer.put((byte) flags);
+            if ((flags & FLAG_CONTENT_LENGTH) != 0) {
+                buffer.putLong(contentLength);
+            }
+            if ((flags & FLAG_CONTENT_LAST_MODIFIED) != 0) {
+                buffer.putLong(contentLastModified);
+            }
+            if (sha1 != null) {
+                putHex(buffer, sha1);
+            }
+            if (sha512 != null) {
+                putHex(buffer, sha512);
+            }
+            buffer.putInt(others.size());
+            for (byte[] string : strings) {
+                buffer.putInt(string.length);
+                buffer.put(string);
+            }
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+
+        private static String readString(ByteBuffer buffer, byte[] bytes) {
+            int length = buffer.getInt();
+            String result = new String(bytes, buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return result;
+        }
+
+        private static boolean isCanonicalLong(String value) {
+            if (value == null) {
+                return false;
+            }
+            try {
+                return Long.toString(Long.parseLong(value)).equals(value);
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+
+        private static boolean isCanonicalHex(String value, int bytes) {
+            if (value == null || value.length() != bytes * 2) {
+                return false;
+            }
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static void putHex(ByteBuffer buffer, String hex) {
+            for (int i = 0; i < hex.length(); i += 2) {
+                buffer.put((byte) ((Character.digit(hex.charAt(i), 16) << 4) | Character.digit(hex.charAt(i + 1), 16)));
+            }
+        }
+
+        private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+        private static String toHex(ByteBuffer buffer, int bytes) {
+            char[] result = new char[bytes * 2];
+            for (int i = 0; i < bytes; i++) {
+                int b = buffer.get() & 0xff;
+                result[i * 2] = HEX[b >>> 4];
+                result[i * 2 + 1] = HEX[b & 0x0f];
+            }
+            return new String(result);
+        }
+    }
 }
@@ -7,16 +7,36 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.checksum.ChecksumEnforcer;
+import eu.maveniverse.maven.mimir.shared.impl.node.EntrySupport;
 import eu.maveniverse.maven.mimir.shared.naming.UriEncoders;
 import eu.maveniverse.maven.mimir.shared.node.LocalEntry;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import eu.maveniverse.maven.shared.core.fs.FileUtils;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 import org.eclipse.aether.internal.impl.checksum.Sha1ChecksumAlgorithmFactory;
@@ -108,6 +128,46 @@ public class FileNodeTest {
         }
     }
 
+    @Test
+    void transferMode(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.transferMode", "channel")
+                .build();
+        try (FileNode fileNode = new FileNodeFactory(Map.of(
+                        Sha1ChecksumAlgorithmFactory.NAME,
+                        new Sha1ChecksumAlgorithmFactory(),
+                        Sha512ChecksumAlgorithmFactory.NAME,
+                        new Sha512ChecksumAlgorithmFactory()))
+                .createSystemNode(sessionConfig)) {
+            byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+            Path temp = Files.createTempFile("mimir", "tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                    data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, junit), temp, Map.of(), checksums);
+
+            LocalEntry localEntry = fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .orElseThrow();
+            Path target = workdir.resolve("target.file");
+            localEntry.transferTo(target);
+            assertArrayEquals(data, Files.readAllBytes(target));
+            assertEquals(1L, fileNode.transferStats().get("file.transfer.channel"));
+            assertEquals(0L, fileNode.transferStats().get("file.transfer.hardlink"));
+
+            // content changed behind node back: size verification fails
+            try (Stream<Path> files = Files.walk(basedir.resolve("local"))) {
+                Path content = files.filter(p -> p.getFileName().toString().equals("junit-3.13.2.jar"))
+                        .filter(p -> !p.getParent().getFileName().toString().equals(".mm"))
+                        .findFirst()
+                        .orElseThrow();
+                Files.writeString(content, "Hello!");
+            }
+            assertThrows(IOException.class, () -> localEntry.transferTo(target));
+            assertEquals(1L, fileNode.transferStats().get("file.transfer.channel"));
+        }
+    }
+
     @Test
     void sharedAccess(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
         SessionConfig sessionConfig = SessionConfig.defaults()
@@ -140,4 +200,514 @@ public class FileNodeTest {
             assertThrows(IOException.class, () -> fileNodeFactory.createSystemNode(sessionConfig));
         }
     }
+
+    @Test
+    void index(@TempDir Path basedir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.exclusiveAccess", "true")
+                .setUserProperty("mimir.file.index", "true")
+                .build();
+        FileNodeFactory fileNodeFactory = new FileNodeFactory(Map.of(
+                Sha1ChecksumAlgorithmFactory.NAME,
+                new Sha1ChecksumAlgorithmFactory(),
+                Sha512ChecksumAlgorithmFactory.NAME,
+                new Sha512ChecksumAlgorithmFactory()));
+        byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+        Path temp = Files.createTempFile("mimir", "tmp");
+        Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+        Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, junit), temp, Map.of(), checksums);
+        }
+        Path local = basedir.resolve("local");
+        Path slots = local.resolve(".index").resolve("slots");
+        assertTrue(Files.isRegularFile(slots));
+
+        // index survives restart, and serves locate without metadata files
+        assertEquals(1, deleteMetadata(local));
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            LocalEntry localEntry = fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .orElseThrow();
+            assertEquals(12, localEntry.getContentLength());
+            assertEquals(
+                    "2ef7bde608ce5404e97d5f042f95f89f1c232871",
+                    localEntry.checksums().get(Sha1ChecksumAlgorithmFactory.NAME));
+            assertFalse(fileNode.locate(UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("junit:junit:4.0")))
+                    .isPresent());
+        }
+        // served from index: metadata was not recreated
+        assertEquals(0, deleteMetadata(local));
+
+        // corrupt index is rebuilt from storage
+        Files.write(slots, new byte[] {1, 2, 3}, StandardOpenOption.TRUNCATE_EXISTING);
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            LocalEntry localEntry = fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .orElseThrow();
+            assertEquals(12, localEntry.getContentLength());
+            assertEquals(
+                    "2ef7bde608ce5404e97d5f042f95f89f1c232871",
+                    localEntry.checksums().get(Sha1ChecksumAlgorithmFactory.NAME));
+        }
+    }
+
+    @Test
+    void indexGrowsAndPersists(@TempDir Path basedir) throws Exception {
+        Path directory = basedir.resolve(".index");
+        int count = FileNodeIndex.INITIAL_SLOTS * 3;
+        try (FileNodeIndex index = FileNodeIndex.create(directory)) {
+            for (int i = 0; i < count; i++) {
+                index.put("central/g/a/" + i + "/a-" + i + ".jar", Map.of("i", Integer.toString(i)));
+            }
+            // replace
+            index.put("central/g/a/0/a-0.jar", Map.of("i", "zero"));
+            assertEquals(count, index.size());
+        }
+        try (FileNodeIndex index = FileNodeIndex.open(directory).orElseThrow()) {
+            assertEquals(count, index.size());
+            assertEquals(Map.of("i", "zero"), index.get("central/g/a/0/a-0.jar").orElseThrow());
+            for (int i = 1; i < count; i++) {
+                assertEquals(
+                        Map.of("i", Integer.toString(i)),
+                        index.get("central/g/a/" + i + "/a-" + i + ".jar").orElseThrow());
+            }
+            assertFalse(index.get("central/g/a/missing.jar").isPresent());
+        }
+
+        // not closed (crashed) index has dirty flag raised, and is not reused
+        try (RandomAccessFile slots =
+                new RandomAccessFile(directory.resolve("slots").toFile(), "rw")) {
+            slots.seek(12);
+            slots.writeInt(1);
+        }
+        assertFalse(FileNodeIndex.open(directory).isPresent());
+    }
+
+    @Test
+    void capacity(@TempDir Path basedir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.maxSize", "20k")
+                .setUserProperty("mimir.file.highWatermark", "90")
+                .setUserProperty("mimir.file.lowWatermark", "50")
+                .setUserProperty("mimir.file.evictionInterval", "PT1H")
+                .setUserProperty("mimir.file.pinned", "*/org/pinned/**")
+                .build();
+        try (FileNode fileNode = new FileNodeFactory(Map.of(
+                        Sha1ChecksumAlgorithmFactory.NAME,
+                        new Sha1ChecksumAlgorithmFactory(),
+                        Sha512ChecksumAlgorithmFactory.NAME,
+                        new Sha512ChecksumAlgorithmFactory()))
+                .createSystemNode(sessionConfig)) {
+            byte[] data = new byte[2000];
+            Arrays.fill(data, (byte) 'x');
+            Path temp = Files.createTempFile("mimir", "tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                    data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+
+            Artifact pinned = new DefaultArtifact("org.pinned:pinned:1.0");
+            Artifact hot = new DefaultArtifact("org.hot:hot:1.0");
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, pinned), temp, Map.of(), checksums);
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, hot), temp, Map.of(), checksums);
+            for (int i = 0; i < 10; i++) {
+                assertTrue(fileNode.locate(UriEncoders.artifactKeyBuilder(central, hot))
+                        .isPresent());
+            }
+            for (int i = 0; i < 10; i++) {
+                fileNode.store(
+                        UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("org.cold:cold:" + i)),
+                        temp,
+                        Map.of(),
+                        checksums);
+            }
+
+            // eviction may be already running in background, triggered by stores: wait for it
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!fileNode.evict()) {
+                assertTrue(System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+            Map<String, Long> stats = fileNode.capacityStats();
+            assertTrue(stats.get("file.capacity.evictedEntries") > 0, stats.toString());
+            // a run brings storage below low watermark, but background run may have happened before last stores,
+            // leaving storage between watermarks, where no run evicts: only high watermark (90% of 20k) is guaranteed
+            assertTrue(stats.get("file.capacity.usedBytes") <= 20 * 1024 * 90 / 100, stats.toString());
+            assertEquals(1L, stats.get("file.capacity.pinnedEntries"));
+            assertTrue(
+                    fileNode.stats().keySet().containsAll(stats.keySet()),
+                    fileNode.stats().toString());
+            assertTrue(fileNode.locate(UriEncoders.artifactKeyBuilder(central, pinned))
+                    .isPresent());
+            assertTrue(fileNode.locate(UriEncoders.artifactKeyBuilder(central, hot))
+                    .isPresent());
+            int cold = 0;
+            for (int i = 0; i < 10; i++) {
+                if (fileNode.locate(UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("org.cold:cold:" + i)))
+                        .isPresent()) {
+                    cold++;
+                }
+            }
+            assertTrue(cold < 10);
+        }
+
+        // capacity management needs plain storage
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> FileNodeConfig.with(SessionConfig.defaults()
+                        .basedir(basedir)
+                        .setUserProperty("mimir.file.maxSize", "1g")
+                        .setUserProperty("mimir.file.index", "true")
+                        .build()));
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> FileNodeConfig.with(SessionConfig.defaults()
+                        .basedir(basedir)
+                        .setUserProperty("mimir.file.highWatermark", "80")
+                        .setUserProperty("mimir.file.lowWatermark", "90")
+                        .build()));
+        assertEquals(3L * 1024 * 1024 * 1024, FileNodeConfig.parseSize("3G"));
+        assertEquals(1234L, FileNodeConfig.parseSize("1234"));
+    }
+
+    @Test
+    void casLayout(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.layout", "cas")
+                .build();
+        RemoteRepository mirror =
+                new RemoteRepository.Builder("mirror", "default", "https://mirror.example.com/maven2/").build();
+        RemoteRepository staging =
+                new RemoteRepository.Builder("staging", "default", "https://staging.example.com/maven2/").build();
+        try (FileNode fileNode = new FileNodeFactory(Map.of(
+                        Sha1ChecksumAlgorithmFactory.NAME,
+                        new Sha1ChecksumAlgorithmFactory(),
+                        Sha512ChecksumAlgorithmFactory.NAME,
+                        new Sha512ChecksumAlgorithmFactory()))
+                .createSystemNode(sessionConfig)) {
+            byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+            Path temp = Files.createTempFile("mimir", "tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                    data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+
+            // first store writes content and makes it a blob
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, junit), temp, Map.of(), checksums);
+            assertEquals(1L, fileNode.casStats().get("file.cas.blobs"));
+            assertEquals(0L, fileNode.casStats().get("file.cas.hits"));
+
+            // same content in other containers is linked to blob
+            fileNode.store(UriEncoders.artifactKeyBuilder(mirror, junit), temp, Map.of(), checksums);
+            LocalEntry entry = fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .orElseThrow();
+            fileNode.store(UriEncoders.artifactKeyBuilder(staging, junit), entry);
+            assertEquals(1L, fileNode.casStats().get("file.cas.blobs"));
+            assertEquals(2L, fileNode.casStats().get("file.cas.hits"));
+            assertEquals(2L * data.length, fileNode.casStats().get("file.cas.bytesSaved"));
+
+            for (RemoteRepository repository : List.of(central, mirror, staging)) {
+                LocalEntry localEntry = fileNode.locate(UriEncoders.artifactKeyBuilder(repository, junit))
+                        .orElseThrow();
+                assertEquals(checksums, localEntry.checksums());
+                assertEquals(data.length, localEntry.getContentLength());
+                Path target = workdir.resolve(repository.getId());
+                localEntry.transferTo(target);
+                assertArrayEquals(data, Files.readAllBytes(target));
+            }
+            try (Stream<Path> files = Files.walk(basedir.resolve("local"))) {
+                List<Path> contents = files.filter(
+                                p -> p.getFileName().toString().equals("junit-3.13.2.jar"))
+                        .filter(p -> !p.getParent().getFileName().toString().equals(".mm"))
+                        .toList();
+                assertEquals(3, contents.size());
+                assertTrue(Files.isSameFile(contents.get(0), contents.get(1)));
+                assertTrue(Files.isSameFile(contents.get(0), contents.get(2)));
+            }
+        }
+    }
+
+    @Test
+    void checksumIndex(@TempDir Path basedir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.checksumIndex", "true")
+                .build();
+        FileNodeFactory fileNodeFactory = new FileNodeFactory(Map.of(
+                Sha1ChecksumAlgorithmFactory.NAME,
+                new Sha1ChecksumAlgorithmFactory(),
+                Sha512ChecksumAlgorithmFactory.NAME,
+                new Sha512ChecksumAlgorithmFactory()));
+        byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+        URI key = UriEncoders.artifactKeyBuilder(central, junit);
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            Path temp = Files.createTempFile("mimir", "tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            assertFalse(fileNode.locateKey(checksums).isPresent());
+            fileNode.store(key, temp, Map.of(), checksums);
+
+            // located key is file key of stored content
+            URI fileKey =
+                    UriEncoders.fileKeyBuilder(UriEncoders.container(central), "junit/junit/3.13.2/junit-3.13.2.jar");
+            assertEquals(Optional.of(fileKey), fileNode.locateKey(checksums));
+            assertEquals(
+                    Optional.of(fileKey),
+                    fileNode.locateKey(Map.of(Sha1ChecksumAlgorithmFactory.NAME, checksums.get("SHA-1"))));
+            assertEquals(checksums, fileNode.locate(fileKey).orElseThrow().checksums());
+            assertFalse(fileNode.locateKey(Map.of(Sha1ChecksumAlgorithmFactory.NAME, "0123456789abcdef"))
+                    .isPresent());
+        }
+
+        // index is rebuilt for existing entries
+        FileUtils.deleteRecursively(basedir.resolve("local").resolve(FileNodeChecksumIndex.CHECKSUMS_DIR));
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            assertEquals(
+                    Optional.of(UriEncoders.fileKeyBuilder(
+                            UriEncoders.container(central), "junit/junit/3.13.2/junit-3.13.2.jar")),
+                    fileNode.locateKey(checksums));
+        }
+    }
+
+    @Test
+    void watchKeys(@TempDir Path basedir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults().basedir(basedir).build();
+        FileNodeFactory fileNodeFactory = new FileNodeFactory(Map.of(
+                Sha1ChecksumAlgorithmFactory.NAME,
+                new Sha1ChecksumAlgorithmFactory(),
+                Sha512ChecksumAlgorithmFactory.NAME,
+                new Sha512ChecksumAlgorithmFactory()));
+        byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+        Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+        URI fileKey = UriEncoders.fileKeyBuilder(UriEncoders.container(central), "junit/junit/3.13.2/junit-3.13.2.jar");
+        try (FileNode fileNode = fileNodeFactory.createSystemNode(sessionConfig)) {
+            Path temp = Files.createTempFile("mimir", "tmp");
+            Files.write(temp, data, StandardOpenOption.TRUNCATE_EXISTING);
+            fileNode.store(UriEncoders.artifactKeyBuilder(central, junit), temp, Map.of(), checksums);
+
+            // existing keys are listed, stored keys are notified until watch is closed
+            CopyOnWriteArrayList<URI> keys = new CopyOnWriteArrayList<>();
+            try (Closeable watch = fileNode.watchKeys(keys::add).orElseThrow()) {
+                assertEquals(List.of(fileKey), keys);
+                fileNode.store(
+                        UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("junit:junit:4.13.2")),
+                        temp,
+                        Map.of(),
+                        checksums);
+                assertEquals(2, keys.size());
+            }
+            fileNode.store(
+                    UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("junit:junit:4.13.1")),
+                    temp,
+                    Map.of(),
+                    checksums);
+            assertEquals(2, keys.size());
+        }
+    }
+
+    @Test
+    void linkIngest(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults()
+                .basedir(basedir)
+                .setUserProperty("mimir.file.ingest", "link")
+                .build();
+        try (FileNode fileNode = new FileNodeFactory(Map.of(
+                        Sha1ChecksumAlgorithmFactory.NAME,
+                        new Sha1ChecksumAlgorithmFactory(),
+                        Sha512ChecksumAlgorithmFactory.NAME,
+                        new Sha512ChecksumAlgorithmFactory()))
+                .createSystemNode(sessionConfig)) {
+            byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+            Path file = workdir.resolve("junit-3.13.2.jar");
+            Files.write(file, data);
+            Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                    data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+
+            // bad checksum: nothing is stored
+            assertThrows(
+                    ChecksumEnforcer.ChecksumEnforcerException.class,
+                    () -> fileNode.store(
+                            UriEncoders.artifactKeyBuilder(central, junit),
+                            file,
+                            Map.of(),
+                            Map.of(Sha1ChecksumAlgorithmFactory.NAME, "0123456789abcdef0123456789abcdef01234567")));
+            assertFalse(fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .isPresent());
+
+            FileEntry entry = fileNode.store(UriEncoders.artifactKeyBuilder(central, junit), file, Map.of(), checksums);
+            assertEquals(checksums, entry.checksums());
+            assertEquals(data.length, entry.getContentLength());
+            // linking is possible only if work directory is on same file store as basedir
+            if (Files.getFileStore(workdir).equals(Files.getFileStore(basedir))) {
+                assertEquals(1L, fileNode.ingestStats().get("file.ingest.linked"));
+                assertEquals(0L, fileNode.ingestStats().get("file.ingest.copied"));
+                assertEquals((long) data.length, fileNode.ingestStats().get("file.ingest.bytesNotWritten"));
+                assertTrue(Files.isSameFile(
+                        file,
+                        basedir.resolve("local")
+                                .resolve(UriEncoders.container(central))
+                                .resolve("junit/junit/3.13.2/junit-3.13.2.jar")));
+            }
+
+            Path target = workdir.resolve("target.jar");
+            fileNode.locate(UriEncoders.artifactKeyBuilder(central, junit))
+                    .orElseThrow()
+                    .transferTo(target);
+            assertArrayEquals(data, Files.readAllBytes(target));
+        }
+    }
+
+    @Test
+    void concurrentWriters(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults().basedir(basedir).build();
+        FileNodeFactory fileNodeFactory = new FileNodeFactory(Map.of(
+                Sha1ChecksumAlgorithmFactory.NAME,
+                new Sha1ChecksumAlgorithmFactory(),
+                Sha512ChecksumAlgorithmFactory.NAME,
+                new Sha512ChecksumAlgorithmFactory()));
+        int writers = 64;
+        int keys = 4;
+        // two nodes sharing storage stand in for two processes
+        try (FileNode one = fileNodeFactory.createSystemNode(sessionConfig);
+                FileNode two = fileNodeFactory.createSystemNode(sessionConfig)) {
+            ArrayList<URI> uris = new ArrayList<>();
+            ArrayList<byte[]> contents = new ArrayList<>();
+            ArrayList<Path> files = new ArrayList<>();
+            ArrayList<Map<String, String>> checksums = new ArrayList<>();
+            for (int i = 0; i < keys; i++) {
+                byte[] data = new byte[256 * 1024];
+                new Random(i).nextBytes(data);
+                Path file = workdir.resolve("file-" + i);
+                Files.write(file, data);
+                uris.add(UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("org.concurrent:key:" + i)));
+                contents.add(data);
+                files.add(file);
+                checksums.add(ChecksumAlgorithmHelper.calculate(
+                        data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory())));
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+            try {
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicBoolean writing = new AtomicBoolean(true);
+                // reader never blocks, and never sees partial content
+                Future<Integer> reader = executor.submit(() -> {
+                    start.await();
+                    int hits = 0;
+                    while (writing.get()) {
+                        for (int i = 0; i < keys; i++) {
+                            Optional<FileEntry> entry = one.locate(uris.get(i));
+                            if (entry.isPresent()) {
+                                assertEquals(
+                                        contents.get(i).length,
+                                        entry.orElseThrow().getContentLength());
+                                hits++;
+                            }
+                        }
+                    }
+                    return hits;
+                });
+                ArrayList<Future<FileEntry>> stores = new ArrayList<>();
+                for (int w = 0; w < writers; w++) {
+                    int i = w % keys;
+                    FileNode node = w % 2 == 0 ? one : two;
+                    stores.add(executor.submit(() -> {
+                        start.await();
+                        return node.store(uris.get(i), files.get(i), Map.of(), checksums.get(i));
+                    }));
+                }
+                start.countDown();
+                for (int w = 0; w < writers; w++) {
+                    assertEquals(checksums.get(w % keys), stores.get(w).get().checksums());
+                }
+                writing.set(false);
+                reader.get();
+            } finally {
+                executor.shutdownNow();
+            }
+
+            // every key was written once, all other writers got the winner's entry
+            assertEquals(
+                    (long) keys,
+                    one.ingestStats().get("file.ingest.copied")
+                            + two.ingestStats().get("file.ingest.copied"));
+            assertEquals(
+                    (long) writers - keys,
+                    one.ingestStats().get("file.ingest.deduplicated")
+                            + two.ingestStats().get("file.ingest.deduplicated"));
+            for (int i = 0; i < keys; i++) {
+                Path target = workdir.resolve("target-" + i);
+                two.locate(uris.get(i)).orElseThrow().transferTo(target);
+                assertArrayEquals(contents.get(i), Files.readAllBytes(target));
+            }
+        }
+    }
+
+    @Test
+    void remoteDownloadHoldsNoKeyLock(@TempDir Path basedir, @TempDir Path workdir) throws Exception {
+        SessionConfig sessionConfig = SessionConfig.defaults().basedir(basedir).build();
+        byte[] data = "Hello World!".getBytes(StandardCharsets.UTF_8);
+        Path file = workdir.resolve("file");
+        Files.write(file, data);
+        Map<String, String> checksums = ChecksumAlgorithmHelper.calculate(
+                data, Arrays.asList(new Sha1ChecksumAlgorithmFactory(), new Sha512ChecksumAlgorithmFactory()));
+        URI key = UriEncoders.artifactKeyBuilder(central, junit);
+        CountDownLatch downloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        class SlowEntry extends EntrySupport implements RemoteEntry {
+            SlowEntry(Map<String, String> checksums) {
+                super(Map.of(), checksums);
+            }
+
+            @Override
+            public void handleContent(IOConsumer consumer) throws IOException {
+                downloading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                consumer.accept(new ByteArrayInputStream(data));
+            }
+        }
+        try (FileNode fileNode = new FileNodeFactory(Map.of(
+                        Sha1ChecksumAlgorithmFactory.NAME,
+                        new Sha1ChecksumAlgorithmFactory(),
+                        Sha512ChecksumAlgorithmFactory.NAME,
+                        new Sha512ChecksumAlgorithmFactory()))
+                .createSystemNode(sessionConfig)) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<FileEntry> download = executor.submit(() -> fileNode.store(key, new SlowEntry(checksums)));
+                assertTrue(downloading.await(5, TimeUnit.SECONDS));
+                // same key (hence same stripe) is stored while download is in progress
+                fileNode.store(key, file, Map.of(), checksums);
+                release.countDown();
+                assertEquals(checksums, download.get().checksums());
+                assertEquals(1L, fileNode.ingestStats().get("file.ingest.deduplicated"));
+
+                // downloaded content is in place when stored entry is returned
+                URI other = UriEncoders.artifactKeyBuilder(central, new DefaultArtifact("junit:junit:4.13.2"));
+                Path target = workdir.resolve("target");
+                fileNode.store(other, new SlowEntry(checksums)).transferTo(target);
+                assertArrayEquals(data, Files.readAllBytes(target));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static int deleteMetadata(Path basedir) throws IOException {
+        try (Stream<Path> files = Files.walk(basedir)) {
+            List<Path> metadata =
+                    files.filter(p -> p.getParent().endsWith(".mm")).toList();
+            for (Path file : metadata) {
+                Files.delete(file);
+            }
+            return metadata.size();
+        }
+    }
 }
@@ -0,0 +1,118 @@
+package eu.maveniverse.maven.mimir.node.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetadataMarshallerTest {
+    private static Map<String, String> metadata(int i) {
+        HashMap<String, String> metadata = new HashMap<>();
+        metadata.put("m.content-length", Long.toString(12345L + i));
+        metadata.put("m.content-modified", Long.toString(1700000000000L + i));
+        metadata.put("c.SHA-1", String.format("%040x", i));
+        metadata.put("c.SHA-512", String.format("%0128x", i));
+        metadata.put("m.repository", "central");
+        return metadata;
+    }
+
+    @Test
+    void binaryRoundTrip(@TempDir Path dir) throws Exception {
+        MetadataMarshaller marshaller = new MetadataMarshaller.BinaryMetadataMarshaller();
+        Path md = dir.resolve("md");
+
+        Map<String, String> metadata = metadata(42);
+        marshaller.save(md, metadata);
+        assertEquals(metadata, marshaller.load(md));
+        // 6 header, 16 numbers, 84 digests, 4 count, 8 + 12 + 7 for "m.repository"
+        assertEquals(6 + 16 + 84 + 4 + 8 + 12 + 7, Files.size(md));
+
+        // non-canonical well-known values are kept as they are
+        Map<String, String> odd = Map.of(
+                "m.content-length", "0012",
+                "c.SHA-1", "2EF7BDE608CE5404E97D5F042F95F89F1C232871",
+                "m.unicode", "žuťoučký kůň");
+        marshaller.save(md, odd);
+        assertEquals(odd, marshaller.load(md));
+
+        marshaller.save(md, Map.of());
+        assertEquals(Map.of(), marshaller.load(md));
+    }
+
+    @Test
+    void binaryMigratesOtherFormats(@TempDir Path dir) throws Exception {
+        MetadataMarshaller binary = new MetadataMarshaller.BinaryMetadataMarshaller(true);
+        for (MetadataMarshaller legacy : List.of(
+                new MetadataMarshaller.PropertiesMetadataMarshaller(),
+                new MetadataMarshaller.ObjectOutputStreamMetadataMarshaller())) {
+            Path md = dir.resolve(legacy.getClass().getSimpleName());
+            legacy.save(md, metadata(1));
+            assertEquals(metadata(1), binary.load(md));
+            // rewritten in binary format
+            byte[] bytes = Files.readAllBytes(md);
+            assertEquals('M', bytes[0]);
+            assertEquals('M', bytes[1]);
+            assertEquals('D', bytes[2]);
+            assertEquals('B', bytes[3]);
+            assertEquals(metadata(1), binary.load(md));
+        }
+    }
+
+    @Test
+    void binaryReadsOtherFormatsWithoutMigration(@TempDir Path dir) throws Exception {
+        MetadataMarshaller binary = new MetadataMarshaller.BinaryMetadataMarshaller(false);
+        MetadataMarshaller legacy = new MetadataMarshaller.PropertiesMetadataMarshaller();
+        Path md = dir.resolve("md");
+        legacy.save(md, metadata(1));
+        byte[] bytes = Files.readAllBytes(md);
+        assertEquals(metadata(1), binary.load(md));
+        // left as is, readable by other processes using legacy format
+        assertArrayEquals(bytes, Files.readAllBytes(md));
+        assertEquals(metadata(1), legacy.load(md));
+    }
+
+    /**
+     * Compares load and save times of marshallers. Run with {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void benchmark(@TempDir Path dir) throws Exception {
+        int files = 2000;
+        int rounds = 10;
+        for (MetadataMarshaller marshaller : List.of(
+                new MetadataMarshaller.PropertiesMetadataMarshaller(),
+                new MetadataMarshaller.ObjectOutputStreamMetadataMarshaller(),
+                new MetadataMarshaller.BinaryMetadataMarshaller())) {
+            String name = marshaller.getClass().getSimpleName();
+            Path base = Files.createDirectories(dir.resolve(name));
+            long start = System.nanoTime();
+            for (int i = 0; i < files; i++) {
+                marshaller.save(base.resolve(Integer.toString(i)), metadata(i));
+            }
+            long save = (System.nanoTime() - start) / files;
+            long size = Files.size(base.resolve("0"));
+
+            // warm up, then measure
+            for (int i = 0; i < files; i++) {
+                marshaller.load(base.resolve(Integer.toString(i)));
+            }
+            start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = 0; i < files; i++) {
+                    assertTrue(
+                            marshaller.load(base.resolve(Integer.toString(i))).containsKey("c.SHA-1"));
+                }
+            }
+            long load = (System.nanoTime() - start) / ((long) files * rounds);
+            System.out.printf("%-40s save %8d ns/op, load %8d ns/op, %4d bytes%n", name, save, load, size);
+        }
+    }
+}
@@ -16,16 +16,39 @@ import eu.maveniverse.maven.mimir.shared.impl.Executors;
 import eu.maveniverse.maven.mimir.shared.impl.node.RemoteNodeSupport;
 import eu.maveniverse.maven.mimir.shared.impl.publisher.PublisherRemoteEntry;
 import eu.maveniverse.maven.mimir.shared.node.Entry;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import eu.maveniverse.maven.mimir.shared.node.SystemNode;
 import eu.maveniverse.maven.mimir.shared.publisher.Publisher;
+import eu.maveniverse.maven.shared.core.fs.FileUtils;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
 import org.jgroups.Address;
 import org.jgroups.JChannel;
 import org.jgroups.Message;
@@ -36,39 +59,143 @@ import org.jgroups.blocks.MessageDispatcher;
 import org.jgroups.blocks.RequestHandler;
 import org.jgroups.blocks.RequestOptions;
 import org.jgroups.blocks.Response;
+import org.jgroups.blocks.RspFilter;
+import org.jgroups.util.Rsp;
 import org.jgroups.util.RspList;
 
+/**
+ * JGroups node locates entries by asking cluster members. If key filter is enabled, members gossip Bloom filters of
+ * keys they hold (see {@link KeyFilter}), and locate asks only members whose filter may contain the key (and those
+ * whose filter is not known yet). As filters are gossiped periodically, entries stored on a member within the last
+ * gossip interval may not be located.
+ * <p>
+ * If key ownership is enabled, each key has a few owner members, chosen by consistent hashing over the current view
+ * (see {@link KeyOwnership}), and locate asks the owners first, falling back to key filter (if enabled) on a miss.
+ * Keys of entries stored locally are pushed to their owners asynchronously, who (unless they have them already)
+ * locate them at pushing member and store them, so they can serve them. On view
+ * change, entries are not migrated: new owners are filled by later pushes, and meanwhile misses fall back to filter.
+ * All members should have publisher; members w/o one have nothing to offer, and ignore pushes.
+ * <p>
+ * If replication is enabled, announcing members announce keys of entries stored locally to the cluster, and pulling
+ * members (ones that opted in, like build agents) pull those they do not have in the background, by locating them at
+ * the announcing member and fetching over its publisher, so their cache is warm before they need the entries (see
+ * {@link KeyReplicator}). Entries pushed or pulled in are not pushed or announced again.
+ */
 public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestHandler {
     private static final String PUBLISHER_HANDLE = "handle";
     private static final String CMD_LOCATE = "locate";
+    private static final String CMD_FILTER = "filter";
+    private static final String CMD_LOCATE_MANY = "locateMany";
+    private static final String CMD_PUSH = "push";
+    private static final String CMD_ANNOUNCE = "announce";
+    private static final int ANNOUNCE_BATCH = 500;
     private static final String RSP_ERROR = "error";
 
+    private record PeerFilter(long sequence, KeyFilter filter) {}
+
     private final JChannel channel;
     private final MessageDispatcher messageDispatcher;
     private final Publisher publisher;
     private final AtomicReference<View> lastView;
     private final ExecutorService executor;
+    private final SystemNode systemNode;
+    private final JGroupsNodeConfig.Filter filterConfig;
+    private final JGroupsNodeConfig.LocateMode locateMode;
+    private final ConcurrentHashMap<Address, PeerFilter> peerFilters;
+    private final AtomicReference<KeyFilter> localFilter;
+    private final AtomicLong filterSequence;
+    private final AtomicBoolean gossipNeeded;
+    private final JGroupsNodeConfig.Ownership ownershipConfig;
+    private final AtomicReference<KeyOwnership> ring;
+    private final JGroupsNodeConfig.Replication replicationConfig;
+    private final KeyReplicator replicator;
+    private final ConcurrentLinkedQueue<String> announcing;
+    private final Set<String> replicating;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder filterRebuilds;
+    private final LongAdder filterGossips;
+    private final LongAdder locateRequests;
+    private final LongAdder messagesSent;
+    private final LongAdder messagesSaved;
+    private final LongAdder falsePositives;
+    private final LongAdder earlyReturns;
+    private final LongAdder batchRequests;
+    private final LongAdder batchKeys;
+    private final LongAdder ownerLookups;
+    private final LongAdder ownerHits;
+    private final LongAdder ownerFallbacks;
+    private final LongAdder pushesSent;
+    private final LongAdder pushesReceived;
+    private final LongAdder pushesStored;
+    private final LongAdder pushesSkipped;
+    private final LongAdder announces;
+    private final LongAdder announcedKeys;
+    private Closeable keyWatch;
+    private volatile Closeable pushWatch;
 
     /**
      * Creates JGroups node w/o publisher.
      */
     public JGroupsNode(String clusterName, JChannel channel) throws Exception {
-        super(JGroupsNodeConfig.NAME, 500);
-        this.channel = channel;
-        this.messageDispatcher = new MessageDispatcher(channel);
-        this.messageDispatcher.setAsynDispatching(true);
-        this.messageDispatcher.setReceiver(this);
-        this.publisher = null;
-        this.lastView = new AtomicReference<>(null);
-        this.executor = Executors.executorService();
+        this(clusterName, channel, Executors.executorService());
+    }
 
-        channel.connect(clusterName, null, 1500);
+    /**
+     * Creates JGroups node w/o publisher, using given executor (node takes ownership of it).
+     */
+    public JGroupsNode(String clusterName, JChannel channel, ExecutorService executor) throws Exception {
+        this(
+                clusterName,
+                channel,
+                null,
+                null,
+                JGroupsNodeConfig.Filter.DISABLED,
+                JGroupsNodeConfig.LocateMode.FIRST,
+                JGroupsNodeConfig.Ownership.DISABLED,
+                JGroupsNodeConfig.Replication.DISABLED,
+                executor);
     }
 
     /**
      * Creates JGroups node with publisher.
      */
     public JGroupsNode(String clusterName, JChannel channel, Publisher publisher) throws Exception {
+        this(clusterName, channel, publisher, Executors.executorService());
+    }
+
+    /**
+     * Creates JGroups node with publisher, using given executor (node takes ownership of it).
+     */
+    public JGroupsNode(String clusterName, JChannel channel, Publisher publisher, ExecutorService executor)
+            throws Exception {
+        this(
+                clusterName,
+                channel,
+                publisher,
+                null,
+                JGroupsNodeConfig.Filter.DISABLED,
+                JGroupsNodeConfig.LocateMode.FIRST,
+                JGroupsNodeConfig.Ownership.DISABLED,
+                JGroupsNodeConfig.Replication.DISABLED,
+                executor);
+    }
+
+    /**
+     * Creates JGroups node with optional publisher (of given system node), key filter, locate mode, key ownership and
+     * replication, using given executor (node takes ownership of it). A node w/o publisher gossips empty filter, so it
+     * is never asked, but it may pull replicated entries into given system node.
+     */
+    public JGroupsNode(
+            String clusterName,
+            JChannel channel,
+            Publisher publisher,
+            SystemNode systemNode,
+            JGroupsNodeConfig.Filter filter,
+            JGroupsNodeConfig.LocateMode locateMode,
+            JGroupsNodeConfig.Ownership ownership,
+            JGroupsNodeConfig.Replication replication,
+            ExecutorService executor)
+            throws Exception {
         super(JGroupsNodeConfig.NAME, 500);
         this.channel = channel;
         this.messageDispatcher = new MessageDispatcher(channel, this);
@@ -76,38 +203,390 @@ public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestH
         this.messageDispatcher.setReceiver(this);
         this.publisher = publisher;
         this.lastView = new AtomicReference<>(null);
-        this.executor = Executors.executorService();
+        this.executor = requireNonNull(executor, "executor");
+        this.systemNode = systemNode;
+        this.filterConfig = requireNonNull(filter, "filter");
+        this.locateMode = requireNonNull(locateMode, "locateMode");
+        this.ownershipConfig = requireNonNull(ownership, "ownership");
+        this.ring = new AtomicReference<>(null);
+        this.replicationConfig = requireNonNull(replication, "replication");
+        this.replicator = replication.pull() && systemNode != null ? new KeyReplicator(replication) : null;
+        this.announcing = new ConcurrentLinkedQueue<>();
+        this.replicating = ConcurrentHashMap.newKeySet();
+        this.peerFilters = new ConcurrentHashMap<>();
+        this.localFilter = new AtomicReference<>(null);
+        this.filterSequence = new AtomicLong();
+        this.gossipNeeded = new AtomicBoolean(false);
+        this.filterRebuilds = new LongAdder();
+        this.filterGossips = new LongAdder();
+        this.locateRequests = new LongAdder();
+        this.messagesSent = new LongAdder();
+        this.messagesSaved = new LongAdder();
+        this.falsePositives = new LongAdder();
+        this.earlyReturns = new LongAdder();
+        this.batchRequests = new LongAdder();
+        this.batchKeys = new LongAdder();
+        this.ownerLookups = new LongAdder();
+        this.ownerHits = new LongAdder();
+        this.ownerFallbacks = new LongAdder();
+        this.pushesSent = new LongAdder();
+        this.pushesReceived = new LongAdder();
+        this.pushesStored = new LongAdder();
+        this.pushesSkipped = new LongAdder();
+        this.announces = new LongAdder();
+        this.announcedKeys = new LongAdder();
 
         channel.connect(clusterName, null, 1500);
+
+        boolean watching =
+                (ownershipConfig.enabled() || replicationConfig.announce()) && publisher != null && systemNode != null;
+        if (filterConfig.enabled() || watching) {
+            this.scheduler = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "mimir-jgroups");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scheduler = null;
+        }
+        if (filterConfig.enabled()) {
+            long interval = filterConfig.gossipInterval().toMillis();
+            scheduler.execute(() -> buildFilter(filterConfig.expectedKeys()));
+            scheduler.scheduleWithFixedDelay(this::gossip, 0, interval, TimeUnit.MILLISECONDS);
+        }
+        if (watching) {
+            scheduler.execute(this::watchStores);
+        }
+        if (watching && replicationConfig.announce()) {
+            long interval = replicationConfig.announceInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::announce, interval, interval, TimeUnit.MILLISECONDS);
+        }
     }
 
     @Override
     public Optional<PublisherRemoteEntry> locate(URI key) throws IOException {
+        locateRequests.increment();
+        List<Address> owners = owners(key);
+        if (owners != null) {
+            ownerLookups.increment();
+            if (!owners.isEmpty()) {
+                messagesSent.add(owners.size());
+                Optional<PublisherRemoteEntry> entry = locate(key, owners, Set.of());
+                if (entry.isPresent()) {
+                    ownerHits.increment();
+                    return entry;
+                }
+            }
+            if (!filterConfig.enabled()) {
+                return Optional.empty();
+            }
+            ownerFallbacks.increment();
+        }
+        HashSet<Address> filtered = new HashSet<>();
+        List<Address> targets = targets(List.of(key), owners != null ? owners : List.of(), filtered);
+        if (targets != null && targets.isEmpty()) {
+            return Optional.empty();
+        }
+        return locate(key, targets, filtered);
+    }
+
+    /**
+     * Asks given members (all, if {@code null}) for given key.
+     */
+    private Optional<PublisherRemoteEntry> locate(URI key, List<Address> targets, Set<Address> filtered)
+            throws IOException {
         ArrayList<String> req = new ArrayList<>();
         req.add(CMD_LOCATE);
         req.add(key.toASCIIString());
         try {
+            RequestOptions options = RequestOptions.SYNC();
+            if (locateMode == JGroupsNodeConfig.LocateMode.FIRST) {
+                options.rspFilter(new FirstHandleFilter());
+            }
             RspList<Map<String, String>> responses =
-                    messageDispatcher.castMessage(null, new ObjectMessage(null, req), RequestOptions.SYNC());
-            for (Address responder : responses.keySet()) {
-                Map<String, String> data = responses.get(responder).getValue();
+                    messageDispatcher.castMessage(targets, new ObjectMessage(null, req), options);
+            String error = null;
+            for (Map.Entry<Address, Rsp<Map<String, String>>> response : responses.entrySet()) {
+                Address responder = response.getKey();
+                if (!response.getValue().wasReceived()) {
+                    continue; // dropped, as another member offered the entry
+                }
+                Map<String, String> data = response.getValue().getValue();
+                if (filtered.contains(responder) && (data == null || data.isEmpty())) {
+                    falsePositives.increment();
+                }
                 if (data != null && !data.isEmpty()) {
                     if (data.containsKey(PUBLISHER_HANDLE)) {
+                        if (responses.numReceived() < responses.size()) {
+                            earlyReturns.increment();
+                        }
                         URI handle = URI.create(requireNonNull(data.remove(PUBLISHER_HANDLE), PUBLISHER_HANDLE));
                         return Optional.of(new PublisherRemoteEntry(splitMetadata(data), splitChecksums(data), handle));
-                    } else {
-                        throw new IOException(data.remove(RSP_ERROR));
+                    } else if (error == null) {
+                        error = data.remove(RSP_ERROR);
                     }
                 } else {
                     logger.info("Ignoring null/empty response from {}", responder);
                 }
             }
+            if (error != null) {
+                throw new IOException(error);
+            }
         } catch (Exception e) {
             throw new IOException("Failed to locate", e);
         }
         return Optional.empty();
     }
 
+    /**
+     * Response filter of {@link JGroupsNodeConfig.LocateMode#FIRST}: accepts all responses, but needs no more of them
+     * once a member offered the entry.
+     */
+    private static final class FirstHandleFilter implements RspFilter {
+        private volatile boolean offered;
+
+        @Override
+        public boolean isAcceptable(Object response, Address sender) {
+            if (response instanceof Map<?, ?> data && data.containsKey(PUBLISHER_HANDLE)) {
+                offered = true;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean needMoreResponses() {
+            return !offered;
+        }
+    }
+
+    /**
+     * Locates many keys with one message per member asked, who answers with a map of keys it has to their entries
+     * (including publisher handle). In {@link JGroupsNodeConfig.LocateMode#FIRST} mode, no more responses are needed
+     * once all keys were offered. If more members offer same key, the first response wins. With key ownership, each
+     * owner is asked (concurrently) for the keys it owns, and the rest is asked as usual.
+     */
+    @Override
+    public Map<URI, PublisherRemoteEntry> locate(Collection<URI> keys) throws IOException {
+        if (keys.size() < 2) {
+            HashMap<URI, PublisherRemoteEntry> result = new HashMap<>();
+            for (URI key : keys) {
+                locate(key).ifPresent(e -> result.put(key, e));
+            }
+            return result;
+        }
+        batchRequests.increment();
+        batchKeys.add(keys.size());
+        HashMap<URI, PublisherRemoteEntry> result = new HashMap<>();
+        List<URI> remaining = List.copyOf(keys);
+        if (ring.get() != null) {
+            LinkedHashMap<Address, List<URI>> byOwner = new LinkedHashMap<>();
+            ArrayList<URI> owned = new ArrayList<>();
+            ArrayList<URI> unowned = new ArrayList<>();
+            for (URI key : keys) {
+                List<Address> owners = owners(key);
+                if (owners == null) {
+                    unowned.add(key);
+                } else {
+                    owned.add(key);
+                    owners.forEach(owner -> byOwner.computeIfAbsent(owner, k -> new ArrayList<>())
+                            .add(key));
+                }
+            }
+            ownerLookups.add(owned.size());
+            locateFromOwners(byOwner, result);
+            ownerHits.add(result.size());
+            if (filterConfig.enabled()) {
+                owned.removeIf(result::containsKey);
+                ownerFallbacks.add(owned.size());
+                unowned.addAll(owned);
+            }
+            remaining = unowned;
+        }
+        if (!remaining.isEmpty()) {
+            HashSet<Address> filtered = new HashSet<>();
+            List<Address> targets = targets(remaining, List.of(), filtered);
+            if (targets == null || !targets.isEmpty()) {
+                locateMany(remaining, targets, filtered, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Asks each owner (concurrently) for the keys it owns.
+     */
+    private void locateFromOwners(Map<Address, List<URI>> byOwner, Map<URI, PublisherRemoteEntry> result)
+            throws IOException {
+        try {
+            ArrayList<CompletableFuture<RspList<Object>>> futures = new ArrayList<>(byOwner.size());
+            for (Map.Entry<Address, List<URI>> owner : byOwner.entrySet()) {
+                messagesSent.increment();
+                futures.add(messageDispatcher.castMessageWithFuture(
+                        List.of(owner.getKey()), locateManyMessage(owner.getValue()), RequestOptions.SYNC()));
+            }
+            for (CompletableFuture<RspList<Object>> future : futures) {
+                collect(future.get(), Set.of(), result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while locating");
+        } catch (Exception e) {
+            throw new IOException("Failed to locate", e);
+        }
+    }
+
+    /**
+     * Asks given members (all, if {@code null}) for given keys.
+     */
+    private void locateMany(
+            List<URI> keys, List<Address> targets, Set<Address> filtered, Map<URI, PublisherRemoteEntry> result)
+            throws IOException {
+        try {
+            RequestOptions options = RequestOptions.SYNC();
+            if (locateMode == JGroupsNodeConfig.LocateMode.FIRST) {
+                options.rspFilter(new AllKeysOfferedFilter(keys.size()));
+            }
+            RspList<Object> responses = messageDispatcher.castMessage(targets, locateManyMessage(keys), options);
+            collect(responses, filtered, result);
+            if (responses.numReceived() < responses.size() && keys.stream().allMatch(result::containsKey)) {
+                earlyReturns.increment();
+            }
+        } catch (Exception e) {
+            throw new IOException("Failed to locate", e);
+        }
+    }
+
+    private static ObjectMessage locateManyMessage(List<URI> keys) {
+        ArrayList<String> req = new ArrayList<>(keys.size() + 1);
+        req.add(CMD_LOCATE_MANY);
+        keys.forEach(key -> req.add(key.toASCIIString()));
+        return new ObjectMessage(null, req);
+    }
+
+    /**
+     * Collects entries offered by batch locate responses into result; if more members offer same key, the first
+     * response wins.
+     */
+    private void collect(RspList<Object> responses, Set<Address> filtered, Map<URI, PublisherRemoteEntry> result) {
+        for (Map.Entry<Address, Rsp<Object>> response : responses.entrySet()) {
+            Address responder = response.getKey();
+            if (!response.getValue().wasReceived()) {
+                continue; // dropped, as other members offered all the entries
+            }
+            if (!(response.getValue().getValue() instanceof Map<?, ?> data) || data.isEmpty()) {
+                if (filtered.contains(responder)) {
+                    falsePositives.increment();
+                }
+                continue;
+            }
+            for (Map.Entry<?, ?> located : data.entrySet()) {
+                if (!(located.getValue() instanceof Map<?, ?> value)) {
+                    logger.info("Ignoring invalid response from {}", responder);
+                    break;
+                }
+                URI key = URI.create(String.valueOf(located.getKey()));
+                HashMap<String, String> entry = new HashMap<>();
+                value.forEach((k, v) -> entry.put(String.valueOf(k), String.valueOf(v)));
+                String handle = entry.remove(PUBLISHER_HANDLE);
+                if (handle != null && !result.containsKey(key)) {
+                    result.put(
+                            key,
+                            new PublisherRemoteEntry(splitMetadata(entry), splitChecksums(entry), URI.create(handle)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Response filter of batch locate in {@link JGroupsNodeConfig.LocateMode#FIRST}: accepts all responses, but
+     * needs no more of them once all keys were offered.
+     */
+    private static final class AllKeysOfferedFilter implements RspFilter {
+        private final int keys;
+        private final Set<Object> offered;
+
+        private AllKeysOfferedFilter(int keys) {
+            this.keys = keys;
+            this.offered = ConcurrentHashMap.newKeySet();
+        }
+
+        @Override
+        public boolean isAcceptable(Object response, Address sender) {
+            if (response instanceof Map<?, ?> data) {
+                data.forEach((key, entry) -> {
+                    if (entry instanceof Map<?, ?> e && e.containsKey(PUBLISHER_HANDLE)) {
+                        offered.add(key);
+                    }
+                });
+            }
+            return true;
+        }
+
+        @Override
+        public boolean needMoreResponses() {
+            return offered.size() < keys;
+        }
+    }
+
+    /**
+     * Returns the owners of given key other than this node, or {@code null} if key ownership is disabled, key has no
+     * canonical form, or there is no view yet.
+     */
+    private List<Address> owners(URI key) {
+        KeyOwnership ownership = ring.get();
+        if (ownership == null) {
+            return null;
+        }
+        Optional<String> canonical = KeyFilter.canonical(key);
+        if (canonical.isEmpty()) {
+            return null;
+        }
+        ArrayList<Address> owners =
+                new ArrayList<>(ownership.owners(canonical.orElseThrow(), ownershipConfig.owners()));
+        owners.remove(channel.getAddress());
+        return owners;
+    }
+
+    /**
+     * Returns the members to ask for given keys: all other members not excluded, except those whose key filter
+     * contains none of the keys, adding them to {@code filtered} if asked based on their filter. Returns {@code null}
+     * (all members) if there is no view yet.
+     */
+    private List<Address> targets(Collection<URI> keys, Collection<Address> excluded, Set<Address> filtered) {
+        View view = lastView.get();
+        if (view == null) {
+            return null;
+        }
+        ArrayList<String> canonicals = new ArrayList<>(keys.size());
+        boolean filterable = filterConfig.enabled();
+        for (URI key : keys) {
+            Optional<String> canonical = filterable ? KeyFilter.canonical(key) : Optional.empty();
+            if (canonical.isEmpty()) {
+                filterable = false;
+                break;
+            }
+            canonicals.add(canonical.orElseThrow());
+        }
+        ArrayList<Address> targets = new ArrayList<>();
+        int others = 0;
+        for (Address member : view.getMembers()) {
+            if (member.equals(channel.getAddress()) || excluded.contains(member)) {
+                continue;
+            }
+            others++;
+            PeerFilter peerFilter = filterable ? peerFilters.get(member) : null;
+            if (peerFilter == null) {
+                targets.add(member);
+            } else if (canonicals.stream().anyMatch(peerFilter.filter()::mightContain)) {
+                targets.add(member);
+                filtered.add(member);
+            }
+        }
+        messagesSaved.add(others - targets.size());
+        messagesSent.add(targets.size());
+        return targets;
+    }
+
     @Override
     public void viewAccepted(View view) {
         View prev = lastView.get();
@@ -125,6 +604,263 @@ public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestH
             }
         }
         lastView.compareAndSet(prev, view);
+        if (ownershipConfig.enabled()) {
+            ring.set(KeyOwnership.of(view.getMembers(), ownershipConfig.virtualNodes()));
+        }
+        peerFilters.keySet().retainAll(view.getMembers());
+        // new members need our filter
+        gossipNeeded.set(true);
+    }
+
+    /**
+     * Builds local key filter for given count of keys, populated with keys held by system node, and kept updated
+     * with keys stored. Node w/o publisher has nothing to offer, its filter is empty. Runs on scheduler thread.
+     */
+    private void buildFilter(long expectedKeys) {
+        KeyFilter filter = KeyFilter.create(expectedKeys, filterConfig.fpp());
+        if (publisher == null || systemNode == null) {
+            localFilter.set(filter);
+            gossipNeeded.set(true);
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            Optional<Closeable> watch =
+                    systemNode.watchKeys(key -> KeyFilter.canonical(key).ifPresent(k -> {
+                        filter.add(k);
+                        gossipNeeded.set(true);
+                    }));
+            if (watch.isPresent()) {
+                if (keyWatch != null) {
+                    keyWatch.close();
+                }
+                keyWatch = watch.orElseThrow();
+                localFilter.set(filter);
+                filterRebuilds.increment();
+                gossipNeeded.set(true);
+                logger.info(
+                        "Built key filter of {} keys ({} bytes) in {} ms",
+                        filter.keys(),
+                        filter.bits() / 8,
+                        Duration.ofNanos(System.nanoTime() - start).toMillis());
+            } else {
+                logger.info("System node {} cannot list keys; key filter not gossiped", systemNode);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to build key filter", e);
+        }
+    }
+
+    /**
+     * Rebuilds local filter larger if saturated, and gossips it to cluster if changed, or there are new members.
+     * Runs on scheduler thread.
+     */
+    private void gossip() {
+        try {
+            KeyFilter filter = localFilter.get();
+            if (filter == null) {
+                return;
+            }
+            if (filter.saturated()) {
+                buildFilter(Math.max(filter.keys(), filter.expectedKeys()) * 2);
+                filter = localFilter.get();
+            }
+            if (gossipNeeded.compareAndSet(true, false)) {
+                ArrayList<Object> req = new ArrayList<>();
+                req.add(CMD_FILTER);
+                req.add(filterSequence.incrementAndGet());
+                req.add(filter.toBytes());
+                messageDispatcher.castMessage(null, new ObjectMessage(null, req), RequestOptions.ASYNC());
+                filterGossips.increment();
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to gossip key filter", e);
+        }
+    }
+
+    /**
+     * Watches keys stored into system node, to push their entries to owners, and announce them. Keys listed when watch
+     * starts are held already, and keys pushed or pulled in from another member (who pushes to all owners, and
+     * announced them) are being stored, so neither is pushed nor announced. Runs on scheduler thread.
+     */
+    private void watchStores() {
+        AtomicBoolean listing = new AtomicBoolean(true);
+        try {
+            Optional<Closeable> watch = systemNode.watchKeys(key -> {
+                if (!listing.get()
+                        && KeyFilter.canonical(key)
+                                .filter(replicating::contains)
+                                .isEmpty()) {
+                    if (replicationConfig.announce()) {
+                        announcing.add(key.toASCIIString());
+                    }
+                    if (ownershipConfig.enabled()) {
+                        try {
+                            executor.execute(() -> push(key));
+                        } catch (RejectedExecutionException e) {
+                            // node closed
+                        }
+                    }
+                }
+            });
+            listing.set(false);
+            if (watch.isPresent()) {
+                pushWatch = watch.orElseThrow();
+            } else {
+                logger.info("System node {} cannot watch keys; entries not pushed nor announced", systemNode);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to watch stored keys", e);
+        }
+    }
+
+    /**
+     * Pushes the key of entry to its owners (other than this node). Only key is pushed, as publisher handles are
+     * single use: owners lacking the entry locate it here, getting own handle, like pulls do.
+     */
+    private void push(URI key) {
+        List<Address> owners = owners(key);
+        if (owners == null) {
+            return;
+        }
+        for (Address owner : owners) {
+            try {
+                ArrayList<Object> req = new ArrayList<>();
+                req.add(CMD_PUSH);
+                req.add(key.toASCIIString());
+                messageDispatcher.sendMessage(new ObjectMessage(owner, req), RequestOptions.ASYNC());
+                pushesSent.increment();
+            } catch (Exception e) {
+                logger.warn("Failed to push {} to {}", key, owner, e);
+            }
+        }
+    }
+
+    /**
+     * Stores entry of key pushed by given member, unless system node has it already, by locating it at pushing member.
+     */
+    private void storePushed(Address origin, Object keyString) {
+        if (publisher == null || systemNode == null || !(keyString instanceof String k)) {
+            return;
+        }
+        URI key = URI.create(k);
+        try {
+            if (systemNode.locate(key).isEmpty()) {
+                Optional<PublisherRemoteEntry> entry = locate(key, List.of(origin), Set.of());
+                if (entry.isPresent() && storeReplica(key, entry.orElseThrow())) {
+                    pushesStored.increment();
+                    return;
+                }
+            }
+            pushesSkipped.increment();
+        } catch (Exception e) {
+            logger.warn("Failed to store {} pushed by {}", key, origin, e);
+        }
+    }
+
+    /**
+     * Sends keys stored since last announce to the cluster, in batches. Runs on scheduler thread.
+     */
+    private void announce() {
+        try {
+            ArrayList<String> req = new ArrayList<>();
+            String keyString;
+            while ((keyString = announcing.poll()) != null) {
+                if (req.isEmpty()) {
+                    req.add(CMD_ANNOUNCE);
+                }
+                req.add(keyString);
+                if (req.size() > ANNOUNCE_BATCH || announcing.isEmpty()) {
+                    messageDispatcher.castMessage(null, new ObjectMessage(null, req), RequestOptions.ASYNC());
+                    announces.increment();
+                    announcedKeys.add(req.size() - 1);
+                    req = new ArrayList<>();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to announce stored keys", e);
+        }
+    }
+
+    /**
+     * Pulls entry of given key announced by given member: locates it at the member, and stores it (with content read
+     * through replicator throttle), unless system node has it already. Runs on pull thread.
+     */
+    private boolean pull(Address origin, URI key) throws IOException {
+        if (systemNode.locate(key).isPresent()) {
+            return false;
+        }
+        Optional<PublisherRemoteEntry> entry = locate(key, List.of(origin), Set.of());
+        if (entry.isEmpty()) {
+            return false;
+        }
+        return storeReplica(key, replicator.throttled(entry.orElseThrow()));
+    }
+
+    /**
+     * Stores entry of given key from another member, unless system node has it already. Content is first downloaded
+     * into a temp file (at throttled rate for pulls), and that file is stored, so no system node lock is held while
+     * content is transferred. While stored, the key is not pushed nor announced.
+     */
+    private boolean storeReplica(URI key, RemoteEntry entry) throws IOException {
+        Optional<String> canonical = KeyFilter.canonical(key);
+        if (canonical.isEmpty() || systemNode.locate(key).isPresent()) {
+            return false;
+        }
+        try (FileUtils.TempFile tempFile = FileUtils.newTempFile()) {
+            entry.handleContent(is -> Files.copy(is, tempFile.getPath(), StandardCopyOption.REPLACE_EXISTING));
+            replicating.add(canonical.orElseThrow());
+            try {
+                systemNode.store(key, tempFile.getPath(), entry.metadata(), entry.checksums());
+                return true;
+            } finally {
+                replicating.remove(canonical.orElseThrow());
+            }
+        }
+    }
+
+    /**
+     * Returns node statistics: count of cluster members, local key filter size and expected false positive rate (in ppm), count of known peer
+     * filters, and locate messages sent and saved thanks to filters, and false positives (members asked based on
+     * their filter, that did not have the entry), locates returned before all members asked responded, and batch locates
+     * with count of keys they carried. With key ownership, members in ownership ring, keys looked up at their owners,
+     * hits there and fallbacks to filter, and pushes sent, received, stored and skipped (entry was present). With
+     * replication, announce messages and keys announced, and on pulling members, the pull statistics.
+     */
+    @Override
+    public Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        KeyFilter filter = localFilter.get();
+        View view = lastView.get();
+        stats.put("jgroups.view.members", view != null ? (long) view.size() : 0L);
+        stats.put("jgroups.filter.keys", filter != null ? filter.keys() : 0L);
+        stats.put("jgroups.filter.bytes", filter != null ? filter.bits() / 8L : 0L);
+        stats.put("jgroups.filter.fppPpm", filter != null ? Math.round(filter.expectedFpp() * 1_000_000) : 0L);
+        stats.put("jgroups.filter.rebuilds", filterRebuilds.sum());
+        stats.put("jgroups.filter.gossips", filterGossips.sum());
+        stats.put("jgroups.filter.peers", (long) peerFilters.size());
+        stats.put("jgroups.locate.requests", locateRequests.sum());
+        stats.put("jgroups.locate.messagesSent", messagesSent.sum());
+        stats.put("jgroups.locate.messagesSaved", messagesSaved.sum());
+        stats.put("jgroups.locate.falsePositives", falsePositives.sum());
+        stats.put("jgroups.locate.earlyReturns", earlyReturns.sum());
+        stats.put("jgroups.locate.batches", batchRequests.sum());
+        stats.put("jgroups.locate.batchedKeys", batchKeys.sum());
+        KeyOwnership ownership = ring.get();
+        stats.put("jgroups.owners.members", ownership != null ? (long) ownership.members() : 0L);
+        stats.put("jgroups.owners.lookups", ownerLookups.sum());
+        stats.put("jgroups.owners.hits", ownerHits.sum());
+        stats.put("jgroups.owners.fallbacks", ownerFallbacks.sum());
+        stats.put("jgroups.owners.pushesSent", pushesSent.sum());
+        stats.put("jgroups.owners.pushesReceived", pushesReceived.sum());
+        stats.put("jgroups.owners.pushesStored", pushesStored.sum());
+        stats.put("jgroups.owners.pushesSkipped", pushesSkipped.sum());
+        stats.put("jgroups.replication.announces", announces.sum());
+        stats.put("jgroups.replication.announcedKeys", announcedKeys.sum());
+        if (replicator != null) {
+            stats.putAll(replicator.stats());
+        }
+        return stats;
     }
 
     @Override
@@ -134,6 +870,39 @@ public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestH
 
     @Override
     public void handle(Message msg, Response response) {
+        List<?> request = msg.getObject();
+        if (request.size() == 3 && CMD_FILTER.equals(request.get(0))) {
+            try {
+                long sequence = (Long) request.get(1);
+                KeyFilter filter = KeyFilter.fromBytes((byte[]) request.get(2));
+                // gossips may be handled out of order
+                peerFilters.merge(
+                        msg.getSrc(), new PeerFilter(sequence, filter), (a, b) -> a.sequence() > b.sequence() ? a : b);
+            } catch (RuntimeException e) {
+                logger.warn("Ignoring invalid key filter from {}", msg.getSrc(), e);
+            }
+            return;
+        }
+        if (request.size() == 2 && CMD_PUSH.equals(request.get(0))) {
+            pushesReceived.increment();
+            try {
+                executor.execute(() -> storePushed(msg.getSrc(), request.get(1)));
+            } catch (RejectedExecutionException e) {
+                // node closed
+            }
+            return;
+        }
+        if (request.size() > 1 && CMD_ANNOUNCE.equals(request.get(0))) {
+            if (replicator != null) {
+                Address origin = msg.getSrc();
+                for (Object keyString : request.subList(1, request.size())) {
+                    URI key = URI.create(String.valueOf(keyString));
+                    KeyFilter.canonical(key)
+                            .ifPresent(canonical -> replicator.announced(canonical, () -> pull(origin, key)));
+                }
+            }
+            return;
+        }
         executor.submit(() -> {
             Thread.currentThread().setName("JVT");
             HashMap<String, String> responseMap = new HashMap<>();
@@ -141,19 +910,10 @@ public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestH
             try {
                 List<String> req = msg.getObject();
                 if (req.size() == 2 && CMD_LOCATE.equals(req.get(0))) {
-                    String keyString = req.get(1);
-                    URI key = URI.create(keyString);
-                    Optional<Publisher.Handle> handle = publisher.createHandle(key);
-                    if (handle.isPresent()) {
-                        Publisher.Handle publisherHandle = handle.orElseThrow();
-                        Entry publishedEntry = publisherHandle.publishedEntry();
-                        URI publishedHandle = publisherHandle.handle();
-                        responseMap.putAll(mergeEntry(publishedEntry));
-                        responseMap.put(PUBLISHER_HANDLE, publishedHandle.toASCIIString());
-                        logger.info("OK: {} asked {}", msg.getSrc(), keyString);
-                    } else {
-                        logger.info("KO: {} asked {}", msg.getSrc(), keyString);
-                    }
+                    responseMap.putAll(offer(msg.getSrc(), req.get(1)));
+                } else if (req.size() > 1 && CMD_LOCATE_MANY.equals(req.get(0))) {
+                    response.send(offerMany(msg.getSrc(), req.subList(1, req.size())), false);
+                    return;
                 } else {
                     responseMap.put(RSP_ERROR, "Unknown command");
                     responseException = true;
@@ -170,15 +930,105 @@ public class JGroupsNode extends RemoteNodeSupport implements Receiver, RequestH
     @Override
     public String toString() {
         return getClass().getSimpleName() + " (distance=" + distance + " channel=" + channel.getAddress()
-                + " clusterName=" + channel.getClusterName() + " publisher=" + publisher + ")";
+                + " clusterName=" + channel.getClusterName() + " publisher=" + publisher + " filter="
+                + filterConfig.enabled() + " locateMode=" + locateMode + " ownership=" + ownershipConfig.enabled()
+                + " announce=" + replicationConfig.announce() + " pull=" + (replicator != null) + ")";
+    }
+
+    /**
+     * Publishes the entry of given key, if present, returning it merged with publisher handle, or empty map.
+     */
+    private Map<String, String> offer(Address asker, String keyString) throws IOException {
+        HashMap<String, String> result = publish(URI.create(keyString));
+        if (!result.isEmpty()) {
+            logger.info("OK: {} asked {}", asker, keyString);
+        } else {
+            logger.info("KO: {} asked {}", asker, keyString);
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the entry of given key, if present, returning it merged with publisher handle, or empty map.
+     */
+    private HashMap<String, String> publish(URI key) throws IOException {
+        HashMap<String, String> result = new HashMap<>();
+        Optional<Publisher.Handle> handle = publisher != null ? publisher.createHandle(key) : Optional.empty();
+        if (handle.isPresent()) {
+            Publisher.Handle publisherHandle = handle.orElseThrow();
+            Entry publishedEntry = publisherHandle.publishedEntry();
+            URI publishedHandle = publisherHandle.handle();
+            result.putAll(mergeEntry(publishedEntry));
+            result.put(PUBLISHER_HANDLE, publishedHandle.toASCIIString());
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the entries of given keys, checked in parallel, returning map of keys present to their entries
+     * merged with publisher handle. Keys failing are logged and omitted. As it runs on node executor, tasks not yet
+     * started are run by caller, so a bounded executor cannot deadlock.
+     */
+    private HashMap<String, Map<String, String>> offerMany(Address asker, List<String> keyStrings) {
+        ArrayList<FutureTask<Map<String, String>>> tasks = new ArrayList<>(keyStrings.size());
+        for (String keyString : keyStrings) {
+            FutureTask<Map<String, String>> task = new FutureTask<>(() -> {
+                try {
+                    return offer(asker, keyString);
+                } catch (Exception e) {
+                    logger.warn("Failed to offer {}", keyString, e);
+                    return Map.of();
+                }
+            });
+            tasks.add(task);
+            if (tasks.size() > 1) {
+                executor.execute(task);
+            }
+        }
+        HashMap<String, Map<String, String>> result = new HashMap<>();
+        for (int i = 0; i < tasks.size(); i++) {
+            FutureTask<Map<String, String>> task = tasks.get(i);
+            task.run(); // no-op if task already ran or is running
+            try {
+                Map<String, String> entry = task.get();
+                if (!entry.isEmpty()) {
+                    result.put(keyStrings.get(i), entry);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                logger.warn("Failed to offer {}", keyStrings.get(i), e.getCause());
+            }
+        }
+        return result;
     }
 
     @Override
     protected void doClose() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            logger.debug("JGroups node stats: {}", stats());
+        }
+        if (keyWatch != null) {
+            keyWatch.close();
+        }
+        if (pushWatch != null) {
+            pushWatch.close();
+        }
+        if (replicator != null) {
+            replicator.close();
+        }
         if (publisher != null) {
             publisher.close();
         }
         messageDispatcher.close();
         channel.close();
+        executor.shutdown();
     }
 }
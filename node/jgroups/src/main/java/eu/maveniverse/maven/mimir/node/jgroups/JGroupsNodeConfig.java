@@ -8,12 +8,104 @@
 package eu.maveniverse.maven.mimir.node.jgroups;
 
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toList;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
 import java.io.IOException;
 import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 public class JGroupsNodeConfig {
+    /**
+     * The key filter gossip: when enabled, every node keeps a Bloom filter of keys it holds (sized for expected
+     * keys at given false positive rate, and rebuilt larger once saturated), and gossips it to the cluster every
+     * gossip interval, if changed. Locate requests are then sent only to members whose filter may contain the key.
+     */
+    public record Filter(boolean enabled, long expectedKeys, double fpp, Duration gossipInterval) {
+        public static final Filter DISABLED = new Filter(false, 65536, 0.01, Duration.ofSeconds(5));
+
+        public Filter {
+            requireNonNull(gossipInterval, "gossipInterval");
+            if (expectedKeys < 1) {
+                throw new IllegalArgumentException("Invalid expected keys: " + expectedKeys);
+            }
+            if (fpp <= 0 || fpp >= 1) {
+                throw new IllegalArgumentException("Invalid false positive rate: " + fpp);
+            }
+            if (gossipInterval.isNegative() || gossipInterval.isZero()) {
+                throw new IllegalArgumentException("Invalid gossip interval: " + gossipInterval);
+            }
+        }
+    }
+
+    /**
+     * The key ownership: when enabled, every key is owned by given count of members, chosen by consistent hashing over
+     * the view (each member is placed on hash ring at given count of virtual nodes). Locate asks owners of the key
+     * directly, and entries stored by a member are pushed to their owners. If owners do not have the key, and key
+     * filter is enabled, members whose filter may contain the key are asked as well.
+     */
+    public record Ownership(boolean enabled, int owners, int virtualNodes) {
+        public static final Ownership DISABLED = new Ownership(false, 2, 64);
+
+        public Ownership {
+            if (owners < 1) {
+                throw new IllegalArgumentException("Invalid owners: " + owners);
+            }
+            if (virtualNodes < 1) {
+                throw new IllegalArgumentException("Invalid virtual nodes: " + virtualNodes);
+            }
+        }
+    }
+
+    /**
+     * The proactive replication: an announcing member announces keys of entries stored into its system node to the
+     * cluster (batched, every announce interval), and a pulling member pulls announced entries it does not have from
+     * the announcing member in the background, so its cache is warm before it needs them. Pulls are limited to keys
+     * matching patterns (globs over {@code container/path}; all keys if none), run with given concurrency at low
+     * priority, share given bandwidth (bytes per second, 0 for unlimited), and at most given count of pulls is queued
+     * (entries announced beyond are not pulled).
+     */
+    public record Replication(
+            boolean announce,
+            boolean pull,
+            List<String> patterns,
+            int concurrency,
+            long bandwidth,
+            int queueSize,
+            Duration announceInterval) {
+        public static final Replication DISABLED =
+                new Replication(false, false, List.of(), 1, 4L * 1024 * 1024, 1000, Duration.ofSeconds(1));
+
+        public Replication {
+            patterns = List.copyOf(requireNonNull(patterns, "patterns"));
+            requireNonNull(announceInterval, "announceInterval");
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("Invalid concurrency: " + concurrency);
+            }
+            if (bandwidth < 0) {
+                throw new IllegalArgumentException("Invalid bandwidth: " + bandwidth);
+            }
+            if (queueSize < 1) {
+                throw new IllegalArgumentException("Invalid queue size: " + queueSize);
+            }
+            if (announceInterval.isNegative() || announceInterval.isZero()) {
+                throw new IllegalArgumentException("Invalid announce interval: " + announceInterval);
+            }
+        }
+    }
+
+    /**
+     * How locate waits for responses: {@code ALL} waits for every member asked, while {@code FIRST} returns with the
+     * first member offering the entry, dropping other responses (and waits for every member only if none has it).
+     */
+    public enum LocateMode {
+        ALL,
+        FIRST
+    }
+
     public static JGroupsNodeConfig with(SessionConfig sessionConfig) throws IOException {
         requireNonNull(sessionConfig, "config");
 
@@ -34,6 +126,21 @@ public class JGroupsNodeConfig {
         String jgroupsNodeName = InetAddress.getLocalHost().getHostName();
         String jgroupsClusterName = "mimir-jgroups" + groupSuffix;
         String jgroupsInterface = null;
+        boolean filterEnabled = true;
+        long filterExpectedKeys = Filter.DISABLED.expectedKeys();
+        double filterFpp = Filter.DISABLED.fpp();
+        Duration filterGossipInterval = Filter.DISABLED.gossipInterval();
+        LocateMode locateMode = LocateMode.FIRST;
+        boolean ownershipEnabled = Ownership.DISABLED.enabled();
+        int ownershipOwners = Ownership.DISABLED.owners();
+        int ownershipVirtualNodes = Ownership.DISABLED.virtualNodes();
+        boolean replicationAnnounce = Replication.DISABLED.announce();
+        boolean replicationPull = Replication.DISABLED.pull();
+        List<String> replicationPatterns = Replication.DISABLED.patterns();
+        int replicationConcurrency = Replication.DISABLED.concurrency();
+        long replicationBandwidth = Replication.DISABLED.bandwidth();
+        int replicationQueueSize = Replication.DISABLED.queueSize();
+        Duration replicationAnnounceInterval = Replication.DISABLED.announceInterval();
 
         if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.enabled")) {
             enabled = Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.jgroups.enabled"));
@@ -57,6 +164,72 @@ public class JGroupsNodeConfig {
         if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.interface")) {
             jgroupsInterface = sessionConfig.effectiveProperties().get("mimir.jgroups.interface");
         }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.filter.enabled")) {
+            filterEnabled =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.jgroups.filter.enabled"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.filter.expectedKeys")) {
+            filterExpectedKeys =
+                    Long.parseLong(sessionConfig.effectiveProperties().get("mimir.jgroups.filter.expectedKeys"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.filter.fpp")) {
+            filterFpp = Double.parseDouble(sessionConfig.effectiveProperties().get("mimir.jgroups.filter.fpp"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.filter.gossipInterval")) {
+            filterGossipInterval =
+                    Duration.parse(sessionConfig.effectiveProperties().get("mimir.jgroups.filter.gossipInterval"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.locateMode")) {
+            locateMode = LocateMode.valueOf(sessionConfig
+                    .effectiveProperties()
+                    .get("mimir.jgroups.locateMode")
+                    .toUpperCase(Locale.ENGLISH));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.ownership.enabled")) {
+            ownershipEnabled =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.jgroups.ownership.enabled"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.ownership.owners")) {
+            ownershipOwners =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.jgroups.ownership.owners"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.ownership.virtualNodes")) {
+            ownershipVirtualNodes =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.jgroups.ownership.virtualNodes"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.announce")) {
+            replicationAnnounce =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.jgroups.replication.announce"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.pull")) {
+            replicationPull =
+                    Boolean.parseBoolean(sessionConfig.effectiveProperties().get("mimir.jgroups.replication.pull"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.patterns")) {
+            replicationPatterns = Arrays.stream(sessionConfig
+                            .effectiveProperties()
+                            .get("mimir.jgroups.replication.patterns")
+                            .split(","))
+                    .map(String::trim)
+                    .filter(s -> !s.isEmpty())
+                    .collect(toList());
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.concurrency")) {
+            replicationConcurrency =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.jgroups.replication.concurrency"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.bandwidth")) {
+            replicationBandwidth =
+                    Long.parseLong(sessionConfig.effectiveProperties().get("mimir.jgroups.replication.bandwidth"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.queueSize")) {
+            replicationQueueSize =
+                    Integer.parseInt(sessionConfig.effectiveProperties().get("mimir.jgroups.replication.queueSize"));
+        }
+        if (sessionConfig.effectiveProperties().containsKey("mimir.jgroups.replication.announceInterval")) {
+            replicationAnnounceInterval = Duration.parse(
+                    sessionConfig.effectiveProperties().get("mimir.jgroups.replication.announceInterval"));
+        }
         return new JGroupsNodeConfig(
                 enabled,
                 publisherEnabled,
@@ -64,7 +237,18 @@ public class JGroupsNodeConfig {
                 jgroupsProps,
                 jgroupsNodeName,
                 jgroupsClusterName,
-                jgroupsInterface);
+                jgroupsInterface,
+                new Filter(filterEnabled, filterExpectedKeys, filterFpp, filterGossipInterval),
+                locateMode,
+                new Ownership(ownershipEnabled, ownershipOwners, ownershipVirtualNodes),
+                new Replication(
+                        replicationAnnounce,
+                        replicationPull,
+                        replicationPatterns,
+                        replicationConcurrency,
+                        replicationBandwidth,
+                        replicationQueueSize,
+                        replicationAnnounceInterval));
     }
 
     public static final String NAME = "jgroups";
@@ -76,6 +260,10 @@ public class JGroupsNodeConfig {
     private final String jgroupsNodeName;
     private final String jgroupsClusterName;
     private final String jgroupsInterface;
+    private final Filter filter;
+    private final LocateMode locateMode;
+    private final Ownership ownership;
+    private final Replication replication;
 
     private JGroupsNodeConfig(
             boolean enabled,
@@ -84,7 +272,11 @@ public class JGroupsNodeConfig {
             String jgroupsProps,
             String jgroupsNodeName,
             String jgroupsClusterName,
-            String jgroupsInterface) {
+            String jgroupsInterface,
+            Filter filter,
+            LocateMode locateMode,
+            Ownership ownership,
+            Replication replication) {
         this.enabled = enabled;
         this.publisherEnabled = publisherEnabled;
         this.publisherTransport = publisherTransport;
@@ -92,6 +284,10 @@ public class JGroupsNodeConfig {
         this.jgroupsNodeName = jgroupsNodeName;
         this.jgroupsClusterName = jgroupsClusterName;
         this.jgroupsInterface = jgroupsInterface;
+        this.filter = requireNonNull(filter, "filter");
+        this.locateMode = requireNonNull(locateMode, "locateMode");
+        this.ownership = requireNonNull(ownership, "ownership");
+        this.replication = requireNonNull(replication, "replication");
     }
 
     public boolean enabled() {
@@ -121,4 +317,20 @@ public class JGroupsNodeConfig {
     public String jgroupsInterface() {
         return jgroupsInterface;
     }
+
+    public Filter filter() {
+        return filter;
+    }
+
+    public LocateMode locateMode() {
+        return locateMode;
+    }
+
+    public Ownership ownership() {
+        return ownership;
+    }
+
+    public Replication replication() {
+        return replication;
+    }
 }
@@ -10,6 +10,8 @@ package eu.maveniverse.maven.mimir.node.jgroups;
 import static java.util.Objects.requireNonNull;
 
 import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.ExecutorConfig;
+import eu.maveniverse.maven.mimir.shared.impl.Executors;
 import eu.maveniverse.maven.mimir.shared.node.RemoteNodeFactory;
 import eu.maveniverse.maven.mimir.shared.node.SystemNode;
 import eu.maveniverse.maven.mimir.shared.publisher.PublisherFactory;
@@ -52,9 +54,24 @@ public class JGroupsNodeFactory extends ComponentSupport implements RemoteNodeFa
                 return Optional.of(new JGroupsNode(
                         cfg.jgroupsClusterName(),
                         createChannel(sessionConfig, cfg),
-                        publisherFactory.createPublisher(sessionConfig, systemNode)));
+                        publisherFactory.createPublisher(sessionConfig, systemNode),
+                        systemNode,
+                        cfg.filter(),
+                        cfg.locateMode(),
+                        cfg.ownership(),
+                        cfg.replication(),
+                        Executors.executorService(ExecutorConfig.with(sessionConfig))));
             } else {
-                return Optional.of(new JGroupsNode(cfg.jgroupsClusterName(), createChannel(sessionConfig, cfg)));
+                return Optional.of(new JGroupsNode(
+                        cfg.jgroupsClusterName(),
+                        createChannel(sessionConfig, cfg),
+                        null,
+                        systemNode,
+                        cfg.filter(),
+                        cfg.locateMode(),
+                        cfg.ownership(),
+                        cfg.replication(),
+                        Executors.executorService(ExecutorConfig.with(sessionConfig))));
             }
         } catch (Exception e) {
             throw new IOException("Failed to create JChannel", e);
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import eu.maveniverse.maven.mimir.shared.naming.Keys;
+import eu.maveniverse.maven.mimir.shared.naming.UriDecoders;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of cache keys a node holds, gossiped to cluster members: a member asks only those nodes whose filter
+ * may contain the key. Filter never says "no" for a key that was added, but may say "maybe" for a key that was not,
+ * with probability (false positive rate) depending on count of added keys: filter is sized for expected count of keys
+ * and a target false positive rate, and once more keys are added, it is "saturated", and should be rebuilt larger.
+ * <p>
+ * Keys are canonicalized to file keys ({@code container/path}), as same entry may be asked for by various key types.
+ * Filter is thread safe: keys may be added while it is being serialized.
+ */
+final class KeyFilter {
+    private static final int MAGIC = 0x4D4B4631; // MKF1
+
+    private final int bits;
+    private final int hashes;
+    private final long expectedKeys;
+    private final AtomicLongArray words;
+    private final AtomicLong keys;
+
+    private KeyFilter(int bits, int hashes, long expectedKeys, long keys) {
+        this.bits = bits;
+        this.hashes = hashes;
+        this.expectedKeys = expectedKeys;
+        this.words = new AtomicLongArray((bits + 63) / 64);
+        this.keys = new AtomicLong(keys);
+    }
+
+    /**
+     * Creates empty filter sized for given count of keys at given false positive rate.
+     */
+    static KeyFilter create(long expectedKeys, double fpp) {
+        if (expectedKeys < 1) {
+            throw new IllegalArgumentException("Invalid expected keys: " + expectedKeys);
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Invalid false positive rate: " + fpp);
+        }
+        double ln2 = Math.log(2);
+        long bits = Math.max(64, (long) Math.ceil(-expectedKeys * Math.log(fpp) / (ln2 * ln2)));
+        if (bits > Integer.MAX_VALUE - 63) {
+            throw new IllegalArgumentException("Filter too large: " + expectedKeys + " keys at " + fpp);
+        }
+        int hashes = (int) Math.max(1, Math.round((double) bits / expectedKeys * ln2));
+        return new KeyFilter((int) bits, hashes, expectedKeys, 0);
+    }
+
+    /**
+     * Returns the canonical form of key, if key maps to a file key.
+     */
+    static Optional<String> canonical(URI key) {
+        try {
+            return Keys.mayMapToFileKey(UriDecoders.apply(key)).map(fk -> fk.container() + "/" + fk.path());
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    void add(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+        keys.incrementAndGet();
+    }
+
+    boolean mightContain(String key) {
+        long h1 = hash(key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (int) Math.floorMod(h1 + i * h2, (long) bits);
+            if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns {@code true} if more keys were added than filter was sized for.
+     */
+    boolean saturated() {
+        return keys.get() > expectedKeys;
+    }
+
+    long expectedKeys() {
+        return expectedKeys;
+    }
+
+    /**
+     * Count of keys added (a key added several times is counted several times).
+     */
+    long keys() {
+        return keys.get();
+    }
+
+    int bits() {
+        return bits;
+    }
+
+    /**
+     * The expected false positive rate at current count of keys.
+     */
+    double expectedFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashes * keys.get() / bits), hashes);
+    }
+
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + 4 + 8 + 8 + words.length() * 8);
+        buffer.putInt(MAGIC).putInt(bits).putInt(hashes).putLong(expectedKeys).putLong(keys.get());
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    static KeyFilter fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < 28 || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a key filter");
+        }
+        int bits = buffer.getInt();
+        int hashes = buffer.getInt();
+        long expectedKeys = buffer.getLong();
+        long keys = buffer.getLong();
+        if (bits < 64 || hashes < 1 || buffer.remaining() != ((bits + 63) / 64) * 8) {
+            throw new IllegalArgumentException("Corrupt key filter");
+        }
+        KeyFilter filter = new KeyFilter(bits, hashes, expectedKeys, keys);
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, buffer.getLong());
+        }
+        return filter;
+    }
+
+    /**
+     * FNV-1a over UTF-8 of key, finalized by {@link #mix(long)} for better distribution of low bits.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3 64-bit finalizer.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.jgroups.Address;
+import org.jgroups.util.UUID;
+
+/**
+ * Consistent hash ring of cluster members: each member is placed on the ring at given count of points (hashes of its
+ * address and point index), and the owners of a key are the first distinct members met walking the ring from the hash
+ * of key. As members build the ring from same view, they agree on owners, and when members join or leave, only keys
+ * of ring segments next to their points change owners. Keys are expected in canonical form (see
+ * {@link KeyFilter#canonical(java.net.URI)}).
+ */
+final class KeyOwnership {
+    private final TreeMap<Long, Address> ring;
+    private final int members;
+
+    private KeyOwnership(TreeMap<Long, Address> ring, int members) {
+        this.ring = ring;
+        this.members = members;
+    }
+
+    static KeyOwnership of(Collection<Address> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Invalid virtual nodes: " + virtualNodes);
+        }
+        TreeMap<Long, Address> ring = new TreeMap<>();
+        for (Address member : members) {
+            String id = member instanceof UUID uuid ? uuid.toStringLong() : member.toString();
+            for (int i = 0; i < virtualNodes; i++) {
+                // on (unlikely) collision the point is kept by one of them, same on all members
+                ring.merge(KeyFilter.hash(id + "#" + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        return new KeyOwnership(ring, members.size());
+    }
+
+    /**
+     * Returns at most {@code count} distinct owners of given key, in ring order.
+     */
+    List<Address> owners(String key, int count) {
+        ArrayList<Address> owners = new ArrayList<>(count);
+        int limit = Math.min(count, members);
+        long hash = KeyFilter.hash(key);
+        for (Map<Long, Address> part : List.of(ring.tailMap(hash, true), ring.headMap(hash, false))) {
+            for (Address member : part.values()) {
+                if (owners.size() == limit) {
+                    return owners;
+                }
+                if (!owners.contains(member)) {
+                    owners.add(member);
+                }
+            }
+        }
+        return owners;
+    }
+
+    int members() {
+        return members;
+    }
+}
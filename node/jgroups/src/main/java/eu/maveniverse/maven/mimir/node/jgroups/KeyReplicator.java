@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2023-2024 Maveniverse Org.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-v20.html
+ */
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import static java.util.Objects.requireNonNull;
+
+import eu.maveniverse.maven.mimir.shared.impl.node.EntrySupport;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import eu.maveniverse.maven.shared.core.component.ComponentSupport;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pulls of announced entries (see {@link JGroupsNodeConfig.Replication}): keys matching patterns are queued (once,
+ * while pending) to a fixed count of low priority pull threads, and once queue is full, further keys are dropped.
+ * Content of all pulls is read through a shared throttle, pacing reads so they stay within bandwidth.
+ */
+final class KeyReplicator extends ComponentSupport {
+    /**
+     * A pull of announced entry, returns {@code false} if there was nothing to pull (entry is present locally, or
+     * announcing member does not offer it anymore).
+     */
+    @FunctionalInterface
+    interface Pull {
+        boolean pull() throws IOException;
+    }
+
+    /**
+     * Debt below which reads are not delayed, so small reads do not sleep one by one.
+     */
+    private static final long MIN_SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final JGroupsNodeConfig.Replication replication;
+    private final List<PathMatcher> patterns;
+    private final Set<String> pending;
+    private final ThreadPoolExecutor pulls;
+    private final LongAdder announced;
+    private final LongAdder unmatched;
+    private final LongAdder queued;
+    private final LongAdder dropped;
+    private final LongAdder pulled;
+    private final LongAdder skipped;
+    private final LongAdder failed;
+    private final LongAdder pulledBytes;
+    private final LongAdder throttledMillis;
+    private final AtomicLong nextRead;
+
+    KeyReplicator(JGroupsNodeConfig.Replication replication) {
+        this.replication = requireNonNull(replication, "replication");
+        this.patterns = new ArrayList<>();
+        for (String pattern : replication.patterns()) {
+            patterns.add(FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+        }
+        this.pending = ConcurrentHashMap.newKeySet();
+        this.pulls = new ThreadPoolExecutor(
+                replication.concurrency(),
+                replication.concurrency(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(replication.queueSize()),
+                r -> {
+                    Thread thread = new Thread(r, "mimir-jgroups-pull");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+        this.announced = new LongAdder();
+        this.unmatched = new LongAdder();
+        this.queued = new LongAdder();
+        this.dropped = new LongAdder();
+        this.pulled = new LongAdder();
+        this.skipped = new LongAdder();
+        this.failed = new LongAdder();
+        this.pulledBytes = new LongAdder();
+        this.throttledMillis = new LongAdder();
+        this.nextRead = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Queues pull of announced entry having given canonical key, unless key does not match patterns, is pending
+     * already, or queue is full.
+     */
+    void announced(String canonical, Pull pull) {
+        announced.increment();
+        if (!matches(canonical)) {
+            unmatched.increment();
+            return;
+        }
+        if (!pending.add(canonical)) {
+            return;
+        }
+        try {
+            pulls.execute(() -> {
+                try {
+                    if (pull.pull()) {
+                        pulled.increment();
+                    } else {
+                        skipped.increment();
+                    }
+                } catch (Exception e) {
+                    failed.increment();
+                    logger.debug("Failed to pull {}", canonical, e);
+                } finally {
+                    pending.remove(canonical);
+                }
+            });
+            queued.increment();
+        } catch (RejectedExecutionException e) {
+            pending.remove(canonical);
+            dropped.increment();
+        }
+    }
+
+    private boolean matches(String canonical) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        Path path = Path.of(canonical);
+        for (PathMatcher matcher : patterns) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns entry whose content is read through throttle.
+     */
+    RemoteEntry throttled(RemoteEntry entry) {
+        return new ThrottledEntry(entry);
+    }
+
+    /**
+     * Accounts given count of bytes read, and if reads are ahead of bandwidth, sleeps until they are not.
+     */
+    private void throttle(int bytes) throws InterruptedIOException {
+        pulledBytes.add(bytes);
+        if (replication.bandwidth() == 0) {
+            return;
+        }
+        long cost = bytes * 1_000_000_000L / replication.bandwidth();
+        long now;
+        long next;
+        long current;
+        do {
+            now = System.nanoTime();
+            current = nextRead.get();
+            next = Math.max(now, current) + cost;
+        } while (!nextRead.compareAndSet(current, next));
+        long delay = next - now;
+        if (delay >= MIN_SLEEP_NANOS) {
+            throttledMillis.add(TimeUnit.NANOSECONDS.toMillis(delay));
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while pulling");
+            }
+        }
+    }
+
+    /**
+     * Returns replication statistics.
+     */
+    Map<String, Long> stats() {
+        LinkedHashMap<String, Long> stats = new LinkedHashMap<>();
+        stats.put("jgroups.replication.announced", announced.sum());
+        stats.put("jgroups.replication.unmatched", unmatched.sum());
+        stats.put("jgroups.replication.queued", queued.sum());
+        stats.put("jgroups.replication.dropped", dropped.sum());
+        stats.put("jgroups.replication.pulled", pulled.sum());
+        stats.put("jgroups.replication.skipped", skipped.sum());
+        stats.put("jgroups.replication.failed", failed.sum());
+        stats.put("jgroups.replication.pulledBytes", pulledBytes.sum());
+        stats.put("jgroups.replication.throttledMillis", throttledMillis.sum());
+        return stats;
+    }
+
+    /**
+     * Stops pulls, abandoning queued ones.
+     */
+    void close() {
+        pulls.shutdownNow();
+        try {
+            pulls.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class ThrottledEntry extends EntrySupport implements RemoteEntry {
+        private final RemoteEntry entry;
+
+        private ThrottledEntry(RemoteEntry entry) {
+            super(entry.metadata(), entry.checksums());
+            this.entry = entry;
+        }
+
+        @Override
+        public void handleContent(IOConsumer consumer) throws IOException {
+            entry.handleContent(stream -> consumer.accept(new ThrottledInputStream(stream)));
+        }
+    }
+
+    private final class ThrottledInputStream extends FilterInputStream {
+        private ThrottledInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                throttle(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                throttle(n);
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package eu.maveniverse.maven.mimir.jgroups;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.mimir.node.file.FileNode;
+import eu.maveniverse.maven.mimir.node.file.FileNodeConfig;
+import eu.maveniverse.maven.mimir.node.file.MetadataMarshaller;
+import eu.maveniverse.maven.mimir.node.jgroups.JGroupsNode;
+import eu.maveniverse.maven.mimir.node.jgroups.JGroupsNodeConfig;
+import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.publisher.ServerSocketPublisherFactory;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import eu.maveniverse.maven.shared.core.fs.DirectoryLocker;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.aether.internal.impl.checksum.Sha1ChecksumAlgorithmFactory;
+import org.jgroups.JChannel;
+import org.jgroups.Message;
+import org.jgroups.blocks.MessageDispatcher;
+import org.jgroups.blocks.RequestHandler;
+import org.jgroups.blocks.Response;
+import org.jgroups.protocols.SHARED_LOOPBACK;
+import org.jgroups.protocols.SHARED_LOOPBACK_PING;
+import org.jgroups.protocols.UNICAST3;
+import org.jgroups.protocols.pbcast.GMS;
+import org.jgroups.protocols.pbcast.NAKACK2;
+import org.jgroups.protocols.pbcast.STABLE;
+import org.jgroups.protocols.pbcast.STATE_TRANSFER;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Locate latency harness: an in-process cluster (over shared loopback) of one publisher having the entry, and members
+ * not having it, responding with random delay up to {@link #MAX_DELAY_MS}. Measures p50 and p99 of locate latency
+ * per cluster size, for both locate modes.
+ */
+public class JGroupsLocateLatencyTest {
+    private static final int MAX_DELAY_MS = 20;
+    private static final int ITERATIONS = 100;
+
+    private final SessionConfig sessionConfig = SessionConfig.defaults()
+            .setUserProperty("mimir.publisher.hostAddress", "127.0.0.1")
+            .build();
+
+    /**
+     * Measures locate latency of both locate modes per cluster size. Run with {@code -Dmimir.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "mimir.benchmark", matches = "true")
+    void locateLatency(@TempDir Path basedir) throws Exception {
+        Path contentPath = basedir.resolve("container").resolve("file.txt");
+        Files.createDirectories(contentPath.getParent());
+        Files.writeString(contentPath, "Hello World!");
+        URI key = URI.create("mimir:file:container:file.txt");
+        URI missing = URI.create("mimir:file:container:missing.txt");
+
+        ScheduledExecutorService delayer = Executors.newScheduledThreadPool(4);
+        try (FileNode fileNode = fileNode(basedir)) {
+            for (int size : new int[] {2, 4, 8}) {
+                String cluster = "latency-" + size + "-" + System.nanoTime();
+                List<AutoCloseable> members = new ArrayList<>();
+                try {
+                    members.add(new JGroupsNode(
+                            cluster,
+                            channel("publisher"),
+                            new ServerSocketPublisherFactory().createPublisher(sessionConfig, fileNode)));
+                    for (int i = 0; i < size - 2; i++) {
+                        members.add(slowMember(cluster, "slow-" + i, delayer));
+                    }
+                    long[] all = measure(cluster, size, JGroupsNodeConfig.LocateMode.ALL, key, missing);
+                    long[] first = measure(cluster, size, JGroupsNodeConfig.LocateMode.FIRST, key, missing);
+                    System.out.printf(
+                            "size=%d ALL p50=%.2fms p99=%.2fms FIRST p50=%.2fms p99=%.2fms%n",
+                            size, all[0] / 1e6, all[1] / 1e6, first[0] / 1e6, first[1] / 1e6);
+                    if (size > 2) {
+                        assertTrue(first[0] < all[0], "FIRST p50 should beat ALL p50");
+                    }
+                } finally {
+                    for (AutoCloseable member : members) {
+                        member.close();
+                    }
+                }
+            }
+        } finally {
+            delayer.shutdownNow();
+        }
+    }
+
+    @Test
+    void batchLocate(@TempDir Path basedir) throws Exception {
+        List<URI> keys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Path contentPath = basedir.resolve("container").resolve("file" + i + ".txt");
+            Files.createDirectories(contentPath.getParent());
+            Files.writeString(contentPath, "Hello World " + i);
+            keys.add(URI.create("mimir:file:container:file" + i + ".txt"));
+        }
+        keys.add(URI.create("mimir:file:container:missing.txt"));
+        String cluster = "batch-" + System.nanoTime();
+        try (FileNode fileNode = fileNode(basedir);
+                JGroupsNode publisher = new JGroupsNode(
+                        cluster,
+                        channel("publisher"),
+                        new ServerSocketPublisherFactory().createPublisher(sessionConfig, fileNode));
+                JGroupsNode consumer = new JGroupsNode(
+                        cluster,
+                        channel("consumer"),
+                        null,
+                        null,
+                        JGroupsNodeConfig.Filter.DISABLED,
+                        JGroupsNodeConfig.LocateMode.FIRST,
+                        JGroupsNodeConfig.Ownership.DISABLED,
+                        JGroupsNodeConfig.Replication.DISABLED,
+                        Executors.newCachedThreadPool())) {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (consumer.stats().get("jgroups.view.members") < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "cluster did not form");
+                Thread.sleep(50);
+            }
+            Map<URI, ? extends RemoteEntry> entries = consumer.locate(keys);
+            assertEquals(Set.copyOf(keys.subList(0, 10)), entries.keySet());
+            Path target = basedir.resolve("target.txt");
+            entries.get(keys.get(3)).handleContent(is -> Files.copy(is, target, StandardCopyOption.REPLACE_EXISTING));
+            assertEquals("Hello World 3", Files.readString(target));
+
+            // one message for all the keys
+            Map<String, Long> stats = consumer.stats();
+            assertEquals(1L, stats.get("jgroups.locate.batches"));
+            assertEquals(11L, stats.get("jgroups.locate.batchedKeys"));
+            assertEquals(1L, stats.get("jgroups.locate.messagesSent"));
+        }
+    }
+
+    private FileNode fileNode(Path basedir) throws Exception {
+        FileNodeConfig config =
+                FileNodeConfig.of(basedir, basedir, true, List.of("SHA-1"), false, FileNodeConfig.CachePurge.OFF);
+        return new FileNode(
+                config.basedir(),
+                config.baseLockDir(),
+                config.mayLink(),
+                config.transferMode(),
+                config.exclusiveAccess(),
+                config.cachePurge(),
+                config.index(),
+                config.layout(),
+                config.checksumIndex(),
+                config.ingest(),
+                config.capacity(),
+                List.of(Sha1ChecksumAlgorithmFactory.NAME),
+                Map.of(Sha1ChecksumAlgorithmFactory.NAME, new Sha1ChecksumAlgorithmFactory()),
+                DirectoryLocker.INSTANCE,
+                new MetadataMarshaller.PropertiesMetadataMarshaller());
+    }
+
+    private long[] measure(String cluster, int size, JGroupsNodeConfig.LocateMode mode, URI key, URI missing)
+            throws Exception {
+        try (JGroupsNode consumer = new JGroupsNode(
+                cluster,
+                channel("consumer-" + mode),
+                null,
+                null,
+                JGroupsNodeConfig.Filter.DISABLED,
+                mode,
+                JGroupsNodeConfig.Ownership.DISABLED,
+                JGroupsNodeConfig.Replication.DISABLED,
+                Executors.newCachedThreadPool())) {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (consumer.stats().get("jgroups.view.members") < size) {
+                assertTrue(System.currentTimeMillis() < deadline, "cluster did not form");
+                Thread.sleep(50);
+            }
+            // nobody has it: full wait
+            assertFalse(consumer.locate(missing).isPresent());
+            long[] latencies = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long start = System.nanoTime();
+                assertTrue(consumer.locate(key).isPresent());
+                latencies[i] = System.nanoTime() - start;
+            }
+            if (mode == JGroupsNodeConfig.LocateMode.FIRST && size > 2) {
+                assertTrue(consumer.stats().get("jgroups.locate.earlyReturns") > 0);
+            } else {
+                assertEquals(0L, consumer.stats().get("jgroups.locate.earlyReturns"));
+            }
+            Arrays.sort(latencies);
+            return new long[] {latencies[ITERATIONS / 2], latencies[ITERATIONS * 99 / 100]};
+        }
+    }
+
+    private static JChannel channel(String name) throws Exception {
+        return new JChannel(
+                        new SHARED_LOOPBACK(),
+                        new SHARED_LOOPBACK_PING(),
+                        new NAKACK2(),
+                        new UNICAST3(),
+                        new STABLE(),
+                        new GMS().setJoinTimeout(1000),
+                        new STATE_TRANSFER())
+                .name(name)
+                .setDiscardOwnMessages(true);
+    }
+
+    /**
+     * A member not having any entry, responding to every request with random delay.
+     */
+    private static AutoCloseable slowMember(String cluster, String name, ScheduledExecutorService delayer)
+            throws Exception {
+        JChannel channel = channel(name);
+        MessageDispatcher dispatcher = new MessageDispatcher(channel);
+        dispatcher.setAsynDispatching(true);
+        dispatcher.setRequestHandler(new RequestHandler() {
+            @Override
+            public Object handle(Message msg) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void handle(Message msg, Response response) {
+                delayer.schedule(
+                        () -> response.send(new HashMap<String, String>(), false),
+                        ThreadLocalRandom.current().nextInt(MAX_DELAY_MS),
+                        TimeUnit.MILLISECONDS);
+            }
+        });
+        channel.connect(cluster);
+        return () -> {
+            dispatcher.close();
+            channel.close();
+        };
+    }
+}
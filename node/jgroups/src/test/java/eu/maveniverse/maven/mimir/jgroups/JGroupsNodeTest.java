@@ -48,8 +48,14 @@ public class JGroupsNodeTest {
                 configOne.basedir(),
                 configOne.baseLockDir(),
                 configOne.mayLink(),
+                configOne.transferMode(),
                 configOne.exclusiveAccess(),
                 configOne.cachePurge(),
+                configOne.index(),
+                configOne.layout(),
+                configOne.checksumIndex(),
+                configOne.ingest(),
+                configOne.capacity(),
                 List.of(Sha1ChecksumAlgorithmFactory.NAME),
                 Map.of(Sha1ChecksumAlgorithmFactory.NAME, new Sha1ChecksumAlgorithmFactory()),
                 DirectoryLocker.INSTANCE,
@@ -60,8 +66,14 @@ public class JGroupsNodeTest {
                 configTwo.basedir(),
                 configTwo.baseLockDir(),
                 configTwo.mayLink(),
+                configTwo.transferMode(),
                 configTwo.exclusiveAccess(),
                 configTwo.cachePurge(),
+                configTwo.index(),
+                configTwo.layout(),
+                configTwo.checksumIndex(),
+                configTwo.ingest(),
+                configTwo.capacity(),
                 List.of(Sha1ChecksumAlgorithmFactory.NAME),
                 Map.of(Sha1ChecksumAlgorithmFactory.NAME, new Sha1ChecksumAlgorithmFactory()),
                 DirectoryLocker.INSTANCE,
@@ -0,0 +1,193 @@
+package eu.maveniverse.maven.mimir.jgroups;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.mimir.node.file.FileNode;
+import eu.maveniverse.maven.mimir.node.file.FileNodeConfig;
+import eu.maveniverse.maven.mimir.node.file.MetadataMarshaller;
+import eu.maveniverse.maven.mimir.node.jgroups.JGroupsNode;
+import eu.maveniverse.maven.mimir.node.jgroups.JGroupsNodeConfig;
+import eu.maveniverse.maven.mimir.shared.SessionConfig;
+import eu.maveniverse.maven.mimir.shared.impl.publisher.ServerSocketPublisherFactory;
+import eu.maveniverse.maven.shared.core.fs.DirectoryLocker;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import org.eclipse.aether.internal.impl.checksum.Sha1ChecksumAlgorithmFactory;
+import org.eclipse.aether.spi.connector.checksum.ChecksumAlgorithm;
+import org.jgroups.JChannel;
+import org.jgroups.protocols.SHARED_LOOPBACK;
+import org.jgroups.protocols.SHARED_LOOPBACK_PING;
+import org.jgroups.protocols.UNICAST3;
+import org.jgroups.protocols.pbcast.GMS;
+import org.jgroups.protocols.pbcast.NAKACK2;
+import org.jgroups.protocols.pbcast.STABLE;
+import org.jgroups.protocols.pbcast.STATE_TRANSFER;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Replication between members of an in-process cluster (over shared loopback): pushes of stored entries to their
+ * owners, and pulls of announced entries.
+ */
+public class JGroupsReplicationTest {
+    private final SessionConfig sessionConfig = SessionConfig.defaults()
+            .setUserProperty("mimir.publisher.hostAddress", "127.0.0.1")
+            .build();
+
+    @Test
+    void pushToOwners(@TempDir Path basedir) throws Exception {
+        JGroupsNodeConfig.Ownership ownership = new JGroupsNodeConfig.Ownership(true, 2, 64);
+        String cluster = "owners-" + System.nanoTime();
+        try (FileNode storing = fileNode(basedir.resolve("storing"));
+                FileNode owning = fileNode(basedir.resolve("owning"));
+                JGroupsNode storer = ownershipMember(cluster, "storer", storing, ownership);
+                JGroupsNode owner = ownershipMember(cluster, "owner", owning, ownership)) {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (storer.stats().get("jgroups.owners.members") < 2
+                    || owner.stats().get("jgroups.owners.members") < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "cluster did not form");
+                Thread.sleep(50);
+            }
+            // with two owners of two members, each member owns every key
+            URI key = URI.create("mimir:file:container:pushed.txt");
+            store(storing, basedir.resolve("pushed.txt"), key, "Pushed!");
+
+            while (owning.locate(key).isEmpty()) {
+                assertTrue(System.currentTimeMillis() < deadline, "entry was not pushed");
+                Thread.sleep(50);
+            }
+            assertEquals(1L, storer.stats().get("jgroups.owners.pushesSent"));
+            assertEquals(1L, owner.stats().get("jgroups.owners.pushesStored"));
+            // stored entry is not pushed back
+            Thread.sleep(200);
+            assertEquals(0L, owner.stats().get("jgroups.owners.pushesSent"));
+
+            // owner is asked directly
+            assertTrue(storer.locate(key).isPresent());
+            assertEquals(1L, storer.stats().get("jgroups.owners.hits"));
+        }
+    }
+
+    private JGroupsNode ownershipMember(
+            String cluster, String name, FileNode fileNode, JGroupsNodeConfig.Ownership ownership) throws Exception {
+        return new JGroupsNode(
+                cluster,
+                channel(name),
+                new ServerSocketPublisherFactory().createPublisher(sessionConfig, fileNode),
+                fileNode,
+                JGroupsNodeConfig.Filter.DISABLED,
+                JGroupsNodeConfig.LocateMode.FIRST,
+                ownership,
+                JGroupsNodeConfig.Replication.DISABLED,
+                Executors.newCachedThreadPool());
+    }
+
+    @Test
+    void replicate(@TempDir Path basedir) throws Exception {
+        JGroupsNodeConfig.Replication announce =
+                new JGroupsNodeConfig.Replication(true, false, List.of(), 1, 0, 10, Duration.ofMillis(100));
+        JGroupsNodeConfig.Replication pull = new JGroupsNodeConfig.Replication(
+                false, true, List.of("container/*.jar"), 2, 1024 * 1024, 10, Duration.ofSeconds(1));
+        String cluster = "replicate-" + System.nanoTime();
+        try (FileNode storing = fileNode(basedir.resolve("storing"));
+                FileNode pulling = fileNode(basedir.resolve("pulling"));
+                JGroupsNode announcer = new JGroupsNode(
+                        cluster,
+                        channel("announcer"),
+                        new ServerSocketPublisherFactory().createPublisher(sessionConfig, storing),
+                        storing,
+                        JGroupsNodeConfig.Filter.DISABLED,
+                        JGroupsNodeConfig.LocateMode.FIRST,
+                        JGroupsNodeConfig.Ownership.DISABLED,
+                        announce,
+                        Executors.newCachedThreadPool());
+                JGroupsNode puller = new JGroupsNode(
+                        cluster,
+                        channel("puller"),
+                        null,
+                        pulling,
+                        JGroupsNodeConfig.Filter.DISABLED,
+                        JGroupsNodeConfig.LocateMode.FIRST,
+                        JGroupsNodeConfig.Ownership.DISABLED,
+                        pull,
+                        Executors.newCachedThreadPool())) {
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (announcer.stats().get("jgroups.view.members") < 2
+                    || puller.stats().get("jgroups.view.members") < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "cluster did not form");
+                Thread.sleep(50);
+            }
+            Thread.sleep(200); // let announcer start watching stores
+            URI jar = URI.create("mimir:file:container:replicated.jar");
+            URI pom = URI.create("mimir:file:container:replicated.pom");
+            store(storing, basedir.resolve("replicated.jar"), jar, "Replicated!");
+            store(storing, basedir.resolve("replicated.pom"), pom, "<project/>");
+
+            while (pulling.locate(jar).isEmpty()) {
+                assertTrue(System.currentTimeMillis() < deadline, "entry was not pulled");
+                Thread.sleep(50);
+            }
+            Path target = basedir.resolve("target.jar");
+            pulling.locate(jar).orElseThrow().transferTo(target);
+            assertEquals("Replicated!", Files.readString(target));
+            assertFalse(pulling.locate(pom).isPresent());
+
+            Map<String, Long> stats = puller.stats();
+            assertEquals(2L, stats.get("jgroups.replication.announced"));
+            assertEquals(1L, stats.get("jgroups.replication.unmatched"));
+            assertEquals(1L, stats.get("jgroups.replication.pulled"));
+            assertEquals(11L, stats.get("jgroups.replication.pulledBytes"));
+            // pulled entry is not announced back
+            assertEquals(0L, stats.get("jgroups.replication.announces"));
+        }
+    }
+
+    private static void store(FileNode fileNode, Path content, URI key, String text) throws Exception {
+        Files.writeString(content, text);
+        ChecksumAlgorithm sha1 = new Sha1ChecksumAlgorithmFactory().getAlgorithm();
+        sha1.update(ByteBuffer.wrap(Files.readAllBytes(content)));
+        fileNode.store(key, content, Map.of(), Map.of(Sha1ChecksumAlgorithmFactory.NAME, sha1.checksum()));
+    }
+
+    private FileNode fileNode(Path basedir) throws Exception {
+        FileNodeConfig config =
+                FileNodeConfig.of(basedir, basedir, true, List.of("SHA-1"), false, FileNodeConfig.CachePurge.OFF);
+        return new FileNode(
+                config.basedir(),
+                config.baseLockDir(),
+                config.mayLink(),
+                config.transferMode(),
+                config.exclusiveAccess(),
+                config.cachePurge(),
+                config.index(),
+                config.layout(),
+                config.checksumIndex(),
+                config.ingest(),
+                config.capacity(),
+                List.of(Sha1ChecksumAlgorithmFactory.NAME),
+                Map.of(Sha1ChecksumAlgorithmFactory.NAME, new Sha1ChecksumAlgorithmFactory()),
+                DirectoryLocker.INSTANCE,
+                new MetadataMarshaller.PropertiesMetadataMarshaller());
+    }
+
+    private static JChannel channel(String name) throws Exception {
+        return new JChannel(
+                        new SHARED_LOOPBACK(),
+                        new SHARED_LOOPBACK_PING(),
+                        new NAKACK2(),
+                        new UNICAST3(),
+                        new STABLE(),
+                        new GMS().setJoinTimeout(1000),
+                        new STATE_TRANSFER())
+                .name(name)
+                .setDiscardOwnMessages(true);
+    }
+}
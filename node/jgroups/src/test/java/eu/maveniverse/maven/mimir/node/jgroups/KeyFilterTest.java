@@ -0,0 +1,63 @@
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class KeyFilterTest {
+    @Test
+    void noFalseNegatives() {
+        KeyFilter filter = KeyFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("central/org/example/artifact-" + i + ".jar");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("central/org/example/artifact-" + i + ".jar"));
+        }
+        assertFalse(filter.saturated());
+        filter.add("one-more");
+        assertTrue(filter.saturated());
+    }
+
+    @Test
+    void falsePositiveRate() {
+        KeyFilter filter = KeyFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("central/org/example/artifact-" + i + ".jar");
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("central/org/example/other-" + i + ".jar")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFpp(), 0.002);
+    }
+
+    @Test
+    void roundTrip() {
+        KeyFilter filter = KeyFilter.create(100, 0.01);
+        filter.add("central/junit/junit/3.13.2/junit-3.13.2.jar");
+        KeyFilter copy = KeyFilter.fromBytes(filter.toBytes());
+        assertTrue(copy.mightContain("central/junit/junit/3.13.2/junit-3.13.2.jar"));
+        assertEquals(filter.keys(), copy.keys());
+        assertEquals(filter.bits(), copy.bits());
+        assertEquals(filter.expectedKeys(), copy.expectedKeys());
+        assertThrows(IllegalArgumentException.class, () -> KeyFilter.fromBytes(new byte[] {1, 2, 3}));
+    }
+
+    @Test
+    void canonical() {
+        Optional<String> artifact = KeyFilter.canonical(URI.create("mimir:artifact:central:junit:junit:jar:3.13.2"));
+        Optional<String> file =
+                KeyFilter.canonical(URI.create("mimir:file:central:junit/junit/3.13.2/junit-3.13.2.jar"));
+        assertTrue(artifact.isPresent());
+        assertEquals(file, artifact);
+    }
+}
@@ -0,0 +1,91 @@
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import org.jgroups.Address;
+import org.jgroups.util.UUID;
+import org.junit.jupiter.api.Test;
+
+public class KeyOwnershipTest {
+    private static List<Address> members(int count) {
+        ArrayList<Address> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(UUID.randomUUID());
+        }
+        return members;
+    }
+
+    @Test
+    void ownersAgreeAndAreDistinct() {
+        List<Address> members = members(5);
+        KeyOwnership ownership = KeyOwnership.of(members, 64);
+        ArrayList<Address> reversed = new ArrayList<>(members);
+        Collections.reverse(reversed);
+        KeyOwnership other = KeyOwnership.of(reversed, 64);
+        for (int i = 0; i < 1_000; i++) {
+            String key = "central/org/example/artifact-" + i + ".jar";
+            List<Address> owners = ownership.owners(key, 2);
+            assertEquals(2, owners.size());
+            assertEquals(2, new HashSet<>(owners).size());
+            assertEquals(owners, other.owners(key, 2));
+        }
+        assertEquals(5, ownership.owners("key", 10).size());
+        assertEquals(5, ownership.members());
+    }
+
+    @Test
+    void spread() {
+        List<Address> members = members(4);
+        KeyOwnership ownership = KeyOwnership.of(members, 64);
+        HashMap<Address, Integer> primaries = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            primaries.merge(
+                    ownership
+                            .owners("central/org/example/artifact-" + i + ".jar", 1)
+                            .get(0),
+                    1,
+                    Integer::sum);
+        }
+        for (Address member : members) {
+            int count = primaries.getOrDefault(member, 0);
+            assertTrue(count > 1_000 && count < 4_500, member + " owns " + count);
+        }
+    }
+
+    @Test
+    void joinMovesFewKeys() {
+        List<Address> members = members(4);
+        KeyOwnership before = KeyOwnership.of(members, 64);
+        Address joined = UUID.randomUUID();
+        ArrayList<Address> grown = new ArrayList<>(members);
+        grown.add(joined);
+        KeyOwnership after = KeyOwnership.of(grown, 64);
+        int moved = 0;
+        Map<Address, Integer> movedTo = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            String key = "central/org/example/artifact-" + i + ".jar";
+            Address was = before.owners(key, 1).get(0);
+            Address is = after.owners(key, 1).get(0);
+            if (!was.equals(is)) {
+                moved++;
+                movedTo.merge(is, 1, Integer::sum);
+            }
+        }
+        // ideally 1/5 of keys move, all to joined member
+        assertTrue(moved < 3_500, "moved " + moved);
+        assertEquals(Map.of(joined, moved), movedTo);
+    }
+
+    @Test
+    void invalidVirtualNodes() {
+        assertThrows(IllegalArgumentException.class, () -> KeyOwnership.of(members(2), 0));
+    }
+}
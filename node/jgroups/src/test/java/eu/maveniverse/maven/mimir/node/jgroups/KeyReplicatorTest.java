@@ -0,0 +1,90 @@
+package eu.maveniverse.maven.mimir.node.jgroups;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import eu.maveniverse.maven.mimir.shared.impl.node.EntrySupport;
+import eu.maveniverse.maven.mimir.shared.node.RemoteEntry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+public class KeyReplicatorTest {
+    private static JGroupsNodeConfig.Replication pull(List<String> patterns, long bandwidth, int queueSize) {
+        return new JGroupsNodeConfig.Replication(false, true, patterns, 1, bandwidth, queueSize, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void patternsAndQueue() throws Exception {
+        KeyReplicator replicator = new KeyReplicator(pull(List.of("central/**.jar"), 0, 1));
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            AtomicInteger pulls = new AtomicInteger();
+            replicator.announced("central/org/a/a-1.jar", () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return pulls.incrementAndGet() > 0;
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            replicator.announced("central/org/a/a-1.pom", () -> pulls.incrementAndGet() > 0);
+            replicator.announced("central/org/b/b-1.jar", () -> pulls.incrementAndGet() > 0);
+            // pending: not queued again
+            replicator.announced("central/org/b/b-1.jar", () -> pulls.incrementAndGet() > 0);
+            // queue is full
+            replicator.announced("central/org/c/c-1.jar", () -> pulls.incrementAndGet() > 0);
+            release.countDown();
+
+            Map<String, Long> stats = replicator.stats();
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (stats.get("jgroups.replication.pulled") < 2) {
+                assertTrue(System.currentTimeMillis() < deadline, "not pulled");
+                Thread.sleep(10);
+                stats = replicator.stats();
+            }
+            assertEquals(5L, stats.get("jgroups.replication.announced"));
+            assertEquals(1L, stats.get("jgroups.replication.unmatched"));
+            assertEquals(2L, stats.get("jgroups.replication.queued"));
+            assertEquals(1L, stats.get("jgroups.replication.dropped"));
+            assertEquals(2, pulls.get());
+        } finally {
+            replicator.close();
+        }
+    }
+
+    @Test
+    void throttle() throws Exception {
+        KeyReplicator replicator = new KeyReplicator(pull(List.of(), 256 * 1024, 1));
+        try {
+            class Content extends EntrySupport implements RemoteEntry {
+                Content() {
+                    super(Map.of(), Map.of());
+                }
+
+                @Override
+                public void handleContent(IOConsumer consumer) throws IOException {
+                    consumer.accept(new ByteArrayInputStream(new byte[128 * 1024]));
+                }
+            }
+            RemoteEntry entry = new Content();
+            long start = System.nanoTime();
+            replicator.throttled(entry).handleContent(stream -> assertEquals(128 * 1024, stream.readAllBytes().length));
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(millis >= 400, "took " + millis + " ms");
+            assertEquals(128L * 1024, replicator.stats().get("jgroups.replication.pulledBytes"));
+        } finally {
+            replicator.close();
+        }
+    }
+}